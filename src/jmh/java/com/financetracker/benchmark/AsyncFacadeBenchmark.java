@@ -0,0 +1,91 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.facade.AccountOverview;
+import com.financetracker.facade.AsyncFinanceTrackerFacade;
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность асинхронного фасада: пачка из 1000 одновременных сводок по счетам,
+ * каждая - четыре параллельных запроса. Задержка latencyMillis имитирует ожидание внешнего хранилища
+ * в каждом вызове фасада. Пока вызовы только считают в памяти, пул потоков платформы не хуже;
+ * с ожиданием пул по числу ядер упирается в число потоков, а виртуальные потоки ждут все сразу.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncFacadeBenchmark {
+    private static final int BURST = 1_000;
+    private static final LocalDate FROM = BenchmarkData.FIRST_DAY.plusDays(90);
+    private static final LocalDate TO = BenchmarkData.FIRST_DAY.plusDays(180);
+
+    @Param({"virtual", "platform"})
+    private String executor;
+
+    @Param({"0", "5"})
+    private int latencyMillis;
+
+    private ExecutorService executorService;
+    private AsyncFinanceTrackerFacade asyncFacade;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FinanceTrackerFacadeInterface facade = BenchmarkData.facade(100_000);
+        if (latencyMillis > 0) {
+            facade = withLatency(facade, latencyMillis);
+        }
+        executorService = executor.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        asyncFacade = new AsyncFinanceTrackerFacade(facade, executorService, Duration.ofMinutes(5));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Одна операция бенчмарка - пачка BURST сводок; итоговая пропускная способность в сводках - умножить на BURST.
+     */
+    @Benchmark
+    public int accountOverviewBurst() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<AccountOverview>[] overviews = new CompletableFuture[BURST];
+        for (int i = 0; i < BURST; i++) {
+            overviews[i] = asyncFacade.getAccountOverview((long) (i % BenchmarkData.ACCOUNTS) + 1, FROM, TO);
+        }
+        CompletableFuture.allOf(overviews).join();
+        int operations = 0;
+        for (CompletableFuture<AccountOverview> overview : overviews) {
+            operations += overview.join().operations().size();
+        }
+        return operations;
+    }
+
+    private static FinanceTrackerFacadeInterface withLatency(FinanceTrackerFacadeInterface facade, int millis) {
+        return (FinanceTrackerFacadeInterface) Proxy.newProxyInstance(
+                FinanceTrackerFacadeInterface.class.getClassLoader(),
+                new Class<?>[]{FinanceTrackerFacadeInterface.class},
+                (proxy, method, args) -> {
+                    Thread.sleep(millis);
+                    try {
+                        return method.invoke(facade, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
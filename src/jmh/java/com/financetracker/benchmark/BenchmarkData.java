@@ -0,0 +1,76 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.CategoryType;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор воспроизводимых наборов операций для бенчмарков.
+ * Распределение близко к реальному: 100 счетов, 20 категорий, даты за год, повторяющиеся описания.
+ */
+final class BenchmarkData {
+    static final int ACCOUNTS = 100;
+    static final int CATEGORIES = 20;
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    static final int DAYS = 365;
+
+    private static final String[] DESCRIPTIONS = {
+            "Продукты", "Кафе", "Такси", "Зарплата", "Перевод", "Аптека", "Связь", "Коммунальные услуги"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<Operation> operations(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Operation> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            operations.add(operation(random));
+        }
+        return operations;
+    }
+
+    /**
+     * Фасад на штатном стеке прокси и Db-репозиториев со счетами, категориями и count операциями.
+     */
+    static FinanceTrackerFacade facade(int count) {
+        FinanceTrackerFacade facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            facade.createBankAccount("Счет " + i, Money.ZERO);
+        }
+        for (int i = 1; i <= CATEGORIES; i++) {
+            facade.createCategory(CategoryType.EXPENSE, "Категория " + i);
+        }
+        facade.importOperations(operations(count));
+        return facade;
+    }
+
+    static Operation operation(SplittableRandom random) {
+        return Operation.builder()
+                .type(random.nextInt(4) == 0 ? OperationType.INCOME : OperationType.EXPENSE)
+                .bankAccountId((long) random.nextInt(ACCOUNTS) + 1)
+                .categoryId((long) random.nextInt(CATEGORIES) + 1)
+                .amountCents(random.nextLong(1, 10_000_000))
+                .date(FIRST_DAY.plusDays(random.nextInt(DAYS)))
+                .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                .build();
+    }
+}
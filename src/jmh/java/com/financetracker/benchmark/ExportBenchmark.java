@@ -0,0 +1,68 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.visitor.ExportFormat;
+import com.financetracker.visitor.StreamingExportVisitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный экспорт через FinanceTrackerFacade.exportAll в каждом формате.
+ * В exportAll вывод уходит в буферизованный Writer.nullWriter(): измеряется обход и форматирование, а не диск.
+ * Пара exportToFile / exportToFilePartitioned пишет во временный файл последовательно и частями
+ * (PartitionedExport); ускорение второго растет с числом ядер.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"TEXT", "CSV", "JSON", "YAML"})
+    private ExportFormat format;
+
+    private FinanceTrackerFacade facade;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        facade = BenchmarkData.facade(size);
+        file = Files.createTempFile("export-benchmark", "." + format.getFileExtension());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void exportAll() throws IOException {
+        Writer writer = new BufferedWriter(Writer.nullWriter());
+        try (StreamingExportVisitor visitor = format.open(writer)) {
+            facade.exportAll(visitor);
+        }
+    }
+
+    @Benchmark
+    public void exportToFile() throws IOException {
+        try (StreamingExportVisitor visitor = format.open(file)) {
+            facade.exportAll(visitor);
+        }
+    }
+
+    @Benchmark
+    public void exportToFilePartitioned() throws IOException {
+        facade.exportAll(format, file);
+    }
+}
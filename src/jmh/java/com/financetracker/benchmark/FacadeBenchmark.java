@@ -0,0 +1,52 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный путь создания расхода через фасад: фабрика, запись в прокси и БД, индексы, обновление баланса.
+ * Вариант с 4 потоками показывает конкуренцию за полосы блокировок счетов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacadeBenchmark {
+    private static final Money AMOUNT = Money.parse("123.45");
+    private static final LocalDate DATE = LocalDate.of(2025, 6, 1);
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    private FinanceTrackerFacade facade;
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        facade = BenchmarkData.facade(size);
+    }
+
+    @Benchmark
+    public Operation createExpenseOperation(ThreadRandom state) {
+        return facade.createExpenseOperation((long) state.random.nextInt(BenchmarkData.ACCOUNTS) + 1,
+                AMOUNT, DATE, "Продукты", 1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Operation createExpenseOperationContended(ThreadRandom state) {
+        return createExpenseOperation(state);
+    }
+}
@@ -0,0 +1,173 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.http.HttpApiServer;
+import com.financetracker.metrics.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный прогон HTTP API: сервер и клиенты в одном процессе, каждый клиент - поток платформы,
+ * который шлет запросы синхронно один за другим. После прогрева по каждому виду запроса
+ * печатаются число запросов, пропускная способность и задержки p50/p99/max.
+ * <p>
+ * Запуск: ./gradlew httpLoadTest -Pargs="clients=64 seconds=20 operations=1000000"
+ */
+public final class HttpApiLoadTest {
+    private static final LocalDate FROM = BenchmarkData.FIRST_DAY.plusDays(30);
+    private static final LocalDate TO = BenchmarkData.FIRST_DAY.plusDays(60);
+
+    private HttpApiLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArgument(args, "clients", 64);
+        int seconds = intArgument(args, "seconds", 20);
+        int warmupSeconds = intArgument(args, "warmup", 5);
+        int operations = intArgument(args, "operations", 100_000);
+
+        FinanceTrackerFacade facade = BenchmarkData.facade(operations);
+        try (HttpApiServer server = new HttpApiServer(facade, 0)) {
+            server.start();
+            String base = "http://127.0.0.1:" + server.port();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<Endpoint> endpoints = endpoints(base);
+
+            System.out.printf("Операций: %d, клиентов: %d, прогрев: %d с, замер: %d с%n",
+                    operations, clients, warmupSeconds, seconds);
+            LatencyHistogram total = new LatencyHistogram();
+            run(client, endpoints, total, clients, warmupSeconds);
+            endpoints.forEach(Endpoint::reset);
+            total.reset();
+            run(client, endpoints, total, clients, seconds);
+            report(endpoints, total, seconds);
+        }
+    }
+
+    private static List<Endpoint> endpoints(String base) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new Endpoint("GET account", 30, random -> get(base + "/api/accounts/" + account(random))));
+        endpoints.add(new Endpoint("GET query page", 25, random -> get(base + "/api/operations/query?account="
+                + account(random) + "&type=EXPENSE&from=" + FROM + "&to=" + TO + "&limit=50")));
+        endpoints.add(new Endpoint("GET date page", 15, random -> get(base + "/api/operations?limit=50&afterDate="
+                + BenchmarkData.FIRST_DAY.plusDays(random.nextInt(BenchmarkData.DAYS)))));
+        endpoints.add(new Endpoint("GET report", 10, random -> get(base + "/api/reports/categories?type=EXPENSE&from="
+                + FROM + "&to=" + TO + "&account=" + account(random))));
+        endpoints.add(new Endpoint("GET search", 10, random -> get(base + "/api/operations/search?q=%D0%BA%D0%B0%D1%84*&limit=20")));
+        endpoints.add(new Endpoint("POST operation", 10, random -> HttpRequest.newBuilder(URI.create(base + "/api/operations"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+                        "{\"type\": \"EXPENSE\", \"bankAccountId\": %d, \"amount\": \"%d.%02d\", \"date\": \"%s\","
+                                + " \"description\": \"Нагрузка\", \"categoryId\": %d}",
+                        account(random), 1 + random.nextInt(500), random.nextInt(100),
+                        BenchmarkData.FIRST_DAY.plusDays(random.nextInt(BenchmarkData.DAYS)),
+                        random.nextInt(BenchmarkData.CATEGORIES) + 1)))
+                .build()));
+        return endpoints;
+    }
+
+    private static void run(HttpClient client, List<Endpoint> endpoints, LatencyHistogram total,
+                            int clients, int seconds)
+            throws InterruptedException {
+        int totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            threads.add(Thread.ofPlatform().name("load-client-" + i).start(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = pick(endpoints, random.nextInt(totalWeight));
+                    HttpRequest request = endpoint.requests.next(random);
+                    long started = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - started;
+                        endpoint.latency.record(elapsed);
+                        total.record(elapsed);
+                        if (response.statusCode() >= 400) {
+                            endpoint.errors.increment();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        endpoint.errors.increment();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void report(List<Endpoint> endpoints, LatencyHistogram total, int seconds) {
+        System.out.printf("%-16s %9s %9s %9s %9s %9s %7s%n", "Запрос", "Всего", "Запр/с", "p50 мс", "p99 мс", "max мс", "Ошибки");
+        long errors = 0;
+        for (Endpoint endpoint : endpoints) {
+            print(endpoint.name, endpoint.latency, endpoint.errors.sum(), seconds);
+            errors += endpoint.errors.sum();
+        }
+        print("Итого", total, errors, seconds);
+    }
+
+    private static void print(String name, LatencyHistogram latency, long errors, int seconds) {
+        System.out.printf(Locale.ROOT, "%-16s %9d %9.0f %9.2f %9.2f %9.2f %7d%n", name, latency.count(),
+                (double) latency.count() / seconds, latency.percentile(50) / 1e6, latency.percentile(99) / 1e6,
+                latency.maxNanos() / 1e6, errors);
+    }
+
+    private static Endpoint pick(List<Endpoint> endpoints, int ticket) {
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight;
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static long account(SplittableRandom random) {
+        return random.nextInt(BenchmarkData.ACCOUNTS) + 1;
+    }
+
+    private static int intArgument(String[] args, String name, int defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return Integer.parseInt(arg.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest next(SplittableRandom random);
+    }
+
+    private record Endpoint(String name, int weight, RequestFactory requests, LatencyHistogram latency,
+                            LongAdder errors) {
+        Endpoint(String name, int weight, RequestFactory requests) {
+            this(name, weight, requests, new LatencyHistogram(), new LongAdder());
+        }
+
+        void reset() {
+            latency.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение суммирования операций через double (прежний путь) и через long-копейки.
+ * Помимо времени стоит смотреть на gc.alloc.rate.norm (-prof gc): путь на long не должен аллоцировать.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyAggregationBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private List<Operation> operations;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        operations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            operations.add(Operation.builder()
+                    .id((long) i + 1)
+                    .bankAccountId((long) random.nextInt(100) + 1)
+                    .type(random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE)
+                    .amountCents(random.nextInt(10_000_000))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public double totalAsDouble() {
+        double total = 0;
+        for (Operation operation : operations) {
+            total += operation.getAmount();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long totalAsCents() {
+        long total = 0;
+        for (Operation operation : operations) {
+            total += operation.getAmountCents();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Map<Long, Double> balancesAsDouble() {
+        return operations.parallelStream()
+                .collect(Collectors.groupingBy(Operation::getBankAccountId,
+                        Collectors.summingDouble(operation -> operation.getType() == OperationType.INCOME
+                                ? operation.getAmount() : -operation.getAmount())));
+    }
+
+    @Benchmark
+    public Map<Long, Long> balancesAsCents() {
+        return operations.parallelStream()
+                .collect(Collectors.groupingBy(Operation::getBankAccountId,
+                        Collectors.summingLong(operation -> operation.getType() == OperationType.INCOME
+                                ? operation.getAmountCents() : -operation.getAmountCents())));
+    }
+}
@@ -0,0 +1,67 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Operation;
+import com.financetracker.repository.db.OperationDbRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и полное чтение OperationDbRepository: вставка новой операции, перезапись существующей,
+ * пакетная вставка и findAll, копирующий все хранилище.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperationDbRepositoryBenchmark {
+    private static final int BATCH = 10_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    private OperationDbRepository repository;
+    private SplittableRandom random;
+
+    // хранилище пересоздается на каждую итерацию, чтобы вставки не раздували его от итерации к итерации
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new OperationDbRepository();
+        repository.saveAll(BenchmarkData.operations(size));
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public Operation saveNew() {
+        return repository.save(BenchmarkData.operation(random));
+    }
+
+    @Benchmark
+    public Operation saveExisting() {
+        Operation operation = BenchmarkData.operation(random);
+        operation.setId(random.nextLong(1, size + 1L));
+        return repository.save(operation);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Operation> saveAllBatch() {
+        SplittableRandom batchRandom = random.split();
+        List<Operation> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(BenchmarkData.operation(batchRandom));
+        }
+        return repository.saveAll(batch);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Operation> findAll() {
+        return repository.findAll();
+    }
+}
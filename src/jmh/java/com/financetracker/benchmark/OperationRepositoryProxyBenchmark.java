@@ -0,0 +1,65 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выборки OperationRepositoryProxy по вторичным индексам на наполненном хранилище.
+ * Каждая выборка возвращает около 1/100 (счет), 1/20 (категория), 3/4 (тип) или 7/365 (неделя) операций.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperationRepositoryProxyBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    private OperationRepositoryProxy proxy;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        proxy = new OperationRepositoryProxy(new OperationDbRepository());
+        proxy.saveAll(BenchmarkData.operations(size));
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public Optional<Operation> findById() {
+        return proxy.findById(random.nextLong(1, size + 1L));
+    }
+
+    @Benchmark
+    public List<Operation> findByBankAccountId() {
+        return proxy.findByBankAccountId((long) random.nextInt(BenchmarkData.ACCOUNTS) + 1);
+    }
+
+    @Benchmark
+    public List<Operation> findByCategoryId() {
+        return proxy.findByCategoryId((long) random.nextInt(BenchmarkData.CATEGORIES) + 1);
+    }
+
+    @Benchmark
+    public List<Operation> findByType() {
+        return proxy.findByType(OperationType.EXPENSE);
+    }
+
+    @Benchmark
+    public List<Operation> findByDateRangeWeek() {
+        int start = random.nextInt(BenchmarkData.DAYS - 7);
+        return proxy.findByDateRange(BenchmarkData.FIRST_DAY.plusDays(start),
+                BenchmarkData.FIRST_DAY.plusDays(start + 6L));
+    }
+}
@@ -5,8 +5,15 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class FinanceTrackerApplication {
+    private static final String HTTP_NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
 
     public static void main(String[] args) {
+        // заголовки и тело ответа HttpServer уходят отдельными записями: без TCP_NODELAY тело ждет ACK
+        // заголовков (алгоритм Нейгла против отложенного ACK клиента). Свойство общее для JVM и читается
+        // при первом создании HttpServer, поэтому ставится здесь, до запуска контекста; явный флаг запуска важнее
+        if (System.getProperty(HTTP_NODELAY_PROPERTY) == null) {
+            System.setProperty(HTTP_NODELAY_PROPERTY, "true");
+        }
         SpringApplication.run(FinanceTrackerApplication.class, args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.financetracker.analytics;
+
+import com.financetracker.model.Money;
+
+/**
+ * Сумма и число операций одной категории за период; categoryId равен null для операций без категории.
+ */
+public record CategoryTotal(Long categoryId, Money total, long operations) {
+}
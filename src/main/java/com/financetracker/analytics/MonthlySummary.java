@@ -0,0 +1,15 @@
+package com.financetracker.analytics;
+
+import com.financetracker.model.Money;
+
+import java.time.YearMonth;
+
+/**
+ * Доходы и расходы за месяц.
+ */
+public record MonthlySummary(YearMonth month, Money income, Money expense) {
+
+    public Money net() {
+        return income.minus(expense);
+    }
+}
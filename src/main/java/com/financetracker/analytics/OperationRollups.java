@@ -0,0 +1,205 @@
+package com.financetracker.analytics;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationSnapshot;
+import com.financetracker.model.OperationType;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Агрегаты операций по ключу (счет, категория, тип) с разбивкой по дням и по месяцам.
+ * <p>
+ * Агрегаты обновляются при каждом сохранении и удалении операции, поэтому запросы за период
+ * обходят только корзины: полные месяцы берутся из помесячных агрегатов, неполные края
+ * периода из подневных. Число операций на время запроса не влияет.
+ * Опустевшие корзины не удаляются, в результатах они не видны (нулевая сумма и счетчик).
+ * Операции без даты в агрегаты не попадают.
+ */
+public class OperationRollups {
+    private final ConcurrentSkipListMap<LocalDate, Map<RollupKey, Cell>> byDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<YearMonth, Map<RollupKey, Cell>> byMonth = new ConcurrentSkipListMap<>();
+
+    public void add(Operation operation) {
+        apply(operation.getBankAccountId(), operation.getCategoryId(), operation.getType(),
+                operation.getDate(), operation.getAmountCents(), 1);
+    }
+
+    /**
+     * Пакет сначала сворачивается локально, затем в общие корзины уходит по одному изменению
+     * на пару (ключ, день).
+     */
+    public void addAll(Collection<Operation> operations) {
+        BatchDeltas deltas = new BatchDeltas();
+        for (Operation operation : operations) {
+            deltas.add(operation.getBankAccountId(), operation.getCategoryId(), operation.getType(),
+                    operation.getDate(), operation.getAmountCents(), 1);
+        }
+        deltas.applyTo(this);
+    }
+
+    public void remove(OperationSnapshot snapshot) {
+        apply(snapshot.bankAccountId(), snapshot.categoryId(), snapshot.type(),
+                snapshot.date(), snapshot.amountCents(), -1);
+    }
+
+    /**
+     * Снимает пакет операций так же, как {@link #addAll} его добавляет: одно изменение на пару (ключ, день).
+     */
+    public void removeAll(Collection<OperationSnapshot> snapshots) {
+        BatchDeltas deltas = new BatchDeltas();
+        for (OperationSnapshot snapshot : snapshots) {
+            deltas.add(snapshot.bankAccountId(), snapshot.categoryId(), snapshot.type(),
+                    snapshot.date(), -snapshot.amountCents(), -1);
+        }
+        deltas.applyTo(this);
+    }
+
+    /**
+     * Строит агрегаты заново по всем операциям хранилища. Вызывается до того,
+     * как через фасад начнут сохраняться операции.
+     */
+    public void rebuild(Collection<OperationSnapshot> snapshots) {
+        byDay.clear();
+        byMonth.clear();
+        BatchDeltas deltas = new BatchDeltas();
+        for (OperationSnapshot snapshot : snapshots) {
+            deltas.add(snapshot.bankAccountId(), snapshot.categoryId(), snapshot.type(),
+                    snapshot.date(), snapshot.amountCents(), 1);
+        }
+        deltas.applyTo(this);
+    }
+
+    /**
+     * Суммы операций заданного типа по категориям за период включительно, по убыванию суммы.
+     */
+    public List<CategoryTotal> totalsByCategory(OperationType type, LocalDate from, LocalDate to) {
+        return totalsByCategory(null, type, from, to);
+    }
+
+    /**
+     * То же по одному счету; bankAccountId, равный null, означает все счета.
+     */
+    public List<CategoryTotal> totalsByCategory(Long bankAccountId, OperationType type, LocalDate from, LocalDate to) {
+        Map<Long, long[]> totals = new HashMap<>();
+        forEachCell(from, to, (key, cell) -> {
+            if (key.type() == type && (bankAccountId == null || bankAccountId.equals(key.bankAccountId()))) {
+                long[] total = totals.computeIfAbsent(key.categoryId(), id -> new long[2]);
+                total[0] += cell.amountCents.sum();
+                total[1] += cell.count.sum();
+            }
+        });
+
+        List<CategoryTotal> result = new ArrayList<>(totals.size());
+        totals.forEach((categoryId, total) -> {
+            if (total[1] != 0) {
+                result.add(new CategoryTotal(categoryId, Money.ofMinor(total[0]), total[1]));
+            }
+        });
+        result.sort(Comparator.comparing(CategoryTotal::total).reversed());
+        return result;
+    }
+
+    /**
+     * Доходы и расходы по месяцам периода включительно, в том числе за месяцы без операций.
+     */
+    public List<MonthlySummary> monthlySummary(YearMonth from, YearMonth to) {
+        List<MonthlySummary> result = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            long income = 0;
+            long expense = 0;
+            for (Map.Entry<RollupKey, Cell> entry : byMonth.getOrDefault(month, Map.of()).entrySet()) {
+                OperationType type = entry.getKey().type();
+                if (type == OperationType.INCOME) {
+                    income += entry.getValue().amountCents.sum();
+                } else if (type == OperationType.EXPENSE) {
+                    expense += entry.getValue().amountCents.sum();
+                }
+            }
+            result.add(new MonthlySummary(month, Money.ofMinor(income), Money.ofMinor(expense)));
+        }
+        return result;
+    }
+
+    private void apply(Long bankAccountId, Long categoryId, OperationType type, LocalDate date,
+                       long amountCents, int sign) {
+        if (date != null) {
+            apply(new RollupKey(bankAccountId, categoryId, type), date, sign * amountCents, sign);
+        }
+    }
+
+    private void apply(RollupKey key, LocalDate date, long amountCents, long count) {
+        cellOf(byDay, date, key).add(amountCents, count);
+        cellOf(byMonth, YearMonth.from(date), key).add(amountCents, count);
+    }
+
+    private static <K> Cell cellOf(ConcurrentSkipListMap<K, Map<RollupKey, Cell>> buckets, K bucket, RollupKey key) {
+        return buckets.computeIfAbsent(bucket, b -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> new Cell());
+    }
+
+    private void forEachCell(LocalDate from, LocalDate to, BiConsumer<RollupKey, Cell> action) {
+        if (from == null || to == null || from.isAfter(to)) {
+            return;
+        }
+
+        YearMonth firstFull = (from.getDayOfMonth() == 1) ? YearMonth.from(from) : YearMonth.from(from).plusMonths(1);
+        YearMonth lastFull = to.equals(YearMonth.from(to).atEndOfMonth()) ? YearMonth.from(to) : YearMonth.from(to).minusMonths(1);
+        if (firstFull.isAfter(lastFull)) {
+            visit(byDay, from, to, action);
+            return;
+        }
+
+        visit(byDay, from, firstFull.atDay(1).minusDays(1), action);
+        visit(byMonth, firstFull, lastFull, action);
+        visit(byDay, lastFull.atEndOfMonth().plusDays(1), to, action);
+    }
+
+    private static <K extends Comparable<? super K>> void visit(ConcurrentSkipListMap<K, Map<RollupKey, Cell>> buckets,
+                                                                K from, K to, BiConsumer<RollupKey, Cell> action) {
+        if (from.compareTo(to) > 0) {
+            return;
+        }
+        for (Map<RollupKey, Cell> cells : buckets.subMap(from, true, to, true).values()) {
+            cells.forEach(action);
+        }
+    }
+
+    private static final class BatchDeltas {
+        private final Map<LocalDate, Map<RollupKey, long[]>> byDate = new HashMap<>();
+
+        void add(Long bankAccountId, Long categoryId, OperationType type, LocalDate date,
+                 long amountCents, long count) {
+            if (date == null) {
+                return;
+            }
+            long[] delta = byDate.computeIfAbsent(date, d -> new HashMap<>())
+                    .computeIfAbsent(new RollupKey(bankAccountId, categoryId, type), k -> new long[2]);
+            delta[0] += amountCents;
+            delta[1] += count;
+        }
+
+        void applyTo(OperationRollups rollups) {
+            byDate.forEach((date, byKey) -> byKey.forEach((key, delta) -> rollups.apply(key, date, delta[0], delta[1])));
+        }
+    }
+
+    private record RollupKey(Long bankAccountId, Long categoryId, OperationType type) {
+    }
+
+    private static final class Cell {
+        private final LongAdder amountCents = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        void add(long amountCents, long count) {
+            this.amountCents.add(amountCents);
+            this.count.add(count);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.financetracker.config;
+
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.http.HttpApiServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP API включается свойством financetracker.http.enabled=true, порт - financetracker.http.port.
+ * Консольное меню при этом продолжает работать.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financetracker.http.enabled", havingValue = "true")
+public class HttpApiConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public HttpApiServer httpApiServer(FinanceTrackerFacadeInterface facade,
+                                       @Value("${financetracker.http.port:8080}") int port) {
+        return new HttpApiServer(facade, port);
+    }
+}
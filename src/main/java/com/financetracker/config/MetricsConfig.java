@@ -0,0 +1,34 @@
+package com.financetracker.config;
+
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.metrics.MetricsPostProcessor;
+import com.financetracker.metrics.MetricsRegistry;
+import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
+import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MetricsRegistry metricsRegistry(@Value("${financetracker.metrics.enabled:false}") boolean enabled) {
+        return new MetricsRegistry(enabled);
+    }
+
+    // static: пост-процессоры создаются раньше остальных бинов, конфигурация им не нужна;
+    // реестр берется через ObjectProvider, чтобы не создавать его вместе с пост-процессором
+    @Bean
+    public static MetricsPostProcessor metricsPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        return new MetricsPostProcessor(metricsRegistry::getObject, List.of(
+                BankAccountRepositoryInterface.class,
+                CategoryRepositoryInterface.class,
+                OperationRepositoryInterface.class,
+                FinanceTrackerFacadeInterface.class));
+    }
+}
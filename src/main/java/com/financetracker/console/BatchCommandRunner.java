@@ -0,0 +1,338 @@
+package com.financetracker.console;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.importer.DataImporter;
+import com.financetracker.importer.ImportFormat;
+import com.financetracker.importer.ImportResult;
+import com.financetracker.model.*;
+import com.financetracker.visitor.ExportFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Пакетный режим без меню: команды читаются построчно и выполняются подряд.
+ * <p>
+ * Формат строки - слова через пробелы, значения с пробелами в двойных кавычках ("" внутри кавычек - сама кавычка),
+ * пустые строки и строки с # пропускаются:
+ * <pre>
+ * create account "Основной счет" 1000.00
+ * create category EXPENSE "Кафе"
+ * create expense &lt;счет&gt; &lt;сумма&gt; &lt;yyyy-MM-dd&gt; &lt;категория|-&gt; ["описание"]
+ * create income  &lt;счет&gt; &lt;сумма&gt; &lt;yyyy-MM-dd&gt; &lt;категория|-&gt; ["описание"]
+ * import CSV|JSON|YAML &lt;файл&gt;
+ * export TXT|CSV|JSON|YAML &lt;файл&gt;
+ * report categories INCOME|EXPENSE &lt;с&gt; &lt;по&gt;
+ * report monthly &lt;yyyy-MM&gt; &lt;yyyy-MM&gt;
+ * recalculate
+ * </pre>
+ * Идущие подряд создания операций копятся и сохраняются пакетами через importOperations;
+ * любая другая команда сначала сбрасывает накопленный пакет, поэтому порядок команд сохраняется.
+ * Ссылки на счета и категории проверяются при разборе строки, так что ошибка в одной строке
+ * не отменяет пакет, а выводится с номером строки.
+ */
+public class BatchCommandRunner {
+    static final int BATCH_SIZE = 10_000;
+
+    private final FinanceTrackerFacadeInterface facade;
+    private final PrintWriter out;
+    private final int batchSize;
+
+    private final List<Operation> pending = new ArrayList<>();
+    // проверенные ссылки: каждый счет и категория запрашиваются у фасада один раз
+    private final Set<Long> knownAccounts = new HashSet<>();
+    private final Map<Long, CategoryType> knownCategories = new HashMap<>();
+
+    private long commands;
+    private long operations;
+    private long errors;
+    private long pendingFromLine;
+    private long pendingToLine;
+
+    public BatchCommandRunner(FinanceTrackerFacadeInterface facade, PrintWriter out) {
+        this(facade, out, BATCH_SIZE);
+    }
+
+    BatchCommandRunner(FinanceTrackerFacadeInterface facade, PrintWriter out, int batchSize) {
+        this.facade = facade;
+        this.out = out;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Выполняет все команды из reader. Возвращает число строк с ошибками.
+     */
+    public long run(BufferedReader reader) throws IOException {
+        long started = System.nanoTime();
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            commands++;
+            try {
+                execute(split(trimmed), lineNumber);
+            } catch (RuntimeException e) {
+                error(lineNumber, e);
+            }
+        }
+        flush();
+
+        out.printf("Выполнено команд: %d, создано операций: %d, ошибок: %d, время: %d мс%n",
+                commands, operations, errors, (System.nanoTime() - started) / 1_000_000);
+        out.flush();
+        return errors;
+    }
+
+    private void execute(List<String> words, long lineNumber) {
+        String command = words.get(0).toLowerCase(Locale.ROOT);
+        if (command.equals("create") && words.size() > 1
+                && (is(words.get(1), "income") || is(words.get(1), "expense"))) {
+            enqueueOperation(words, lineNumber);
+            return;
+        }
+
+        flush();
+        switch (command) {
+            case "create" -> create(words);
+            case "import" -> importFile(words);
+            case "export" -> exportFile(words);
+            case "report" -> report(words);
+            case "recalculate" -> {
+                expectArguments(words, 1);
+                facade.recalculateAllBalances();
+                out.println("Балансы пересчитаны");
+            }
+            default -> throw new IllegalArgumentException("Неизвестная команда: " + words.get(0));
+        }
+    }
+
+    private void enqueueOperation(List<String> words, long lineNumber) {
+        if (words.size() != 6 && words.size() != 7) {
+            throw new IllegalArgumentException(
+                    "Ожидается: create income|expense <счет> <сумма> <дата> <категория|-> [описание]");
+        }
+        OperationType type = is(words.get(1), "income") ? OperationType.INCOME : OperationType.EXPENSE;
+        Long accountId = Long.parseLong(words.get(2));
+        Money amount = Money.parse(words.get(3));
+        LocalDate date = LocalDate.parse(words.get(4));
+        Long categoryId = words.get(5).equals("-") ? null : Long.parseLong(words.get(5));
+        String description = (words.size() == 7) ? words.get(6) : "";
+
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Сумма должна быть положительной: " + words.get(3));
+        }
+        checkAccount(accountId);
+        if (categoryId != null) {
+            checkCategory(categoryId, type);
+        }
+
+        if (pending.isEmpty()) {
+            pendingFromLine = lineNumber;
+        }
+        pendingToLine = lineNumber;
+        pending.add(Operation.builder()
+                .type(type)
+                .bankAccountId(accountId)
+                .amount(amount)
+                .date(date)
+                .description(description)
+                .categoryId(categoryId)
+                .build());
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            operations += facade.importOperations(pending).size();
+        } catch (RuntimeException e) {
+            // ссылки проверены при разборе, сюда попадают только изменения, сделанные в обход пакета
+            errors += pending.size();
+            out.printf("Строки %d-%d: пакет из %d операций не сохранен: %s%n",
+                    pendingFromLine, pendingToLine, pending.size(), e.getMessage());
+        } finally {
+            pending.clear();
+        }
+    }
+
+    private void create(List<String> words) {
+        if (words.size() < 2) {
+            throw new IllegalArgumentException("Ожидается: create account|category|income|expense ...");
+        }
+        switch (words.get(1).toLowerCase(Locale.ROOT)) {
+            case "account" -> {
+                expectArguments(words, 4);
+                BankAccount account = facade.createBankAccount(words.get(2), Money.parse(words.get(3)));
+                knownAccounts.add(account.getId());
+                out.println("Счет создан с ID: " + account.getId());
+            }
+            case "category" -> {
+                expectArguments(words, 4);
+                CategoryType type = CategoryType.valueOf(words.get(2).toUpperCase(Locale.ROOT));
+                Category category = facade.createCategory(type, words.get(3));
+                knownCategories.put(category.getId(), type);
+                out.println("Категория создана с ID: " + category.getId());
+            }
+            default -> throw new IllegalArgumentException("Неизвестный объект: " + words.get(1));
+        }
+    }
+
+    private void importFile(List<String> words) {
+        expectArguments(words, 3);
+        ImportFormat format = ImportFormat.valueOf(words.get(1).toUpperCase(Locale.ROOT));
+        try {
+            ImportResult result = new DataImporter(facade).importFile(Path.of(words.get(2)), format);
+            operations += result.operations();
+            out.printf("Импортировано: счетов %d, категорий %d, операций %d%n",
+                    result.bankAccounts(), result.categories(), result.operations());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void exportFile(List<String> words) {
+        expectArguments(words, 3);
+        ExportFormat format = exportFormat(words.get(1));
+        try {
+            facade.exportAll(format, Path.of(words.get(2)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.println("Данные экспортированы в файл " + words.get(2));
+    }
+
+    private void report(List<String> words) {
+        if (words.size() > 1 && is(words.get(1), "categories")) {
+            expectArguments(words, 5);
+            OperationType type = OperationType.valueOf(words.get(2).toUpperCase(Locale.ROOT));
+            List<CategoryTotal> totals = facade.getTotalsByCategory(type,
+                    LocalDate.parse(words.get(3)), LocalDate.parse(words.get(4)));
+            Set<Long> categoryIds = new HashSet<>();
+            for (CategoryTotal total : totals) {
+                categoryIds.add(total.categoryId());
+            }
+            Map<Long, Category> categories = facade.getCategoriesByIds(categoryIds);
+            for (CategoryTotal total : totals) {
+                Category category = categories.get(total.categoryId());
+                out.printf("%s\t%s\t%d%n", (category != null) ? category.getName() : "Без категории",
+                        total.total(), total.operations());
+            }
+        } else if (words.size() > 1 && is(words.get(1), "monthly")) {
+            expectArguments(words, 4);
+            for (MonthlySummary summary : facade.getMonthlySummary(
+                    YearMonth.parse(words.get(2)), YearMonth.parse(words.get(3)))) {
+                out.printf("%s\t%s\t%s\t%s%n", summary.month(), summary.income(), summary.expense(), summary.net());
+            }
+        } else {
+            throw new IllegalArgumentException("Ожидается: report categories|monthly ...");
+        }
+    }
+
+    private void checkAccount(Long accountId) {
+        if (knownAccounts.contains(accountId)) {
+            return;
+        }
+        if (facade.getBankAccountById(accountId) == null) {
+            throw new IllegalArgumentException("Счет с ID " + accountId + " " + ConsoleApplication.NOT_FOUND);
+        }
+        knownAccounts.add(accountId);
+    }
+
+    private void checkCategory(Long categoryId, OperationType type) {
+        CategoryType categoryType = knownCategories.get(categoryId);
+        if (categoryType == null) {
+            Category category = facade.getCategoryById(categoryId);
+            if (category == null) {
+                throw new IllegalArgumentException(
+                        "Категория с ID " + categoryId + " " + ConsoleApplication.NOT_FOUND);
+            }
+            categoryType = category.getType();
+            knownCategories.put(categoryId, categoryType);
+        }
+        if (categoryType != ((type == OperationType.INCOME) ? CategoryType.INCOME : CategoryType.EXPENSE)) {
+            throw new IllegalArgumentException("Категория " + categoryId + " не подходит для операции " + type);
+        }
+    }
+
+    private void error(long lineNumber, RuntimeException e) {
+        errors++;
+        out.printf("Строка %d: %s%n", lineNumber, (e.getMessage() != null) ? e.getMessage() : e.toString());
+    }
+
+    private static void expectArguments(List<String> words, int count) {
+        if (words.size() != count) {
+            throw new IllegalArgumentException("Неверное число аргументов: " + String.join(" ", words));
+        }
+    }
+
+    private static ExportFormat exportFormat(String name) {
+        for (ExportFormat format : ExportFormat.values()) {
+            if (is(name, format.name()) || is(name, format.getFileExtension())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный формат экспорта: " + name);
+    }
+
+    private static boolean is(String word, String keyword) {
+        return word.equalsIgnoreCase(keyword);
+    }
+
+    /**
+     * Разбивает строку на слова по пробелам с учетом двойных кавычек.
+     */
+    static List<String> split(String line) {
+        List<String> words = new ArrayList<>(8);
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    word.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    word.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inWord = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
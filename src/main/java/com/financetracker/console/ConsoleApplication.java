@@ -1,19 +1,29 @@
 package com.financetracker.console;
 
-import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
 import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.importer.DataImporter;
+import com.financetracker.importer.ImportFormat;
+import com.financetracker.importer.ImportResult;
+import com.financetracker.metrics.CacheStats;
+import com.financetracker.metrics.MethodStats;
+import com.financetracker.metrics.MetricsRegistry;
 import com.financetracker.model.*;
-import com.financetracker.visitor.FileExportVisitor;
+import com.financetracker.visitor.ExportFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.List;
-import java.util.Scanner;
+import java.util.*;
 
 
 
@@ -22,6 +32,10 @@ public class ConsoleApplication implements CommandLineRunner {
     public static final String WRONG_OPTION = "Неверная опция. Пожалуйста, попробуйте снова.";
     public static final String CHOOSE_OPTION = "Выберите опцию: ";
     public static final String NOT_FOUND = "не найдено";
+    // операций может быть миллионы, поэтому список выводится страницами
+    static final int OPERATIONS_PAGE_SIZE = 20;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final String BATCH_ARGUMENT = "--batch";
 
     private int readIntInput(String prompt) {
         while (true) {
@@ -65,17 +79,35 @@ public class ConsoleApplication implements CommandLineRunner {
     }
 
     protected final FinanceTrackerFacadeInterface facade;
+    private final MetricsRegistry metrics;
     private final Scanner scanner;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    public ConsoleApplication(FinanceTrackerFacadeInterface facade) {
+        this(facade, new MetricsRegistry(false));
+    }
+
+    // фасад внедряется по интерфейсу: при включенных метриках бин обернут в динамический прокси
     @Autowired
-    public ConsoleApplication(FinanceTrackerFacade facade) {
+    public ConsoleApplication(FinanceTrackerFacadeInterface facade, MetricsRegistry metrics) {
         this.facade = facade;
+        this.metrics = metrics;
         this.scanner = new Scanner(System.in);
     }
 
+    /**
+     * С аргументом --batch команды читаются из stdin, с --batch=файл - из файла
+     * (см. {@link BatchCommandRunner}); меню и демонстрационные данные в этом режиме пропускаются.
+     */
     @Override
     public void run(String... args) {
+        for (String arg : args) {
+            if (arg.equals(BATCH_ARGUMENT) || arg.startsWith(BATCH_ARGUMENT + "=")) {
+                runBatch(arg.substring(BATCH_ARGUMENT.length()));
+                return;
+            }
+        }
+
         printHeader();
         initializeSampleData();
 
@@ -95,29 +127,13 @@ public class ConsoleApplication implements CommandLineRunner {
                     manageOperations();
                     break;
                 case 4:
-                    try {
-                        FileExportVisitor fileExportVisitor = new FileExportVisitor("export.txt");
-                        List<BankAccount> accounts = facade.getAllBankAccounts();
-                        List<Category> categories = facade.getAllCategories();
-                        List<Operation> operations = facade.getAllOperations();
-
-                        for (BankAccount account : accounts) {
-                            account.accept(fileExportVisitor);
-                        }
-
-                        for (Category category : categories) {
-                            category.accept(fileExportVisitor);
-                        }
-
-                        for (Operation operation : operations) {
-                            operation.accept(fileExportVisitor);
-                        }
-
-                        fileExportVisitor.close();
-                        System.out.println("Данные успешно экспортированы в файл export.txt");
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
+                    manageImportExport();
+                    break;
+                case 5:
+                    showStatistics();
+                    break;
+                case 6:
+                    showAnalytics();
                     break;
                 case 0:
                     System.out.println("Выход из программы...");
@@ -129,6 +145,171 @@ public class ConsoleApplication implements CommandLineRunner {
         }
     }
 
+    private void runBatch(String source) {
+        PrintWriter out = bufferedOut();
+        try (BufferedReader reader = source.isEmpty()
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)
+                : Files.newBufferedReader(Path.of(source.substring(1)), StandardCharsets.UTF_8)) {
+            new BatchCommandRunner(facade, out).run(reader);
+        } catch (IOException e) {
+            out.println("Ошибка чтения команд: " + e.getMessage());
+            out.flush();
+        }
+    }
+
+    private void manageImportExport() {
+        System.out.println("\nИМПОРТ/ЭКСПОРТ ДАННЫХ:");
+        System.out.println("1. Экспорт данных");
+        System.out.println("2. Импорт данных");
+        System.out.println("0. Назад");
+
+        switch (readIntInput(CHOOSE_OPTION)) {
+            case 1:
+                exportData();
+                break;
+            case 2:
+                importData();
+                break;
+            case 0:
+                break;
+            default:
+                System.out.println(WRONG_OPTION);
+        }
+    }
+
+    private void importData() {
+        System.out.println("Формат импорта: 1. CSV  2. JSON  3. YAML");
+        int formatChoice = readIntInput(CHOOSE_OPTION);
+        ImportFormat[] formats = ImportFormat.values();
+        if (formatChoice < 1 || formatChoice > formats.length) {
+            System.out.println(WRONG_OPTION);
+            return;
+        }
+        String fileName = readStringInput("Путь к файлу: ");
+
+        try {
+            ImportResult result = new DataImporter(facade).importFile(Path.of(fileName), formats[formatChoice - 1]);
+            System.out.printf("Импортировано: счетов %d, категорий %d, операций %d%n",
+                    result.bankAccounts(), result.categories(), result.operations());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ошибка импорта: " + e.getMessage());
+        }
+    }
+
+    private void exportData() {
+        System.out.println("Формат экспорта: 1. TXT  2. CSV  3. JSON  4. YAML");
+        int formatChoice = readIntInput(CHOOSE_OPTION);
+        ExportFormat[] formats = ExportFormat.values();
+        if (formatChoice < 1 || formatChoice > formats.length) {
+            System.out.println(WRONG_OPTION);
+            return;
+        }
+
+        ExportFormat format = formats[formatChoice - 1];
+        String fileName = "export." + format.getFileExtension();
+        try {
+            facade.exportAll(format, Path.of(fileName));
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Ошибка экспорта: " + e.getMessage());
+            return;
+        }
+        System.out.println("Данные успешно экспортированы в файл " + fileName);
+    }
+
+    private void showAnalytics() {
+        System.out.println("\nАНАЛИТИКА:");
+        System.out.println("1. Расходы по категориям за период");
+        System.out.println("2. Доходы и расходы по месяцам");
+        System.out.println("0. Назад");
+
+        switch (readIntInput(CHOOSE_OPTION)) {
+            case 1:
+                showExpensesByCategory();
+                break;
+            case 2:
+                showMonthlySummary();
+                break;
+            case 0:
+                break;
+            default:
+                System.out.println(WRONG_OPTION);
+        }
+    }
+
+    private void showExpensesByCategory() {
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(readStringInput("Начало периода (yyyy-MM-dd): "), dateFormatter);
+            endDate = LocalDate.parse(readStringInput("Конец периода (yyyy-MM-dd): "), dateFormatter);
+        } catch (DateTimeParseException e) {
+            System.out.println("Неверный формат даты. Используйте формат yyyy-MM-dd.");
+            return;
+        }
+
+        List<CategoryTotal> totals = facade.getTotalsByCategory(OperationType.EXPENSE, startDate, endDate);
+        if (totals.isEmpty()) {
+            System.out.println("Расходов за период нет.");
+            return;
+        }
+        Set<Long> categoryIds = new HashSet<>();
+        for (CategoryTotal total : totals) {
+            if (total.categoryId() != null) {
+                categoryIds.add(total.categoryId());
+            }
+        }
+        Map<Long, Category> categories = facade.getCategoriesByIds(categoryIds);
+
+        System.out.printf("%-30s | %-15s | %-10s\n", "Категория", "Сумма", "Операций");
+        for (CategoryTotal total : totals) {
+            Category category = (total.categoryId() != null) ? categories.get(total.categoryId()) : null;
+            System.out.printf("%-30s | %-15s | %-10d\n",
+                    (category != null) ? category.getName() : "Без категории", total.total(), total.operations());
+        }
+    }
+
+    private void showMonthlySummary() {
+        YearMonth startMonth;
+        YearMonth endMonth;
+        try {
+            startMonth = YearMonth.parse(readStringInput("Первый месяц (yyyy-MM): "));
+            endMonth = YearMonth.parse(readStringInput("Последний месяц (yyyy-MM): "));
+        } catch (DateTimeParseException e) {
+            System.out.println("Неверный формат месяца. Используйте формат yyyy-MM.");
+            return;
+        }
+
+        System.out.printf("%-8s | %-15s | %-15s | %-15s\n", "Месяц", "Доходы", "Расходы", "Итог");
+        for (MonthlySummary summary : facade.getMonthlySummary(startMonth, endMonth)) {
+            System.out.printf("%-8s | %-15s | %-15s | %-15s\n",
+                    summary.month(), summary.income(), summary.expense(), summary.net());
+        }
+    }
+
+    private void showStatistics() {
+        System.out.println("\nКЕШИ:");
+        System.out.printf("%-28s | %-10s | %-10s | %-8s | %-12s | %-10s\n",
+                "Кеш", "Попадания", "Промахи", "Доля", "Запросы к БД", "Размер");
+        for (CacheStats stats : metrics.cacheStats()) {
+            System.out.printf("%-28s | %-10d | %-10d | %-8.1f | %-12d | %-10d\n",
+                    stats.name(), stats.hits(), stats.misses(), stats.hitRatio() * 100,
+                    stats.storeQueries(), stats.size());
+        }
+
+        if (!metrics.isEnabled()) {
+            System.out.println("\nЗамер методов выключен (financetracker.metrics.enabled=false)");
+            return;
+        }
+        System.out.println("\nМЕТОДЫ (мкс):");
+        System.out.printf("%-50s | %-10s | %-7s | %-10s | %-10s | %-10s\n",
+                "Метод", "Вызовы", "Ошибки", "p50", "p99", "Макс");
+        for (MethodStats stats : metrics.methodStats()) {
+            System.out.printf("%-50s | %-10d | %-7d | %-10.1f | %-10.1f | %-10.1f\n",
+                    stats.name(), stats.calls(), stats.errors(), stats.p50Nanos() / 1000.0,
+                    stats.p99Nanos() / 1000.0, stats.maxNanos() / 1000.0);
+        }
+    }
+
     private void printHeader() {
         System.out.println("      СИСТЕМА УЧЕТА ФИНАНСОВ      ");
     }
@@ -173,6 +354,8 @@ public class ConsoleApplication implements CommandLineRunner {
         System.out.println("2. Управление категориями");
         System.out.println("3. Управление операциями");
         System.out.println("4. Импорт/Экспорт данных");
+        System.out.println("5. Статистика кешей и репозиториев");
+        System.out.println("6. Аналитика");
         System.out.println("0. Выход");
     }
 
@@ -184,6 +367,7 @@ public class ConsoleApplication implements CommandLineRunner {
             System.out.println("2. Просмотреть все счета");
             System.out.println("3. Редактировать счёт");
             System.out.println("4. Удалить счёт");
+            System.out.println("5. Проверить и пересчитать балансы");
             System.out.println("0. Вернуться в главное меню");
 
             int choice = readIntInput(CHOOSE_OPTION);
@@ -201,6 +385,9 @@ public class ConsoleApplication implements CommandLineRunner {
                 case 4:
                     deleteBankAccount();
                     break;
+                case 5:
+                    recalculateBalances();
+                    break;
                 case 0:
                     running = false;
                     break;
@@ -276,6 +463,10 @@ public class ConsoleApplication implements CommandLineRunner {
             return;
         }
 
+        int operations = facade.countOperationsByBankAccountId(id);
+        if (operations > 0) {
+            System.out.println("Вместе со счетом будут удалены его операции: " + operations);
+        }
         System.out.println("Вы уверены, что хотите удалить счет \"" + account.getName() + "\"? (y/n): ");
         String confirm = scanner.nextLine().trim().toLowerCase();
 
@@ -287,6 +478,24 @@ public class ConsoleApplication implements CommandLineRunner {
         }
     }
 
+    private void recalculateBalances() {
+        List<BalanceDrift> drifts = facade.checkBalanceConsistency();
+
+        if (drifts.isEmpty()) {
+            System.out.println("Балансы всех счетов согласованы с операциями.");
+            return;
+        }
+
+        System.out.printf("%-5s | %-15s | %-15s\n", "ID", "Текущий", "По операциям");
+        for (BalanceDrift drift : drifts) {
+            System.out.printf("%-5d | %-15s | %-15s\n",
+                    drift.bankAccountId(), drift.storedBalance(), drift.recalculatedBalance());
+        }
+
+        facade.recalculateAllBalances();
+        System.out.println("Балансы пересчитаны.");
+    }
+
     // ============== КАТЕГОРИИ ==============
 
     private void manageCategories() {
@@ -396,11 +605,23 @@ public class ConsoleApplication implements CommandLineRunner {
             return;
         }
 
+        boolean withOperations = false;
+        int operations = facade.countOperationsByCategoryId(id);
+        if (operations > 0) {
+            System.out.println("В категории операций: " + operations);
+            System.out.println("1. Оставить операции без категории");
+            System.out.println("2. Удалить операции вместе с категорией");
+            withOperations = readIntInput(CHOOSE_OPTION) == 2;
+        }
         System.out.println("Вы уверены, что хотите удалить категорию \"" + category.getName() + "\"? (y/n): ");
         String confirm = scanner.nextLine().trim().toLowerCase();
 
         if (confirm.equals("y")) {
-            facade.deleteCategory(id);
+            if (withOperations) {
+                facade.deleteCategoryWithOperations(id);
+            } else {
+                facade.deleteCategory(id);
+            }
             System.out.println("Категория успешно удалена.");
         } else {
             System.out.println("Удаление отменено.");
@@ -418,6 +639,7 @@ public class ConsoleApplication implements CommandLineRunner {
             System.out.println("3. Просмотреть все операции");
             System.out.println("4. Просмотреть операции по счету");
             System.out.println("5. Удалить операцию");
+            System.out.println("6. Найти операции по описанию");
             System.out.println("0. Вернуться в главное меню");
 
             int choice = readIntInput(CHOOSE_OPTION);
@@ -438,6 +660,9 @@ public class ConsoleApplication implements CommandLineRunner {
                 case 5:
                     deleteOperation();
                     break;
+                case 6:
+                    searchOperations();
+                    break;
                 case 0:
                     running = false;
                     break;
@@ -512,14 +737,25 @@ public class ConsoleApplication implements CommandLineRunner {
 
     private void viewAllOperations() {
         System.out.println("\n--- СПИСОК ВСЕХ ОПЕРАЦИЙ ---");
-        List<Operation> operations = facade.getAllOperations();
+        List<Operation> operations = facade.getOperationsPageByDate(null, OPERATIONS_PAGE_SIZE);
 
         if (operations.isEmpty()) {
             System.out.println("Операции отсутствуют.");
             return;
         }
 
-        displayOperations(operations);
+        while (true) {
+            displayOperations(operations);
+            if (operations.size() < OPERATIONS_PAGE_SIZE
+                    || !readStringInput("Enter - следующая страница, любой символ - завершить: ").isEmpty()) {
+                return;
+            }
+            OperationCursor cursor = OperationCursor.of(operations.get(operations.size() - 1));
+            operations = facade.getOperationsPageByDate(cursor, OPERATIONS_PAGE_SIZE);
+            if (operations.isEmpty()) {
+                return;
+            }
+        }
     }
 
     private void viewOperationsByAccount() {
@@ -548,6 +784,22 @@ public class ConsoleApplication implements CommandLineRunner {
         displayOperations(operations);
     }
 
+    private void searchOperations() {
+        String query = readStringInput("Введите слова для поиска (слово* - поиск по началу): ");
+        if (query.isEmpty()) {
+            return;
+        }
+
+        List<Operation> operations = facade.searchOperations(query, OPERATIONS_PAGE_SIZE);
+        if (operations.isEmpty()) {
+            System.out.println("Операции по запросу \"" + query + "\" не найдены.");
+            return;
+        }
+
+        System.out.println("\nНайденные операции (сначала наиболее подходящие):");
+        displayOperations(operations);
+    }
+
     private void deleteOperation() {
         viewAllOperations();
 
@@ -577,18 +829,33 @@ public class ConsoleApplication implements CommandLineRunner {
     }
 
     private void displayOperations(List<Operation> operations) {
-        System.out.printf("%-5s | %-10s | %-12s | %-15s | %-30s | %-20s\n",
+        Set<Long> categoryIds = new HashSet<>();
+        for (Operation operation : operations) {
+            categoryIds.add(operation.getCategoryId());
+        }
+        Map<Long, Category> categories = facade.getCategoriesByIds(categoryIds);
+
+        // вся таблица собирается в буфере и уходит в System.out одним сбросом, а не строкой на printf
+        PrintWriter out = bufferedOut();
+        out.printf("%-5s | %-10s | %-12s | %-15s | %-30s | %-20s\n",
                 "ID", "Тип", "Дата", "Сумма", "Описание", "Категория");
-        System.out.println("-------------------------------------------------------------------------------------------");
+        out.println("-------------------------------------------------------------------------------------------");
 
         for (Operation operation : operations) {
             String typeStr = (operation.getType() == OperationType.INCOME) ? "Доход" : "Расход";
-            Category category = facade.getCategoryById(operation.getCategoryId());
+            Category category = categories.get(operation.getCategoryId());
             String categoryName = (category != null) ? category.getName() : "Неизвестно";
 
-            System.out.printf("%-5d | %-10s | %-12s | %-15.2f | %-30s | %-20s\n",
+            out.printf("%-5d | %-10s | %-12s | %-15.2f | %-30s | %-20s\n",
                     operation.getId(), typeStr, operation.getDate(),
                     operation.getAmount(), operation.getDescription(), categoryName);
         }
+        out.flush();
+    }
+
+    private static PrintWriter bufferedOut() {
+        // System.out берется на момент вызова: его могут подменить, поэтому писатель не кешируется
+        return new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, System.out.charset()), OUTPUT_BUFFER_SIZE));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.financetracker.facade;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Operation;
+
+import java.util.List;
+
+/**
+ * Сводка по счету за период: сам счет с текущим балансом, его операции по возрастанию id
+ * и разбивка расходов и доходов по категориям.
+ */
+public record AccountOverview(BankAccount account, List<Operation> operations,
+                              List<CategoryTotal> expensesByCategory, List<CategoryTotal> incomeByCategory) {
+}
@@ -0,0 +1,202 @@
+package com.financetracker.facade;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Асинхронный фасад поверх синхронного: каждый вызов - отдельная задача исполнителя,
+ * по умолчанию виртуальный поток на задачу. Виртуальные потоки дешевы, поэтому пул не нужен,
+ * а блокировки внутри фасада и хранилищ не занимают потоки ОС.
+ * <p>
+ * Таймаут (financetracker.async.timeout, по умолчанию 30 секунд) завершает future с TimeoutException.
+ * И таймаут, и отмена future прерывают поток задачи; синхронный код прерывание замечает
+ * только в блокирующих вызовах, вычисление в памяти доработает, но его результат будет отброшен.
+ */
+@Service
+public class AsyncFinanceTrackerFacade implements AsyncFinanceTrackerFacadeInterface, AutoCloseable {
+    private final FinanceTrackerFacadeInterface facade;
+    private final ExecutorService executor;
+    private final Duration timeout;
+    private final boolean ownsExecutor;
+
+    @Autowired
+    public AsyncFinanceTrackerFacade(FinanceTrackerFacadeInterface facade,
+                                     @Value("${financetracker.async.timeout:30s}") Duration timeout) {
+        this(facade, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("facade-async-", 0).factory()),
+                timeout, true);
+    }
+
+    /**
+     * Фасад поверх заданного исполнителя, например пула потоков платформы для сравнения.
+     * Жизненным циклом исполнителя управляет вызывающий.
+     */
+    public AsyncFinanceTrackerFacade(FinanceTrackerFacadeInterface facade, ExecutorService executor, Duration timeout) {
+        this(facade, executor, timeout, false);
+    }
+
+    private AsyncFinanceTrackerFacade(FinanceTrackerFacadeInterface facade, ExecutorService executor,
+                                      Duration timeout, boolean ownsExecutor) {
+        this.facade = facade;
+        this.executor = executor;
+        this.timeout = timeout;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> call(Function<FinanceTrackerFacadeInterface, T> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(action.apply(facade));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        // отмена или таймаут снаружи прерывают задачу; для уже завершенной задачи cancel ничего не делает
+        result.whenComplete((value, failure) -> {
+            if (failure != null) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Четыре части сводки выполняются параллельно. Если одна из них завершилась ошибкой,
+     * сводку отменили или истек таймаут, остальные части отменяются.
+     */
+    @Override
+    public CompletableFuture<AccountOverview> getAccountOverview(Long bankAccountId, LocalDate startDate,
+                                                                 LocalDate endDate) {
+        CompletableFuture<BankAccount> account = getBankAccountById(bankAccountId);
+        CompletableFuture<List<Operation>> operations = getOperations(OperationQuery.builder()
+                .bankAccountId(bankAccountId).from(startDate).to(endDate).build());
+        CompletableFuture<List<CategoryTotal>> expenses =
+                getTotalsByCategory(bankAccountId, OperationType.EXPENSE, startDate, endDate);
+        CompletableFuture<List<CategoryTotal>> income =
+                getTotalsByCategory(bankAccountId, OperationType.INCOME, startDate, endDate);
+        List<CompletableFuture<?>> parts = List.of(account, operations, expenses, income);
+
+        CompletableFuture<AccountOverview> overview = CompletableFuture.allOf(account, operations, expenses, income)
+                .thenApply(ignored -> {
+                    if (account.join() == null) {
+                        throw new IllegalArgumentException("Bank account not found: " + bankAccountId);
+                    }
+                    return new AccountOverview(account.join(), operations.join(), expenses.join(), income.join());
+                });
+        overview.whenComplete((value, failure) -> {
+            if (failure != null) {
+                parts.forEach(part -> part.cancel(true));
+            }
+        });
+        return overview.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public CompletableFuture<BankAccount> createBankAccount(String name, Money initialBalance) {
+        return call(facade -> facade.createBankAccount(name, initialBalance));
+    }
+
+    @Override
+    public CompletableFuture<BankAccount> getBankAccountById(Long id) {
+        return call(facade -> facade.getBankAccountById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<BankAccount>> getAllBankAccounts() {
+        return call(FinanceTrackerFacadeInterface::getAllBankAccounts);
+    }
+
+    @Override
+    public CompletableFuture<Category> createCategory(CategoryType type, String name) {
+        return call(facade -> facade.createCategory(type, name));
+    }
+
+    @Override
+    public CompletableFuture<Category> getCategoryById(Long id) {
+        return call(facade -> facade.getCategoryById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return call(FinanceTrackerFacadeInterface::getAllCategories);
+    }
+
+    @Override
+    public CompletableFuture<Operation> createIncomeOperation(Long bankAccountId, Money amount, LocalDate date,
+                                                              String description, Long categoryId) {
+        return call(facade -> facade.createIncomeOperation(bankAccountId, amount, date, description, categoryId));
+    }
+
+    @Override
+    public CompletableFuture<Operation> createExpenseOperation(Long bankAccountId, Money amount, LocalDate date,
+                                                               String description, Long categoryId) {
+        return call(facade -> facade.createExpenseOperation(bankAccountId, amount, date, description, categoryId));
+    }
+
+    @Override
+    public CompletableFuture<Operation> getOperationById(Long id) {
+        return call(facade -> facade.getOperationById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Operation>> getOperations(OperationQuery query) {
+        return call(facade -> facade.getOperations(query));
+    }
+
+    @Override
+    public CompletableFuture<List<Operation>> getOperationsPageByDate(OperationCursor after, int limit) {
+        return call(facade -> facade.getOperationsPageByDate(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Operation>> searchOperations(String query, int limit) {
+        return call(facade -> facade.searchOperations(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteOperation(Long id) {
+        return call(facade -> {
+            facade.deleteOperation(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<CategoryTotal>> getTotalsByCategory(Long bankAccountId, OperationType type,
+                                                                      LocalDate startDate, LocalDate endDate) {
+        return call(facade -> facade.getTotalsByCategory(bankAccountId, type, startDate, endDate));
+    }
+
+    @Override
+    public CompletableFuture<List<MonthlySummary>> getMonthlySummary(YearMonth startMonth, YearMonth endMonth) {
+        return call(facade -> facade.getMonthlySummary(startMonth, endMonth));
+    }
+
+    /**
+     * Останавливает собственный исполнитель; задачи, уже принятые в работу, дорабатывают.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
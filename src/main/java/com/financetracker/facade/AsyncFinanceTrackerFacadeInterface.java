@@ -0,0 +1,52 @@
+package com.financetracker.facade;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.model.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Асинхронный вариант фасада для встраивания в многопользовательский сервис.
+ * Каждый вызов выполняется в отдельной задаче и завершается по таймауту с TimeoutException;
+ * отмена возвращенного future прерывает выполняющуюся задачу.
+ */
+public interface AsyncFinanceTrackerFacadeInterface {
+    CompletableFuture<BankAccount> createBankAccount(String name, Money initialBalance);
+    CompletableFuture<BankAccount> getBankAccountById(Long id);
+    CompletableFuture<List<BankAccount>> getAllBankAccounts();
+
+    CompletableFuture<Category> createCategory(CategoryType type, String name);
+    CompletableFuture<Category> getCategoryById(Long id);
+    CompletableFuture<List<Category>> getAllCategories();
+
+    CompletableFuture<Operation> createIncomeOperation(Long bankAccountId, Money amount, LocalDate date,
+                                                       String description, Long categoryId);
+    CompletableFuture<Operation> createExpenseOperation(Long bankAccountId, Money amount, LocalDate date,
+                                                        String description, Long categoryId);
+    CompletableFuture<Operation> getOperationById(Long id);
+    CompletableFuture<List<Operation>> getOperations(OperationQuery query);
+    CompletableFuture<List<Operation>> getOperationsPageByDate(OperationCursor after, int limit);
+    CompletableFuture<List<Operation>> searchOperations(String query, int limit);
+    CompletableFuture<Void> deleteOperation(Long id);
+
+    CompletableFuture<List<CategoryTotal>> getTotalsByCategory(Long bankAccountId, OperationType type,
+                                                               LocalDate startDate, LocalDate endDate);
+    CompletableFuture<List<MonthlySummary>> getMonthlySummary(YearMonth startMonth, YearMonth endMonth);
+
+    /**
+     * Счет, его операции и разбивка по категориям за период: части загружаются параллельно.
+     * Для несуществующего счета future завершается с IllegalArgumentException.
+     */
+    CompletableFuture<AccountOverview> getAccountOverview(Long bankAccountId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Любой синхронный метод фасада с теми же таймаутом и отменой, например
+     * {@code call(facade -> facade.checkBalanceConsistency())}.
+     */
+    <T> CompletableFuture<T> call(Function<FinanceTrackerFacadeInterface, T> action);
+}
@@ -1,23 +1,36 @@
 package com.financetracker.facade;
 
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.analytics.OperationRollups;
 import com.financetracker.factory.FinanceEntityFactory;
 import com.financetracker.model.*;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
 import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
 import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.support.StripedLock;
+import com.financetracker.visitor.DataExportVisitor;
+import com.financetracker.visitor.ExportFormat;
+import com.financetracker.visitor.PartitionedExport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Фасад для финансового трекера, который упрощает доступ к основной функциональности
  * и скрывает сложность внутренней реализации.
  * Паттерн Фасад используется для предоставления унифицированного интерфейса
  * к набору интерфейсов в системе.
+ * Балансы счетов и аналитические агрегаты поддерживаются инкрементально при каждом изменении операций.
  */
 @Service
 public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
@@ -26,6 +39,21 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
     private final CategoryRepositoryInterface categoryRepository;
     private final OperationRepositoryInterface operationRepository;
     private final FinanceEntityFactory entityFactory;
+    // изменения баланса одного счета сериализуются, разные счета обновляются параллельно;
+    // запись операции в хранилище и перенос ее суммы в баланс идут под одной блокировкой счета,
+    // поэтому вне ее баланс всегда равен начальному плюс сумма операций счета
+    private final StripedLock accountLocks = new StripedLock();
+    // чтение прежнего снимка, запись и перенос баланса одной операции идут как одно изменение;
+    // берется раньше блокировки счета, обратного порядка нет
+    private final StripedLock operationLocks = new StripedLock();
+    // удаление категории держит ее блокировку целиком, а запись операции в категорию проверяет
+    // ее под той же блокировкой; берется раньше блокировок операций и счетов
+    private final StripedLock categoryLocks = new StripedLock();
+    private final OperationRollups rollups = new OperationRollups();
+
+    // размер пакета при массовом импорте и каскадном удалении: один вызов хранилища
+    // и одно обновление баланса на счет за пакет
+    static final int IMPORT_BATCH_SIZE = 10_000;
 
     @Autowired
     public FinanceTrackerFacade(
@@ -37,6 +65,7 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         this.categoryRepository = categoryRepository;
         this.operationRepository = operationRepository;
         this.entityFactory = entityFactory;
+        rollups.rebuild(operationRepository.findAllSnapshots());
     }
 
     // --------------- Банковские счета ---------------
@@ -46,6 +75,11 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         return bankAccountRepository.save(account);
     }
 
+    public BankAccount createBankAccount(String name, Money initialBalance) {
+        BankAccount account = entityFactory.createBankAccount(name, initialBalance);
+        return bankAccountRepository.save(account);
+    }
+
     public BankAccount getBankAccountById(Long id) {
         Optional<BankAccount> accountOpt = bankAccountRepository.findById(id);
         return accountOpt.orElse(null);
@@ -55,12 +89,42 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         return bankAccountRepository.findAll();
     }
 
+    /**
+     * Сохраняет изменения счета. Баланс ведет фасад, поэтому под блокировкой счета он берется
+     * из сохраненного снимка: переданный объект мог быть прочитан до последних операций.
+     */
     public void updateBankAccount(BankAccount account) {
-        bankAccountRepository.save(account);
+        accountLocks.withLock(account.getId(), () -> {
+            bankAccountRepository.findSnapshotById(account.getId())
+                    .ifPresent(stored -> account.setBalanceCents(stored.balanceCents()));
+            bankAccountRepository.save(account);
+        });
     }
 
+    /**
+     * Удаляет счет вместе с его операциями. Операции находятся по индексу счета, а не обходом
+     * всех операций, и удаляются пакетами под блокировками операций (см. {@link #deleteOperations}).
+     * Сам счет удаляется под своей блокировкой, когда операций у него не осталось. Новые операции
+     * проверяют счет под той же блокировкой, поэтому после удаления к нему не может прибавиться операция.
+     */
     public void deleteBankAccount(Long id) {
-        bankAccountRepository.deleteById(id);
+        if (id == null) {
+            return;
+        }
+        while (true) {
+            deleteOperations(operationRepository.findByBankAccountId(id), snapshot -> id.equals(snapshot.bankAccountId()));
+            boolean deleted = accountLocks.withLock(id, () -> {
+                // операции, созданные после выборки, удаляются следующим проходом
+                if (operationRepository.countByBankAccountId(id) > 0) {
+                    return false;
+                }
+                bankAccountRepository.deleteById(id);
+                return true;
+            });
+            if (deleted) {
+                return;
+            }
+        }
     }
 
     // --------------- Категории ---------------
@@ -75,6 +139,14 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         return categoryOpt.orElse(null);
     }
 
+    /**
+     * Категории для набора id одним обращением к репозиторию: при выводе списка операций
+     * категории разрешаются один раз на страницу, а не на каждую строку.
+     */
+    public Map<Long, Category> getCategoriesByIds(Collection<Long> ids) {
+        return categoryRepository.findAllByIds(ids);
+    }
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -87,8 +159,81 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         categoryRepository.save(category);
     }
 
+    /**
+     * Удаляет категорию; ее операции остаются и становятся операциями без категории.
+     */
     public void deleteCategory(Long id) {
-        categoryRepository.deleteById(id);
+        deleteCategory(id, null);
+    }
+
+    /**
+     * Удаляет категорию, переводя ее операции в категорию replacementCategoryId того же типа
+     * (null - без категории). Операции находятся по индексу категории и переписываются пакетами
+     * через saveAll; суммы и счета не меняются, поэтому балансы остаются прежними,
+     * а агрегаты переносят суммы в новую категорию.
+     * Удаление идет под блокировкой категории (и замены): новые операции в ней ждут и после
+     * удаления отклоняются. Каждый пакет переписывается под блокировками своих операций
+     * по снимкам, перечитанным под ними.
+     */
+    public void deleteCategory(Long id, Long replacementCategoryId) {
+        if (id == null) {
+            return;
+        }
+        List<Long> locked = (replacementCategoryId != null) ? List.of(id, replacementCategoryId) : List.of(id);
+        categoryLocks.withLocks(locked, () -> {
+            if (replacementCategoryId != null) {
+                checkReplacement(id, replacementCategoryId);
+            }
+
+            List<Operation> operations = operationRepository.findByCategoryId(id);
+            for (int from = 0; from < operations.size(); from += IMPORT_BATCH_SIZE) {
+                List<Long> ids = idsOf(operations.subList(from, Math.min(from + IMPORT_BATCH_SIZE, operations.size())));
+                operationLocks.withLocks(ids, () -> {
+                    List<OperationSnapshot> previous = currentSnapshots(ids, snapshot -> id.equals(snapshot.categoryId()));
+                    List<Operation> moved = new ArrayList<>(previous.size());
+                    for (OperationSnapshot snapshot : previous) {
+                        // копия, а не объект из кеша: до записи читатели видят операцию неизмененной
+                        Operation copy = snapshot.toOperation();
+                        copy.setCategoryId(replacementCategoryId);
+                        moved.add(copy);
+                    }
+                    List<Operation> saved = operationRepository.saveAll(moved);
+                    rollups.removeAll(previous);
+                    rollups.addAll(saved);
+                    return null;
+                });
+            }
+            categoryRepository.deleteById(id);
+            return null;
+        });
+    }
+
+    /**
+     * Удаляет категорию вместе с ее операциями под блокировкой категории; балансы счетов
+     * корректируются одной суммой на счет за пакет.
+     */
+    public void deleteCategoryWithOperations(Long id) {
+        if (id == null) {
+            return;
+        }
+        categoryLocks.withLock(id, () -> {
+            deleteOperations(operationRepository.findByCategoryId(id), snapshot -> id.equals(snapshot.categoryId()));
+            categoryRepository.deleteById(id);
+        });
+    }
+
+    private void checkReplacement(Long id, Long replacementCategoryId) {
+        if (replacementCategoryId.equals(id)) {
+            throw new IllegalArgumentException("Category cannot replace itself: " + id);
+        }
+        Category replacement = categoryRepository.findById(replacementCategoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + replacementCategoryId));
+        categoryRepository.findById(id).ifPresent(category -> {
+            if (category.getType() != replacement.getType()) {
+                throw new IllegalArgumentException("Replacement category " + replacementCategoryId
+                        + " has type " + replacement.getType() + ", expected " + category.getType());
+            }
+        });
     }
 
     // --------------- Операции ---------------
@@ -97,14 +242,141 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
                                            String description, Long categoryId) {
         Operation operation = entityFactory.createIncomeOperation(
                 bankAccountId, amount, date, description, categoryId);
-        return operationRepository.save(operation);
+        return saveNewOperation(operation);
+    }
+
+    public Operation createIncomeOperation(Long bankAccountId, Money amount, LocalDate date,
+                                           String description, Long categoryId) {
+        Operation operation = entityFactory.createIncomeOperation(
+                bankAccountId, amount, date, description, categoryId);
+        return saveNewOperation(operation);
     }
 
     public Operation createExpenseOperation(Long bankAccountId, double amount, LocalDate date,
                                             String description, Long categoryId) {
         Operation operation = entityFactory.createExpenseOperation(
                 bankAccountId, amount, date, description, categoryId);
-        return operationRepository.save(operation);
+        return saveNewOperation(operation);
+    }
+
+    public Operation createExpenseOperation(Long bankAccountId, Money amount, LocalDate date,
+                                            String description, Long categoryId) {
+        Operation operation = entityFactory.createExpenseOperation(
+                bankAccountId, amount, date, description, categoryId);
+        return saveNewOperation(operation);
+    }
+
+    private Operation saveNewOperation(Operation operation) {
+        return categoryLocks.withLock(operation.getCategoryId(), () ->
+                accountLocks.withLock(operation.getBankAccountId(), () -> {
+                    requireCategory(operation.getCategoryId());
+                    requireAccount(operation.getBankAccountId());
+                    Operation savedOperation = operationRepository.save(operation);
+                    applyToBalance(savedOperation, 1);
+                    rollups.add(savedOperation);
+                    return savedOperation;
+                }));
+    }
+
+    /**
+     * Массовый импорт операций (например, из банковской выписки).
+     * Импортируются только новые операции: id назначает хранилище, операция с id отклоняется,
+     * иначе saveAll перезаписал бы существующую без отката ее влияния на баланс.
+     * Ссылки на счета и категории проверяются заранее, по одному запросу на каждый различный id,
+     * и при ошибке ничего не сохраняется. Затем операции пишутся пакетами через saveAll,
+     * а балансы после каждого пакета обновляются одной суммой на счет.
+     */
+    public List<Operation> importOperations(List<Operation> operations) {
+        validateReferences(operations);
+
+        List<Operation> imported = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += IMPORT_BATCH_SIZE) {
+            List<Operation> batch = operations.subList(from, Math.min(from + IMPORT_BATCH_SIZE, operations.size()));
+            Set<Long> accountIds = new HashSet<>();
+            Set<Long> categoryIds = new HashSet<>();
+            for (Operation operation : batch) {
+                accountIds.add(operation.getBankAccountId());
+                categoryIds.add(operation.getCategoryId());
+            }
+
+            imported.addAll(categoryLocks.withLocks(categoryIds, () -> accountLocks.withLocks(accountIds, () -> {
+                // счет или категория могли быть удалены после проверки ссылок
+                categoryIds.forEach(this::requireCategory);
+                accountIds.forEach(this::requireAccount);
+                List<Operation> savedBatch = operationRepository.saveAll(batch);
+
+                Map<Long, Long> deltas = new HashMap<>();
+                for (Operation operation : savedBatch) {
+                    deltas.merge(operation.getBankAccountId(), signedAmountCents(operation), Math::addExact);
+                }
+                deltas.forEach(this::adjustBalance);
+                rollups.addAll(savedBatch);
+                return savedBatch;
+            })));
+        }
+        return imported;
+    }
+
+    private void validateReferences(List<Operation> operations) {
+        Set<Long> accountIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (Operation operation : operations) {
+            if (operation.getId() != null) {
+                throw new IllegalArgumentException("Imported operation must not have an id: " + operation);
+            }
+            if (operation.getBankAccountId() == null) {
+                throw new IllegalArgumentException("Operation without bank account: " + operation);
+            }
+            accountIds.add(operation.getBankAccountId());
+            if (operation.getCategoryId() != null) {
+                categoryIds.add(operation.getCategoryId());
+            }
+        }
+
+        for (Long accountId : accountIds) {
+            if (bankAccountRepository.findSnapshotById(accountId).isEmpty()) {
+                throw new IllegalArgumentException("Bank account not found: " + accountId);
+            }
+        }
+        for (Long categoryId : categoryIds) {
+            if (categoryRepository.findSnapshotById(categoryId).isEmpty()) {
+                throw new IllegalArgumentException("Category not found: " + categoryId);
+            }
+        }
+    }
+
+    /**
+     * Сохраняет измененную операцию и переносит ее влияние на балансы:
+     * старая версия откатывается, новая применяется (в том числе при смене счета).
+     * Прежнее состояние берется из неизменяемого снимка хранилища, а не из кеша.
+     * Вся последовательность выполняется под блокировкой операции, поэтому параллельные изменения
+     * той же операции не откатывают одну и ту же прежнюю версию дважды. Новая категория
+     * проверяется под своей блокировкой, как при создании операции.
+     */
+    public Operation updateOperation(Operation operation) {
+        return categoryLocks.withLock(operation.getCategoryId(), () -> operationLocks.withLock(operation.getId(), () -> {
+            Optional<OperationSnapshot> previous = operationRepository.findSnapshotById(operation.getId());
+            List<Long> accountIds = new ArrayList<>(2);
+            accountIds.add(operation.getBankAccountId());
+            previous.ifPresent(snapshot -> accountIds.add(snapshot.bankAccountId()));
+
+            return accountLocks.withLocks(accountIds, () -> {
+                requireCategory(operation.getCategoryId());
+                requireAccount(operation.getBankAccountId());
+                Operation savedOperation = operationRepository.save(operation);
+
+                // одна запись баланса на счет: откат прежней версии и новая сумма складываются
+                Map<Long, Long> deltas = new HashMap<>();
+                previous.ifPresent(snapshot -> {
+                    deltas.merge(snapshot.bankAccountId(), -signedAmountCents(snapshot), Math::addExact);
+                    rollups.remove(snapshot);
+                });
+                deltas.merge(savedOperation.getBankAccountId(), signedAmountCents(savedOperation), Math::addExact);
+                deltas.forEach(this::adjustBalance);
+                rollups.add(savedOperation);
+                return savedOperation;
+            });
+        }));
     }
 
     public Operation getOperationById(Long id) {
@@ -116,10 +388,44 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         return operationRepository.findAll();
     }
 
+    /**
+     * Страница операций по возрастанию id после afterId (null - первая страница).
+     */
+    public List<Operation> getOperationsPage(Long afterId, int limit) {
+        return operationRepository.findPageAfterId(afterId, limit);
+    }
+
+    /**
+     * Страница операций по дате, затем id, после курсора (null - первая страница).
+     * Курсор следующей страницы - OperationCursor.of(последняя операция страницы).
+     */
+    public List<Operation> getOperationsPageByDate(OperationCursor after, int limit) {
+        return operationRepository.findPageByDate(after, limit);
+    }
+
+    /**
+     * Все операции по дате, затем id; читаются из репозитория страницами по мере потребления,
+     * поэтому в памяти одновременно держится одна страница.
+     */
+    public Stream<Operation> streamAllOperations() {
+        return operationRepository.streamOrderedByDate();
+    }
+
     public List<Operation> getOperationsByBankAccountId(Long bankAccountId) {
         return operationRepository.findByBankAccountId(bankAccountId);
     }
 
+    /**
+     * Число операций счета по индексу, без копирования самих операций.
+     */
+    public int countOperationsByBankAccountId(Long bankAccountId) {
+        return operationRepository.countByBankAccountId(bankAccountId);
+    }
+
+    public int countOperationsByCategoryId(Long categoryId) {
+        return operationRepository.countByCategoryId(categoryId);
+    }
+
     public List<Operation> getOperationsByType(OperationType type) {
         return operationRepository.findByType(type);
     }
@@ -132,14 +438,267 @@ public class FinanceTrackerFacade implements FinanceTrackerFacadeInterface {
         return operationRepository.findByDateRange(startDate, endDate);
     }
 
+    /**
+     * Операции, подходящие под все условия запроса, по возрастанию id. Фильтрация идет в репозитории:
+     * он сужает выборку по самому избирательному индексу вместо загрузки всего списка.
+     */
+    public List<Operation> getOperations(OperationQuery query) {
+        return operationRepository.findByQuery(query);
+    }
+
+    /**
+     * Страница операций запроса по возрастанию id после afterId (null - первая страница).
+     * Репозиторий читает только строки страницы, а не всю выборку.
+     */
+    public List<Operation> getOperations(OperationQuery query, Long afterId, int limit) {
+        return operationRepository.findPageByQuery(query, afterId, limit);
+    }
+
+    /**
+     * Полнотекстовый поиск по описаниям: до limit операций по убыванию релевантности.
+     */
+    public List<Operation> searchOperations(String query, int limit) {
+        return operationRepository.searchByDescription(query, limit);
+    }
+
+    /**
+     * Удаляет операцию и откатывает ее влияние на баланс под блокировкой операции,
+     * как и {@link #updateOperation}.
+     */
     public void deleteOperation(Long id) {
-        operationRepository.deleteById(id);
+        operationLocks.withLock(id, () -> {
+            Optional<OperationSnapshot> previous = operationRepository.findSnapshotById(id);
+            Long accountId = previous.map(OperationSnapshot::bankAccountId).orElse(null);
+            accountLocks.withLock(accountId, () -> {
+                operationRepository.deleteById(id);
+                previous.ifPresent(snapshot -> {
+                    adjustBalance(snapshot.bankAccountId(), -signedAmountCents(snapshot));
+                    rollups.remove(snapshot);
+                });
+            });
+        });
+    }
+
+    /**
+     * Удаляет операции пакетами: один deleteAllById, одно обновление агрегатов и одна
+     * корректировка баланса на счет за пакет. Пакет удаляется под блокировками своих операций
+     * по снимкам, перечитанным под ними: операция, которую успели удалить или перенести
+     * (still ее больше не принимает), пропускается, и ее сумма не откатывается дважды.
+     */
+    private void deleteOperations(List<Operation> operations, Predicate<OperationSnapshot> still) {
+        for (int from = 0; from < operations.size(); from += IMPORT_BATCH_SIZE) {
+            List<Long> ids = idsOf(operations.subList(from, Math.min(from + IMPORT_BATCH_SIZE, operations.size())));
+            operationLocks.withLocks(ids, () -> {
+                List<OperationSnapshot> snapshots = currentSnapshots(ids, still);
+                List<Long> currentIds = new ArrayList<>(snapshots.size());
+                Map<Long, Long> deltas = new HashMap<>();
+                for (OperationSnapshot snapshot : snapshots) {
+                    currentIds.add(snapshot.id());
+                    deltas.merge(snapshot.bankAccountId(), signedAmountCents(snapshot), Math::addExact);
+                }
+
+                return accountLocks.withLocks(deltas.keySet(), () -> {
+                    operationRepository.deleteAllById(currentIds);
+                    rollups.removeAll(snapshots);
+                    deltas.forEach((accountId, delta) -> adjustBalance(accountId, -delta));
+                    return null;
+                });
+            });
+        }
+    }
+
+    private static List<Long> idsOf(List<Operation> operations) {
+        List<Long> ids = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            ids.add(operation.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Текущие снимки операций, которые still еще принимает. Вызывается под блокировками операций.
+     */
+    private List<OperationSnapshot> currentSnapshots(List<Long> ids, Predicate<OperationSnapshot> still) {
+        List<OperationSnapshot> snapshots = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            operationRepository.findSnapshotById(id).filter(still).ifPresent(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    // --------------- Аналитика ---------------
+
+    /**
+     * Суммы операций заданного типа по категориям за период включительно, по убыванию суммы.
+     * Считается по агрегатам, без обхода операций.
+     */
+    public List<CategoryTotal> getTotalsByCategory(OperationType type, LocalDate startDate, LocalDate endDate) {
+        return rollups.totalsByCategory(type, startDate, endDate);
+    }
+
+    public List<CategoryTotal> getTotalsByCategory(Long bankAccountId, OperationType type,
+                                                   LocalDate startDate, LocalDate endDate) {
+        return rollups.totalsByCategory(bankAccountId, type, startDate, endDate);
+    }
+
+    /**
+     * Доходы и расходы по месяцам периода включительно.
+     */
+    public List<MonthlySummary> getMonthlySummary(YearMonth startMonth, YearMonth endMonth) {
+        return rollups.monthlySummary(startMonth, endMonth);
+    }
+
+    // --------------- Экспорт ---------------
+
+    /**
+     * Передает посетителю все счета, категории и операции, вытягивая их из репозиториев лениво:
+     * полные списки не собираются, поэтому память не растет с объемом данных.
+     */
+    public void exportAll(DataExportVisitor visitor) {
+        exportReferenceData(visitor);
+        try (Stream<Operation> operations = operationRepository.streamAll()) {
+            operations.forEach(operation -> operation.accept(visitor));
+        }
+    }
+
+    /**
+     * Экспорт в файл: операции сериализуются параллельно диапазонами id и склеиваются по порядку,
+     * см. {@link PartitionedExport}. Операции в файле идут по возрастанию id.
+     */
+    public void exportAll(ExportFormat format, Path file) throws IOException {
+        new PartitionedExport().export(format, file, this::exportReferenceData, operationRepository::findPageAfterId);
     }
 
+    private void exportReferenceData(DataExportVisitor visitor) {
+        try (Stream<BankAccount> accounts = bankAccountRepository.streamAll()) {
+            accounts.forEach(account -> account.accept(visitor));
+        }
+        try (Stream<Category> categories = categoryRepository.streamAll()) {
+            categories.forEach(category -> category.accept(visitor));
+        }
+    }
 
     // --------------- Пересчет баланса ---------------
 
+    /**
+     * Полностью пересчитывает балансы всех счетов: один параллельный проход по всем операциям
+     * группирует суммы по счетам, затем балансы записываются. Проход и запись идут под блокировками
+     * всех счетов, поэтому конкурентные изменения операций не теряются и не удваиваются.
+     */
     public void recalculateAllBalances() {
-        // TODO реализовать пересчет баланса для всех счетов
+        List<Long> accountIds = accountIds();
+        accountLocks.withLocks(accountIds, () -> {
+            Map<Long, Long> totals = operationTotalsCents();
+            for (Long accountId : accountIds) {
+                bankAccountRepository.findSnapshotById(accountId).ifPresent(current -> {
+                    long recalculated = recalculatedBalanceCents(current, totals);
+                    if (recalculated != current.balanceCents()) {
+                        bankAccountRepository.save(current.withBalanceCents(recalculated).toBankAccount());
+                    }
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Сравнивает инкрементально поддерживаемые балансы с пересчитанными по операциям
+     * тем же проходом, что и {@link #recalculateAllBalances}, под блокировками всех счетов.
+     * Ничего не изменяет, только возвращает список расхождений.
+     */
+    public List<BalanceDrift> checkBalanceConsistency() {
+        List<Long> accountIds = accountIds();
+        return accountLocks.withLocks(accountIds, () -> {
+            Map<Long, Long> totals = operationTotalsCents();
+            List<BalanceDrift> drifts = new ArrayList<>();
+            for (Long accountId : accountIds) {
+                bankAccountRepository.findSnapshotById(accountId).ifPresent(current -> {
+                    long recalculated = recalculatedBalanceCents(current, totals);
+                    if (recalculated != current.balanceCents()) {
+                        drifts.add(new BalanceDrift(current.id(),
+                                Money.ofMinor(current.balanceCents()), Money.ofMinor(recalculated)));
+                    }
+                });
+            }
+            return drifts;
+        });
+    }
+
+    private List<Long> accountIds() {
+        List<Long> accountIds = new ArrayList<>();
+        for (BankAccount account : bankAccountRepository.findAll()) {
+            accountIds.add(account.getId());
+        }
+        return accountIds;
+    }
+
+    /**
+     * Сумма операций по каждому счету за один параллельный проход по снимкам.
+     */
+    private Map<Long, Long> operationTotalsCents() {
+        return operationRepository.findAllSnapshots().parallelStream()
+                .filter(snapshot -> snapshot.bankAccountId() != null)
+                .collect(Collectors.toConcurrentMap(OperationSnapshot::bankAccountId,
+                        FinanceTrackerFacade::signedAmountCents, Math::addExact));
+    }
+
+    private static long recalculatedBalanceCents(BankAccountSnapshot account, Map<Long, Long> totals) {
+        return Math.addExact(account.openingBalanceCents(), totals.getOrDefault(account.id(), 0L));
+    }
+
+    /**
+     * Вызывается под блокировкой счета: каскадное удаление счета держит ее же.
+     * Операции без счета допускаются, как и раньше.
+     */
+    private void requireAccount(Long bankAccountId) {
+        if (bankAccountId != null && bankAccountRepository.findSnapshotById(bankAccountId).isEmpty()) {
+            throw new IllegalArgumentException("Bank account not found: " + bankAccountId);
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой категории: удаление категории держит ее же.
+     * Операции без категории допускаются.
+     */
+    private void requireCategory(Long categoryId) {
+        if (categoryId != null && categoryRepository.findSnapshotById(categoryId).isEmpty()) {
+            throw new IllegalArgumentException("Category not found: " + categoryId);
+        }
+    }
+
+    private void applyToBalance(Operation operation, int direction) {
+        if (operation == null) {
+            return;
+        }
+        adjustBalance(operation.getBankAccountId(), direction * signedAmountCents(operation));
+    }
+
+    private void adjustBalance(Long bankAccountId, long deltaCents) {
+        if (bankAccountId == null || deltaCents == 0) {
+            return;
+        }
+        accountLocks.withLock(bankAccountId, () -> {
+            // снимок заменяется новым: объект счета из кеша, который могут читать другие потоки, не меняется
+            bankAccountRepository.findSnapshotById(bankAccountId).ifPresent(account -> bankAccountRepository.save(
+                    account.withBalanceCents(Math.addExact(account.balanceCents(), deltaCents)).toBankAccount()));
+        });
+    }
+
+    private static long signedAmountCents(Operation operation) {
+        return signedAmountCents(operation.getType(), operation.getAmountCents());
+    }
+
+    private static long signedAmountCents(OperationSnapshot snapshot) {
+        return signedAmountCents(snapshot.type(), snapshot.amountCents());
+    }
+
+    private static long signedAmountCents(OperationType type, long amountCents) {
+        if (type == OperationType.INCOME) {
+            return amountCents;
+        }
+        if (type == OperationType.EXPENSE) {
+            return -amountCents;
+        }
+        return 0;
     }
-}
\ No newline at end of file
+}
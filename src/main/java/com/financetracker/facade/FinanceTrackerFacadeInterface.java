@@ -1,12 +1,24 @@
 package com.financetracker.facade;
 
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
 import com.financetracker.model.*;
+import com.financetracker.visitor.DataExportVisitor;
+import com.financetracker.visitor.ExportFormat;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface FinanceTrackerFacadeInterface {
 
     BankAccount createBankAccount(String name, double initialBalance);
+    BankAccount createBankAccount(String name, Money initialBalance);
     BankAccount getBankAccountById(Long id);
     List<BankAccount> getAllBankAccounts();
     void updateBankAccount(BankAccount bankAccount);
@@ -14,15 +26,41 @@ public interface FinanceTrackerFacadeInterface {
 
     Category createCategory(CategoryType type, String name);
     Category getCategoryById(Long id);
+    Map<Long, Category> getCategoriesByIds(Collection<Long> ids);
     List<Category> getAllCategories();
     List<Category> getCategoriesByType(CategoryType type);
     void updateCategory(Category category);
     void deleteCategory(Long id);
+    void deleteCategory(Long id, Long replacementCategoryId);
+    void deleteCategoryWithOperations(Long id);
 
     Operation createIncomeOperation(Long bankAccountId, double amount, LocalDate date, String description, Long categoryId);
     Operation createExpenseOperation(Long bankAccountId, double amount, LocalDate date, String description, Long categoryId);
+    Operation createIncomeOperation(Long bankAccountId, Money amount, LocalDate date, String description, Long categoryId);
+    Operation createExpenseOperation(Long bankAccountId, Money amount, LocalDate date, String description, Long categoryId);
     Operation getOperationById(Long id);
     List<Operation> getAllOperations();
+    List<Operation> getOperationsPage(Long afterId, int limit);
+    List<Operation> getOperationsPageByDate(OperationCursor after, int limit);
+    Stream<Operation> streamAllOperations();
     List<Operation> getOperationsByBankAccountId(Long bankAccountId);
+    List<Operation> getOperationsByCategoryId(Long categoryId);
+    int countOperationsByBankAccountId(Long bankAccountId);
+    int countOperationsByCategoryId(Long categoryId);
+    List<Operation> getOperations(OperationQuery query);
+    List<Operation> getOperations(OperationQuery query, Long afterId, int limit);
+    List<Operation> searchOperations(String query, int limit);
+    Operation updateOperation(Operation operation);
+    List<Operation> importOperations(List<Operation> operations);
     void deleteOperation(Long id);
+
+    List<CategoryTotal> getTotalsByCategory(OperationType type, LocalDate startDate, LocalDate endDate);
+    List<CategoryTotal> getTotalsByCategory(Long bankAccountId, OperationType type, LocalDate startDate, LocalDate endDate);
+    List<MonthlySummary> getMonthlySummary(YearMonth startMonth, YearMonth endMonth);
+
+    void exportAll(DataExportVisitor visitor);
+    void exportAll(ExportFormat format, Path file) throws IOException;
+
+    void recalculateAllBalances();
+    List<BalanceDrift> checkBalanceConsistency();
 }
\ No newline at end of file
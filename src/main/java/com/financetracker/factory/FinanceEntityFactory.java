@@ -1,6 +1,8 @@
 package com.financetracker.factory;
 
 import com.financetracker.model.*;
+import com.financetracker.repository.support.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -8,42 +10,68 @@ import java.util.UUID;
 
 @Component
 public class FinanceEntityFactory {
+    // описания и названия берутся из словаря хранилищ, если там уже есть такая строка
+    private final StringDictionary dictionary;
+
+    public FinanceEntityFactory() {
+        this(new StringDictionary());
+    }
+
+    @Autowired
+    public FinanceEntityFactory(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
 
     public BankAccount createBankAccount(String name, double initialBalance) {
+        return createBankAccount(name, Money.of(initialBalance));
+    }
+
+    public BankAccount createBankAccount(String name, Money initialBalance) {
         return BankAccount.builder()
                 .name(name)
                 .balance(initialBalance)
+                .openingBalance(initialBalance)
                 .build();
     }
 
     public Category createCategory(CategoryType type, String name) {
         return Category.builder()
                 .type(type)
-                .name(name)
+                .name(dictionary.intern(name))
                 .build();
     }
 
     public Operation createIncomeOperation(Long bankAccountId, double amount, LocalDate date,
                                            String description, Long categoryId) {
+        return createIncomeOperation(bankAccountId, Money.of(amount), date, description, categoryId);
+    }
+
+    public Operation createIncomeOperation(Long bankAccountId, Money amount, LocalDate date,
+                                           String description, Long categoryId) {
         return Operation.builder()
                 //.id(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE)
                 .type(OperationType.INCOME)
                 .bankAccountId(bankAccountId)
                 .amount(amount)
                 .date(date)
-                .description(description)
+                .description(dictionary.intern(description))
                 .categoryId(categoryId)
                 .build();
     }
 
     public Operation createExpenseOperation(Long bankAccountId, double amount, LocalDate date,
                                             String description, Long categoryId) {
+        return createExpenseOperation(bankAccountId, Money.of(amount), date, description, categoryId);
+    }
+
+    public Operation createExpenseOperation(Long bankAccountId, Money amount, LocalDate date,
+                                            String description, Long categoryId) {
         return Operation.builder()
                 .type(OperationType.EXPENSE)
                 .bankAccountId(bankAccountId)
                 .amount(amount)
                 .date(date)
-                .description(description)
+                .description(dictionary.intern(description))
                 .categoryId(categoryId)
                 .build();
     }
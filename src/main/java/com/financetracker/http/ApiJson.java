@@ -0,0 +1,81 @@
+package com.financetracker.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.model.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Запись сущностей токенами JsonGenerator. Имена полей совпадают с JSON-экспортом,
+ * суммы - точные десятичные числа из копеек.
+ */
+final class ApiJson {
+
+    private ApiJson() {
+    }
+
+    static void writeBankAccount(JsonGenerator generator, BankAccount bankAccount) throws IOException {
+        generator.writeStartObject();
+        writeId(generator, "id", bankAccount.getId());
+        generator.writeStringField("name", bankAccount.getName());
+        writeAmount(generator, "balance", bankAccount.getBalanceCents());
+        writeAmount(generator, "openingBalance", bankAccount.getOpeningBalanceCents());
+        generator.writeEndObject();
+    }
+
+    static void writeCategory(JsonGenerator generator, Category category) throws IOException {
+        generator.writeStartObject();
+        writeId(generator, "id", category.getId());
+        generator.writeStringField("name", category.getName());
+        generator.writeStringField("type", (category.getType() != null) ? category.getType().name() : null);
+        generator.writeEndObject();
+    }
+
+    static void writeOperation(JsonGenerator generator, Operation operation) throws IOException {
+        generator.writeStartObject();
+        writeId(generator, "id", operation.getId());
+        generator.writeStringField("type", (operation.getType() != null) ? operation.getType().name() : null);
+        writeId(generator, "bankAccountId", operation.getBankAccountId());
+        writeAmount(generator, "amount", operation.getAmountCents());
+        writeDate(generator, "date", operation.getDate());
+        generator.writeStringField("description", operation.getDescription());
+        writeId(generator, "categoryId", operation.getCategoryId());
+        generator.writeEndObject();
+    }
+
+    static void writeCategoryTotal(JsonGenerator generator, CategoryTotal total) throws IOException {
+        generator.writeStartObject();
+        writeId(generator, "categoryId", total.categoryId());
+        writeAmount(generator, "total", total.total().getMinorUnits());
+        generator.writeNumberField("operations", total.operations());
+        generator.writeEndObject();
+    }
+
+    static void writeMonthlySummary(JsonGenerator generator, MonthlySummary summary) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("month", summary.month().toString());
+        writeAmount(generator, "income", summary.income().getMinorUnits());
+        writeAmount(generator, "expense", summary.expense().getMinorUnits());
+        writeAmount(generator, "net", summary.net().getMinorUnits());
+        generator.writeEndObject();
+    }
+
+    static void writeDate(JsonGenerator generator, String name, LocalDate date) throws IOException {
+        generator.writeStringField(name, (date != null) ? date.toString() : null);
+    }
+
+    static void writeId(JsonGenerator generator, String name, Long id) throws IOException {
+        if (id != null) {
+            generator.writeNumberField(name, id);
+        } else {
+            generator.writeNullField(name);
+        }
+    }
+
+    private static void writeAmount(JsonGenerator generator, String name, long cents) throws IOException {
+        generator.writeNumberField(name, Money.ofMinor(cents).toBigDecimal());
+    }
+}
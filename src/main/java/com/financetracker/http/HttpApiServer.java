@@ -0,0 +1,410 @@
+package com.financetracker.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.analytics.MonthlySummary;
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.model.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * HTTP/JSON API поверх фасада на встроенном в JDK HttpServer, только на loopback-адресе.
+ * Каждый запрос обрабатывается в своем виртуальном потоке, ответ пишется потоковым JsonGenerator
+ * прямо в тело ответа (chunked), без промежуточного дерева и строки.
+ * <pre>
+ * GET    /api/accounts                 POST /api/accounts   {"name": "...", "balance": 100.00}
+ * GET    /api/accounts/{id}
+ * GET    /api/categories               POST /api/categories {"type": "EXPENSE", "name": "..."}
+ * GET    /api/categories/{id}
+ * GET    /api/operations?afterDate=&amp;afterId=&amp;limit=     страница по дате, затем id
+ * GET    /api/operations/query?account=&amp;category=&amp;type=&amp;from=&amp;to=&amp;min=&amp;max=&amp;afterId=&amp;limit=
+ * GET    /api/operations/search?q=&amp;limit=
+ * GET    /api/operations/{id}          DELETE /api/operations/{id}
+ * POST   /api/operations               {"type": "EXPENSE", "bankAccountId": 1, "amount": 10.50,
+ *                                       "date": "2024-03-01", "description": "...", "categoryId": 2}
+ * GET    /api/reports/categories?type=&amp;from=&amp;to=[&amp;account=]
+ * GET    /api/reports/monthly?from=yyyy-MM&amp;to=yyyy-MM
+ * </pre>
+ * Страничные ответы - объект с массивом operations и полем next: параметрами следующей страницы
+ * или null на последней. Ошибки в запросе - 400, отсутствующая сущность - 404, тело ошибки {"error": "..."}.
+ * <p>
+ * TCP_NODELAY для HttpServer включается только на весь процесс флагом запуска
+ * -Dsun.net.httpserver.nodelay=true; без него мелкие ответы задерживаются на ~40 мс.
+ * {@link com.financetracker.FinanceTrackerApplication} ставит его сам, если флаг не задан.
+ */
+@Slf4j
+public class HttpApiServer implements AutoCloseable {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 10_000;
+    private static final String PREFIX = "/api/";
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final FinanceTrackerFacadeInterface facade;
+    private final int port;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Сервер на 127.0.0.1; порт 0 - любой свободный, фактический возвращает {@link #port()} после запуска.
+     */
+    public HttpApiServer(FinanceTrackerFacadeInterface facade, int port) {
+        this.facade = facade;
+        this.port = port;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-api-", 0).factory());
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext(PREFIX, this::handle);
+        server.start();
+        log.info("HTTP API запущен на http://{}:{}{}", server.getAddress().getHostString(), port(), PREFIX);
+    }
+
+    public synchronized int port() {
+        if (server == null) {
+            throw new IllegalStateException("Server is not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (HttpError e) {
+                writeError(exchange, e.status, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeException | JsonProcessingException e) {
+                writeError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                writeError(exchange, 500, "Internal server error");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        List<String> path = List.of(exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/"));
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        switch (path.get(0)) {
+            case "accounts" -> accounts(exchange, method, path);
+            case "categories" -> categories(exchange, method, path);
+            case "operations" -> operations(exchange, method, path, params);
+            case "reports" -> reports(exchange, method, path, params);
+            default -> throw new HttpError(404, "Unknown resource: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void accounts(HttpExchange exchange, String method, List<String> path) throws IOException {
+        if (path.size() == 1 && method.equals("GET")) {
+            List<BankAccount> accounts = facade.getAllBankAccounts();
+            respond(exchange, 200, generator -> writeArray(generator, accounts, ApiJson::writeBankAccount));
+        } else if (path.size() == 1 && method.equals("POST")) {
+            JsonNode body = readBody(exchange);
+            BankAccount account = facade.createBankAccount(requiredText(body, "name"),
+                    Money.parse(body.path("balance").asText("0")));
+            respond(exchange, 201, generator -> ApiJson.writeBankAccount(generator, account));
+        } else if (path.size() == 2 && method.equals("GET")) {
+            BankAccount account = found(facade.getBankAccountById(parseId(path.get(1))), "Bank account", path.get(1));
+            respond(exchange, 200, generator -> ApiJson.writeBankAccount(generator, account));
+        } else {
+            throw unsupported(exchange);
+        }
+    }
+
+    private void categories(HttpExchange exchange, String method, List<String> path) throws IOException {
+        if (path.size() == 1 && method.equals("GET")) {
+            List<Category> categories = facade.getAllCategories();
+            respond(exchange, 200, generator -> writeArray(generator, categories, ApiJson::writeCategory));
+        } else if (path.size() == 1 && method.equals("POST")) {
+            JsonNode body = readBody(exchange);
+            Category category = facade.createCategory(
+                    CategoryType.valueOf(requiredText(body, "type").toUpperCase(Locale.ROOT)),
+                    requiredText(body, "name"));
+            respond(exchange, 201, generator -> ApiJson.writeCategory(generator, category));
+        } else if (path.size() == 2 && method.equals("GET")) {
+            Category category = found(facade.getCategoryById(parseId(path.get(1))), "Category", path.get(1));
+            respond(exchange, 200, generator -> ApiJson.writeCategory(generator, category));
+        } else {
+            throw unsupported(exchange);
+        }
+    }
+
+    private void operations(HttpExchange exchange, String method, List<String> path,
+                            Map<String, String> params) throws IOException {
+        if (path.size() == 1 && method.equals("GET")) {
+            String afterId = params.get("afterId");
+            String afterDate = params.get("afterDate");
+            OperationCursor after = (afterId == null && afterDate == null) ? OperationCursor.START
+                    : new OperationCursor(parseDate(afterDate), (afterId != null) ? parseId(afterId) : null);
+            int limit = limit(params);
+            List<Operation> page = facade.getOperationsPageByDate(after, limit);
+            respond(exchange, 200, generator -> writePage(generator, page, page.size() == limit, (next, last) -> {
+                ApiJson.writeDate(next, "afterDate", last.getDate());
+                ApiJson.writeId(next, "afterId", last.getId());
+            }));
+        } else if (path.size() == 1 && method.equals("POST")) {
+            Operation operation = createOperation(readBody(exchange));
+            respond(exchange, 201, generator -> ApiJson.writeOperation(generator, operation));
+        } else if (path.size() == 2 && path.get(1).equals("query") && method.equals("GET")) {
+            queryOperations(exchange, params);
+        } else if (path.size() == 2 && path.get(1).equals("search") && method.equals("GET")) {
+            List<Operation> hits = facade.searchOperations(params.getOrDefault("q", ""), limit(params));
+            respond(exchange, 200, generator -> writeArray(generator, hits, ApiJson::writeOperation));
+        } else if (path.size() == 2 && method.equals("GET")) {
+            Operation operation = found(facade.getOperationById(parseId(path.get(1))), "Operation", path.get(1));
+            respond(exchange, 200, generator -> ApiJson.writeOperation(generator, operation));
+        } else if (path.size() == 2 && method.equals("DELETE")) {
+            Long id = parseId(path.get(1));
+            found(facade.getOperationById(id), "Operation", path.get(1));
+            facade.deleteOperation(id);
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            throw unsupported(exchange);
+        }
+    }
+
+    /**
+     * Составной запрос: фасад читает только страницу после afterId по возрастанию id.
+     */
+    private void queryOperations(HttpExchange exchange, Map<String, String> params) throws IOException {
+        OperationQuery query = OperationQuery.builder()
+                .bankAccountId(optional(params.get("account"), HttpApiServer::parseId))
+                .categoryId(optional(params.get("category"), HttpApiServer::parseId))
+                .type(optional(params.get("type"), value -> OperationType.valueOf(value.toUpperCase(Locale.ROOT))))
+                .from(parseDate(params.get("from")))
+                .to(parseDate(params.get("to")))
+                .minAmount(optional(params.get("min"), Money::parse))
+                .maxAmount(optional(params.get("max"), Money::parse))
+                .build();
+        Long afterId = optional(params.get("afterId"), HttpApiServer::parseId);
+        int limit = limit(params);
+
+        // на одну строку больше страницы: так известно, есть ли следующая
+        List<Operation> fetched = facade.getOperations(query, afterId, limit + 1);
+        boolean hasNext = fetched.size() > limit;
+        List<Operation> page = hasNext ? fetched.subList(0, limit) : fetched;
+        respond(exchange, 200, generator -> writePage(generator, page, hasNext,
+                (next, last) -> ApiJson.writeId(next, "afterId", last.getId())));
+    }
+
+    private Operation createOperation(JsonNode body) {
+        OperationType type = OperationType.valueOf(requiredText(body, "type").toUpperCase(Locale.ROOT));
+        Money amount = Money.parse(requiredText(body, "amount"));
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        Operation operation = Operation.builder()
+                .type(type)
+                .bankAccountId(body.path("bankAccountId").isNumber() ? body.get("bankAccountId").asLong() : null)
+                .amount(amount)
+                .date(parseDate(body.path("date").asText(null)))
+                .description(body.path("description").asText(""))
+                .categoryId(body.path("categoryId").isNumber() ? body.get("categoryId").asLong() : null)
+                .build();
+        // импорт проверяет ссылки на счет и категорию, create*Operation этого не делает
+        return facade.importOperations(List.of(operation)).get(0);
+    }
+
+    private void reports(HttpExchange exchange, String method, List<String> path,
+                         Map<String, String> params) throws IOException {
+        if (!method.equals("GET") || path.size() != 2) {
+            throw unsupported(exchange);
+        }
+        switch (path.get(1)) {
+            case "categories" -> {
+                List<CategoryTotal> totals = facade.getTotalsByCategory(
+                        optional(params.get("account"), HttpApiServer::parseId),
+                        OperationType.valueOf(required(params, "type").toUpperCase(Locale.ROOT)),
+                        LocalDate.parse(required(params, "from")),
+                        LocalDate.parse(required(params, "to")));
+                respond(exchange, 200, generator -> writeArray(generator, totals, ApiJson::writeCategoryTotal));
+            }
+            case "monthly" -> {
+                List<MonthlySummary> summaries = facade.getMonthlySummary(
+                        YearMonth.parse(required(params, "from")), YearMonth.parse(required(params, "to")));
+                respond(exchange, 200, generator -> writeArray(generator, summaries, ApiJson::writeMonthlySummary));
+            }
+            default -> throw new HttpError(404, "Unknown report: " + path.get(1));
+        }
+    }
+
+    // --------------- Ответы ---------------
+
+    private static void respond(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // длина заранее неизвестна: тело уходит chunked по мере записи генератором
+        exchange.sendResponseHeaders(status, 0);
+        try (JsonGenerator generator = JSON.createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8)) {
+            body.write(generator);
+        }
+    }
+
+    private static void writeError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // заголовки уже отправлены, ответ оборвется на закрытии обмена
+            return;
+        }
+        respond(exchange, status, generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        });
+    }
+
+    private static <T> void writeArray(JsonGenerator generator, List<T> items, JsonItem<T> writer) throws IOException {
+        generator.writeStartArray();
+        for (T item : items) {
+            writer.write(generator, item);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Страница операций; next - параметры следующей страницы от последней операции или null.
+     */
+    private static void writePage(JsonGenerator generator, List<Operation> page, boolean hasNext,
+                                  JsonItem<Operation> nextWriter) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("operations");
+        writeArray(generator, page, ApiJson::writeOperation);
+        if (hasNext && !page.isEmpty()) {
+            generator.writeObjectFieldStart("next");
+            nextWriter.write(generator, page.get(page.size() - 1));
+            generator.writeEndObject();
+        } else {
+            generator.writeNullField("next");
+        }
+        generator.writeEndObject();
+    }
+
+    // --------------- Разбор запроса ---------------
+
+    private static JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonNode node = MAPPER.readTree(body);
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            return node;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = (separator < 0) ? pair : pair.substring(0, separator);
+            String value = (separator < 0) ? "" : pair.substring(separator + 1);
+            if (!value.isEmpty()) {
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static int limit(Map<String, String> params) {
+        int limit = Integer.parseInt(params.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE)));
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+        return limit;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String requiredText(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        return value.asText();
+    }
+
+    private static <T> T optional(String value, Function<String, T> parser) {
+        return (value != null) ? parser.apply(value) : null;
+    }
+
+    private static Long parseId(String value) {
+        return Long.parseLong(value);
+    }
+
+    private static LocalDate parseDate(String value) {
+        return (value != null && !value.isEmpty()) ? LocalDate.parse(value) : null;
+    }
+
+    private static <T> T found(T entity, String kind, String id) {
+        if (entity == null) {
+            throw new HttpError(404, kind + " not found: " + id);
+        }
+        return entity;
+    }
+
+    private static HttpError unsupported(HttpExchange exchange) {
+        return new HttpError(405, "Unsupported: " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface JsonItem<T> {
+        void write(JsonGenerator generator, T item) throws IOException;
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
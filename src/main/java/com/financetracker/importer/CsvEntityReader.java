@@ -0,0 +1,194 @@
+package com.financetracker.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Разбор CSV в формате CsvExportVisitor: секции со строкой заголовков, разделенные пустой строкой.
+ * Файл читается из FileChannel кусками фиксированного размера и декодируется по мере чтения,
+ * поэтому в памяти одновременно находится только один кусок и текущая запись.
+ * Поля в кавычках (RFC 4180) могут содержать запятые, кавычки и переводы строк.
+ */
+public class CsvEntityReader implements EntityReader {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Override
+    public void read(Path file, ImportHandler handler) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+        RecordParser parser = new RecordParser(handler);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                endOfInput = channel.read(bytes) < 0;
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    drain(chars, parser);
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+            decoder.flush(chars);
+            drain(chars, parser);
+        }
+        parser.finish();
+    }
+
+    private static void drain(CharBuffer chars, RecordParser parser) throws IOException {
+        chars.flip();
+        while (chars.hasRemaining()) {
+            parser.accept(chars.get());
+        }
+        chars.clear();
+    }
+
+    private enum Section { BANK_ACCOUNTS, CATEGORIES, OPERATIONS }
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, AFTER_QUOTE }
+
+    /**
+     * Посимвольный автомат: собирает поля текущей записи и по концу строки
+     * либо распознает заголовок секции, либо передает сущность обработчику.
+     */
+    private static final class RecordParser {
+        private final ImportHandler handler;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> record = new ArrayList<>();
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final Function<String, String> fields = this::field;
+
+        private State state = State.FIELD_START;
+        private Section section;
+        private boolean expectHeader = true;
+        private long line = 1;
+
+        RecordParser(ImportHandler handler) {
+            this.handler = handler;
+        }
+
+        void accept(char c) throws IOException {
+            switch (state) {
+                case QUOTED -> {
+                    if (c == '"') {
+                        state = State.AFTER_QUOTE;
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append(c);
+                    }
+                }
+                case AFTER_QUOTE -> {
+                    if (c == '"') {
+                        field.append('"');
+                        state = State.QUOTED;
+                    } else {
+                        delimiter(c);
+                    }
+                }
+                case FIELD_START -> {
+                    if (c == '"') {
+                        state = State.QUOTED;
+                    } else {
+                        delimiter(c);
+                    }
+                }
+                case UNQUOTED -> delimiter(c);
+            }
+        }
+
+        private void delimiter(char c) throws IOException {
+            switch (c) {
+                case ',' -> endField();
+                case '\n' -> {
+                    endField();
+                    endRecord();
+                    line++;
+                }
+                case '\r' -> {
+                }
+                default -> {
+                    field.append(c);
+                    state = State.UNQUOTED;
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (state == State.QUOTED) {
+                throw new IOException("Unterminated quoted field at line " + line);
+            }
+            if (state != State.FIELD_START || !record.isEmpty()) {
+                endField();
+                endRecord();
+            }
+        }
+
+        private void endField() {
+            record.add(field.toString());
+            field.setLength(0);
+            state = State.FIELD_START;
+        }
+
+        private void endRecord() throws IOException {
+            try {
+                if (record.size() == 1 && record.get(0).isEmpty()) {
+                    expectHeader = true;
+                } else if (expectHeader) {
+                    readHeader();
+                    expectHeader = false;
+                } else {
+                    switch (section) {
+                        case BANK_ACCOUNTS -> handler.onBankAccount(ImportFields.toBankAccount(fields));
+                        case CATEGORIES -> handler.onCategory(ImportFields.toCategory(fields));
+                        case OPERATIONS -> handler.onOperation(ImportFields.toOperation(fields));
+                    }
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IOException("Malformed record at line " + line + ": " + e.getMessage(), e);
+            } finally {
+                record.clear();
+            }
+        }
+
+        private void readHeader() throws IOException {
+            columns.clear();
+            for (int i = 0; i < record.size(); i++) {
+                columns.put(record.get(i), i);
+            }
+            if (columns.containsKey("bankAccountId")) {
+                section = Section.OPERATIONS;
+            } else if (columns.containsKey("balance")) {
+                section = Section.BANK_ACCOUNTS;
+            } else if (columns.containsKey("type")) {
+                section = Section.CATEGORIES;
+            } else {
+                throw new IOException("Unknown CSV section header at line " + line + ": " + record);
+            }
+        }
+
+        private String field(String name) {
+            Integer index = columns.get(name);
+            return (index != null && index < record.size()) ? record.get(index) : null;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.financetracker.importer;
+
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Импорт данных из файла по схеме производитель-потребитель.
+ * Отдельный поток разбирает файл и складывает сущности пакетами в ограниченную очередь,
+ * а вызывающий поток параллельно сохраняет пакеты через фасад (операции - через importOperations).
+ * Очередь ограничена, поэтому при медленной записи разбор приостанавливается,
+ * и память не зависит от размера файла.
+ * <p>
+ * Идентификаторы из файла не переносятся: счета и категории получают новые id, а ссылки
+ * операций на них переназначаются. Ссылка на id, которого нет в разделе счетов или категорий
+ * самого файла, отклоняется: id из другой базы совпал бы с чужой записью. Счета и категории
+ * должны идти в файле раньше ссылающихся на них операций - экспорт пишет их именно в таком порядке.
+ * Пакеты, сохраненные до ошибки, остаются сохраненными.
+ */
+public class DataImporter {
+    static final int BATCH_SIZE = 10_000;
+    private static final int QUEUE_CAPACITY = 4;
+
+    // маркер конца разбора в очереди
+    private static final ImportBatch END = new ImportBatch();
+
+    private final FinanceTrackerFacadeInterface facade;
+    private final int batchSize;
+
+    public DataImporter(FinanceTrackerFacadeInterface facade) {
+        this(facade, BATCH_SIZE);
+    }
+
+    DataImporter(FinanceTrackerFacadeInterface facade, int batchSize) {
+        this.facade = facade;
+        this.batchSize = batchSize;
+    }
+
+    public ImportResult importFile(Path file, ImportFormat format) throws IOException {
+        BlockingQueue<ImportBatch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Producer producer = new Producer(file, format.reader(), queue);
+        Thread parserThread = Thread.ofPlatform().name("import-parser").daemon().start(producer);
+
+        Consumer consumer = new Consumer();
+        try {
+            ImportBatch batch;
+            while ((batch = queue.take()) != END) {
+                consumer.persist(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } finally {
+            // при ошибке записи останавливаем разбор, иначе он повиснет на заполненной очереди
+            parserThread.interrupt();
+        }
+
+        if (producer.failure != null) {
+            if (producer.failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Import failed: " + producer.failure.getMessage(), producer.failure);
+        }
+        return consumer.result();
+    }
+
+    private static final class ImportBatch {
+        final List<BankAccount> bankAccounts = new ArrayList<>();
+        final List<Category> categories = new ArrayList<>();
+        final List<Operation> operations = new ArrayList<>();
+
+        int size() {
+            return bankAccounts.size() + categories.size() + operations.size();
+        }
+    }
+
+    private final class Producer implements Runnable, ImportHandler {
+        private final Path file;
+        private final EntityReader reader;
+        private final BlockingQueue<ImportBatch> queue;
+        private ImportBatch current = new ImportBatch();
+        private volatile Exception failure;
+
+        Producer(Path file, EntityReader reader, BlockingQueue<ImportBatch> queue) {
+            this.file = file;
+            this.reader = reader;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                reader.read(file, this);
+                publish(current);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException e) {
+                    // потребитель уже остановился и очередь никто не читает
+                }
+            }
+        }
+
+        @Override
+        public void onBankAccount(BankAccount bankAccount) {
+            current.bankAccounts.add(bankAccount);
+            flushIfFull();
+        }
+
+        @Override
+        public void onCategory(Category category) {
+            current.categories.add(category);
+            flushIfFull();
+        }
+
+        @Override
+        public void onOperation(Operation operation) {
+            current.operations.add(operation);
+            flushIfFull();
+        }
+
+        private void flushIfFull() {
+            if (current.size() >= batchSize) {
+                publish(current);
+                current = new ImportBatch();
+            }
+        }
+
+        private void publish(ImportBatch batch) {
+            if (batch.size() == 0) {
+                return;
+            }
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import cancelled", e);
+            }
+        }
+    }
+
+    private final class Consumer {
+        private final Map<Long, Long> accountIds = new HashMap<>();
+        private final Map<Long, Long> categoryIds = new HashMap<>();
+        private int bankAccounts;
+        private int categories;
+        private long operations;
+
+        void persist(ImportBatch batch) {
+            for (BankAccount account : batch.bankAccounts) {
+                // баланс восстанавливается операциями, поэтому счет создается с начальным балансом
+                BankAccount saved = facade.createBankAccount(account.getName(),
+                        Money.ofMinor(account.getOpeningBalanceCents()));
+                remember(accountIds, account.getId(), saved.getId());
+                bankAccounts++;
+            }
+            for (Category category : batch.categories) {
+                Category saved = facade.createCategory(category.getType(), category.getName());
+                remember(categoryIds, category.getId(), saved.getId());
+                categories++;
+            }
+            if (!batch.operations.isEmpty()) {
+                for (Operation operation : batch.operations) {
+                    operation.setId(null);
+                    operation.setBankAccountId(remap(accountIds, operation.getBankAccountId(), "Bank account"));
+                    operation.setCategoryId(remap(categoryIds, operation.getCategoryId(), "Category"));
+                }
+                facade.importOperations(batch.operations);
+                operations += batch.operations.size();
+            }
+        }
+
+        ImportResult result() {
+            return new ImportResult(bankAccounts, categories, operations);
+        }
+
+        private static void remember(Map<Long, Long> ids, Long fileId, Long savedId) {
+            if (fileId != null) {
+                ids.put(fileId, savedId);
+            }
+        }
+
+        private static Long remap(Map<Long, Long> ids, Long fileId, String entity) {
+            if (fileId == null) {
+                return null;
+            }
+            Long savedId = ids.get(fileId);
+            if (savedId == null) {
+                throw new IllegalArgumentException(entity + " " + fileId + " is not defined in the import file");
+            }
+            return savedId;
+        }
+    }
+}
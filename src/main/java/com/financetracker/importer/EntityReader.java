@@ -0,0 +1,12 @@
+package com.financetracker.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Потоковый разбор файла импорта: сущности передаются обработчику по одной,
+ * файл целиком в память не загружается.
+ */
+public interface EntityReader {
+    void read(Path file, ImportHandler handler) throws IOException;
+}
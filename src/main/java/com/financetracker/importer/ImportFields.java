@@ -0,0 +1,52 @@
+package com.financetracker.importer;
+
+import com.financetracker.model.*;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Сборка сущностей из именованных полей записи. Имена полей совпадают с теми,
+ * что пишут CsvExportVisitor и JacksonExportVisitor. Пустое или отсутствующее поле означает null.
+ */
+final class ImportFields {
+
+    private ImportFields() {
+    }
+
+    static BankAccount toBankAccount(Function<String, String> fields) {
+        return new BankAccount(toLong(fields.apply("id")), toText(fields.apply("name")),
+                toCents(fields.apply("balance")), toCents(fields.apply("openingBalance")));
+    }
+
+    static Category toCategory(Function<String, String> fields) {
+        String type = toText(fields.apply("type"));
+        return new Category(toLong(fields.apply("id")), toText(fields.apply("name")),
+                (type != null) ? CategoryType.valueOf(type) : null);
+    }
+
+    static Operation toOperation(Function<String, String> fields) {
+        String type = toText(fields.apply("type"));
+        String date = toText(fields.apply("date"));
+        return new Operation(toLong(fields.apply("id")),
+                (type != null) ? OperationType.valueOf(type) : null,
+                toLong(fields.apply("bankAccountId")),
+                toCents(fields.apply("amount")),
+                (date != null) ? LocalDate.parse(date) : null,
+                toText(fields.apply("description")),
+                toLong(fields.apply("categoryId")));
+    }
+
+    private static String toText(String value) {
+        return (value == null || value.isEmpty()) ? null : value;
+    }
+
+    private static Long toLong(String value) {
+        return (value == null || value.isEmpty()) ? null : Long.valueOf(value);
+    }
+
+    private static long toCents(String value) {
+        // сумма разбирается из десятичной строки точно, без double
+        return (value == null || value.isEmpty()) ? 0L : Money.parse(value).getMinorUnits();
+    }
+}
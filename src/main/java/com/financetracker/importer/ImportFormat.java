@@ -0,0 +1,21 @@
+package com.financetracker.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * Форматы, из которых возможен импорт: те же, что пишет экспорт, кроме текстового.
+ */
+public enum ImportFormat {
+    CSV,
+    JSON,
+    YAML;
+
+    public EntityReader reader() {
+        return switch (this) {
+            case CSV -> new CsvEntityReader();
+            case JSON -> new JacksonEntityReader(new JsonFactory());
+            case YAML -> new JacksonEntityReader(new YAMLFactory());
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.financetracker.importer;
+
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.Operation;
+
+/**
+ * Получатель сущностей, разобранных из файла импорта; обратная сторона DataExportVisitor.
+ * Ридер вызывает методы в порядке следования записей в файле.
+ */
+public interface ImportHandler {
+    void onBankAccount(BankAccount bankAccount);
+    void onCategory(Category category);
+    void onOperation(Operation operation);
+}
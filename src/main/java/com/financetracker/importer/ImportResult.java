@@ -0,0 +1,7 @@
+package com.financetracker.importer;
+
+/**
+ * Сколько сущностей каждого вида было импортировано.
+ */
+public record ImportResult(int bankAccounts, int categories, long operations) {
+}
@@ -0,0 +1,87 @@
+package com.financetracker.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разбор JSON или YAML в формате JacksonExportVisitor потоковым JsonParser:
+ * документ читается токенами, в памяти держатся только поля текущего объекта.
+ * Числа берутся текстом токена, поэтому суммы переводятся в копейки без потери точности.
+ */
+public class JacksonEntityReader implements EntityReader {
+
+    private final JsonFactory factory;
+
+    public JacksonEntityReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void read(Path file, ImportHandler handler) throws IOException {
+        try (JsonParser parser = factory.createParser(Files.newInputStream(file))) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+            expect(parser, JsonToken.START_OBJECT);
+
+            Map<String, String> fields = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                expect(parser, JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readFields(parser, fields);
+                    dispatch(parser, section, fields, handler);
+                }
+                expect(parser, JsonToken.END_ARRAY);
+            }
+        }
+    }
+
+    private static void readFields(JsonParser parser, Map<String, String> fields) throws IOException {
+        fields.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                parser.skipChildren();
+            } else if (value != JsonToken.VALUE_NULL) {
+                fields.put(name, parser.getText());
+            }
+        }
+    }
+
+    private static void dispatch(JsonParser parser, String section, Map<String, String> fields,
+                                 ImportHandler handler) throws IOException {
+        try {
+            switch (section) {
+                case "bankAccounts" -> handler.onBankAccount(ImportFields.toBankAccount(fields::get));
+                case "categories" -> handler.onCategory(ImportFields.toCategory(fields::get));
+                case "operations" -> handler.onOperation(ImportFields.toOperation(fields::get));
+                default -> {
+                    // неизвестные секции пропускаются
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new JsonParseException(parser, "Malformed " + section + " entry: " + e.getMessage(), e);
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + parser.currentToken());
+        }
+    }
+}
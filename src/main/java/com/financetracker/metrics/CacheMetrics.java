@@ -0,0 +1,50 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Счетчики кеша прокси. Всегда включены: инкремент LongAdder стоит единицы наносекунд
+ * и не дает конкуренции между потоками.
+ */
+public final class CacheMetrics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder storeQueries = new LongAdder();
+    private final IntSupplier size;
+
+    public CacheMetrics(IntSupplier size) {
+        this.size = size;
+    }
+
+    /**
+     * findById ответил из кеша.
+     */
+    public void hit() {
+        hits.increment();
+    }
+
+    /**
+     * findById не нашел запись в кеше и обратился к БД.
+     */
+    public void miss() {
+        misses.increment();
+    }
+
+    /**
+     * Выборка ушла в БД, потому что кеш не прогрет или ограничен.
+     */
+    public void storeQuery() {
+        storeQueries.increment();
+    }
+
+    public CacheStats snapshot(String name) {
+        return new CacheStats(name, hits.sum(), misses.sum(), storeQueries.sum(), size.getAsInt());
+    }
+
+    void reset() {
+        hits.reset();
+        misses.reset();
+        storeQueries.reset();
+    }
+}
@@ -0,0 +1,9 @@
+package com.financetracker.metrics;
+
+/**
+ * Бин с кешем, чьи счетчики попадают в {@link MetricsRegistry}.
+ */
+public interface CacheMetricsSource {
+
+    CacheMetrics getCacheMetrics();
+}
@@ -0,0 +1,35 @@
+package com.financetracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Периодическое JFR-событие с накопленными счетчиками кеша прокси.
+ */
+@Name("com.financetracker.CacheStatistics")
+@Label("Cache Statistics")
+@Category({"Finance Tracker", "Repositories"})
+@Description("Cumulative hit, miss and store query counts of a repository proxy cache")
+@Period("1 s")
+@StackTrace(false)
+class CacheStatisticsEvent extends Event {
+    @Label("Cache")
+    String cache;
+
+    @Label("Hits")
+    long hits;
+
+    @Label("Misses")
+    long misses;
+
+    @Label("Store Queries")
+    long storeQueries;
+
+    @Label("Size")
+    int size;
+}
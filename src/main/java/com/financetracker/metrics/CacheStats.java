@@ -0,0 +1,12 @@
+package com.financetracker.metrics;
+
+/**
+ * Снимок счетчиков кеша.
+ */
+public record CacheStats(String name, long hits, long misses, long storeQueries, int size) {
+
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,27 @@
+package com.financetracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-событие вызова метода репозитория или фасада. Пишется, только когда идет запись JFR
+ * и вызов длиннее порога (по умолчанию 1 мс, меняется в настройках записи).
+ */
+@Name("com.financetracker.MethodCall")
+@Label("Method Call")
+@Category({"Finance Tracker", "Repositories"})
+@Description("Call of a repository or facade method")
+@Threshold("1 ms")
+@StackTrace(false)
+class MethodCallEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+}
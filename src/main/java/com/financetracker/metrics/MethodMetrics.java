@@ -0,0 +1,37 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики одного метода репозитория или фасада.
+ */
+public final class MethodMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public MethodStats snapshot() {
+        return new MethodStats(name, latency.count(), errors.sum(), latency.meanNanos(),
+                latency.percentile(50), latency.percentile(99), latency.maxNanos());
+    }
+
+    void reset() {
+        latency.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,8 @@
+package com.financetracker.metrics;
+
+/**
+ * Снимок счетчиков метода; задержки в наносекундах.
+ */
+public record MethodStats(String name, long calls, long errors, double meanNanos,
+                          long p50Nanos, long p99Nanos, long maxNanos) {
+}
@@ -0,0 +1,73 @@
+package com.financetracker.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Регистрирует кеши прокси в {@link MetricsRegistry} и, если метрики включены, оборачивает бины,
+ * реализующие заданные интерфейсы, в динамический прокси с замером методов.
+ * Обернутый бин реализует все интерфейсы исходного класса, поэтому внедрять его нужно по интерфейсу.
+ * <p>
+ * Реестр запрашивается при обработке первого бина, а не при создании пост-процессора:
+ * иначе Spring создает его раньше остальных пост-процессоров и предупреждает, что бин
+ * реестра не обрабатывается ими.
+ */
+public class MetricsPostProcessor implements BeanPostProcessor {
+    private final Supplier<MetricsRegistry> registrySupplier;
+    private final List<Class<?>> instrumentedInterfaces;
+    private volatile MetricsRegistry registry;
+
+    public MetricsPostProcessor(MetricsRegistry registry, List<Class<?>> instrumentedInterfaces) {
+        this(() -> registry, instrumentedInterfaces);
+    }
+
+    public MetricsPostProcessor(Supplier<MetricsRegistry> registry, List<Class<?>> instrumentedInterfaces) {
+        this.registrySupplier = registry;
+        this.instrumentedInterfaces = List.copyOf(instrumentedInterfaces);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof MetricsRegistry) {
+            // сам реестр создается по запросу отсюда же и не оборачивается
+            return bean;
+        }
+        MetricsRegistry registry = registry();
+        if (bean instanceof CacheMetricsSource source) {
+            registry.registerCache(beanName, source.getCacheMetrics());
+        }
+        if (!registry.isEnabled()) {
+            return bean;
+        }
+
+        Set<Class<?>> matched = new HashSet<>();
+        for (Class<?> type : instrumentedInterfaces) {
+            if (type.isInstance(bean)) {
+                matched.add(type);
+            }
+        }
+        if (matched.isEmpty()) {
+            return bean;
+        }
+
+        ClassLoader classLoader = bean.getClass().getClassLoader();
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(bean.getClass(), classLoader);
+        return Proxy.newProxyInstance(classLoader, interfaces,
+                new TimingInvocationHandler(bean, beanName, matched, registry));
+    }
+
+    private MetricsRegistry registry() {
+        MetricsRegistry current = registry;
+        if (current == null) {
+            current = registrySupplier.get();
+            registry = current;
+        }
+        return current;
+    }
+}
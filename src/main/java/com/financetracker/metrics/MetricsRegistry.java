@@ -0,0 +1,82 @@
+package com.financetracker.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Метрики репозиториев и фасада: задержки и ошибки методов, счетчики кешей прокси.
+ * <p>
+ * Методы замеряются, только если включено свойство financetracker.metrics.enabled;
+ * иначе бины не оборачиваются и замер не стоит ничего. Пока метрики включены, счетчики кешей
+ * публикуются еще и периодическим JFR-событием.
+ */
+public class MetricsRegistry implements AutoCloseable {
+    private final boolean enabled;
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final Map<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+    private final Runnable cacheStatisticsHook = this::emitCacheStatistics;
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) {
+            FlightRecorder.addPeriodicEvent(CacheStatisticsEvent.class, cacheStatisticsHook);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public MethodMetrics method(String name) {
+        return methods.computeIfAbsent(name, MethodMetrics::new);
+    }
+
+    public void registerCache(String name, CacheMetrics metrics) {
+        caches.put(name, metrics);
+    }
+
+    public List<MethodStats> methodStats() {
+        List<MethodStats> result = new ArrayList<>(methods.size());
+        for (MethodMetrics metrics : methods.values()) {
+            result.add(metrics.snapshot());
+        }
+        result.sort(Comparator.comparing(MethodStats::name));
+        return result;
+    }
+
+    public List<CacheStats> cacheStats() {
+        List<CacheStats> result = new ArrayList<>(caches.size());
+        caches.forEach((name, metrics) -> result.add(metrics.snapshot(name)));
+        result.sort(Comparator.comparing(CacheStats::name));
+        return result;
+    }
+
+    public void reset() {
+        methods.values().forEach(MethodMetrics::reset);
+        caches.values().forEach(CacheMetrics::reset);
+    }
+
+    @Override
+    public void close() {
+        if (enabled) {
+            FlightRecorder.removePeriodicEvent(cacheStatisticsHook);
+        }
+    }
+
+    private void emitCacheStatistics() {
+        for (CacheStats stats : cacheStats()) {
+            CacheStatisticsEvent event = new CacheStatisticsEvent();
+            event.cache = stats.name();
+            event.hits = stats.hits();
+            event.misses = stats.misses();
+            event.storeQueries = stats.storeQueries();
+            event.size = stats.size();
+            event.commit();
+        }
+    }
+}
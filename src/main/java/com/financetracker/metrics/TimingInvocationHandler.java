@@ -0,0 +1,63 @@
+package com.financetracker.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обработчик динамического прокси: замеряет методы заданных интерфейсов, остальные
+ * (close, equals, toString...) вызывает напрямую.
+ */
+final class TimingInvocationHandler implements InvocationHandler {
+    private final Object target;
+    private final String beanName;
+    private final Set<Class<?>> instrumentedInterfaces;
+    private final MetricsRegistry registry;
+    private final Map<Method, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+
+    TimingInvocationHandler(Object target, String beanName, Set<Class<?>> instrumentedInterfaces,
+                            MetricsRegistry registry) {
+        this.target = target;
+        this.beanName = beanName;
+        this.instrumentedInterfaces = instrumentedInterfaces;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (!instrumentedInterfaces.contains(method.getDeclaringClass())) {
+            return invokeTarget(method, args);
+        }
+
+        MethodMetrics metrics = metricsByMethod.computeIfAbsent(method,
+                m -> registry.method(beanName + "." + m.getName()));
+        MethodCallEvent event = new MethodCallEvent();
+        event.begin();
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invokeTarget(method, args);
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - started, failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = beanName + "." + method.getName();
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.financetracker.model;
+
+/**
+ * Расхождение между балансом счета, который поддерживается инкрементально,
+ * и балансом, пересчитанным по всем операциям.
+ */
+public record BalanceDrift(Long bankAccountId, Money storedBalance, Money recalculatedBalance) {
+
+    public Money difference() {
+        return storedBalance.minus(recalculatedBalance);
+    }
+}
@@ -14,10 +14,55 @@ import lombok.AllArgsConstructor;
 public class BankAccount implements Visitable {
     private Long id;
     private String name;
-    private double balance;
+    // суммы в копейках, см. Money
+    private long balanceCents;
+    // начальный баланс счета, от которого пересчитывается текущий по операциям
+    private long openingBalanceCents;
+
+    public double getBalance() {
+        return Money.toMajor(balanceCents);
+    }
+
+    public void setBalance(double balance) {
+        this.balanceCents = Money.toMinor(balance);
+    }
+
+    public Money getBalanceMoney() {
+        return Money.ofMinor(balanceCents);
+    }
+
+    public double getOpeningBalance() {
+        return Money.toMajor(openingBalanceCents);
+    }
+
+    public void setOpeningBalance(double openingBalance) {
+        this.openingBalanceCents = Money.toMinor(openingBalance);
+    }
 
     @Override
     public void accept(DataExportVisitor visitor) {
         visitor.visit(this);
     }
-}
\ No newline at end of file
+
+    public static class BankAccountBuilder {
+        public BankAccountBuilder balance(double balance) {
+            this.balanceCents = Money.toMinor(balance);
+            return this;
+        }
+
+        public BankAccountBuilder balance(Money balance) {
+            this.balanceCents = balance.getMinorUnits();
+            return this;
+        }
+
+        public BankAccountBuilder openingBalance(double openingBalance) {
+            this.openingBalanceCents = Money.toMinor(openingBalance);
+            return this;
+        }
+
+        public BankAccountBuilder openingBalance(Money openingBalance) {
+            this.openingBalanceCents = openingBalance.getMinorUnits();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.financetracker.model;
+
+/**
+ * Неизменяемый снимок банковского счета, см. {@link OperationSnapshot}.
+ */
+public record BankAccountSnapshot(Long id, String name, long balanceCents, long openingBalanceCents) {
+
+    public static BankAccountSnapshot of(BankAccount account) {
+        return new BankAccountSnapshot(account.getId(), account.getName(),
+                account.getBalanceCents(), account.getOpeningBalanceCents());
+    }
+
+    public BankAccountSnapshot withBalanceCents(long balanceCents) {
+        return new BankAccountSnapshot(id, name, balanceCents, openingBalanceCents);
+    }
+
+    public BankAccount toBankAccount() {
+        return new BankAccount(id, name, balanceCents, openingBalanceCents);
+    }
+}
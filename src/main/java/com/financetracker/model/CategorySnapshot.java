@@ -0,0 +1,15 @@
+package com.financetracker.model;
+
+/**
+ * Неизменяемый снимок категории, см. {@link OperationSnapshot}.
+ */
+public record CategorySnapshot(Long id, String name, CategoryType type) {
+
+    public static CategorySnapshot of(Category category) {
+        return new CategorySnapshot(category.getId(), category.getName(), category.getType());
+    }
+
+    public Category toCategory() {
+        return new Category(id, name, type);
+    }
+}
@@ -0,0 +1,103 @@
+package com.financetracker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежная сумма с фиксированной точкой: хранится как целое число копеек (минорных единиц) в long.
+ * Сложение и вычитание точные, переполнение приводит к ArithmeticException, а не к тихой ошибке.
+ * Для агрегаций по большому числу операций используйте статические методы над примитивами,
+ * чтобы не создавать объекты на каждую строку.
+ */
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final double MINOR_PER_MAJOR = 100.0;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(double amount) {
+        return ofMinor(toMinor(amount));
+    }
+
+    public static Money parse(String amount) {
+        return ofMinor(toMinor(new BigDecimal(amount.trim())));
+    }
+
+    /**
+     * Переводит сумму в double в копейки с округлением половины вверх.
+     * Через BigDecimal.valueOf, чтобы 0.285 превращалось в 29 копеек, а не в 28.
+     */
+    public static long toMinor(double amount) {
+        return toMinor(BigDecimal.valueOf(amount));
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toMajor(long minorUnits) {
+        return minorUnits / MINOR_PER_MAJOR;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public double toDouble() {
+        return toMajor(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
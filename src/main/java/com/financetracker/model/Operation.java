@@ -17,13 +17,38 @@ public class Operation implements Visitable {
     private Long id;
     private OperationType type;
     private Long bankAccountId;
-    private double amount;
+    // сумма в копейках, см. Money
+    private long amountCents;
     private LocalDate date;
     private String description;
     private Long categoryId;
 
+    public double getAmount() {
+        return Money.toMajor(amountCents);
+    }
+
+    public void setAmount(double amount) {
+        this.amountCents = Money.toMinor(amount);
+    }
+
+    public Money getAmountMoney() {
+        return Money.ofMinor(amountCents);
+    }
+
     @Override
     public void accept(DataExportVisitor visitor) {
         visitor.visit(this);
     }
-}
\ No newline at end of file
+
+    public static class OperationBuilder {
+        public OperationBuilder amount(double amount) {
+            this.amountCents = Money.toMinor(amount);
+            return this;
+        }
+
+        public OperationBuilder amount(Money amount) {
+            this.amountCents = amount.getMinorUnits();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Позиция в выдаче операций, упорядоченной по дате (операции без даты первыми), затем по id.
+ * Страница "после курсора" начинается со следующей за ним операции, поэтому листание
+ * не зависит от смещения и не пропускает строки при вставках в уже пройденную часть.
+ */
+public record OperationCursor(LocalDate date, Long id) {
+    /** Позиция перед первой операцией. */
+    public static final OperationCursor START = new OperationCursor(null, null);
+
+    private static final Comparator<LocalDate> DATE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<Long> ID_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    public static OperationCursor of(Operation operation) {
+        return new OperationCursor(operation.getDate(), operation.getId());
+    }
+
+    public static OperationCursor of(OperationSnapshot snapshot) {
+        return new OperationCursor(snapshot.date(), snapshot.id());
+    }
+
+    /**
+     * Сравнивает позиции в порядке выдачи.
+     */
+    public static int compare(LocalDate date, Long id, LocalDate otherDate, Long otherId) {
+        int byDate = DATE_ORDER.compare(date, otherDate);
+        return (byDate != 0) ? byDate : ID_ORDER.compare(id, otherId);
+    }
+
+    /**
+     * Лежит ли операция с такими датой и id строго после курсора.
+     */
+    public boolean precedes(LocalDate otherDate, Long otherId) {
+        return compare(date, id, otherDate, otherId) < 0;
+    }
+}
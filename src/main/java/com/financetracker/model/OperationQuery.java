@@ -0,0 +1,57 @@
+package com.financetracker.model;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Составной фильтр операций: все заданные условия объединяются через "и", null означает "любое".
+ * Границы дат и сумм включительные; если задана хотя бы одна граница дат, операции без даты не подходят.
+ * Репозитории с индексами сами решают, по какому условию отбирать кандидатов,
+ * остальные условия проверяются через {@link #matches}.
+ */
+@Builder(toBuilder = true)
+public record OperationQuery(Long bankAccountId, Long categoryId, OperationType type,
+                             LocalDate from, LocalDate to, Money minAmount, Money maxAmount) {
+
+    public boolean matches(Operation operation) {
+        return matches(operation.getBankAccountId(), operation.getCategoryId(), operation.getType(),
+                operation.getDate(), operation.getAmountCents());
+    }
+
+    public boolean matches(OperationSnapshot snapshot) {
+        return matches(snapshot.bankAccountId(), snapshot.categoryId(), snapshot.type(),
+                snapshot.date(), snapshot.amountCents());
+    }
+
+    public boolean hasDateRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Проверка суммы отдельно от остальных условий: по сумме индексов нет, это всегда остаточный фильтр.
+     */
+    public boolean matchesAmount(long amountCents) {
+        return (minAmount == null || amountCents >= minAmount.getMinorUnits())
+                && (maxAmount == null || amountCents <= maxAmount.getMinorUnits());
+    }
+
+    public boolean matchesDate(LocalDate date) {
+        if (!hasDateRange()) {
+            return true;
+        }
+        return date != null
+                && (from == null || !date.isBefore(from))
+                && (to == null || !date.isAfter(to));
+    }
+
+    private boolean matches(Long operationAccountId, Long operationCategoryId, OperationType operationType,
+                            LocalDate date, long amountCents) {
+        return (bankAccountId == null || Objects.equals(bankAccountId, operationAccountId))
+                && (categoryId == null || Objects.equals(categoryId, operationCategoryId))
+                && (type == null || type == operationType)
+                && matchesDate(date)
+                && matchesAmount(amountCents);
+    }
+}
@@ -0,0 +1,24 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Неизменяемый снимок операции. Его можно безопасно отдавать разным потребителям без копирования,
+ * поэтому Db-репозитории хранят именно снимки и возвращают их как есть из findAllSnapshots.
+ */
+public record OperationSnapshot(Long id, OperationType type, Long bankAccountId, long amountCents,
+                                LocalDate date, String description, Long categoryId) {
+
+    public static OperationSnapshot of(Operation operation) {
+        return new OperationSnapshot(operation.getId(), operation.getType(), operation.getBankAccountId(),
+                operation.getAmountCents(), operation.getDate(), operation.getDescription(),
+                operation.getCategoryId());
+    }
+
+    /**
+     * Изменяемая копия для вызывающего кода, одна аллокация без builder.
+     */
+    public Operation toOperation() {
+        return new Operation(id, type, bankAccountId, amountCents, date, description, categoryId);
+    }
+}
@@ -2,23 +2,24 @@ package com.financetracker.repository;
 
 import com.financetracker.model.BankAccount;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
+import com.financetracker.repository.support.IdSequence;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 public class BankAccountRepository implements BankAccountRepositoryInterface {
-    private final Map<Long, BankAccount> accounts = new HashMap<>();
-    private Long idSequence = 1L;
+    private final Map<Long, BankAccount> accounts = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     @Override
     public BankAccount save(BankAccount bankAccount) {
         if (bankAccount.getId() == null) {
-            bankAccount.setId(idSequence++);
+            bankAccount.setId(idSequence.next());
         }
         accounts.put(bankAccount.getId(), bankAccount);
         return bankAccount;
@@ -26,7 +27,7 @@ public class BankAccountRepository implements BankAccountRepositoryInterface {
 
     @Override
     public Optional<BankAccount> findById(Long id) {
-        return Optional.ofNullable(accounts.get(id));
+        return (id != null) ? Optional.ofNullable(accounts.get(id)) : Optional.empty();
     }
 
     @Override
@@ -41,6 +42,8 @@ public class BankAccountRepository implements BankAccountRepositoryInterface {
 
     @Override
     public void deleteById(Long id) {
-        accounts.remove(id);
+        if (id != null) {
+            accounts.remove(id);
+        }
     }
 }
\ No newline at end of file
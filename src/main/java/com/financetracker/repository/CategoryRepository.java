@@ -2,30 +2,31 @@ package com.financetracker.repository;
 
 import com.financetracker.model.Category;
 import com.financetracker.model.CategoryType;
+import com.financetracker.repository.support.IdSequence;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Repository
 public class CategoryRepository {
-    private final Map<Long, Category> categories = new HashMap<>();
-    private Long idSequence = 1L;
+    private final Map<Long, Category> categories = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     public Category save(Category category) {
         if (category.getId() == null) {
-            category.setId(idSequence++);
+            category.setId(idSequence.next());
         }
         categories.put(category.getId(), category);
         return category;
     }
 
     public Optional<Category> findById(Long id) {
-        return Optional.ofNullable(categories.get(id));
+        return (id != null) ? Optional.ofNullable(categories.get(id)) : Optional.empty();
     }
 
     public List<Category> findAll() {
@@ -43,6 +44,8 @@ public class CategoryRepository {
     }
 
     public void deleteById(Long id) {
-        categories.remove(id);
+        if (id != null) {
+            categories.remove(id);
+        }
     }
 }
\ No newline at end of file
@@ -2,31 +2,32 @@ package com.financetracker.repository;
 
 import com.financetracker.model.Operation;
 import com.financetracker.model.OperationType;
+import com.financetracker.repository.support.IdSequence;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Repository
 public class OperationRepository {
-    private final Map<Long, Operation> operations = new HashMap<>();
-    private Long idSequence = 1L;
+    private final Map<Long, Operation> operations = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     public Operation save(Operation operation) {
         if (operation.getId() == null) {
-            operation.setId(idSequence++);
+            operation.setId(idSequence.next());
         }
         operations.put(operation.getId(), operation);
         return operation;
     }
 
     public Optional<Operation> findById(Long id) {
-        return Optional.ofNullable(operations.get(id));
+        return (id != null) ? Optional.ofNullable(operations.get(id)) : Optional.empty();
     }
 
     public List<Operation> findAll() {
@@ -63,6 +64,8 @@ public class OperationRepository {
     }
 
     public void deleteById(Long id) {
-        operations.remove(id);
+        if (id != null) {
+            operations.remove(id);
+        }
     }
 }
\ No newline at end of file
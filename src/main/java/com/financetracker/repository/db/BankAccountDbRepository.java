@@ -1,68 +1,79 @@
 package com.financetracker.repository.db;
 
 import com.financetracker.model.BankAccount;
+import com.financetracker.model.BankAccountSnapshot;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
+import com.financetracker.repository.support.IdSequence;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
+/**
+ * Хранилище неизменяемых снимков счетов в памяти, как {@link OperationDbRepository}: save кладет
+ * новый снимок на место прежнего, findSnapshotById отдает сохраненный снимок без копирования,
+ * а изменяемые BankAccount собираются только на выходе. Баланс меняется заменой снимка через save.
+ */
 @Repository
+@ConditionalOnProperty(name = "financetracker.storage.accounts", havingValue = "map", matchIfMissing = true)
 public class BankAccountDbRepository implements BankAccountRepositoryInterface {
-    // вместо реально бд заглушка с глубоким копированием для имитации сохрания и
-    // возвращение копии как получение данных из бд
 
-    private final Map<Long, BankAccount> dbStorage = new HashMap<>();
-    private Long idSequence = 1L;
+    private final Map<Long, BankAccountSnapshot> dbStorage = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     @Override
     public BankAccount save(BankAccount bankAccount) {
         if (bankAccount.getId() == null) {
-            bankAccount.setId(idSequence++);
+            bankAccount.setId(idSequence.next());
+        } else {
+            idSequence.observe(bankAccount.getId());
         }
-        BankAccount savedAccount = BankAccount.builder()
-                .id(bankAccount.getId())
-                .name(bankAccount.getName())
-                .balance(bankAccount.getBalance())
-                .build();
+        BankAccountSnapshot snapshot = BankAccountSnapshot.of(bankAccount);
 
-        dbStorage.put(savedAccount.getId(), savedAccount);
-        return savedAccount;
+        dbStorage.put(snapshot.id(), snapshot);
+        return snapshot.toBankAccount();
     }
 
     @Override
     public Optional<BankAccount> findById(Long id) {
-        BankAccount account = dbStorage.get(id);
-        if (account == null) {
-            return Optional.empty();
-        }
-
-        return Optional.of(BankAccount.builder()
-                .id(account.getId())
-                .name(account.getName())
-                .balance(account.getBalance())
-                .build());
+        return findSnapshotById(id).map(BankAccountSnapshot::toBankAccount);
     }
 
     @Override
     public List<BankAccount> findAll() {
-        List<BankAccount> result = new ArrayList<>();
-        for (BankAccount account : dbStorage.values()) {
-            result.add(BankAccount.builder()
-                    .id(account.getId())
-                    .name(account.getName())
-                    .balance(account.getBalance())
-                    .build());
+        List<BankAccount> result = new ArrayList<>(dbStorage.size());
+        for (BankAccountSnapshot snapshot : dbStorage.values()) {
+            result.add(snapshot.toBankAccount());
         }
         return result;
     }
 
+    @Override
+    public Stream<BankAccount> streamAll() {
+        return dbStorage.values().stream().map(BankAccountSnapshot::toBankAccount);
+    }
+
+    @Override
+    public Optional<BankAccountSnapshot> findSnapshotById(Long id) {
+        return (id != null) ? Optional.ofNullable(dbStorage.get(id)) : Optional.empty();
+    }
+
+    @Override
+    public List<BankAccountSnapshot> findAllSnapshots() {
+        return new ArrayList<>(dbStorage.values());
+    }
+
     @Override
     public void delete(BankAccount bankAccount) {
-        dbStorage.remove(bankAccount.getId());
+        deleteById(bankAccount.getId());
     }
 
     @Override
     public void deleteById(Long id) {
-        dbStorage.remove(id);
+        if (id != null) {
+            dbStorage.remove(id);
+        }
     }
-}
\ No newline at end of file
+}
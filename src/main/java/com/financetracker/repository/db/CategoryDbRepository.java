@@ -1,80 +1,108 @@
 package com.financetracker.repository.db;
 
 import com.financetracker.model.Category;
+import com.financetracker.model.CategorySnapshot;
 import com.financetracker.model.CategoryType;
 import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
+import com.financetracker.repository.support.IdSequence;
+import com.financetracker.repository.support.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Хранилище неизменяемых снимков категорий в памяти. Названия, как и описания операций,
+ * берутся из общего {@link StringDictionary}: одинаковые строки делят один экземпляр,
+ * ссылка отдается при перезаписи и удалении снимка.
+ */
 @Repository("categoryDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.categories", havingValue = "map", matchIfMissing = true)
 public class CategoryDbRepository implements CategoryRepositoryInterface {
 
-    private final Map<Long, Category> dbStorage = new HashMap<>();
-    private Long idSequence = 1L;
+    private final Map<Long, CategorySnapshot> dbStorage = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
+    private final StringDictionary names;
+
+    public CategoryDbRepository() {
+        this(new StringDictionary());
+    }
+
+    @Autowired
+    public CategoryDbRepository(StringDictionary names) {
+        this.names = names;
+    }
 
     @Override
     public Category save(Category category) {
         if (category.getId() == null) {
-            category.setId(idSequence++);
+            category.setId(idSequence.next());
+        } else {
+            idSequence.observe(category.getId());
         }
-        Category savedCategory = Category.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .type(category.getType())
-                .build();
-
-        dbStorage.put(savedCategory.getId(), savedCategory);
-        return savedCategory;
+        category.setName(names.share(category.getName()));
+        CategorySnapshot snapshot = CategorySnapshot.of(category);
+
+        released(dbStorage.put(snapshot.id(), snapshot));
+        return snapshot.toCategory();
     }
 
     @Override
     public Optional<Category> findById(Long id) {
-        Category category = dbStorage.get(id);
-        if (category == null) {
-            return Optional.empty();
-        }
-
-        return Optional.of(Category.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .type(category.getType())
-                .build());
+        return findSnapshotById(id).map(CategorySnapshot::toCategory);
     }
 
     @Override
     public List<Category> findAll() {
-        List<Category> result = new ArrayList<>();
-        for (Category category : dbStorage.values()) {
-            result.add(Category.builder()
-                    .id(category.getId())
-                    .name(category.getName())
-                    .type(category.getType())
-                    .build());
+        List<Category> result = new ArrayList<>(dbStorage.size());
+        for (CategorySnapshot snapshot : dbStorage.values()) {
+            result.add(snapshot.toCategory());
         }
         return result;
     }
 
+    @Override
+    public Stream<Category> streamAll() {
+        return dbStorage.values().stream().map(CategorySnapshot::toCategory);
+    }
+
     @Override
     public List<Category> findByType(CategoryType type) {
         return dbStorage.values().stream()
-                .filter(category -> category.getType() == type)
-                .map(category -> Category.builder()
-                        .id(category.getId())
-                        .name(category.getName())
-                        .type(category.getType())
-                        .build())
+                .filter(snapshot -> snapshot.type() == type)
+                .map(CategorySnapshot::toCategory)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<CategorySnapshot> findSnapshotById(Long id) {
+        return (id != null) ? Optional.ofNullable(dbStorage.get(id)) : Optional.empty();
+    }
+
+    @Override
+    public List<CategorySnapshot> findAllSnapshots() {
+        return new ArrayList<>(dbStorage.values());
+    }
+
     @Override
     public void delete(Category category) {
-        dbStorage.remove(category.getId());
+        deleteById(category.getId());
     }
 
     @Override
     public void deleteById(Long id) {
-        dbStorage.remove(id);
+        if (id != null) {
+            released(dbStorage.remove(id));
+        }
+    }
+
+    private void released(CategorySnapshot replaced) {
+        if (replaced != null) {
+            names.release(replaced.name());
+        }
     }
-}
\ No newline at end of file
+}
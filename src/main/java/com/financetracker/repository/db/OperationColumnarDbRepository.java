@@ -0,0 +1,597 @@
+package com.financetracker.repository.db;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationSnapshot;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.support.IdSequence;
+import com.financetracker.repository.support.KeysetPages;
+import com.financetracker.repository.support.OperationDateOrder;
+import com.financetracker.repository.support.StringDictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Колоночное хранилище операций: каждое поле лежит в своем примитивном массиве,
+ * описания закодированы словарем. Объекты Operation создаются только на выходе из репозитория,
+ * а фильтры идут последовательным проходом по одной колонке.
+ * Строки упорядочены по id: строка находится двоичным поиском, а страница по id - срез колонок
+ * после найденной позиции. Новые id выдаются по возрастанию, поэтому вставка почти всегда
+ * дописывает строку в конец; вставка в середину и удаление сдвигают хвост колонок.
+ * Порядок по дате - отдельный примитивный индекс {@link OperationDateOrder}, без объектов на строку.
+ * Колонки меняются согласованно, поэтому доступ к ним защищен одной read-write блокировкой:
+ * сканирования идут параллельно, запись эксклюзивна.
+ * Включается свойством financetracker.storage.operations=columnar вместо OperationDbRepository.
+ */
+@Repository("operationDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.operations", havingValue = "columnar")
+public class OperationColumnarDbRepository implements OperationRepositoryInterface {
+    private static final int INITIAL_CAPACITY = 1024;
+    // сколько строк streamAll материализует за один захват блокировки
+    private static final int STREAM_CHUNK = 512;
+
+    // маркеры отсутствующих значений в примитивных колонках
+    private static final long NO_ID = Long.MIN_VALUE;
+    private static final int NO_DATE = OperationDateOrder.UNDATED;
+    private static final byte NO_TYPE = -1;
+
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] bankAccountIds = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private long[] amountCents = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] descriptionCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // строится под блокировкой чтения по колонкам, сбрасывается под блокировкой записи
+    private final OperationDateOrder dateOrder = new OperationDateOrder(row -> {
+        for (int i = 0; i < size; i++) {
+            row.accept(ids[i], epochDays[i]);
+        }
+    });
+
+    // коды описаний берутся из общего словаря со счетчиком ссылок и отдаются при удалении строки
+    private final StringDictionary descriptions;
+
+    private final IdSequence idSequence = new IdSequence();
+
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public OperationColumnarDbRepository() {
+        this(new StringDictionary());
+    }
+
+    @Autowired
+    public OperationColumnarDbRepository(StringDictionary descriptions) {
+        this.descriptions = descriptions;
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    @Override
+    public Operation save(Operation operation) {
+        checkColumns(operation);
+        if (operation.getId() == null) {
+            operation.setId(idSequence.next());
+        } else {
+            idSequence.observe(operation.getId());
+        }
+
+        writeLock.lock();
+        try {
+            return materialize(store(operation));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> saveAll(List<Operation> operations) {
+        // весь пакет проверяется до выдачи id и записи: строки не выделяются под то, что не запишется
+        operations.forEach(OperationColumnarDbRepository::checkColumns);
+        long nextId = idSequence.reserveFor(operations, Operation::getId);
+        for (Operation operation : operations) {
+            if (operation.getId() == null) {
+                operation.setId(nextId++);
+            } else {
+                idSequence.observe(operation.getId());
+            }
+        }
+
+        List<Operation> result = new ArrayList<>(operations.size());
+        writeLock.lock();
+        try {
+            // колонки расширяются один раз на весь пакет, а не по мере роста
+            ensureCapacity(size + operations.size());
+            for (Operation operation : operations) {
+                result.add(materialize(store(operation)));
+            }
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Operation> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        readLock.lock();
+        try {
+            int row = rowOf(id);
+            return (row < 0) ? Optional.empty() : Optional.of(materialize(row));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        readLock.lock();
+        try {
+            List<Operation> result = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                result.add(materialize(row));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Строки отдаются порциями по STREAM_CHUNK: блокировка держится только на время
+     * материализации порции, а не всего обхода. Вставка и удаление сдвигают строки,
+     * поэтому при параллельной записи строка может быть пропущена или встретиться дважды.
+     */
+    @Override
+    public Stream<Operation> streamAll() {
+        Iterator<Operation> rows = new Iterator<>() {
+            private final List<Operation> chunk = new ArrayList<>(STREAM_CHUNK);
+            private int position;
+            private int nextRow;
+
+            @Override
+            public boolean hasNext() {
+                if (position == chunk.size()) {
+                    chunk.clear();
+                    position = 0;
+                    nextRow = readChunk(nextRow, chunk);
+                }
+                return position < chunk.size();
+            }
+
+            @Override
+            public Operation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Строки упорядочены по id: начало страницы ищется двоичным поиском, затем читается limit строк.
+     */
+    @Override
+    public List<Operation> findPageAfterId(Long afterId, int limit) {
+        KeysetPages.checkLimit(limit);
+        readLock.lock();
+        try {
+            int from = firstRowAfter(afterId);
+            int to = (int) Math.min(size, (long) from + limit);
+            List<Operation> page = new ArrayList<>(Math.max(0, to - from));
+            for (int row = from; row < to; row++) {
+                page.add(materialize(row));
+            }
+            return page;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Проход по колонкам от позиции afterId до заполнения страницы; материализуются только ее строки.
+     */
+    @Override
+    public List<Operation> findPageByQuery(OperationQuery query, Long afterId, int limit) {
+        KeysetPages.checkLimit(limit);
+        RowFilter filter = new RowFilter(query);
+        List<Operation> page = new ArrayList<>(Math.min(limit, 1024));
+        readLock.lock();
+        try {
+            for (int row = firstRowAfter(afterId); row < size && page.size() < limit; row++) {
+                if (filter.test(row)) {
+                    page.add(materialize(row));
+                }
+            }
+            return page;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findPageByDate(OperationCursor after, int limit) {
+        readLock.lock();
+        try {
+            return dateOrder.page(after, limit, (id, epochDay) -> {
+                int row = rowOf(id);
+                return (row >= 0 && epochDays[row] == epochDay) ? materialize(row) : null;
+            });
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findByBankAccountId(Long bankAccountId) {
+        return (bankAccountId == null) ? new ArrayList<>() : scan(() -> bankAccountIds, bankAccountId);
+    }
+
+    @Override
+    public List<Operation> findByType(OperationType type) {
+        List<Operation> result = new ArrayList<>();
+        if (type == null) {
+            return result;
+        }
+
+        byte code = (byte) type.ordinal();
+        readLock.lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (types[row] == code) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findByCategoryId(Long categoryId) {
+        return (categoryId == null) ? new ArrayList<>() : scan(() -> categoryIds, categoryId);
+    }
+
+    @Override
+    public List<Operation> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<Operation> result = new ArrayList<>();
+        if (startDate == null || endDate == null) {
+            return result;
+        }
+
+        int from = clampEpochDay(startDate.toEpochDay());
+        int to = clampEpochDay(endDate.toEpochDay());
+        readLock.lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                int day = epochDays[row];
+                if (day != NO_DATE && day >= from && day <= to) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Условия проверяются по колонкам без материализации: сначала самые дешевые сравнения ключей,
+     * затем даты и суммы. Объекты создаются только для подошедших строк; строки уже идут по id.
+     */
+    @Override
+    public List<Operation> findByQuery(OperationQuery query) {
+        RowFilter filter = new RowFilter(query);
+        List<Operation> result = new ArrayList<>();
+        readLock.lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (filter.test(row)) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<OperationSnapshot> findSnapshotById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        readLock.lock();
+        try {
+            int row = rowOf(id);
+            return (row < 0) ? Optional.empty() : Optional.of(snapshot(row));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<OperationSnapshot> findAllSnapshots() {
+        readLock.lock();
+        try {
+            List<OperationSnapshot> result = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                result.add(snapshot(row));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Operation operation) {
+        deleteById(operation.getId());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            int row = rowOf(id);
+            if (row >= 0) {
+                removeRows(new int[]{row});
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Весь пакет удаляется под одной блокировкой записи и одним сдвигом колонок.
+     */
+    @Override
+    public void deleteAllById(Collection<Long> ids) {
+        writeLock.lock();
+        try {
+            int[] rows = new int[ids.size()];
+            int count = 0;
+            for (Long id : ids) {
+                int row = (id != null) ? rowOf(id) : -1;
+                if (row >= 0) {
+                    rows[count++] = row;
+                }
+            }
+            rows = Arrays.stream(rows, 0, count).sorted().distinct().toArray();
+            if (rows.length > 0) {
+                removeRows(rows);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает операцию в ее строку; новая строка вставляется на место по id. Возвращает номер строки.
+     */
+    private int store(Operation operation) {
+        long id = operation.getId();
+        int row = rowOf(id);
+        if (row >= 0) {
+            int replacedDescription = descriptionCodes[row];
+            int replacedDay = epochDays[row];
+            write(row, operation);
+            descriptions.release(replacedDescription);
+            if (epochDays[row] != replacedDay) {
+                dateOrder.invalidate();
+            }
+            return row;
+        }
+
+        row = -row - 1;
+        ensureCapacity(size + 1);
+        if (row < size) {
+            shiftRows(row, row + 1, size - row);
+        }
+        size++;
+        write(row, operation);
+        dateOrder.invalidate();
+        return row;
+    }
+
+    // строки отсортированы по возрастанию; оставшиеся строки сдвигаются к началу за один проход
+    private void removeRows(int[] rows) {
+        for (int row : rows) {
+            descriptions.release(descriptionCodes[row]);
+        }
+        int target = rows[0];
+        for (int i = 0; i < rows.length; i++) {
+            int from = rows[i] + 1;
+            int to = (i + 1 < rows.length) ? rows[i + 1] : size;
+            shiftRows(from, target, to - from);
+            target += to - from;
+        }
+        size = target;
+        dateOrder.invalidate();
+    }
+
+    // номер строки с этим id или (-(точка вставки) - 1), как у Arrays.binarySearch
+    private int rowOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private int firstRowAfter(Long afterId) {
+        if (afterId == null) {
+            return 0;
+        }
+        int row = rowOf(afterId);
+        return (row >= 0) ? row + 1 : -row - 1;
+    }
+
+    private int readChunk(int fromRow, List<Operation> target) {
+        readLock.lock();
+        try {
+            int to = Math.min(size, fromRow + STREAM_CHUNK);
+            for (int row = fromRow; row < to; row++) {
+                target.add(materialize(row));
+            }
+            return Math.max(fromRow, to);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private List<Operation> scan(Supplier<long[]> column, long key) {
+        List<Operation> result = new ArrayList<>();
+        readLock.lock();
+        try {
+            // колонку берем под блокировкой: ensureCapacity мог заменить массив
+            long[] current = column.get();
+            for (int row = 0; row < size; row++) {
+                if (current[row] == key) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(int row, Operation operation) {
+        ids[row] = operation.getId();
+        bankAccountIds[row] = toColumn(operation.getBankAccountId());
+        categoryIds[row] = toColumn(operation.getCategoryId());
+        amountCents[row] = operation.getAmountCents();
+        // диапазон проверен в checkColumns до выделения строки
+        epochDays[row] = (operation.getDate() != null) ? (int) operation.getDate().toEpochDay() : NO_DATE;
+        types[row] = (operation.getType() != null) ? (byte) operation.getType().ordinal() : NO_TYPE;
+        descriptionCodes[row] = descriptions.acquire(operation.getDescription());
+    }
+
+    private Operation materialize(int row) {
+        return new Operation(ids[row], typeAt(row), fromColumn(bankAccountIds[row]), amountCents[row],
+                dateAt(row), descriptionAt(row), fromColumn(categoryIds[row]));
+    }
+
+    private OperationSnapshot snapshot(int row) {
+        // колонки не хранят объекты, поэтому снимок тоже собирается на выходе
+        return new OperationSnapshot(ids[row], typeAt(row), fromColumn(bankAccountIds[row]), amountCents[row],
+                dateAt(row), descriptionAt(row), fromColumn(categoryIds[row]));
+    }
+
+    private OperationType typeAt(int row) {
+        return types[row] != NO_TYPE ? TYPES[types[row]] : null;
+    }
+
+    private LocalDate dateAt(int row) {
+        return epochDays[row] != NO_DATE ? LocalDate.ofEpochDay(epochDays[row]) : null;
+    }
+
+    private String descriptionAt(int row) {
+        return descriptions.valueOf(descriptionCodes[row]);
+    }
+
+    private void shiftRows(int from, int to, int count) {
+        if (count <= 0 || from == to) {
+            return;
+        }
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(bankAccountIds, from, bankAccountIds, to, count);
+        System.arraycopy(categoryIds, from, categoryIds, to, count);
+        System.arraycopy(amountCents, from, amountCents, to, count);
+        System.arraycopy(epochDays, from, epochDays, to, count);
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(descriptionCodes, from, descriptionCodes, to, count);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        bankAccountIds = Arrays.copyOf(bankAccountIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        types = Arrays.copyOf(types, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+    }
+
+    /**
+     * Условия запроса, переведенные в значения колонок.
+     */
+    private final class RowFilter {
+        private final OperationQuery query;
+        private final long accountKey;
+        private final long categoryKey;
+        private final byte typeCode;
+        private final int fromDay;
+        private final int toDay;
+
+        RowFilter(OperationQuery query) {
+            this.query = query;
+            this.accountKey = toColumn(query.bankAccountId());
+            this.categoryKey = toColumn(query.categoryId());
+            this.typeCode = (query.type() != null) ? (byte) query.type().ordinal() : NO_TYPE;
+            this.fromDay = (query.from() != null) ? clampEpochDay(query.from().toEpochDay()) : NO_DATE + 1;
+            this.toDay = (query.to() != null) ? clampEpochDay(query.to().toEpochDay()) : Integer.MAX_VALUE;
+        }
+
+        boolean test(int row) {
+            return (query.bankAccountId() == null || bankAccountIds[row] == accountKey)
+                    && (query.categoryId() == null || categoryIds[row] == categoryKey)
+                    && (query.type() == null || types[row] == typeCode)
+                    && (!query.hasDateRange() || (epochDays[row] >= fromDay && epochDays[row] <= toDay))
+                    && query.matchesAmount(amountCents[row]);
+        }
+    }
+
+    /**
+     * Значения, которые нельзя записать в колонки без потери: дата вне int epoch day
+     * (Integer.MIN_VALUE занят маркером NO_DATE) и ссылка, совпадающая с NO_ID.
+     */
+    private static void checkColumns(Operation operation) {
+        LocalDate date = operation.getDate();
+        if (date != null && (date.toEpochDay() <= Integer.MIN_VALUE || date.toEpochDay() > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Date is out of the columnar store range: " + date);
+        }
+        if (Objects.equals(operation.getBankAccountId(), NO_ID) || Objects.equals(operation.getCategoryId(), NO_ID)) {
+            throw new IllegalArgumentException("Reference id is reserved by the columnar store: " + NO_ID);
+        }
+    }
+
+    private static long toColumn(Long id) {
+        return (id != null) ? id : NO_ID;
+    }
+
+    private static Long fromColumn(long value) {
+        return (value != NO_ID) ? value : null;
+    }
+
+    private static int clampEpochDay(long epochDay) {
+        // NO_DATE занимает Integer.MIN_VALUE, поэтому нижняя граница на единицу выше
+        return (int) Math.max(Integer.MIN_VALUE + 1L, Math.min(Integer.MAX_VALUE, epochDay));
+    }
+}
@@ -1,146 +1,250 @@
 package com.financetracker.repository.db;
 
 import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationSnapshot;
 import com.financetracker.model.OperationType;
 import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.support.IdSequence;
+import com.financetracker.repository.support.KeysetPages;
+import com.financetracker.repository.support.OperationDateOrder;
+import com.financetracker.repository.support.StringDictionary;
+import com.financetracker.search.DescriptionIndex;
+import com.financetracker.search.SearchQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Хранилище неизменяемых снимков операций в памяти. Карта упорядочена по id, поэтому страница
+ * по id - срез карты после курсора; порядок по дате - примитивный индекс {@link OperationDateOrder}.
+ * <p>
+ * Снимки отдаются наружу как есть (findSnapshotById, findAllSnapshots), поэтому хранят само описание,
+ * а не его код в словаре: строка берется из общего {@link StringDictionary} через share, и одинаковые
+ * описания делят один экземпляр. Ссылка отдается по строке при перезаписи и удалении снимка.
+ * Коды вместо строк хранит колоночное хранилище.
+ */
 @Repository("operationDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.operations", havingValue = "map", matchIfMissing = true)
 public class OperationDbRepository implements OperationRepositoryInterface {
 
-    private final Map<Long, Operation> dbStorage = new HashMap<>();
-    private Long idSequence = 1L;
+    private final ConcurrentNavigableMap<Long, OperationSnapshot> dbStorage = new ConcurrentSkipListMap<>();
+    private final IdSequence idSequence = new IdSequence();
+    private final OperationDateOrder dateOrder = new OperationDateOrder(row -> {
+        for (OperationSnapshot snapshot : dbStorage.values()) {
+            row.accept(snapshot.id(), OperationDateOrder.epochDayOf(snapshot.date()));
+        }
+    });
+    // одинаковые описания всех снимков делят один экземпляр строки
+    private final StringDictionary descriptions;
+
+    public OperationDbRepository() {
+        this(new StringDictionary());
+    }
+
+    @Autowired
+    public OperationDbRepository(StringDictionary descriptions) {
+        this.descriptions = descriptions;
+    }
 
     @Override
     public Operation save(Operation operation) {
         if (operation.getId() == null) {
-            operation.setId(idSequence++);
+            operation.setId(idSequence.next());
+        } else {
+            idSequence.observe(operation.getId());
         }
-        Operation savedOperation = Operation.builder()
-                .id(operation.getId())
-                .type(operation.getType())
-                .bankAccountId(operation.getBankAccountId())
-                .amount(operation.getAmount())
-                .date(operation.getDate())
-                .description(operation.getDescription())
-                .categoryId(operation.getCategoryId())
-                .build();
+        OperationSnapshot snapshot = share(operation);
 
-        dbStorage.put(savedOperation.getId(), savedOperation);
-        return savedOperation;
+        store(snapshot);
+        return snapshot.toOperation();
     }
 
     @Override
-    public Optional<Operation> findById(Long id) {
-        Operation operation = dbStorage.get(id);
-        if (operation == null) {
-            return Optional.empty();
+    public List<Operation> saveAll(List<Operation> operations) {
+        long nextId = idSequence.reserveFor(operations, Operation::getId);
+
+        Map<Long, OperationSnapshot> batch = new HashMap<>(operations.size() * 2);
+        List<Operation> result = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            if (operation.getId() == null) {
+                operation.setId(nextId++);
+            } else {
+                idSequence.observe(operation.getId());
+            }
+            OperationSnapshot snapshot = share(operation);
+            released(batch.put(snapshot.id(), snapshot));
+            result.add(snapshot.toOperation());
         }
 
-        return Optional.of(Operation.builder()
-                .id(operation.getId())
-                .type(operation.getType())
-                .bankAccountId(operation.getBankAccountId())
-                .amount(operation.getAmount())
-                .date(operation.getDate())
-                .description(operation.getDescription())
-                .categoryId(operation.getCategoryId())
-                .build());
+        batch.values().forEach(this::store);
+        return result;
+    }
+
+    @Override
+    public Optional<Operation> findById(Long id) {
+        return findSnapshotById(id).map(OperationSnapshot::toOperation);
     }
 
     @Override
     public List<Operation> findAll() {
-        List<Operation> result = new ArrayList<>();
-        for (Operation operation : dbStorage.values()) {
-            result.add(Operation.builder()
-                    .id(operation.getId())
-                    .type(operation.getType())
-                    .bankAccountId(operation.getBankAccountId())
-                    .amount(operation.getAmount())
-                    .date(operation.getDate())
-                    .description(operation.getDescription())
-                    .categoryId(operation.getCategoryId())
-                    .build());
+        List<Operation> result = new ArrayList<>(dbStorage.size());
+        for (OperationSnapshot snapshot : dbStorage.values()) {
+            result.add(snapshot.toOperation());
         }
         return result;
     }
 
+    @Override
+    public Stream<Operation> streamAll() {
+        return dbStorage.values().stream().map(OperationSnapshot::toOperation);
+    }
+
+    /**
+     * Страница - срез упорядоченной карты после afterId: O(log N + limit), материализуются только ее строки.
+     */
+    @Override
+    public List<Operation> findPageAfterId(Long afterId, int limit) {
+        return pageAfterId(afterId, limit, snapshot -> true);
+    }
+
+    @Override
+    public List<Operation> findPageByQuery(OperationQuery query, Long afterId, int limit) {
+        return pageAfterId(afterId, limit, query::matches);
+    }
+
+    @Override
+    public List<Operation> findPageByDate(OperationCursor after, int limit) {
+        return toOperations(dateOrder.page(after, limit, this::snapshotAt));
+    }
+
     @Override
     public List<Operation> findByBankAccountId(Long bankAccountId) {
-        return dbStorage.values().stream()
-                .filter(operation -> operation.getBankAccountId().equals(bankAccountId))
-                .map(operation -> Operation.builder()
-                        .id(operation.getId())
-                        .type(operation.getType())
-                        .bankAccountId(operation.getBankAccountId())
-                        .amount(operation.getAmount())
-                        .date(operation.getDate())
-                        .description(operation.getDescription())
-                        .categoryId(operation.getCategoryId())
-                        .build())
-                .collect(Collectors.toList());
+        return findWhere(snapshot -> Objects.equals(snapshot.bankAccountId(), bankAccountId));
     }
 
     @Override
     public List<Operation> findByType(OperationType type) {
-        return dbStorage.values().stream()
-                .filter(operation -> operation.getType() == type)
-                .map(operation -> Operation.builder()
-                        .id(operation.getId())
-                        .type(operation.getType())
-                        .bankAccountId(operation.getBankAccountId())
-                        .amount(operation.getAmount())
-                        .date(operation.getDate())
-                        .description(operation.getDescription())
-                        .categoryId(operation.getCategoryId())
-                        .build())
-                .collect(Collectors.toList());
+        return findWhere(snapshot -> snapshot.type() == type);
     }
 
     @Override
     public List<Operation> findByCategoryId(Long categoryId) {
-        return dbStorage.values().stream()
-                .filter(operation -> operation.getCategoryId().equals(categoryId))
-                .map(operation -> Operation.builder()
-                        .id(operation.getId())
-                        .type(operation.getType())
-                        .bankAccountId(operation.getBankAccountId())
-                        .amount(operation.getAmount())
-                        .date(operation.getDate())
-                        .description(operation.getDescription())
-                        .categoryId(operation.getCategoryId())
-                        .build())
-                .collect(Collectors.toList());
+        return findWhere(snapshot -> Objects.equals(snapshot.categoryId(), categoryId));
     }
 
     @Override
     public List<Operation> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return dbStorage.values().stream()
-                .filter(operation -> !operation.getDate().isBefore(startDate)
-                        && !operation.getDate().isAfter(endDate))
-                .map(operation -> Operation.builder()
-                        .id(operation.getId())
-                        .type(operation.getType())
-                        .bankAccountId(operation.getBankAccountId())
-                        .amount(operation.getAmount())
-                        .date(operation.getDate())
-                        .description(operation.getDescription())
-                        .categoryId(operation.getCategoryId())
-                        .build())
-                .collect(Collectors.toList());
+        return findWhere(snapshot -> snapshot.date() != null
+                && !snapshot.date().isBefore(startDate)
+                && !snapshot.date().isAfter(endDate));
+    }
+
+    /**
+     * Условия проверяются на снимках, копии создаются только для подошедших операций.
+     */
+    @Override
+    public List<Operation> findByQuery(OperationQuery query) {
+        // карта упорядочена по id, поэтому сортировать результат не нужно
+        return findWhere(query::matches);
+    }
+
+    @Override
+    public List<Operation> searchByDescription(String query, int limit) {
+        KeysetPages.checkLimit(limit);
+        return toOperations(DescriptionIndex.scan(dbStorage.values().stream(), OperationSnapshot::id,
+                OperationSnapshot::description, SearchQuery.parse(query), limit));
+    }
+
+    @Override
+    public Optional<OperationSnapshot> findSnapshotById(Long id) {
+        return (id != null) ? Optional.ofNullable(dbStorage.get(id)) : Optional.empty();
+    }
+
+    @Override
+    public List<OperationSnapshot> findAllSnapshots() {
+        return new ArrayList<>(dbStorage.values());
     }
 
     @Override
     public void delete(Operation operation) {
-        dbStorage.remove(operation.getId());
+        deleteById(operation.getId());
     }
 
     @Override
     public void deleteById(Long id) {
-        dbStorage.remove(id);
+        if (id == null) {
+            return;
+        }
+        OperationSnapshot removed = dbStorage.remove(id);
+        if (removed != null) {
+            dateOrder.invalidate();
+            released(removed);
+        }
+    }
+
+    private void store(OperationSnapshot snapshot) {
+        OperationSnapshot replaced = dbStorage.put(snapshot.id(), snapshot);
+        if (replaced == null || !Objects.equals(replaced.date(), snapshot.date())) {
+            dateOrder.invalidate();
+        }
+        released(replaced);
+    }
+
+    private List<Operation> pageAfterId(Long afterId, int limit, Predicate<OperationSnapshot> filter) {
+        KeysetPages.checkLimit(limit);
+        Collection<OperationSnapshot> tail = (afterId != null)
+                ? dbStorage.tailMap(afterId, false).values() : dbStorage.values();
+        List<Operation> page = new ArrayList<>(Math.min(limit, 1024));
+        for (OperationSnapshot snapshot : tail) {
+            if (filter.test(snapshot)) {
+                page.add(snapshot.toOperation());
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    // строка, перенесенная на другую дату после построения порядка, в этой позиции уже не выдается
+    private OperationSnapshot snapshotAt(long id, int epochDay) {
+        OperationSnapshot snapshot = dbStorage.get(id);
+        return (snapshot != null && OperationDateOrder.epochDayOf(snapshot.date()) == epochDay) ? snapshot : null;
+    }
+
+    private OperationSnapshot share(Operation operation) {
+        operation.setDescription(descriptions.share(operation.getDescription()));
+        return OperationSnapshot.of(operation);
+    }
+
+    private void released(OperationSnapshot replaced) {
+        if (replaced != null) {
+            descriptions.release(replaced.description());
+        }
+    }
+
+    private static List<Operation> toOperations(List<OperationSnapshot> snapshots) {
+        List<Operation> result = new ArrayList<>(snapshots.size());
+        for (OperationSnapshot snapshot : snapshots) {
+            result.add(snapshot.toOperation());
+        }
+        return result;
+    }
+
+    private List<Operation> findWhere(Predicate<OperationSnapshot> predicate) {
+        return dbStorage.values().stream()
+                .filter(predicate)
+                .map(OperationSnapshot::toOperation)
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
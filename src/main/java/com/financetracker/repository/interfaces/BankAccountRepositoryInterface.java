@@ -1,14 +1,33 @@
 package com.financetracker.repository.interfaces;
 
 import com.financetracker.model.BankAccount;
+import com.financetracker.model.BankAccountSnapshot;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BankAccountRepositoryInterface {
     BankAccount save(BankAccount bankAccount);
     Optional<BankAccount> findById(Long id);
     List<BankAccount> findAll();
+
+    /**
+     * Ленивый обход всех записей без сборки промежуточного списка.
+     * Обход слабо согласован: параллельные изменения могут быть видны или не видны.
+     */
+    default Stream<BankAccount> streamAll() {
+        return findAll().stream();
+    }
     void delete(BankAccount bankAccount);
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    // чтение без копирования: реализации, хранящие снимки, возвращают их как есть
+    default Optional<BankAccountSnapshot> findSnapshotById(Long id) {
+        return findById(id).map(BankAccountSnapshot::of);
+    }
+
+    default List<BankAccountSnapshot> findAllSnapshots() {
+        return findAll().stream().map(BankAccountSnapshot::of).toList();
+    }
+}
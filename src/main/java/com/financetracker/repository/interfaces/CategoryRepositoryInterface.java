@@ -1,16 +1,49 @@
 package com.financetracker.repository.interfaces;
 
 import com.financetracker.model.Category;
+import com.financetracker.model.CategorySnapshot;
 import com.financetracker.model.CategoryType;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Stream;
 
 public interface CategoryRepositoryInterface {
     Category save(Category category);
     Optional<Category> findById(Long id);
     List<Category> findAll();
+
+    /**
+     * Ленивый обход всех записей без сборки промежуточного списка.
+     * Обход слабо согласован: параллельные изменения могут быть видны или не видны.
+     */
+    default Stream<Category> streamAll() {
+        return findAll().stream();
+    }
     List<Category> findByType(CategoryType type);
+
+    /**
+     * Категории по набору id одним вызовом: id -> категория. Отсутствующие и null id пропускаются,
+     * повторы запрашиваются один раз.
+     */
+    default Map<Long, Category> findAllByIds(Collection<Long> ids) {
+        Map<Long, Category> result = new HashMap<>();
+        for (Long id : new HashSet<>(ids)) {
+            if (id != null) {
+                findById(id).ifPresent(category -> result.put(id, category));
+            }
+        }
+        return result;
+    }
+
     void delete(Category category);
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    // чтение без копирования: реализации, хранящие снимки, возвращают их как есть
+    default Optional<CategorySnapshot> findSnapshotById(Long id) {
+        return findById(id).map(CategorySnapshot::of);
+    }
+
+    default List<CategorySnapshot> findAllSnapshots() {
+        return findAll().stream().map(CategorySnapshot::of).toList();
+    }
+}
@@ -1,20 +1,160 @@
 package com.financetracker.repository.interfaces;
 
 import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationSnapshot;
 import com.financetracker.model.OperationType;
+import com.financetracker.repository.support.KeysetPages;
+import com.financetracker.search.DescriptionIndex;
+import com.financetracker.search.SearchQuery;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface OperationRepositoryInterface {
     Operation save(Operation operation);
+
+    /**
+     * Пакетное сохранение. Реализации резервируют id блоком и пишут весь пакет за один проход;
+     * возвращает сохраненные операции в порядке входного списка.
+     */
+    default List<Operation> saveAll(List<Operation> operations) {
+        List<Operation> result = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            result.add(save(operation));
+        }
+        return result;
+    }
+
     Optional<Operation> findById(Long id);
     List<Operation> findAll();
+
+    /**
+     * Ленивый обход всех записей без сборки промежуточного списка.
+     * Обход слабо согласован: параллельные изменения могут быть видны или не видны.
+     */
+    default Stream<Operation> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * Страница из не более чем limit операций с id больше afterId (null - с начала) по возрастанию id.
+     * Реализация по умолчанию отбирает страницу за один проход по streamAll и держит в памяти
+     * только limit операций; хранилища держат упорядоченный индекс id и отвечают за O(log N + limit).
+     */
+    default List<Operation> findPageAfterId(Long afterId, int limit) {
+        return KeysetPages.select(streamAll(),
+                operation -> afterId == null || operation.getId() > afterId,
+                Comparator.comparing(Operation::getId), limit);
+    }
+
+    /**
+     * Страница из не более чем limit операций после курсора (null - с начала)
+     * в порядке даты, затем id; операции без даты идут первыми.
+     * Реализация по умолчанию - полный проход, как у findPageAfterId; хранилища переопределяют ее
+     * индексом по (дата, id).
+     */
+    default List<Operation> findPageByDate(OperationCursor after, int limit) {
+        OperationCursor cursor = (after != null) ? after : OperationCursor.START;
+        return KeysetPages.select(streamAll(),
+                operation -> cursor.precedes(operation.getDate(), operation.getId()),
+                (a, b) -> OperationCursor.compare(a.getDate(), a.getId(), b.getDate(), b.getId()), limit);
+    }
+
+    /**
+     * Все операции по возрастанию id. Стрим читает хранилище страницами по мере потребления.
+     */
+    default Stream<Operation> streamOrderedById() {
+        return KeysetPages.stream((Long) null,
+                afterId -> findPageAfterId(afterId, KeysetPages.STREAM_PAGE_SIZE), Operation::getId);
+    }
+
+    /**
+     * Все операции в порядке даты, затем id. Стрим читает хранилище страницами по мере потребления.
+     */
+    default Stream<Operation> streamOrderedByDate() {
+        return KeysetPages.stream(OperationCursor.START,
+                cursor -> findPageByDate(cursor, KeysetPages.STREAM_PAGE_SIZE), OperationCursor::of);
+    }
+
     List<Operation> findByBankAccountId(Long bankAccountId);
     List<Operation> findByType(OperationType type);
     List<Operation> findByCategoryId(Long categoryId);
     List<Operation> findByDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Число операций счета. Реализация по умолчанию собирает список; прокси считает по индексу.
+     */
+    default int countByBankAccountId(Long bankAccountId) {
+        return findByBankAccountId(bankAccountId).size();
+    }
+
+    default int countByCategoryId(Long categoryId) {
+        return findByCategoryId(categoryId).size();
+    }
+
+    /**
+     * Операции, подходящие под все условия запроса, по возрастанию id.
+     * Реализация по умолчанию проверяет каждую операцию; хранилища с индексами
+     * сначала сужают кандидатов по самому избирательному из них.
+     */
+    default List<Operation> findByQuery(OperationQuery query) {
+        try (Stream<Operation> operations = streamAll()) {
+            return operations.filter(query::matches)
+                    .sorted(Comparator.comparing(Operation::getId))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Страница из не более чем limit операций с id больше afterId (null - с начала),
+     * подходящих под все условия запроса, по возрастанию id. Реализация по умолчанию -
+     * один проход, как у findPageAfterId; хранилища идут по упорядоченному индексу id
+     * и останавливаются на заполненной странице, прокси сужает кандидатов по индексам.
+     */
+    default List<Operation> findPageByQuery(OperationQuery query, Long afterId, int limit) {
+        return KeysetPages.select(streamAll(),
+                operation -> (afterId == null || operation.getId() > afterId) && query.matches(operation),
+                Comparator.comparing(Operation::getId), limit);
+    }
+
+    /**
+     * До limit операций, в описаниях которых встречаются слова запроса, по убыванию релевантности
+     * (см. {@link SearchQuery}). Реализация по умолчанию - один проход по всем операциям;
+     * прокси отвечает по инвертированному индексу.
+     */
+    default List<Operation> searchByDescription(String query, int limit) {
+        KeysetPages.checkLimit(limit);
+        return DescriptionIndex.scan(streamAll(), Operation::getId, Operation::getDescription,
+                SearchQuery.parse(query), limit);
+    }
+
     void delete(Operation operation);
     void deleteById(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Пакетное удаление: реализации удаляют весь пакет за один проход
+     * (одна блокировка хранилища, один fsync журнала). Отсутствующие id пропускаются.
+     */
+    default void deleteAllById(Collection<Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+
+    // чтение без копирования: реализации, хранящие снимки, возвращают их как есть
+    default Optional<OperationSnapshot> findSnapshotById(Long id) {
+        return findById(id).map(OperationSnapshot::of);
+    }
+
+    default List<OperationSnapshot> findAllSnapshots() {
+        return findAll().stream().map(OperationSnapshot::of).toList();
+    }
+}
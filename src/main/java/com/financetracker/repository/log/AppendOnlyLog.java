@@ -0,0 +1,439 @@
+package com.financetracker.repository.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал только на дозапись, разбитый на файлы-сегменты фиксированного размера.
+ * <p>
+ * Формат записи: длина полезной нагрузки (int), CRC32C типа и нагрузки (int), тип (byte), нагрузка.
+ * Запись идет через FileChannel, а fsync выполняется групповым коммитом: поток, дождавшийся
+ * своей очереди на {@link #sync(long)}, сбрасывает на диск все, что успели дописать остальные,
+ * и те, чьи записи уже покрыты, возвращаются без собственного fsync.
+ * <p>
+ * FileChannel закрывается, если поток прервали посреди записи или fsync. Тогда следующий вызов
+ * открывает сегмент заново и отрезает его до конца последней целой записи, так что прерванный
+ * вызывающий поток теряет только свою запись, а не журнал.
+ * <p>
+ * Снимок состояния пишется в отдельный файл и покрывает все сегменты до указанного номера,
+ * после чего эти сегменты удаляются (компактизация). При открытии читается последний снимок
+ * и оставшиеся сегменты через отображение в память; недописанная запись в конце
+ * последнего сегмента (обрыв при сбое) отрезается.
+ */
+public final class AppendOnlyLog implements Closeable {
+    public static final byte PUT = 1;
+    public static final byte DELETE = 2;
+    // служебная запись снимка: верхняя граница выданных идентификаторов
+    public static final byte SEQUENCE = 3;
+
+    private static final int HEADER_BYTES = 9;
+    // окно отображения при чтении: снимок может быть больше 2 ГБ, одним MappedByteBuffer его не покрыть
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final int SNAPSHOT_BUFFER = 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void onRecord(byte type, ByteBuffer payload);
+    }
+
+    @FunctionalInterface
+    public interface SnapshotSink {
+        void put(byte type, byte[] payload) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SnapshotWriter {
+        void writeTo(SnapshotSink sink) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    // под appendLock
+    private FileChannel active;
+    private long activeId;
+    private long activeSize;
+    private long written;
+    private long bytesSinceSnapshot;
+    private boolean closed;
+
+    private final AtomicLong durable = new AtomicLong();
+
+    private AppendOnlyLog(Path directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Открывает журнал в каталоге, передавая handler все записи последнего снимка и сегментов после него.
+     */
+    public static AppendOnlyLog open(Path directory, long maxSegmentBytes, RecordHandler handler) throws IOException {
+        if (maxSegmentBytes <= HEADER_BYTES || maxSegmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size out of range: " + maxSegmentBytes);
+        }
+        Files.createDirectories(directory);
+        AppendOnlyLog log = new AppendOnlyLog(directory, maxSegmentBytes);
+        log.recover(handler);
+        return log;
+    }
+
+    /**
+     * Дописывает запись и возвращает позицию ее конца. Запись еще не долговечна, см. {@link #sync(long)}.
+     */
+    public long append(byte type, byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(checksum(type, ByteBuffer.wrap(payload))).put(type).put(payload);
+        record.flip();
+
+        synchronized (appendLock) {
+            // прерывание посреди write закрыло бы канал: прерванный поток к нему не подпускаем
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Append interrupted");
+            }
+            ensureOpen();
+            if (activeSize > 0 && activeSize + record.remaining() > maxSegmentBytes) {
+                roll();
+            }
+            int length = record.remaining();
+            while (record.hasRemaining()) {
+                active.write(record);
+            }
+            activeSize += length;
+            written += length;
+            bytesSinceSnapshot += length;
+            return written;
+        }
+    }
+
+    /**
+     * Ждет, пока все записи до позиции position окажутся на диске.
+     */
+    public void sync(long position) throws IOException {
+        if (durable.get() >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            // пока ждали очереди, чужой fsync мог уже покрыть нашу запись
+            if (durable.get() >= position) {
+                return;
+            }
+            long target;
+            long segmentId;
+            FileChannel channel;
+            synchronized (appendLock) {
+                ensureOpen();
+                target = written;
+                segmentId = activeId;
+                channel = active;
+            }
+            while (true) {
+                try {
+                    channel.force(false);
+                    break;
+                } catch (ClosedByInterruptException e) {
+                    throw e;
+                } catch (ClosedChannelException e) {
+                    synchronized (appendLock) {
+                        ensureOpen();
+                        if (activeId != segmentId) {
+                            // сегмент закрыт переключением, а roll сбрасывает его на диск перед закрытием
+                            break;
+                        }
+                        // канал закрыло чужое прерывание: сегмент открыт заново, fsync повторяется на нем
+                        channel = active;
+                    }
+                }
+            }
+            durable.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    public long bytesSinceSnapshot() {
+        synchronized (appendLock) {
+            return bytesSinceSnapshot;
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и возвращает номер последнего закрытого сегмента:
+     * состояние, снятое сразу после вызова, покрывает все сегменты до него включительно.
+     * Возвращает -1, если покрывать нечего.
+     */
+    public long seal() throws IOException {
+        synchronized (appendLock) {
+            ensureOpen();
+            if (activeSize > 0) {
+                roll();
+            }
+            bytesSinceSnapshot = 0;
+            return activeId - 1;
+        }
+    }
+
+    /**
+     * Пишет снимок, покрывающий сегменты до sealedSegmentId, и удаляет эти сегменты и прежние снимки.
+     * Снимок пишется во временный файл и атомарно переименовывается после fsync,
+     * поэтому сбой посреди записи оставляет прежнее состояние каталога.
+     */
+    public void writeSnapshot(long sealedSegmentId, SnapshotWriter writer) throws IOException {
+        if (sealedSegmentId < 0) {
+            return;
+        }
+        Path snapshot = directory.resolve(fileName(SNAPSHOT_PREFIX, sealedSegmentId, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(snapshot.getFileName() + TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BUFFER);
+            writer.writeTo((type, payload) -> {
+                int length = HEADER_BYTES + payload.length;
+                if (buffer.remaining() < length) {
+                    drain(buffer, channel);
+                }
+                ByteBuffer target = (length <= buffer.capacity()) ? buffer : ByteBuffer.allocate(length);
+                target.putInt(payload.length).putInt(checksum(type, ByteBuffer.wrap(payload))).put(type).put(payload);
+                if (target != buffer) {
+                    drain(target, channel);
+                }
+            });
+            drain(buffer, channel);
+            channel.force(true);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // переименование должно дойти до диска раньше удалений, иначе сбой оставит удаления без снимка
+        syncDirectory();
+
+        deleteCoveredFiles(sealedSegmentId);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            reopenIfClosed();
+            closed = true;
+            active.force(false);
+            active.close();
+        }
+    }
+
+    private void recover(RecordHandler handler) throws IOException {
+        long snapshotId = -1;
+        List<Long> segmentIds = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // недописанный снимок от прерванной компактизации
+                    Files.delete(file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshotId = Math.max(snapshotId, idOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segmentIds.add(idOf(name, SEGMENT_PREFIX, SEGMENT_SUFFIX));
+                }
+            }
+        }
+        segmentIds.sort(null);
+
+        if (snapshotId >= 0) {
+            deleteCoveredFiles(snapshotId);
+            replay(directory.resolve(fileName(SNAPSHOT_PREFIX, snapshotId, SNAPSHOT_SUFFIX)), handler, false);
+        }
+
+        List<Long> live = new ArrayList<>();
+        for (Long id : segmentIds) {
+            if (id > snapshotId) {
+                live.add(id);
+            }
+        }
+        for (int i = 0; i < live.size(); i++) {
+            boolean last = i == live.size() - 1;
+            Path segment = segmentPath(live.get(i));
+            long valid = replay(segment, handler, last);
+            if (last) {
+                openActive(live.get(i), valid);
+            }
+        }
+        if (active == null) {
+            openActive(snapshotId + 1, 0);
+        }
+        durable.set(written);
+    }
+
+    /**
+     * Читает записи файла через отображение в память окнами по MAP_WINDOW.
+     * Возвращает длину корректной части файла; при tolerateTornTail битый хвост не считается ошибкой.
+     */
+    private static long replay(Path file, RecordHandler handler, boolean tolerateTornTail) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            CRC32C crc = new CRC32C();
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW, size - position));
+                int consumed = 0;
+                while (true) {
+                    int remaining = window.limit() - consumed;
+                    if (remaining < HEADER_BYTES) {
+                        break;
+                    }
+                    int length = window.getInt(consumed);
+                    int expected = window.getInt(consumed + 4);
+                    byte type = window.get(consumed + 8);
+                    if (length < 0 || position + consumed + HEADER_BYTES + (long) length > size) {
+                        return corrupt(file, position + consumed, tolerateTornTail);
+                    }
+                    if (HEADER_BYTES + length > remaining) {
+                        break;
+                    }
+                    ByteBuffer payload = window.slice(consumed + HEADER_BYTES, length);
+                    crc.reset();
+                    crc.update(type);
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != expected) {
+                        return corrupt(file, position + consumed, tolerateTornTail);
+                    }
+                    handler.onRecord(type, payload);
+                    consumed += HEADER_BYTES + length;
+                }
+                if (consumed == 0) {
+                    if (size - position < HEADER_BYTES) {
+                        return corrupt(file, position, tolerateTornTail);
+                    }
+                    throw new IOException("Record larger than map window in " + file + " at " + position);
+                }
+                position += consumed;
+            }
+            return position;
+        }
+    }
+
+    private static long corrupt(Path file, long offset, boolean tolerateTornTail) throws IOException {
+        if (!tolerateTornTail) {
+            throw new IOException("Corrupted record in " + file + " at offset " + offset);
+        }
+        return offset;
+    }
+
+    private void openActive(long id, long validLength) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            // отрезаем запись, оборванную сбоем
+            channel.truncate(validLength);
+            channel.force(false);
+        }
+        channel.position(validLength);
+        active = channel;
+        activeId = id;
+        activeSize = validLength;
+        written += validLength;
+    }
+
+    private void roll() throws IOException {
+        active.force(false);
+        durable.accumulateAndGet(written, Math::max);
+        active.close();
+        FileChannel next = FileChannel.open(segmentPath(activeId + 1), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = next;
+        activeId++;
+        activeSize = 0;
+    }
+
+    private void deleteCoveredFiles(long sealedSegmentId) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean coveredSegment = name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                        && idOf(name, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= sealedSegmentId;
+                boolean olderSnapshot = name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                        && idOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sealedSegmentId;
+                if (coveredSegment || olderSnapshot) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        reopenIfClosed();
+    }
+
+    // под appendLock: activeSize - конец последней целой записи, недописанный хвост отрезается
+    private void reopenIfClosed() throws IOException {
+        if (active.isOpen()) {
+            return;
+        }
+        FileChannel channel = FileChannel.open(segmentPath(activeId), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() > activeSize) {
+            channel.truncate(activeSize);
+        }
+        channel.position(activeSize);
+        active = channel;
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows не открывает каталог как файл, а переименование там упорядочено самой ФС
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(fileName(SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static String fileName(String prefix, long id, String suffix) {
+        // номер с ведущими нулями: лексикографический порядок файлов совпадает с числовым
+        return prefix + String.format("%020d", id) + suffix;
+    }
+
+    private static long idOf(String name, String prefix, String suffix) {
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static int checksum(byte type, ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
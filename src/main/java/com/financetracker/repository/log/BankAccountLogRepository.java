@@ -0,0 +1,94 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.BankAccountSnapshot;
+import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Долговечное хранилище счетов в журнале {@link LogStore}.
+ * Включается свойством financetracker.storage.accounts=log.
+ */
+@Repository("bankAccountDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.accounts", havingValue = "log")
+public class BankAccountLogRepository implements BankAccountRepositoryInterface, Closeable {
+
+    private final LogStore<BankAccountSnapshot> store;
+
+    @Autowired
+    public BankAccountLogRepository(@Value("${financetracker.storage.log.directory:data}") String directory) {
+        this(new LogStore<>(Path.of(directory, "accounts"), SnapshotCodecs.BANK_ACCOUNT));
+    }
+
+    BankAccountLogRepository(LogStore<BankAccountSnapshot> store) {
+        this.store = store;
+    }
+
+    @Override
+    public BankAccount save(BankAccount bankAccount) {
+        if (bankAccount.getId() == null) {
+            bankAccount.setId(store.ids().next());
+        } else {
+            store.ids().observe(bankAccount.getId());
+        }
+        BankAccountSnapshot snapshot = BankAccountSnapshot.of(bankAccount);
+
+        store.put(snapshot);
+        return snapshot.toBankAccount();
+    }
+
+    @Override
+    public Optional<BankAccount> findById(Long id) {
+        return findSnapshotById(id).map(BankAccountSnapshot::toBankAccount);
+    }
+
+    @Override
+    public List<BankAccount> findAll() {
+        List<BankAccount> result = new ArrayList<>(store.size());
+        for (BankAccountSnapshot snapshot : store.values()) {
+            result.add(snapshot.toBankAccount());
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<BankAccount> streamAll() {
+        return store.values().stream().map(BankAccountSnapshot::toBankAccount);
+    }
+
+    @Override
+    public Optional<BankAccountSnapshot> findSnapshotById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public List<BankAccountSnapshot> findAllSnapshots() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public void delete(BankAccount bankAccount) {
+        deleteById(bankAccount.getId());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
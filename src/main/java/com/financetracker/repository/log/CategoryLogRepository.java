@@ -0,0 +1,104 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.model.Category;
+import com.financetracker.model.CategorySnapshot;
+import com.financetracker.model.CategoryType;
+import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Долговечное хранилище категорий в журнале {@link LogStore}.
+ * Включается свойством financetracker.storage.categories=log.
+ */
+@Repository("categoryDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.categories", havingValue = "log")
+public class CategoryLogRepository implements CategoryRepositoryInterface, Closeable {
+
+    private final LogStore<CategorySnapshot> store;
+
+    @Autowired
+    public CategoryLogRepository(@Value("${financetracker.storage.log.directory:data}") String directory) {
+        this(new LogStore<>(Path.of(directory, "categories"), SnapshotCodecs.CATEGORY));
+    }
+
+    CategoryLogRepository(LogStore<CategorySnapshot> store) {
+        this.store = store;
+    }
+
+    @Override
+    public Category save(Category category) {
+        if (category.getId() == null) {
+            category.setId(store.ids().next());
+        } else {
+            store.ids().observe(category.getId());
+        }
+        CategorySnapshot snapshot = CategorySnapshot.of(category);
+
+        store.put(snapshot);
+        return snapshot.toCategory();
+    }
+
+    @Override
+    public Optional<Category> findById(Long id) {
+        return findSnapshotById(id).map(CategorySnapshot::toCategory);
+    }
+
+    @Override
+    public List<Category> findAll() {
+        List<Category> result = new ArrayList<>(store.size());
+        for (CategorySnapshot snapshot : store.values()) {
+            result.add(snapshot.toCategory());
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Category> streamAll() {
+        return store.values().stream().map(CategorySnapshot::toCategory);
+    }
+
+    @Override
+    public List<Category> findByType(CategoryType type) {
+        return store.values().stream()
+                .filter(snapshot -> snapshot.type() == type)
+                .map(CategorySnapshot::toCategory)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<CategorySnapshot> findSnapshotById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public List<CategorySnapshot> findAllSnapshots() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public void delete(Category category) {
+        deleteById(category.getId());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+}
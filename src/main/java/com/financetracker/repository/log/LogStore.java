@@ -0,0 +1,292 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.repository.support.IdSequence;
+import com.financetracker.repository.support.StripedLock;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Долговечное хранилище снимков поверх {@link AppendOnlyLog}.
+ * Текущее состояние держится в памяти и восстанавливается при открытии из снимка и журнала;
+ * каждая запись становится видна в состоянии и listener только после группового fsync,
+ * а неудавшаяся запись не видна совсем.
+ * <p>
+ * Когда объем журнала после последнего снимка превышает checkpointBytes, в фоне пишется новый снимок
+ * и покрытые им сегменты удаляются, поэтому время запуска ограничено размером данных, а не историей.
+ * Снимок и закрытие сегмента выполняются под эксклюзивной блокировкой среза,
+ * запись - под разделяемой, так что снимок соответствует ровно закрытым сегментам.
+ */
+public final class LogStore<T> implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_CHECKPOINT_BYTES = 256L * 1024 * 1024;
+
+    private final RecordCodec<T> codec;
+    // упорядочено по id: хранилища отдают страницы срезом после курсора
+    private final ConcurrentNavigableMap<Long, T> state = new ConcurrentSkipListMap<>();
+    private final IdSequence idSequence = new IdSequence();
+    // журнал и состояние для одного id меняются в одном порядке
+    private final StripedLock idLocks = new StripedLock();
+    private final ReentrantReadWriteLock cutLock = new ReentrantReadWriteLock();
+    private final AppendOnlyLog log;
+    private final long checkpointBytes;
+
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(runnable ->
+            Thread.ofPlatform().name("log-checkpoint").daemon().unstarted(runnable));
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private volatile Exception checkpointFailure;
+    private volatile ChangeListener<T> listener = (previous, current) -> { };
+
+    public LogStore(Path directory, RecordCodec<T> codec) {
+        this(directory, codec, DEFAULT_SEGMENT_BYTES, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    public LogStore(Path directory, RecordCodec<T> codec, long segmentBytes, long checkpointBytes) {
+        this.codec = codec;
+        this.checkpointBytes = checkpointBytes;
+        try {
+            this.log = AppendOnlyLog.open(directory, segmentBytes, this::apply);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open storage in " + directory, e);
+        }
+    }
+
+    public IdSequence ids() {
+        return idSequence;
+    }
+
+    public T get(Long id) {
+        return (id != null) ? state.get(id) : null;
+    }
+
+    public Collection<T> values() {
+        return state.values();
+    }
+
+    /**
+     * Значения с id больше afterId (null - все) по возрастанию id; обход слабо согласован.
+     */
+    public Collection<T> valuesAfter(Long afterId) {
+        return (afterId != null) ? state.tailMap(afterId, false).values() : state.values();
+    }
+
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * Подписывает listener на изменения состояния: сначала он получает все текущие значения,
+     * затем каждое изменение после его fsync, под блокировкой его id, в порядке записи в журнал.
+     * Подписка выполняется до начала записи, пока хранилище никто не меняет.
+     */
+    public void onChange(ChangeListener<T> listener) {
+        for (T value : state.values()) {
+            listener.changed(null, value);
+        }
+        this.listener = listener;
+    }
+
+    public void put(T value) {
+        putAll(List.of(value));
+    }
+
+    /**
+     * Пишет все значения в журнал и ждет одного fsync на весь пакет.
+     */
+    public void putAll(Collection<T> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(values.size());
+        List<byte[]> payloads = new ArrayList<>(values.size());
+        for (T value : values) {
+            ids.add(codec.idOf(value));
+            payloads.add(encode(value));
+        }
+        logged(ids, AppendOnlyLog.PUT, payloads, () -> {
+            int i = 0;
+            for (T value : values) {
+                Long id = ids.get(i++);
+                listener.changed(state.put(id, value), value);
+            }
+        });
+    }
+
+    public void delete(Long id) {
+        if (id == null) {
+            return;
+        }
+        deleteAll(List.of(id));
+    }
+
+    /**
+     * Пишет в журнал удаления всех id и ждет одного fsync на весь пакет.
+     */
+    public void deleteAll(Collection<Long> ids) {
+        List<Long> present = ids.stream().filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return;
+        }
+        List<byte[]> payloads = present.stream().map(LogStore::longBytes).toList();
+        logged(present, AppendOnlyLog.DELETE, payloads, () -> {
+            for (Long id : present) {
+                T removed = state.remove(id);
+                if (removed != null) {
+                    listener.changed(removed, null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Пишет снимок текущего состояния и удаляет покрытые им сегменты журнала.
+     */
+    public void checkpoint() {
+        long sealed;
+        long nextId;
+        List<T> cut;
+        cutLock.writeLock().lock();
+        try {
+            sealed = log.seal();
+            nextId = idSequence.peek();
+            cut = new ArrayList<>(state.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            cutLock.writeLock().unlock();
+        }
+
+        try {
+            log.writeSnapshot(sealed, sink -> {
+                // id удаленных записей в снимок не попадают, поэтому граница последовательности пишется явно
+                sink.put(AppendOnlyLog.SEQUENCE, longBytes(nextId));
+                for (T value : cut) {
+                    sink.put(AppendOnlyLog.PUT, encode(value));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            // снимок при закрытии: следующий запуск не будет переигрывать журнал
+            checkpoint();
+        } finally {
+            log.close();
+        }
+        if (checkpointFailure != null) {
+            throw new IOException("Background checkpoint failed", checkpointFailure);
+        }
+    }
+
+    /**
+     * Пишет записи пакета в журнал, ждет fsync и только потом публикует их в состоянии.
+     * Все это идет под блокировками id пакета, чтобы публикации одного id шли в порядке журнала,
+     * и под разделяемой блокировкой среза, чтобы снимок не закрыл сегмент с еще не опубликованной записью.
+     * Если запись или fsync не удались, состояние и listener не меняются, а вызов бросает исключение.
+     */
+    private void logged(List<Long> ids, byte type, List<byte[]> payloads, Runnable publish) {
+        cutLock.readLock().lock();
+        try {
+            idLocks.withLocks(ids, () -> {
+                try {
+                    long position = 0;
+                    for (byte[] payload : payloads) {
+                        position = log.append(type, payload);
+                    }
+                    log.sync(position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                publish.run();
+                return null;
+            });
+        } finally {
+            cutLock.readLock().unlock();
+        }
+        scheduleCheckpointIfDue();
+    }
+
+    private void scheduleCheckpointIfDue() {
+        if (log.bytesSinceSnapshot() < checkpointBytes || !checkpointScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            checkpointer.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (RuntimeException e) {
+                    // журнал остается целым, сегменты просто не удалены; ошибка всплывет при закрытии
+                    checkpointFailure = e;
+                } finally {
+                    checkpointScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // хранилище закрывается, снимок будет записан в close
+            checkpointScheduled.set(false);
+        }
+    }
+
+    private void apply(byte type, ByteBuffer payload) {
+        if (type == AppendOnlyLog.PUT) {
+            T value = codec.read(payload);
+            long id = codec.idOf(value);
+            state.put(id, value);
+            idSequence.observe(id);
+        } else if (type == AppendOnlyLog.DELETE) {
+            long id = payload.getLong();
+            state.remove(id);
+            idSequence.observe(id);
+        } else if (type == AppendOnlyLog.SEQUENCE) {
+            long nextId = payload.getLong();
+            if (nextId > 1) {
+                idSequence.observe(nextId - 1);
+            }
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    private byte[] encode(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            codec.write(value, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Изменение значения одного id: previous == null - значение добавлено, current == null - удалено.
+     */
+    @FunctionalInterface
+    public interface ChangeListener<T> {
+        void changed(T previous, T current);
+    }
+}
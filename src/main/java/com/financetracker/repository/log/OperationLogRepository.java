@@ -0,0 +1,223 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationSnapshot;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.support.KeysetPages;
+import com.financetracker.repository.support.OperationDateOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Долговечное хранилище операций в журнале {@link LogStore}.
+ * Включается свойством financetracker.storage.operations=log, каталог задается
+ * financetracker.storage.log.directory.
+ */
+@Repository("operationDbRepository")
+@ConditionalOnProperty(name = "financetracker.storage.operations", havingValue = "log")
+public class OperationLogRepository implements OperationRepositoryInterface, Closeable {
+
+    private final LogStore<OperationSnapshot> store;
+    // порядок по дате строится по состоянию LogStore и сбрасывается при каждом изменении даты
+    private final OperationDateOrder dateOrder;
+
+    @Autowired
+    public OperationLogRepository(@Value("${financetracker.storage.log.directory:data}") String directory) {
+        this(new LogStore<>(Path.of(directory, "operations"), SnapshotCodecs.OPERATION));
+    }
+
+    OperationLogRepository(LogStore<OperationSnapshot> store) {
+        this.store = store;
+        this.dateOrder = new OperationDateOrder(row -> {
+            for (OperationSnapshot snapshot : store.values()) {
+                row.accept(snapshot.id(), OperationDateOrder.epochDayOf(snapshot.date()));
+            }
+        });
+        store.onChange((previous, current) -> {
+            if (previous == null || current == null || !Objects.equals(previous.date(), current.date())) {
+                dateOrder.invalidate();
+            }
+        });
+    }
+
+    @Override
+    public Operation save(Operation operation) {
+        assignId(operation);
+        OperationSnapshot snapshot = OperationSnapshot.of(operation);
+
+        store.put(snapshot);
+        return snapshot.toOperation();
+    }
+
+    @Override
+    public List<Operation> saveAll(List<Operation> operations) {
+        long nextId = store.ids().reserveFor(operations, Operation::getId);
+
+        List<OperationSnapshot> batch = new ArrayList<>(operations.size());
+        List<Operation> result = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            if (operation.getId() == null) {
+                operation.setId(nextId++);
+            } else {
+                store.ids().observe(operation.getId());
+            }
+            OperationSnapshot snapshot = OperationSnapshot.of(operation);
+            batch.add(snapshot);
+            result.add(snapshot.toOperation());
+        }
+
+        // один fsync на весь пакет
+        store.putAll(batch);
+        return result;
+    }
+
+    @Override
+    public Optional<Operation> findById(Long id) {
+        return findSnapshotById(id).map(OperationSnapshot::toOperation);
+    }
+
+    @Override
+    public List<Operation> findAll() {
+        List<Operation> result = new ArrayList<>(store.size());
+        for (OperationSnapshot snapshot : store.values()) {
+            result.add(snapshot.toOperation());
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Operation> streamAll() {
+        return store.values().stream().map(OperationSnapshot::toOperation);
+    }
+
+    /**
+     * Страница - срез упорядоченного состояния после afterId: O(log N + limit) вместо прохода по всему.
+     */
+    @Override
+    public List<Operation> findPageAfterId(Long afterId, int limit) {
+        return pageAfterId(afterId, limit, snapshot -> true);
+    }
+
+    @Override
+    public List<Operation> findPageByQuery(OperationQuery query, Long afterId, int limit) {
+        return pageAfterId(afterId, limit, query::matches);
+    }
+
+    @Override
+    public List<Operation> findPageByDate(OperationCursor after, int limit) {
+        return toOperations(dateOrder.page(after, limit, this::snapshotAt));
+    }
+
+    @Override
+    public List<Operation> findByBankAccountId(Long bankAccountId) {
+        return findWhere(snapshot -> Objects.equals(snapshot.bankAccountId(), bankAccountId));
+    }
+
+    @Override
+    public List<Operation> findByType(OperationType type) {
+        return findWhere(snapshot -> snapshot.type() == type);
+    }
+
+    @Override
+    public List<Operation> findByCategoryId(Long categoryId) {
+        return findWhere(snapshot -> Objects.equals(snapshot.categoryId(), categoryId));
+    }
+
+    @Override
+    public List<Operation> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        return findWhere(snapshot -> snapshot.date() != null
+                && !snapshot.date().isBefore(startDate)
+                && !snapshot.date().isAfter(endDate));
+    }
+
+    @Override
+    public Optional<OperationSnapshot> findSnapshotById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public List<OperationSnapshot> findAllSnapshots() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public void delete(Operation operation) {
+        deleteById(operation.getId());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.delete(id);
+    }
+
+    @Override
+    public void deleteAllById(Collection<Long> ids) {
+        store.deleteAll(ids);
+    }
+
+    public void checkpoint() {
+        store.checkpoint();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private void assignId(Operation operation) {
+        if (operation.getId() == null) {
+            operation.setId(store.ids().next());
+        } else {
+            store.ids().observe(operation.getId());
+        }
+    }
+
+    private List<Operation> pageAfterId(Long afterId, int limit, Predicate<OperationSnapshot> filter) {
+        KeysetPages.checkLimit(limit);
+        List<Operation> page = new ArrayList<>(Math.min(limit, 1024));
+        for (OperationSnapshot snapshot : store.valuesAfter(afterId)) {
+            if (filter.test(snapshot)) {
+                page.add(snapshot.toOperation());
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    // строка, перенесенная на другую дату после построения порядка, в этой позиции уже не выдается
+    private OperationSnapshot snapshotAt(long id, int epochDay) {
+        OperationSnapshot snapshot = store.get(id);
+        return (snapshot != null && OperationDateOrder.epochDayOf(snapshot.date()) == epochDay) ? snapshot : null;
+    }
+
+    private static List<Operation> toOperations(List<OperationSnapshot> snapshots) {
+        List<Operation> result = new ArrayList<>(snapshots.size());
+        for (OperationSnapshot snapshot : snapshots) {
+            result.add(snapshot.toOperation());
+        }
+        return result;
+    }
+
+    private List<Operation> findWhere(Predicate<OperationSnapshot> predicate) {
+        return store.values().stream()
+                .filter(predicate)
+                .map(OperationSnapshot::toOperation)
+                .collect(Collectors.toList());
+    }
+}
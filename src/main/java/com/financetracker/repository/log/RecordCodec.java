@@ -0,0 +1,14 @@
+package com.financetracker.repository.log;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Двоичное представление неизменяемого снимка сущности в журнале.
+ */
+public interface RecordCodec<T> {
+    long idOf(T value);
+    void write(T value, DataOutput out) throws IOException;
+    T read(ByteBuffer in);
+}
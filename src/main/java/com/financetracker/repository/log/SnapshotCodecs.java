@@ -0,0 +1,133 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.model.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Кодеки снимков счетов, категорий и операций.
+ * Отсутствующие значения кодируются маркерами, как в колоночном хранилище:
+ * Long.MIN_VALUE для id и дат, -1 для перечислений и длины строки.
+ */
+final class SnapshotCodecs {
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final byte NO_ENUM = -1;
+    private static final int NO_STRING = -1;
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+    private static final CategoryType[] CATEGORY_TYPES = CategoryType.values();
+
+    static final RecordCodec<OperationSnapshot> OPERATION = new RecordCodec<>() {
+        @Override
+        public long idOf(OperationSnapshot value) {
+            return value.id();
+        }
+
+        @Override
+        public void write(OperationSnapshot value, DataOutput out) throws IOException {
+            out.writeLong(value.id());
+            writeEnum(out, value.type());
+            writeLong(out, value.bankAccountId());
+            out.writeLong(value.amountCents());
+            out.writeLong((value.date() != null) ? value.date().toEpochDay() : NO_VALUE);
+            writeString(out, value.description());
+            writeLong(out, value.categoryId());
+        }
+
+        @Override
+        public OperationSnapshot read(ByteBuffer in) {
+            long id = in.getLong();
+            byte type = in.get();
+            Long bankAccountId = readLong(in);
+            long amountCents = in.getLong();
+            long epochDay = in.getLong();
+            String description = readString(in);
+            Long categoryId = readLong(in);
+            return new OperationSnapshot(id, (type != NO_ENUM) ? OPERATION_TYPES[type] : null, bankAccountId,
+                    amountCents, (epochDay != NO_VALUE) ? LocalDate.ofEpochDay(epochDay) : null,
+                    description, categoryId);
+        }
+    };
+
+    static final RecordCodec<BankAccountSnapshot> BANK_ACCOUNT = new RecordCodec<>() {
+        @Override
+        public long idOf(BankAccountSnapshot value) {
+            return value.id();
+        }
+
+        @Override
+        public void write(BankAccountSnapshot value, DataOutput out) throws IOException {
+            out.writeLong(value.id());
+            writeString(out, value.name());
+            out.writeLong(value.balanceCents());
+            out.writeLong(value.openingBalanceCents());
+        }
+
+        @Override
+        public BankAccountSnapshot read(ByteBuffer in) {
+            return new BankAccountSnapshot(in.getLong(), readString(in), in.getLong(), in.getLong());
+        }
+    };
+
+    static final RecordCodec<CategorySnapshot> CATEGORY = new RecordCodec<>() {
+        @Override
+        public long idOf(CategorySnapshot value) {
+            return value.id();
+        }
+
+        @Override
+        public void write(CategorySnapshot value, DataOutput out) throws IOException {
+            out.writeLong(value.id());
+            writeString(out, value.name());
+            writeEnum(out, value.type());
+        }
+
+        @Override
+        public CategorySnapshot read(ByteBuffer in) {
+            long id = in.getLong();
+            String name = readString(in);
+            byte type = in.get();
+            return new CategorySnapshot(id, name, (type != NO_ENUM) ? CATEGORY_TYPES[type] : null);
+        }
+    };
+
+    private SnapshotCodecs() {
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeLong((value != null) ? value : NO_VALUE);
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        long value = in.getLong();
+        return (value != NO_VALUE) ? value : null;
+    }
+
+    private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeByte((value != null) ? value.ordinal() : NO_ENUM);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
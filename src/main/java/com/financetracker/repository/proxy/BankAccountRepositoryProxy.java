@@ -1,69 +1,148 @@
 package com.financetracker.repository.proxy;
 
+import com.financetracker.metrics.CacheMetrics;
+import com.financetracker.metrics.CacheMetricsSource;
 import com.financetracker.model.BankAccount;
+import com.financetracker.model.BankAccountSnapshot;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
+import com.financetracker.repository.support.StripedLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Repository
-public class BankAccountRepositoryProxy implements BankAccountRepositoryInterface {
-    private final Map<Long, BankAccount> cache = new ConcurrentHashMap<>();
+public class BankAccountRepositoryProxy implements BankAccountRepositoryInterface, CacheMetricsSource {
+    // запись в БД и в кеш для одного id выполняется под одной полосой блокировки
+    private final StripedLock locks = new StripedLock();
 
     private final BankAccountRepositoryInterface dbRepository;
+    private final EntityCache<BankAccount> cache;
+    private final CacheMetrics cacheMetrics;
+    private final CacheWarmer<BankAccount> warmer;
+
+    public BankAccountRepositoryProxy(BankAccountRepositoryInterface dbRepository) {
+        this(dbRepository, CacheWarmUp.EAGER);
+    }
+
+    public BankAccountRepositoryProxy(BankAccountRepositoryInterface dbRepository, CacheWarmUp warmUp) {
+        this(dbRepository, warmUp, 0);
+    }
 
     @Autowired
-    public BankAccountRepositoryProxy(@Qualifier("bankAccountDbRepository")
-                                      BankAccountRepositoryInterface dbRepository) {
+    public BankAccountRepositoryProxy(@Qualifier("bankAccountDbRepository") BankAccountRepositoryInterface dbRepository,
+                                      @Value("${financetracker.cache.warm-up:EAGER}") CacheWarmUp warmUp,
+                                      @Value("${financetracker.cache.accounts.max-entries:0}") Integer maxEntries) {
         this.dbRepository = dbRepository;
-        initializeCache();
+        this.cache = EntityCache.create(maxEntries);
+        this.cacheMetrics = new CacheMetrics(cache::size);
+        this.warmer = new CacheWarmer<>("accounts", warmUp, dbRepository::findAll, null, BankAccount::getId,
+                cache::containsKey, cache.isComplete(), account -> cache.put(account.getId(), account), locks);
+        warmer.start();
     }
 
-    private void initializeCache() {
-        List<BankAccount> allAccounts = dbRepository.findAll();
-        for (BankAccount account : allAccounts) {
-            cache.put(account.getId(), account);
-        }
+    /**
+     * Длительность прогрева кеша или null, пока он не завершен.
+     */
+    public Duration getWarmUpDuration() {
+        return warmer.duration();
+    }
+
+    @Override
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
     }
 
     @Override
     public BankAccount save(BankAccount bankAccount) {
-        BankAccount savedAccount = dbRepository.save(bankAccount);
-        cache.put(savedAccount.getId(), savedAccount);
-        return savedAccount;
+        if (bankAccount.getId() == null) {
+            // новый id выдает БД, до возврата из save его никто не знает, конкурировать не с кем
+            BankAccount savedAccount = dbRepository.save(bankAccount);
+            cache.put(savedAccount.getId(), savedAccount);
+            return savedAccount;
+        }
+
+        return locks.withLock(bankAccount.getId(), () -> {
+            BankAccount savedAccount = dbRepository.save(bankAccount);
+            cache.put(savedAccount.getId(), savedAccount);
+            return savedAccount;
+        });
     }
 
     @Override
     public Optional<BankAccount> findById(Long id) {
         BankAccount cachedAccount = cache.get(id);
         if (cachedAccount != null) {
+            cacheMetrics.hit();
             return Optional.of(cachedAccount);
         }
 
-        Optional<BankAccount> accountFromDb = dbRepository.findById(id);
+        // промах читаем под блокировкой, чтобы параллельное удаление не вернуло запись в кеш
+        return locks.withLock(id, () -> {
+            BankAccount account = cache.get(id);
+            if (account != null) {
+                cacheMetrics.hit();
+                return Optional.of(account);
+            }
+            cacheMetrics.miss();
+
+            Optional<BankAccount> accountFromDb = dbRepository.findById(id);
 
-        accountFromDb.ifPresent(account -> cache.put(id, account));
+            accountFromDb.ifPresent(found -> cache.put(id, found));
 
-        return accountFromDb;
+            return accountFromDb;
+        });
     }
 
     @Override
     public List<BankAccount> findAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findAll();
+        }
         return new ArrayList<>(cache.values());
     }
 
+    @Override
+    public Stream<BankAccount> streamAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.streamAll();
+        }
+        // обход кеша без копирования в список
+        return cache.values().stream();
+    }
+
+    @Override
+    public Optional<BankAccountSnapshot> findSnapshotById(Long id) {
+        // снимки неизменяемы, поэтому Db-репозиторий отдает их без копирования в обход кеша
+        return dbRepository.findSnapshotById(id);
+    }
+
+    @Override
+    public List<BankAccountSnapshot> findAllSnapshots() {
+        return dbRepository.findAllSnapshots();
+    }
+
     @Override
     public void delete(BankAccount bankAccount) {
-        dbRepository.delete(bankAccount);
-        cache.remove(bankAccount.getId());
+        locks.withLock(bankAccount.getId(), () -> {
+            dbRepository.delete(bankAccount);
+            cache.remove(bankAccount.getId());
+            warmer.onDelete(bankAccount.getId());
+        });
     }
 
     @Override
     public void deleteById(Long id) {
-        dbRepository.deleteById(id);
-        cache.remove(id);
+        locks.withLock(id, () -> {
+            dbRepository.deleteById(id);
+            cache.remove(id);
+            warmer.onDelete(id);
+        });
     }
 }
\ No newline at end of file
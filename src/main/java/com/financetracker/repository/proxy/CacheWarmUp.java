@@ -0,0 +1,18 @@
+package com.financetracker.repository.proxy;
+
+/**
+ * Стратегия заполнения кеша прокси при запуске, свойство financetracker.cache.warm-up.
+ */
+public enum CacheWarmUp {
+    /** Загрузка целиком в конструкторе, как раньше. */
+    EAGER,
+    /**
+     * Загрузка в конструкторе: потоки ForkJoinPool читают БД постранично, каждый свой диапазон id,
+     * и заполняют кеш и индексы. Хранилища без постраничного чтения грузятся как EAGER.
+     */
+    EAGER_PARALLEL,
+    /** Кеш заполняется при первом обращении к выборкам; до этого запуск ничего не грузит. */
+    LAZY,
+    /** Загрузка в фоновом потоке; пока она идет, выборки читаются напрямую из БД. */
+    BACKGROUND
+}
@@ -0,0 +1,209 @@
+package com.financetracker.repository.proxy;
+
+import com.financetracker.repository.support.StripedLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Прогрев кеша прокси по стратегии {@link CacheWarmUp} и замер его длительности.
+ * <p>
+ * Загрузка может идти одновременно с записью через прокси (LAZY, BACKGROUND), поэтому
+ * загруженная запись кладется только если прокси ее еще не знает (present): значение из save новее выборки из БД.
+ * Удаленные до конца загрузки id запоминаются и не возвращаются в кеш устаревшей выборкой.
+ * Проверка и вставка идут под той же полосой блокировки, что и запись в прокси.
+ * <p>
+ * EAGER_PARALLEL читает БД постранично (pages): id делятся на диапазоны по PARTITION_SIZE,
+ * потоки ForkJoinPool разбирают диапазоны по очереди и каждый читает свой через findPageAfterId.
+ * Без постраничного источника (счета, категории - таблицы небольшие) загрузка идет как у EAGER.
+ * <p>
+ * Прогрев выключен (enabled = false), если кеш ограничен: он наполняется чтениями, а выборки идут в БД.
+ */
+final class CacheWarmer<T> {
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private static final int PARTITION_SIZE = 16_384;
+    private static final int PAGE_SIZE = 1_024;
+
+    private final String name;
+    private final CacheWarmUp strategy;
+    private final Supplier<List<T>> source;
+    private final PageSource<T> pages;
+    private final Function<T, Long> idOf;
+    private final Predicate<Long> present;
+    private final boolean enabled;
+    private final Consumer<T> insert;
+    private final StripedLock locks;
+
+    private final Set<Long> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile Duration duration;
+
+    CacheWarmer(String name, CacheWarmUp strategy, Supplier<List<T>> source, PageSource<T> pages,
+                Function<T, Long> idOf, Predicate<Long> present, boolean enabled, Consumer<T> insert,
+                StripedLock locks) {
+        this.name = name;
+        this.strategy = (strategy != null) ? strategy : CacheWarmUp.EAGER;
+        this.source = source;
+        this.pages = pages;
+        this.idOf = idOf;
+        this.present = present;
+        this.enabled = enabled;
+        this.insert = insert;
+        this.locks = locks;
+    }
+
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        switch (strategy) {
+            case EAGER -> load(false);
+            case EAGER_PARALLEL -> load(true);
+            case LAZY -> {
+                // загрузка отложена до первой выборки
+            }
+            case BACKGROUND -> Thread.ofPlatform().name("cache-warm-up-" + name).daemon().start(() -> {
+                try {
+                    load(false);
+                } catch (RuntimeException e) {
+                    // кеш остается неполным, выборки продолжают идти в БД
+                    log.error("Cache {} warm-up failed", name, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Можно ли отвечать на выборки из кеша. Для LAZY первое обращение загружает кеш,
+     * для BACKGROUND до окончания загрузки возвращается false, и прокси читает из БД.
+     * Если прогрев выключен, всегда false.
+     */
+    boolean ready() {
+        if (!enabled) {
+            return false;
+        }
+        if (loaded) {
+            return true;
+        }
+        if (strategy == CacheWarmUp.LAZY) {
+            synchronized (this) {
+                if (!loaded) {
+                    load(false);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Вызывается при удалении под полосой блокировки id.
+     */
+    void onDelete(Long id) {
+        if (!loaded && id != null && enabled) {
+            deletedWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Длительность загрузки или null, если она еще не завершилась или не нужна.
+     */
+    Duration duration() {
+        return duration;
+    }
+
+    private void load(boolean parallel) {
+        long started = System.nanoTime();
+        int count;
+        if (parallel && pages != null) {
+            count = loadRanges();
+        } else {
+            List<T> entries = source.get();
+            for (T entry : entries) {
+                insertLoaded(entry);
+            }
+            count = entries.size();
+        }
+
+        duration = Duration.ofNanos(System.nanoTime() - started);
+        loaded = true;
+        deletedWhileLoading.clear();
+        log.info("Cache {} warmed up ({}): {} entries in {} ms",
+                name, strategy, count, duration.toMillis());
+    }
+
+    /**
+     * Параллельная загрузка по диапазонам id (from, from + PARTITION_SIZE], начиная с первого id.
+     * Каждый поток берет следующий свободный диапазон и читает его страницами, пока диапазон,
+     * начатый после последней записи, не окажется пустым.
+     */
+    private int loadRanges() {
+        List<T> first = pages.page(null, 1);
+        if (first.isEmpty()) {
+            return 0;
+        }
+        AtomicLong nextRange = new AtomicLong(idOf.apply(first.get(0)) - 1);
+        AtomicBoolean exhausted = new AtomicBoolean();
+        AtomicInteger count = new AtomicInteger();
+        IntStream.range(0, Runtime.getRuntime().availableProcessors()).parallel().forEach(worker -> {
+            while (!exhausted.get()) {
+                long from = nextRange.getAndAdd(PARTITION_SIZE);
+                if (!loadRange(from, from + PARTITION_SIZE, count)) {
+                    exhausted.set(true);
+                }
+            }
+        });
+        return count.get();
+    }
+
+    /**
+     * Загружает записи с id в (from, to]. Возвращает false, если за диапазоном записей нет.
+     */
+    private boolean loadRange(long from, long to, AtomicInteger count) {
+        Long afterId = from;
+        while (true) {
+            List<T> page = pages.page(afterId, PAGE_SIZE);
+            for (T entry : page) {
+                if (idOf.apply(entry) > to) {
+                    return true;
+                }
+                insertLoaded(entry);
+                count.incrementAndGet();
+            }
+            if (page.size() < PAGE_SIZE) {
+                return false;
+            }
+            afterId = idOf.apply(page.get(page.size() - 1));
+        }
+    }
+
+    private void insertLoaded(T entry) {
+        Long id = idOf.apply(entry);
+        locks.withLock(id, () -> {
+            if (!deletedWhileLoading.contains(id) && !present.test(id)) {
+                insert.accept(entry);
+            }
+        });
+    }
+
+    /**
+     * До limit записей с id больше afterId (null - с начала) по возрастанию id.
+     */
+    @FunctionalInterface
+    interface PageSource<T> {
+        List<T> page(Long afterId, int limit);
+    }
+}
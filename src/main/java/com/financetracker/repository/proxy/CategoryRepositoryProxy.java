@@ -1,44 +1,80 @@
 package com.financetracker.repository.proxy;
 
+import com.financetracker.metrics.CacheMetrics;
+import com.financetracker.metrics.CacheMetricsSource;
 import com.financetracker.model.Category;
+import com.financetracker.model.CategorySnapshot;
 import com.financetracker.model.CategoryType;
 import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
+import com.financetracker.repository.support.StripedLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-public class CategoryRepositoryProxy implements CategoryRepositoryInterface {
-    private final Map<Long, Category> cache = new ConcurrentHashMap<>();
+public class CategoryRepositoryProxy implements CategoryRepositoryInterface, CacheMetricsSource {
+    // запись в БД и в кеш для одного id выполняется под одной полосой блокировки
+    private final StripedLock locks = new StripedLock();
 
     private final CategoryRepositoryInterface dbRepository;
+    private final EntityCache<Category> cache;
+    private final CacheMetrics cacheMetrics;
+    private final CacheWarmer<Category> warmer;
+
+    public CategoryRepositoryProxy(CategoryRepositoryInterface dbRepository) {
+        this(dbRepository, CacheWarmUp.EAGER);
+    }
+
+    public CategoryRepositoryProxy(CategoryRepositoryInterface dbRepository, CacheWarmUp warmUp) {
+        this(dbRepository, warmUp, 0);
+    }
 
     @Autowired
-    public CategoryRepositoryProxy(@Qualifier("categoryDbRepository")
-                                   CategoryRepositoryInterface dbRepository) {
+    public CategoryRepositoryProxy(@Qualifier("categoryDbRepository") CategoryRepositoryInterface dbRepository,
+                                   @Value("${financetracker.cache.warm-up:EAGER}") CacheWarmUp warmUp,
+                                   @Value("${financetracker.cache.categories.max-entries:0}") Integer maxEntries) {
         this.dbRepository = dbRepository;
-        initializeCache();
+        this.cache = EntityCache.create(maxEntries);
+        this.cacheMetrics = new CacheMetrics(cache::size);
+        this.warmer = new CacheWarmer<>("categories", warmUp, dbRepository::findAll, null, Category::getId,
+                cache::containsKey, cache.isComplete(), category -> cache.put(category.getId(), category), locks);
+        warmer.start();
     }
 
-    private void initializeCache() {
-        // все данные в кеш при инициализации БД
-        List<Category> allCategories = dbRepository.findAll();
-        for (Category category : allCategories) {
-            cache.put(category.getId(), category);
-        }
+    /**
+     * Длительность прогрева кеша или null, пока он не завершен.
+     */
+    public Duration getWarmUpDuration() {
+        return warmer.duration();
+    }
+
+    @Override
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
     }
 
     @Override
     public Category save(Category category) {
-        // сохраняю в БД
-        Category savedCategory = dbRepository.save(category);
-        // обновляю кеш
-        cache.put(savedCategory.getId(), savedCategory);
-        return savedCategory;
+        if (category.getId() == null) {
+            // новый id выдает БД, до возврата из save его никто не знает, конкурировать не с кем
+            Category savedCategory = dbRepository.save(category);
+            cache.put(savedCategory.getId(), savedCategory);
+            return savedCategory;
+        }
+
+        return locks.withLock(category.getId(), () -> {
+            // сохраняю в БД
+            Category savedCategory = dbRepository.save(category);
+            // обновляю кеш
+            cache.put(savedCategory.getId(), savedCategory);
+            return savedCategory;
+        });
     }
 
     @Override
@@ -46,39 +82,129 @@ public class CategoryRepositoryProxy implements CategoryRepositoryInterface {
         // проверяю кеш
         Category cachedCategory = cache.get(id);
         if (cachedCategory != null) {
+            cacheMetrics.hit();
             return Optional.of(cachedCategory);
         }
 
-        // если нет, то обращаюсь к БД
-        Optional<Category> categoryFromDb = dbRepository.findById(id);
+        // если нет, то обращаюсь к БД под блокировкой, чтобы параллельное удаление
+        // не вернуло запись в кеш
+        return locks.withLock(id, () -> {
+            Category category = cache.get(id);
+            if (category != null) {
+                cacheMetrics.hit();
+                return Optional.of(category);
+            }
+            cacheMetrics.miss();
 
-        // сохраняю в кеш
-        categoryFromDb.ifPresent(category -> cache.put(id, category));
+            Optional<Category> categoryFromDb = dbRepository.findById(id);
 
-        return categoryFromDb;
+            // сохраняю в кеш
+            categoryFromDb.ifPresent(found -> cache.put(id, found));
+
+            return categoryFromDb;
+        });
+    }
+
+    /**
+     * Попадания берутся из кеша без Optional, промахи читаются из БД одним вызовом
+     * под блокировками их полос, как и в findById.
+     */
+    @Override
+    public Map<Long, Category> findAllByIds(Collection<Long> ids) {
+        Map<Long, Category> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : new HashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            Category cachedCategory = cache.get(id);
+            if (cachedCategory != null) {
+                cacheMetrics.hit();
+                result.put(id, cachedCategory);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        return locks.withLocks(misses, () -> {
+            List<Long> stillMissing = new ArrayList<>(misses.size());
+            for (Long id : misses) {
+                Category category = cache.get(id);
+                if (category != null) {
+                    cacheMetrics.hit();
+                    result.put(id, category);
+                } else {
+                    cacheMetrics.miss();
+                    stillMissing.add(id);
+                }
+            }
+            dbRepository.findAllByIds(stillMissing).forEach((id, category) -> {
+                cache.put(id, category);
+                result.put(id, category);
+            });
+            return result;
+        });
     }
 
     @Override
     public List<Category> findAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findAll();
+        }
         return new ArrayList<>(cache.values());
     }
 
+    @Override
+    public Stream<Category> streamAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.streamAll();
+        }
+        // обход кеша без копирования в список
+        return cache.values().stream();
+    }
+
     @Override
     public List<Category> findByType(CategoryType type) {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findByType(type);
+        }
         return cache.values().stream()
                 .filter(category -> category.getType() == type)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<CategorySnapshot> findSnapshotById(Long id) {
+        // снимки неизменяемы, поэтому Db-репозиторий отдает их без копирования в обход кеша
+        return dbRepository.findSnapshotById(id);
+    }
+
+    @Override
+    public List<CategorySnapshot> findAllSnapshots() {
+        return dbRepository.findAllSnapshots();
+    }
+
     @Override
     public void delete(Category category) {
-        dbRepository.delete(category);
-        cache.remove(category.getId());
+        locks.withLock(category.getId(), () -> {
+            dbRepository.delete(category);
+            cache.remove(category.getId());
+            warmer.onDelete(category.getId());
+        });
     }
 
     @Override
     public void deleteById(Long id) {
-        dbRepository.deleteById(id);
-        cache.remove(id);
+        locks.withLock(id, () -> {
+            dbRepository.deleteById(id);
+            cache.remove(id);
+            warmer.onDelete(id);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.financetracker.repository.proxy;
+
+import java.util.Collection;
+
+/**
+ * Кеш сущностей прокси по id. Полный кеш держит все записи БД, и прокси отвечает из него на выборки;
+ * ограниченный держит только часть и ускоряет findById, а выборки идут в БД.
+ */
+interface EntityCache<T> {
+
+    T get(Long id);
+
+    void put(Long id, T value);
+
+    void remove(Long id);
+
+    boolean containsKey(Long id);
+
+    int size();
+
+    /**
+     * Содержит ли кеш все записи БД. Только тогда прокси может отвечать на выборки из кеша.
+     */
+    boolean isComplete();
+
+    /**
+     * Живое представление значений; есть только у полного кеша.
+     */
+    Collection<T> values();
+
+    /**
+     * maxEntries не больше нуля (или не задан) означает кеш без ограничения.
+     */
+    static <T> EntityCache<T> create(Integer maxEntries) {
+        if (maxEntries == null || maxEntries <= 0) {
+            return new MapEntityCache<>();
+        }
+        return new SegmentedLruCache<>(maxEntries);
+    }
+}
@@ -0,0 +1,49 @@
+package com.financetracker.repository.proxy;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кеш без ограничения размера: после прогрева содержит все записи БД.
+ */
+final class MapEntityCache<T> implements EntityCache<T> {
+    private final Map<Long, T> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public T get(Long id) {
+        return (id != null) ? entries.get(id) : null;
+    }
+
+    @Override
+    public void put(Long id, T value) {
+        entries.put(id, value);
+    }
+
+    @Override
+    public void remove(Long id) {
+        if (id != null) {
+            entries.remove(id);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Long id) {
+        return id != null && entries.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+
+    @Override
+    public Collection<T> values() {
+        return entries.values();
+    }
+}
@@ -0,0 +1,513 @@
+package com.financetracker.repository.proxy;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.support.IdBitmap;
+import com.financetracker.search.DescriptionIndex;
+import com.financetracker.search.SearchHit;
+import com.financetracker.search.SearchQuery;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Вторичные индексы операций: по счету, категории, типу и дате, плюс упорядоченное множество id
+ * для постраничной выдачи и полнотекстовый индекс описаний.
+ * Индексы хранят только идентификаторы, сами операции лежат в кеше прокси.
+ * Для каждой операции запоминаются ключи, с которыми она была проиндексирована,
+ * поэтому переиндексация корректна, даже если объект изменили "на месте".
+ * Опустевшие наборы по ключам и корзины дат удаляются, так что индекс не растет
+ * от операций, которых уже нет.
+ */
+class OperationIndex {
+    // индекс, который шире самого избирательного не более чем во столько раз, пересекается с ним
+    // битовыми картами; более широкие проверяются по ключам каждого оставшегося кандидата
+    static final int BITMAP_INTERSECTION_RATIO = 8;
+    // столько кандидатов из битовой карты проверяется за один шаг постраничного запроса
+    private static final int MATCH_CHUNK = 1024;
+
+    private final Map<Long, IndexedKeys> indexedKeys = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> byBankAccountId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> byCategoryId = new ConcurrentHashMap<>();
+    private final Map<OperationType, Set<Long>> byType = new ConcurrentHashMap<>();
+    // корзины дат меняются через compute ConcurrentHashMap (атомарно), а порядок дат
+    // хранит отдельное множество, которое обновляется внутри того же compute
+    private final Map<LocalDate, Set<Long>> byDate = new ConcurrentHashMap<>();
+    private final NavigableSet<LocalDate> dates = new ConcurrentSkipListSet<>();
+    private final Set<Long> undated = ConcurrentHashMap.newKeySet();
+    private final IdBitmap ids = new IdBitmap();
+    private final DescriptionIndex descriptions = new DescriptionIndex();
+
+    void add(Operation operation) {
+        Long id = operation.getId();
+        if (id == null) {
+            return;
+        }
+
+        IndexedKeys keys = new IndexedKeys(operation.getBankAccountId(), operation.getCategoryId(),
+                operation.getType(), operation.getDate());
+        IndexedKeys previous = indexedKeys.put(id, keys);
+        if (previous != null) {
+            unlink(id, previous);
+        } else {
+            ids.add(id);
+        }
+        link(id, keys);
+        descriptions.add(id, operation.getDescription());
+    }
+
+    /**
+     * Индексирует пакет новых операций: идентификаторы сначала группируются по ключу,
+     * и каждый набор в индексе обновляется один раз на ключ, а не на операцию.
+     * Уже проиндексированные операции переиндексируются по одной через {@link #add}.
+     */
+    void addAll(Collection<Operation> operations) {
+        Map<Long, List<Long>> accountGroups = new HashMap<>();
+        Map<Long, List<Long>> categoryGroups = new HashMap<>();
+        Map<OperationType, List<Long>> typeGroups = new EnumMap<>(OperationType.class);
+        Map<LocalDate, List<Long>> dateGroups = new HashMap<>();
+
+        for (Operation operation : operations) {
+            Long id = operation.getId();
+            if (id == null) {
+                continue;
+            }
+            IndexedKeys keys = new IndexedKeys(operation.getBankAccountId(), operation.getCategoryId(),
+                    operation.getType(), operation.getDate());
+            if (indexedKeys.putIfAbsent(id, keys) != null) {
+                add(operation);
+                continue;
+            }
+            ids.add(id);
+            descriptions.add(id, operation.getDescription());
+            if (keys.date() == null) {
+                undated.add(id);
+            }
+            group(accountGroups, keys.bankAccountId(), id);
+            group(categoryGroups, keys.categoryId(), id);
+            group(typeGroups, keys.type(), id);
+            group(dateGroups, keys.date(), id);
+        }
+
+        accountGroups.forEach((key, ids) -> linkAll(byBankAccountId, key, ids));
+        categoryGroups.forEach((key, ids) -> linkAll(byCategoryId, key, ids));
+        typeGroups.forEach((key, ids) -> linkAll(byType, key, ids));
+        dateGroups.forEach(this::linkDate);
+    }
+
+    boolean contains(Long id) {
+        return id != null && indexedKeys.containsKey(id);
+    }
+
+    void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+
+        IndexedKeys previous = indexedKeys.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+            ids.remove(id);
+            descriptions.remove(id);
+        }
+    }
+
+    /**
+     * Снимает с индекса пакет операций: как и в {@link #addAll}, наборы обновляются
+     * один раз на ключ. Удаление всех операций счета убирает его набор целиком.
+     */
+    void removeAll(Collection<Long> operationIds) {
+        Map<Long, List<Long>> accountGroups = new HashMap<>();
+        Map<Long, List<Long>> categoryGroups = new HashMap<>();
+        Map<OperationType, List<Long>> typeGroups = new EnumMap<>(OperationType.class);
+        Map<LocalDate, List<Long>> dateGroups = new HashMap<>();
+
+        for (Long id : operationIds) {
+            IndexedKeys keys = (id != null) ? indexedKeys.remove(id) : null;
+            if (keys == null) {
+                continue;
+            }
+            ids.remove(id);
+            descriptions.remove(id);
+            if (keys.date() == null) {
+                undated.remove(id);
+            }
+            group(accountGroups, keys.bankAccountId(), id);
+            group(categoryGroups, keys.categoryId(), id);
+            group(typeGroups, keys.type(), id);
+            group(dateGroups, keys.date(), id);
+        }
+
+        accountGroups.forEach((key, ids) -> unlinkAll(byBankAccountId, key, ids));
+        categoryGroups.forEach((key, ids) -> unlinkAll(byCategoryId, key, ids));
+        typeGroups.forEach((key, ids) -> unlinkAll(byType, key, ids));
+        dateGroups.forEach(this::unlinkDate);
+    }
+
+    /**
+     * Пуст ли индекс целиком, вместе с наборами по ключам, корзинами дат и словарем описаний.
+     */
+    boolean isEmpty() {
+        return indexedKeys.isEmpty() && byBankAccountId.isEmpty() && byCategoryId.isEmpty() && byType.isEmpty()
+                && byDate.isEmpty() && dates.isEmpty() && undated.isEmpty()
+                && ids.blockCount() == 0 && descriptions.termCount() == 0;
+    }
+
+    Collection<Long> idsByBankAccountId(Long bankAccountId) {
+        return lookup(byBankAccountId, bankAccountId);
+    }
+
+    Collection<Long> idsByCategoryId(Long categoryId) {
+        return lookup(byCategoryId, categoryId);
+    }
+
+    Collection<Long> idsByType(OperationType type) {
+        return lookup(byType, type);
+    }
+
+    /**
+     * Идентификаторы операций в диапазоне дат включительно, упорядоченные по дате.
+     */
+    List<Long> idsByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return Collections.emptyList();
+        }
+
+        List<Long> result = new ArrayList<>();
+        for (Set<Long> ids : buckets(dates.subSet(startDate, true, endDate, true))) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    /**
+     * До limit операций, чьи описания лучше всего подходят под запрос, по убыванию релевантности.
+     */
+    List<SearchHit> searchDescriptions(SearchQuery query, int limit) {
+        return descriptions.search(query, limit);
+    }
+
+    /**
+     * До limit id больше afterId (null - с начала) по возрастанию.
+     */
+    List<Long> idsAfterId(Long afterId, int limit) {
+        return (afterId != null) ? ids.idsAfter(afterId, limit) : ids.idsFrom(Long.MIN_VALUE, limit);
+    }
+
+    /**
+     * До limit id после курсора (null - с начала) в порядке даты, затем id; операции без даты первыми.
+     * Внутри одной даты id сортируются при чтении: корзины дат небольшие.
+     */
+    List<Long> idsAfter(OperationCursor after, int limit) {
+        OperationCursor cursor = (after != null) ? after : OperationCursor.START;
+        List<Long> result = new ArrayList<>(Math.min(limit, 1024));
+        if (cursor.date() == null) {
+            appendSortedAfter(undated, cursor.id(), limit, result);
+        }
+
+        NavigableSet<LocalDate> days = (cursor.date() == null) ? dates : dates.tailSet(cursor.date(), true);
+        for (LocalDate day : days) {
+            if (result.size() == limit) {
+                break;
+            }
+            Set<Long> dayIds = byDate.get(day);
+            if (dayIds != null) {
+                appendSortedAfter(dayIds, day.equals(cursor.date()) ? cursor.id() : null, limit, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Выбирает способ выполнения запроса по индексам: условия упорядочиваются по числу
+     * подходящих id, самое избирательное задает кандидатов, сравнимые с ним по размеру
+     * пересекаются битовыми картами, остальные проверяются поштучно.
+     * Возвращает null, если ни одно условие запроса не покрыто индексом.
+     */
+    QueryPlan plan(OperationQuery query) {
+        List<IndexAccess> accesses = new ArrayList<>(4);
+        if (query.bankAccountId() != null) {
+            accesses.add(keyAccess("bankAccount", byBankAccountId, query.bankAccountId(),
+                    keys -> query.bankAccountId().equals(keys.bankAccountId())));
+        }
+        if (query.categoryId() != null) {
+            accesses.add(keyAccess("category", byCategoryId, query.categoryId(),
+                    keys -> query.categoryId().equals(keys.categoryId())));
+        }
+        if (query.type() != null) {
+            accesses.add(keyAccess("type", byType, query.type(), keys -> query.type() == keys.type()));
+        }
+        if (query.hasDateRange()) {
+            List<Set<Long>> days = buckets(daysBetween(query.from(), query.to()));
+            int estimate = 0;
+            for (Set<Long> dayIds : days) {
+                estimate += dayIds.size();
+            }
+            accesses.add(new IndexAccess("date", estimate,
+                    () -> days.stream().flatMap(Set::stream).iterator(),
+                    keys -> query.matchesDate(keys.date())));
+        }
+        if (accesses.isEmpty()) {
+            return null;
+        }
+
+        accesses.sort(Comparator.comparingInt(IndexAccess::estimate));
+        long bitmapLimit = (long) accesses.get(0).estimate() * BITMAP_INTERSECTION_RATIO;
+        List<IndexAccess> bitmaps = new ArrayList<>();
+        List<IndexAccess> probes = new ArrayList<>();
+        for (IndexAccess access : accesses) {
+            (access.estimate() <= bitmapLimit ? bitmaps : probes).add(access);
+        }
+        return new QueryPlan(bitmaps, probes);
+    }
+
+    /**
+     * Id операций, проходящих индексированные условия запроса, по возрастанию;
+     * null, если индексированных условий нет. Неиндексированные условия (сумма) не проверяются.
+     */
+    List<Long> idsMatching(OperationQuery query) {
+        return idsMatching(query, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * До limit id больше afterId (null - с начала), проходящих индексированные условия запроса,
+     * по возрастанию; null, если индексированных условий нет.
+     */
+    List<Long> idsMatching(OperationQuery query, Long afterId, int limit) {
+        Candidates candidates = candidates(query);
+        return (candidates != null) ? candidates.idsAfter(afterId, limit) : null;
+    }
+
+    /**
+     * Кандидаты запроса по плану {@link #plan}: пересечение битовых карт строится здесь один раз,
+     * а страницы затем берутся из него по курсору. Null, если индексированных условий нет.
+     * Неиндексированные условия (сумма) не проверяются.
+     */
+    Candidates candidates(OperationQuery query) {
+        QueryPlan plan = plan(query);
+        if (plan == null) {
+            return null;
+        }
+        IdBitmap intersection = new IdBitmap();
+        if (plan.bitmaps().get(0).estimate() == 0) {
+            return new Candidates(intersection, List.of());
+        }
+
+        boolean first = true;
+        for (IndexAccess access : plan.bitmaps()) {
+            IdBitmap accessIds = first ? intersection : new IdBitmap();
+            for (Long id : access.ids()) {
+                accessIds.add(id);
+            }
+            if (!first) {
+                intersection.retainAll(accessIds);
+            }
+            first = false;
+        }
+        return new Candidates(intersection, plan.probes());
+    }
+
+    /**
+     * Пересечение битовых карт одного запроса и проверки по ключам для более широких индексов.
+     * Кандидаты из карты проверяются порциями, поэтому страница не требует обхода всех подходящих id.
+     */
+    final class Candidates {
+        private final IdBitmap intersection;
+        private final List<IndexAccess> probes;
+
+        private Candidates(IdBitmap intersection, List<IndexAccess> probes) {
+            this.intersection = intersection;
+            this.probes = probes;
+        }
+
+        /**
+         * До limit id больше afterId (null - с начала) по возрастанию.
+         */
+        List<Long> idsAfter(Long afterId, int limit) {
+            List<Long> result = new ArrayList<>(Math.min(limit, 1024));
+            Long cursor = afterId;
+            while (result.size() < limit) {
+                List<Long> chunk = (cursor != null)
+                        ? intersection.idsAfter(cursor, MATCH_CHUNK)
+                        : intersection.idsFrom(Long.MIN_VALUE, MATCH_CHUNK);
+                for (Long id : chunk) {
+                    if (matchesProbes(id)) {
+                        result.add(id);
+                        if (result.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+                if (chunk.size() < MATCH_CHUNK) {
+                    break;
+                }
+                cursor = chunk.get(chunk.size() - 1);
+            }
+            return result;
+        }
+
+        private boolean matchesProbes(Long id) {
+            IndexedKeys keys = indexedKeys.get(id);
+            if (keys == null) {
+                return false;
+            }
+            for (IndexAccess probe : probes) {
+                if (!probe.matches().test(keys)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private NavigableSet<LocalDate> daysBetween(LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return from.isAfter(to) ? Collections.emptyNavigableSet() : dates.subSet(from, true, to, true);
+        }
+        return (from != null) ? dates.tailSet(from, true) : dates.headSet(to, true);
+    }
+
+    // корзина могла опустеть и удалиться после чтения множества дат
+    private List<Set<Long>> buckets(Collection<LocalDate> days) {
+        List<Set<Long>> result = new ArrayList<>();
+        for (LocalDate day : days) {
+            Set<Long> dayIds = byDate.get(day);
+            if (dayIds != null) {
+                result.add(dayIds);
+            }
+        }
+        return result;
+    }
+
+    private void linkDate(LocalDate date, Collection<Long> ids) {
+        byDate.compute(date, (day, existing) -> {
+            Set<Long> result = existing;
+            if (result == null) {
+                result = ConcurrentHashMap.newKeySet();
+                dates.add(day);
+            }
+            result.addAll(ids);
+            return result;
+        });
+    }
+
+    private void unlinkDate(LocalDate date, Collection<Long> ids) {
+        byDate.computeIfPresent(date, (day, existing) -> {
+            existing.removeAll(ids);
+            if (existing.isEmpty()) {
+                dates.remove(day);
+                return null;
+            }
+            return existing;
+        });
+    }
+
+    private static <K> IndexAccess keyAccess(String name, Map<K, Set<Long>> index, K key,
+                                             Predicate<IndexedKeys> matches) {
+        Collection<Long> ids = lookup(index, key);
+        return new IndexAccess(name, ids.size(), ids, matches);
+    }
+
+    private static void appendSortedAfter(Set<Long> ids, Long afterId, int limit, List<Long> target) {
+        long[] sorted = ids.stream()
+                .mapToLong(Long::longValue)
+                .filter(id -> afterId == null || id > afterId)
+                .sorted()
+                .toArray();
+        for (int i = 0; i < sorted.length && target.size() < limit; i++) {
+            target.add(sorted[i]);
+        }
+    }
+
+    private void link(Long id, IndexedKeys keys) {
+        link(byBankAccountId, keys.bankAccountId(), id);
+        link(byCategoryId, keys.categoryId(), id);
+        link(byType, keys.type(), id);
+        if (keys.date() == null) {
+            undated.add(id);
+        } else {
+            linkDate(keys.date(), List.of(id));
+        }
+    }
+
+    private void unlink(Long id, IndexedKeys keys) {
+        unlink(byBankAccountId, keys.bankAccountId(), id);
+        unlink(byCategoryId, keys.categoryId(), id);
+        unlink(byType, keys.type(), id);
+        if (keys.date() == null) {
+            undated.remove(id);
+        } else {
+            unlinkDate(keys.date(), List.of(id));
+        }
+    }
+
+    private static <K> void link(Map<K, Set<Long>> index, K key, Long id) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, ids) -> {
+            Set<Long> result = (ids != null) ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static <K> void group(Map<K, List<Long>> groups, K key, Long id) {
+        if (key != null) {
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+        }
+    }
+
+    private static <K> void linkAll(Map<K, Set<Long>> index, K key, List<Long> ids) {
+        index.compute(key, (k, existing) -> {
+            Set<Long> result = (existing != null) ? existing : ConcurrentHashMap.newKeySet(ids.size());
+            result.addAll(ids);
+            return result;
+        });
+    }
+
+    private static <K> void unlink(Map<K, Set<Long>> index, K key, Long id) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static <K> void unlinkAll(Map<K, Set<Long>> index, K key, List<Long> ids) {
+        index.computeIfPresent(key, (k, existing) -> {
+            existing.removeAll(ids);
+            return existing.isEmpty() ? null : existing;
+        });
+    }
+
+    private static <K> Collection<Long> lookup(Map<K, Set<Long>> index, K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        Set<Long> ids = index.get(key);
+        return (ids != null) ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Способ выполнения запроса: кандидаты - пересечение bitmaps, затем фильтр по probes.
+     */
+    record QueryPlan(List<IndexAccess> bitmaps, List<IndexAccess> probes) {
+    }
+
+    /**
+     * Доступ по одному индексу: оценка числа id, сами id и проверка того же условия по ключам операции.
+     */
+    record IndexAccess(String name, int estimate, Iterable<Long> ids, Predicate<IndexedKeys> matches) {
+    }
+
+    private record IndexedKeys(Long bankAccountId, Long categoryId, OperationType type, LocalDate date) {
+    }
+}
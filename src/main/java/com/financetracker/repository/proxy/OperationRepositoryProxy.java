@@ -1,101 +1,387 @@
 package com.financetracker.repository.proxy;
 
+import com.financetracker.metrics.CacheMetrics;
+import com.financetracker.metrics.CacheMetricsSource;
 import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationSnapshot;
 import com.financetracker.model.OperationType;
 import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.support.KeysetPages;
+import com.financetracker.repository.support.StripedLock;
+import com.financetracker.search.SearchHit;
+import com.financetracker.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Прокси хранилища операций с кешем и вторичными индексами.
+ * Индекс {@link OperationIndex} ведется только при полном кеше. Ограниченный кеш (max-entries)
+ * ускоряет findById, а выборки отдает хранилищу с его собственными индексами и порядком:
+ * так память прокси ограничена размером кеша, а не числом операций в БД.
+ */
 @Repository
-public class OperationRepositoryProxy implements OperationRepositoryInterface {
-    private final Map<Long, Operation> cache = new ConcurrentHashMap<>();
+public class OperationRepositoryProxy implements OperationRepositoryInterface, CacheMetricsSource {
+    // запись в БД и в кеш для одного id выполняется под одной полосой блокировки
+    private final StripedLock locks = new StripedLock();
+    private final OperationIndex index = new OperationIndex();
 
     private final OperationRepositoryInterface dbRepository;
+    private final EntityCache<Operation> cache;
+    private final CacheMetrics cacheMetrics;
+    private final CacheWarmer<Operation> warmer;
+
+    public OperationRepositoryProxy(OperationRepositoryInterface dbRepository) {
+        this(dbRepository, CacheWarmUp.EAGER);
+    }
+
+    public OperationRepositoryProxy(OperationRepositoryInterface dbRepository, CacheWarmUp warmUp) {
+        this(dbRepository, warmUp, 0);
+    }
 
     @Autowired
-    public OperationRepositoryProxy(@Qualifier("operationDbRepository")
-                                    OperationRepositoryInterface dbRepository) {
+    public OperationRepositoryProxy(@Qualifier("operationDbRepository") OperationRepositoryInterface dbRepository,
+                                    @Value("${financetracker.cache.warm-up:EAGER}") CacheWarmUp warmUp,
+                                    @Value("${financetracker.cache.operations.max-entries:0}") Integer maxEntries) {
         this.dbRepository = dbRepository;
-        initializeCache();
+        this.cache = EntityCache.create(maxEntries);
+        this.cacheMetrics = new CacheMetrics(cache::size);
+        this.warmer = new CacheWarmer<>("operations", warmUp, dbRepository::findAll, dbRepository::findPageAfterId,
+                Operation::getId, index::contains, cache.isComplete(), this::putInCache, locks);
+        warmer.start();
+    }
+
+    /**
+     * Длительность прогрева кеша или null, пока он не завершен.
+     */
+    public Duration getWarmUpDuration() {
+        return warmer.duration();
+    }
+
+    @Override
+    public CacheMetrics getCacheMetrics() {
+        return cacheMetrics;
+    }
+
+    private void putInCache(Operation operation) {
+        cache.put(operation.getId(), operation);
+        if (cache.isComplete()) {
+            // индекс сам снимает старые ключи, если операция перешла на другой счет или категорию
+            index.add(operation);
+        }
+    }
+
+    private void evictFromCache(Long id) {
+        cache.remove(id);
+        index.remove(id);
+        warmer.onDelete(id);
     }
 
-    private void initializeCache() {
-        List<Operation> allOperations = dbRepository.findAll();
-        for (Operation operation : allOperations) {
-            cache.put(operation.getId(), operation);
+    // индекс ведется только при полном кеше, поэтому каждая его операция есть в кеше;
+    // id, удаленный после выбора, пропускается
+    private List<Operation> resolve(Collection<Long> ids) {
+        List<Operation> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Operation operation = cache.get(id);
+            if (operation != null) {
+                result.add(operation);
+            }
         }
+        return result;
     }
 
     @Override
     public Operation save(Operation operation) {
-        Operation savedOperation = dbRepository.save(operation);
-        cache.put(savedOperation.getId(), savedOperation);
-        return savedOperation;
+        if (operation.getId() == null) {
+            // новый id выдает БД, до возврата из save его никто не знает, конкурировать не с кем
+            Operation savedOperation = dbRepository.save(operation);
+            putInCache(savedOperation);
+            return savedOperation;
+        }
+
+        return locks.withLock(operation.getId(), () -> {
+            Operation savedOperation = dbRepository.save(operation);
+            putInCache(savedOperation);
+            return savedOperation;
+        });
+    }
+
+    /**
+     * Пакет пишется в БД одним вызовом, затем кеш и индексы обновляются одним проходом.
+     * Полосы блокировок берутся только для операций с уже известными id.
+     */
+    @Override
+    public List<Operation> saveAll(List<Operation> operations) {
+        List<Long> knownIds = new ArrayList<>();
+        for (Operation operation : operations) {
+            if (operation.getId() != null) {
+                knownIds.add(operation.getId());
+            }
+        }
+
+        return locks.withLocks(knownIds, () -> {
+            List<Operation> savedOperations = dbRepository.saveAll(operations);
+            for (Operation savedOperation : savedOperations) {
+                cache.put(savedOperation.getId(), savedOperation);
+            }
+            if (cache.isComplete()) {
+                index.addAll(savedOperations);
+            }
+            return savedOperations;
+        });
     }
 
     @Override
     public Optional<Operation> findById(Long id) {
         Operation cachedOperation = cache.get(id);
         if (cachedOperation != null) {
+            cacheMetrics.hit();
             return Optional.of(cachedOperation);
         }
 
-        Optional<Operation> operationFromDb = dbRepository.findById(id);
+        // промах читаем под блокировкой, чтобы параллельное удаление не вернуло запись в кеш
+        return locks.withLock(id, () -> {
+            Operation operation = cache.get(id);
+            if (operation != null) {
+                cacheMetrics.hit();
+                return Optional.of(operation);
+            }
+            cacheMetrics.miss();
+
+            Optional<Operation> operationFromDb = dbRepository.findById(id);
 
-        operationFromDb.ifPresent(operation -> cache.put(id, operation));
+            operationFromDb.ifPresent(this::putInCache);
 
-        return operationFromDb;
+            return operationFromDb;
+        });
     }
 
     @Override
     public List<Operation> findAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findAll();
+        }
         return new ArrayList<>(cache.values());
     }
 
+    @Override
+    public Stream<Operation> streamAll() {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.streamAll();
+        }
+        // обход кеша без копирования в список
+        return cache.values().stream();
+    }
+
+    @Override
+    public List<Operation> findPageAfterId(Long afterId, int limit) {
+        KeysetPages.checkLimit(limit);
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findPageAfterId(afterId, limit);
+        }
+        return resolve(index.idsAfterId(afterId, limit));
+    }
+
+    @Override
+    public List<Operation> findPageByDate(OperationCursor after, int limit) {
+        KeysetPages.checkLimit(limit);
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findPageByDate(after, limit);
+        }
+        return resolve(index.idsAfter(after, limit));
+    }
+
     @Override
     public List<Operation> findByBankAccountId(Long bankAccountId) {
-        return cache.values().stream()
-                .filter(operation -> operation.getBankAccountId().equals(bankAccountId))
-                .collect(Collectors.toList());
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findByBankAccountId(bankAccountId);
+        }
+        return resolve(index.idsByBankAccountId(bankAccountId));
+    }
+
+    @Override
+    public int countByBankAccountId(Long bankAccountId) {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.countByBankAccountId(bankAccountId);
+        }
+        return index.idsByBankAccountId(bankAccountId).size();
+    }
+
+    @Override
+    public int countByCategoryId(Long categoryId) {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.countByCategoryId(categoryId);
+        }
+        return index.idsByCategoryId(categoryId).size();
     }
 
     @Override
     public List<Operation> findByType(OperationType type) {
-        return cache.values().stream()
-                .filter(operation -> operation.getType() == type)
-                .collect(Collectors.toList());
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findByType(type);
+        }
+        return resolve(index.idsByType(type));
     }
 
     @Override
     public List<Operation> findByCategoryId(Long categoryId) {
-        return cache.values().stream()
-                .filter(operation -> operation.getCategoryId().equals(categoryId))
-                .collect(Collectors.toList());
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findByCategoryId(categoryId);
+        }
+        return resolve(index.idsByCategoryId(categoryId));
     }
 
     @Override
     public List<Operation> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        return cache.values().stream()
-                .filter(operation -> !operation.getDate().isBefore(startDate)
-                        && !operation.getDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            // порядок по дате, как у индекса
+            List<Operation> operations = new ArrayList<>(dbRepository.findByDateRange(startDate, endDate));
+            operations.sort(Comparator.comparing(Operation::getDate));
+            return operations;
+        }
+        return resolve(index.idsByDateRange(startDate, endDate));
+    }
+
+    /**
+     * Кандидаты отбираются индексом (см. {@link OperationIndex#plan}), затем каждая операция
+     * проверяется запросом целиком: так отсекаются условия по сумме и изменения, сделанные
+     * после выбора id.
+     */
+    @Override
+    public List<Operation> findByQuery(OperationQuery query) {
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findByQuery(query);
+        }
+
+        List<Long> ids = index.idsMatching(query);
+        if (ids == null) {
+            // индексированных условий нет: остается проход по кешу
+            return cache.values().stream()
+                    .filter(query::matches)
+                    .sorted(Comparator.comparing(Operation::getId))
+                    .collect(Collectors.toList());
+        }
+
+        List<Operation> result = new ArrayList<>(ids.size());
+        for (Operation operation : resolve(ids)) {
+            if (query.matches(operation)) {
+                result.add(operation);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Страница запроса: пересечение индексов строится один раз на запрос (см. {@link OperationIndex#candidates}),
+     * без индексированных условий кандидаты берутся из индекса id. Кандидаты после afterId читаются
+     * порциями по недостающему числу строк, каждая строка проверяется запросом целиком. Следующая
+     * порция нужна, только если условия по сумме или параллельные изменения отсеяли часть кандидатов.
+     */
+    @Override
+    public List<Operation> findPageByQuery(OperationQuery query, Long afterId, int limit) {
+        KeysetPages.checkLimit(limit);
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.findPageByQuery(query, afterId, limit);
+        }
+
+        OperationIndex.Candidates candidates = index.candidates(query);
+        List<Operation> page = new ArrayList<>(Math.min(limit, 1024));
+        Long cursor = afterId;
+        while (page.size() < limit) {
+            int missing = limit - page.size();
+            List<Long> ids = (candidates != null)
+                    ? candidates.idsAfter(cursor, missing)
+                    : index.idsAfterId(cursor, missing);
+            for (Operation operation : resolve(ids)) {
+                if (query.matches(operation)) {
+                    page.add(operation);
+                }
+            }
+            if (ids.size() < missing) {
+                break;
+            }
+            cursor = ids.get(ids.size() - 1);
+        }
+        return page;
+    }
+
+    @Override
+    public List<Operation> searchByDescription(String query, int limit) {
+        KeysetPages.checkLimit(limit);
+        if (!warmer.ready()) {
+            cacheMetrics.storeQuery();
+            return dbRepository.searchByDescription(query, limit);
+        }
+
+        List<SearchHit> hits = index.searchDescriptions(SearchQuery.parse(query), limit);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ids.add(hit.operationId());
+        }
+        return resolve(ids);
+    }
+
+    @Override
+    public Optional<OperationSnapshot> findSnapshotById(Long id) {
+        // снимки неизменяемы, поэтому Db-репозиторий отдает их без копирования в обход кеша
+        return dbRepository.findSnapshotById(id);
+    }
+
+    @Override
+    public List<OperationSnapshot> findAllSnapshots() {
+        return dbRepository.findAllSnapshots();
     }
 
     @Override
     public void delete(Operation operation) {
-        dbRepository.delete(operation);
-        cache.remove(operation.getId());
+        locks.withLock(operation.getId(), () -> {
+            dbRepository.delete(operation);
+            evictFromCache(operation.getId());
+        });
     }
 
     @Override
     public void deleteById(Long id) {
-        dbRepository.deleteById(id);
-        cache.remove(id);
+        locks.withLock(id, () -> {
+            dbRepository.deleteById(id);
+            evictFromCache(id);
+        });
+    }
+
+    /**
+     * Пакет удаляется из БД одним вызовом под полосами всех его id, индексы обновляются по ключам.
+     */
+    @Override
+    public void deleteAllById(Collection<Long> ids) {
+        locks.withLocks(ids, () -> {
+            dbRepository.deleteAllById(ids);
+            for (Long id : ids) {
+                cache.remove(id);
+                warmer.onDelete(id);
+            }
+            index.removeAll(ids);
+            return null;
+        });
     }
 }
\ No newline at end of file
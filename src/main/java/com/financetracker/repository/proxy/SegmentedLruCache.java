@@ -0,0 +1,187 @@
+package com.financetracker.repository.proxy;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кеш с ограничением числа записей и вытеснением по сегментированному LRU (SLRU).
+ * <p>
+ * Новая запись попадает в испытательную зону, повторное обращение переводит ее в защищенную
+ * (80% емкости). Вытесняется старейшая запись испытательной зоны, поэтому разовый проход
+ * по истории (экспорт, импорт, отчет) не вымывает часто читаемые операции.
+ * Переполненная защищенная зона сдвигает свою старейшую запись обратно в испытательную.
+ * <p>
+ * Ключи разбиты на независимые сегменты со своей блокировкой, чтобы чтения из разных потоков
+ * не сходились на одном мониторе; емкость делится между сегментами поровну.
+ */
+final class SegmentedLruCache<T> implements EntityCache<T> {
+    private static final int MAX_SEGMENTS = 16;
+    // мельче сегменты не дробим: LRU по нескольким записям теряет смысл
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final Segment<T>[] segments;
+    private final int segmentMask;
+
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        int segmentCount = Integer.highestOneBit(
+                Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_CAPACITY)));
+        int segmentCapacity = (maxEntries + segmentCount - 1) / segmentCount;
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public T get(Long id) {
+        return (id != null) ? segmentFor(id).get(id) : null;
+    }
+
+    @Override
+    public void put(Long id, T value) {
+        segmentFor(id).put(id, value);
+    }
+
+    @Override
+    public void remove(Long id) {
+        if (id != null) {
+            segmentFor(id).remove(id);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Long id) {
+        return id != null && segmentFor(id).containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<T> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return false;
+    }
+
+    @Override
+    public Collection<T> values() {
+        throw new UnsupportedOperationException("Bounded cache does not hold all entries");
+    }
+
+    private Segment<T> segmentFor(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 32) & segmentMask];
+    }
+
+    private static final class Segment<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, T> probation = new LinkedHashMap<>();
+        // порядок доступа: get переносит запись в конец, старейшая остается первой
+        private final LinkedHashMap<Long, T> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, capacity * PROTECTED_PERCENT / 100);
+        }
+
+        T get(Long id) {
+            lock.lock();
+            try {
+                T value = protectedEntries.get(id);
+                if (value != null) {
+                    return value;
+                }
+                value = probation.remove(id);
+                if (value != null) {
+                    promote(id, value);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(Long id, T value) {
+            lock.lock();
+            try {
+                if (protectedEntries.containsKey(id)) {
+                    protectedEntries.put(id, value);
+                } else if (probation.remove(id) != null) {
+                    promote(id, value);
+                } else {
+                    probation.put(id, value);
+                    evictOverflow();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.lock();
+            try {
+                if (protectedEntries.remove(id) == null) {
+                    probation.remove(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean containsKey(Long id) {
+            lock.lock();
+            try {
+                return protectedEntries.containsKey(id) || probation.containsKey(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return protectedEntries.size() + probation.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void promote(Long id, T value) {
+            protectedEntries.put(id, value);
+            if (protectedEntries.size() > protectedCapacity) {
+                Map.Entry<Long, T> demoted = removeEldest(protectedEntries);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        private void evictOverflow() {
+            while (probation.size() + protectedEntries.size() > capacity) {
+                removeEldest(probation.isEmpty() ? protectedEntries : probation);
+            }
+        }
+
+        private static <T> Map.Entry<Long, T> removeEldest(LinkedHashMap<Long, T> entries) {
+            Iterator<Map.Entry<Long, T>> iterator = entries.entrySet().iterator();
+            Map.Entry<Long, T> eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.financetracker.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Потокобезопасное упорядоченное множество id в виде битовой карты по блокам из 4096 id.
+ * Идентификаторы выдаются последовательно, поэтому блоки плотные: миллион id занимает
+ * около 128 КБ, а обход по возрастанию идет словами по 64 бита.
+ * Опустевший блок удаляется: add ставит биты под разделяемой блокировкой, а удаление блока
+ * идет под исключительной, поэтому бит не попадет в блок, который уже снят с карты.
+ */
+public final class IdBitmap {
+    private static final int BLOCK_BITS = 12;
+    private static final int BLOCK_MASK = (1 << BLOCK_BITS) - 1;
+    private static final int WORDS_PER_BLOCK = 1 << (BLOCK_BITS - 6);
+
+    // ключ блока - старшие биты id со сброшенным знаком, поэтому отрицательные id идут раньше положительных
+    private final ConcurrentSkipListMap<Long, AtomicLongArray> blocks = new ConcurrentSkipListMap<>();
+    private final ReadWriteLock blockLock = new ReentrantReadWriteLock();
+
+    public void add(long id) {
+        long position = positionOf(id);
+        int bit = (int) (position & BLOCK_MASK);
+        blockLock.readLock().lock();
+        try {
+            AtomicLongArray words = blocks.computeIfAbsent(position >>> BLOCK_BITS,
+                    block -> new AtomicLongArray(WORDS_PER_BLOCK));
+            words.getAndAccumulate(bit >>> 6, 1L << bit, (word, mask) -> word | mask);
+        } finally {
+            blockLock.readLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        long position = positionOf(id);
+        long key = position >>> BLOCK_BITS;
+        AtomicLongArray words = blocks.get(key);
+        if (words == null) {
+            return;
+        }
+        int bit = (int) (position & BLOCK_MASK);
+        words.getAndAccumulate(bit >>> 6, 1L << bit, (word, mask) -> word & ~mask);
+        if (isEmpty(words)) {
+            blockLock.writeLock().lock();
+            try {
+                // пока ждали блокировку, в блок могли добавить id
+                if (isEmpty(words)) {
+                    blocks.remove(key, words);
+                }
+            } finally {
+                blockLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Число блоков в карте; опустевшие блоки в нем не учитываются.
+     */
+    public int blockCount() {
+        return blocks.size();
+    }
+
+    public boolean contains(long id) {
+        long position = positionOf(id);
+        AtomicLongArray words = blocks.get(position >>> BLOCK_BITS);
+        if (words == null) {
+            return false;
+        }
+        int bit = (int) (position & BLOCK_MASK);
+        return (words.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Оставляет только id, которые есть и в other: пословное "и" по общим блокам,
+     * блоки, которых в other нет, отбрасываются целиком.
+     */
+    public void retainAll(IdBitmap other) {
+        for (Map.Entry<Long, AtomicLongArray> block : blocks.entrySet()) {
+            AtomicLongArray otherWords = other.blocks.get(block.getKey());
+            if (otherWords == null) {
+                blocks.remove(block.getKey());
+                continue;
+            }
+            AtomicLongArray words = block.getValue();
+            for (int w = 0; w < WORDS_PER_BLOCK; w++) {
+                words.getAndAccumulate(w, otherWords.get(w), (word, mask) -> word & mask);
+            }
+        }
+    }
+
+    /**
+     * До limit id больше afterId по возрастанию.
+     */
+    public List<Long> idsAfter(long afterId, int limit) {
+        return (afterId == Long.MAX_VALUE) ? new ArrayList<>() : idsFrom(afterId + 1, limit);
+    }
+
+    /**
+     * До limit id, начиная с firstId включительно, по возрастанию.
+     */
+    public List<Long> idsFrom(long firstId, int limit) {
+        List<Long> result = new ArrayList<>(Math.min(limit, 1024));
+        long from = positionOf(firstId);
+        for (Map.Entry<Long, AtomicLongArray> block : blocks.tailMap(from >>> BLOCK_BITS, true).entrySet()) {
+            long base = block.getKey() << BLOCK_BITS;
+            AtomicLongArray words = block.getValue();
+            int firstBit = (block.getKey() == from >>> BLOCK_BITS) ? (int) (from & BLOCK_MASK) : 0;
+            for (int w = firstBit >>> 6; w < WORDS_PER_BLOCK; w++) {
+                long word = words.get(w);
+                if (w == firstBit >>> 6) {
+                    word &= -1L << (firstBit & 63);
+                }
+                while (word != 0) {
+                    long position = base + ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                    result.add(position ^ Long.MIN_VALUE);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                    word &= word - 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isEmpty(AtomicLongArray words) {
+        for (int w = 0; w < WORDS_PER_BLOCK; w++) {
+            if (words.get(w) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long positionOf(long id) {
+        // сдвиг диапазона: Long.MIN_VALUE -> 0, Long.MAX_VALUE -> 2^64 - 1 без знака
+        return id ^ Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,64 @@
+package com.financetracker.repository.support;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная последовательность идентификаторов.
+ * Поддерживает выдачу блоками для пакетной записи и продвижение за идентификаторы,
+ * пришедшие извне (например, при импорте), чтобы новые id с ними не пересекались.
+ */
+public final class IdSequence {
+    private final AtomicLong next;
+
+    public IdSequence() {
+        this(1L);
+    }
+
+    public IdSequence(long first) {
+        this.next = new AtomicLong(first);
+    }
+
+    public long next() {
+        return next.getAndIncrement();
+    }
+
+    /**
+     * Резервирует count подряд идущих идентификаторов и возвращает первый из них.
+     */
+    public long reserve(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must be non-negative: " + count);
+        }
+        return next.getAndAdd(count);
+    }
+
+    /**
+     * Резервирует по идентификатору на каждый элемент без id (idOf возвращает null)
+     * и возвращает первый из них: пакетная запись берет id одним блоком.
+     */
+    public <T> long reserveFor(Collection<T> items, Function<T, Long> idOf) {
+        int count = 0;
+        for (T item : items) {
+            if (idOf.apply(item) == null) {
+                count++;
+            }
+        }
+        return reserve(count);
+    }
+
+    /**
+     * Гарантирует, что следующие выданные идентификаторы будут больше id.
+     */
+    public void observe(long id) {
+        if (id == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Id sequence exhausted");
+        }
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+
+    public long peek() {
+        return next.get();
+    }
+}
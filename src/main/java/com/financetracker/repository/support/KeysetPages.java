@@ -0,0 +1,89 @@
+package com.financetracker.repository.support;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Постраничная выборка по ключу (keyset): страница задается последним ключом предыдущей,
+ * а не смещением.
+ */
+public final class KeysetPages {
+    /** Размер страницы, которой упорядоченные стримы читают хранилище. */
+    public static final int STREAM_PAGE_SIZE = 1_000;
+
+    private KeysetPages() {
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+    }
+
+    /**
+     * Первые limit подходящих элементов в порядке order за один проход по source.
+     * В памяти держится только куча из limit элементов, поток закрывается.
+     */
+    public static <T> List<T> select(Stream<T> source, Predicate<T> filter, Comparator<T> order, int limit) {
+        checkLimit(limit);
+        // на вершине наибольший из отобранных: его вытесняет любой меньший
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, order.reversed());
+        try (source) {
+            source.forEach(element -> {
+                if (!filter.test(element)) {
+                    return;
+                }
+                if (heap.size() < limit) {
+                    heap.add(element);
+                } else if (order.compare(element, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(element);
+                }
+            });
+        }
+
+        List<T> page = new ArrayList<>(heap);
+        page.sort(order);
+        return page;
+    }
+
+    /**
+     * Ленивый упорядоченный стрим из страниц: следующая страница запрашивается после
+     * последнего элемента предыдущей, когда та прочитана. Заканчивается на пустой странице:
+     * неполная страница еще не конец, если строку удалили между выбором id и чтением.
+     */
+    public static <T, C> Stream<T> stream(C start, Function<C, List<T>> pageAfter, Function<T, C> cursorOf) {
+        Iterator<T> iterator = new Iterator<>() {
+            private List<T> page = List.of();
+            private int position;
+            private C cursor = start;
+
+            @Override
+            public boolean hasNext() {
+                if (position < page.size()) {
+                    return true;
+                }
+                page = pageAfter.apply(cursor);
+                position = 0;
+                if (page.isEmpty()) {
+                    return false;
+                }
+                cursor = cursorOf.apply(page.get(page.size() - 1));
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
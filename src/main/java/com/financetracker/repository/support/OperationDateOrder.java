@@ -0,0 +1,156 @@
+package com.financetracker.repository.support;
+
+import com.financetracker.model.OperationCursor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Порядок операций по (дата, id) для постраничной выборки по дате: два примитивных массива,
+ * 12 байт на строку, без объектов на каждую строку. Строится по хранилищу при первом чтении
+ * после изменения (O(N log N) на сортировку long-ключей) и до следующего изменения переиспользуется;
+ * страница - двоичный поиск курсора и проход по следующим позициям.
+ * <p>
+ * Хранилище вызывает invalidate после каждой вставки, удаления или смены даты, когда запись
+ * уже видна. Строку по позиции достает само хранилище: если ее удалили или перенесли
+ * на другую дату после построения, lookup возвращает null и строка пропускается.
+ * Даты хранятся как epoch day в int; даты за пределами этого диапазона сравниваются как крайние.
+ */
+public final class OperationDateOrder {
+    /** Epoch day операции без даты: такие операции идут первыми. */
+    public static final int UNDATED = Integer.MIN_VALUE;
+
+    private final Source source;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Order order;
+
+    public OperationDateOrder(Source source) {
+        this.source = source;
+    }
+
+    public static int epochDayOf(LocalDate date) {
+        if (date == null) {
+            return UNDATED;
+        }
+        return (int) Math.max(UNDATED + 1L, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * До limit строк после курсора (null - с начала) в порядке даты, затем id.
+     */
+    public <T> List<T> page(OperationCursor after, int limit, Lookup<T> lookup) {
+        KeysetPages.checkLimit(limit);
+        Order current = current();
+        int position = (after != null) ? current.positionAfter(epochDayOf(after.date()),
+                (after.id() != null) ? after.id() : Long.MIN_VALUE) : 0;
+
+        List<T> page = new ArrayList<>(Math.min(limit, 1024));
+        for (; position < current.ids.length && page.size() < limit; position++) {
+            T row = lookup.at(current.ids[position], current.days[position]);
+            if (row != null) {
+                page.add(row);
+            }
+        }
+        return page;
+    }
+
+    private Order current() {
+        Order current = order;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            // версия читается до обхода: изменение во время построения вызовет следующее
+            long built = version.get();
+            current = order;
+            if (current == null || current.version != built) {
+                current = build(built);
+                order = current;
+            }
+            return current;
+        }
+    }
+
+    private Order build(long built) {
+        Rows rows = new Rows();
+        source.forEach(rows);
+
+        // источник отдает строки по возрастанию id, поэтому порядок (день, позиция) совпадает с (день, id)
+        long[] keys = new long[rows.size];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) rows.days[i] << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        long[] sortedIds = new long[keys.length];
+        int[] sortedDays = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int position = (int) keys[i];
+            sortedIds[i] = rows.ids[position];
+            sortedDays[i] = rows.days[position];
+        }
+        return new Order(sortedIds, sortedDays, built);
+    }
+
+    private static final class Rows implements Row {
+        long[] ids = new long[1024];
+        int[] days = new int[1024];
+        int size;
+
+        @Override
+        public void accept(long id, int epochDay) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+            }
+            ids[size] = id;
+            days[size] = epochDay;
+            size++;
+        }
+    }
+
+    private record Order(long[] ids, int[] days, long version) {
+        // первая позиция строго после (epochDay, id)
+        int positionAfter(int epochDay, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (days[middle] < epochDay || (days[middle] == epochDay && ids[middle] <= id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Обходит строки хранилища по возрастанию id.
+     */
+    @FunctionalInterface
+    public interface Source {
+        void forEach(Row row);
+    }
+
+    @FunctionalInterface
+    public interface Row {
+        void accept(long id, int epochDay);
+    }
+
+    /**
+     * Строка с этим id, если ее epoch day все еще равен epochDay; иначе null.
+     */
+    @FunctionalInterface
+    public interface Lookup<T> {
+        T at(long id, int epochDay);
+    }
+}
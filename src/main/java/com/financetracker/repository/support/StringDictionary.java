@@ -0,0 +1,146 @@
+package com.financetracker.repository.support;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Потокобезопасный словарь строк с целочисленными кодами и подсчетом ссылок.
+ * <p>
+ * Хранилище берет код через {@link #acquire(String)} на каждую запись и отдает его через
+ * {@link #release(int)}, когда запись удалена или перезаписана. Одинаковые строки получают
+ * один код и один общий экземпляр, поэтому сравнение и группировка по ним сводятся к
+ * сравнению int. Строка без ссылок удаляется из словаря, а ее код выдается повторно.
+ * <p>
+ * {@link #intern(String)} только ищет уже известный экземпляр и ссылку не берет: так
+ * фабрика может отдавать общие строки, не удерживая их в словаре.
+ * <p>
+ * В приложении один экземпляр - Spring-компонент: его получают фабрика сущностей и хранилища
+ * операций и категорий, так что описания операций и названия категорий делят общие строки.
+ */
+@Component
+public final class StringDictionary {
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Object codesLock = new Object();
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private int[] freeCodes = new int[0];
+    private int freeCount;
+    private int nextCode;
+
+    /**
+     * Код строки с увеличением счетчика ссылок; для null возвращает {@link #NONE}.
+     */
+    public int acquire(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        return entries.compute(value, (key, entry) -> {
+            if (entry == null) {
+                return new Entry(allocate(key));
+            }
+            entry.references++;
+            return entry;
+        }).code;
+    }
+
+    /**
+     * То же, что {@link #acquire(String)}, но возвращает общий экземпляр строки.
+     */
+    public String share(String value) {
+        return valueOf(acquire(value));
+    }
+
+    /**
+     * Отдает ссылку, взятую через {@link #acquire(String)}; {@link #NONE} игнорируется.
+     */
+    public void release(int code) {
+        if (code == NONE) {
+            return;
+        }
+        String value = valueOf(code);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown dictionary code: " + code);
+        }
+        release(value);
+    }
+
+    /**
+     * Отдает ссылку, взятую через {@link #share(String)}; null игнорируется.
+     */
+    public void release(String value) {
+        if (value == null) {
+            return;
+        }
+        entries.computeIfPresent(value, (key, entry) -> {
+            if (--entry.references > 0) {
+                return entry;
+            }
+            free(entry.code);
+            return null;
+        });
+    }
+
+    /**
+     * Строка по коду, на который у вызывающего есть ссылка; для {@link #NONE} - null.
+     */
+    public String valueOf(int code) {
+        return (code != NONE) ? values[code] : null;
+    }
+
+    /**
+     * Общий экземпляр строки, если она уже есть в словаре, иначе сама value.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        Entry entry = entries.get(value);
+        String shared = (entry != null) ? valueOf(entry.code) : null;
+        return (shared != null && shared.equals(value)) ? shared : value;
+    }
+
+    /**
+     * Число различных строк, на которые есть ссылки.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private int allocate(String value) {
+        synchronized (codesLock) {
+            int code = (freeCount > 0) ? freeCodes[--freeCount] : nextCode++;
+            String[] current = values;
+            if (code >= current.length) {
+                current = Arrays.copyOf(current, current.length << 1);
+            }
+            current[code] = value;
+            values = current;
+            return code;
+        }
+    }
+
+    private void free(int code) {
+        synchronized (codesLock) {
+            values[code] = null;
+            if (freeCount == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, Math.max(16, freeCount << 1));
+            }
+            freeCodes[freeCount++] = code;
+        }
+    }
+
+    private static final class Entry {
+        private final int code;
+        private int references = 1;
+
+        private Entry(int code) {
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.financetracker.repository.support;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Набор блокировок, между которыми распределяются ключи.
+ * Операции над одним ключом упорядочены, над разными ключами почти всегда идут параллельно,
+ * и при этом нет одной глобальной блокировки.
+ */
+public final class StripedLock {
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedLock() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public StripedLock(int minimumStripes) {
+        int count = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        stripes = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = count - 1;
+    }
+
+    public Lock lockFor(Object key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    private int stripeIndex(Object key) {
+        int h = (key != null) ? key.hashCode() : 0;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    public <T> T withLock(Object key, Supplier<T> action) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(Object key, Runnable action) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выполняет action под полосами всех ключей сразу. Полосы захватываются
+     * в порядке возрастания номера, поэтому встречные пакеты не блокируют друг друга намертво.
+     */
+    public <T> T withLocks(Iterable<?> keys, Supplier<T> action) {
+        BitSet indexes = new BitSet(stripes.length);
+        for (Object key : keys) {
+            indexes.set(stripeIndex(key));
+        }
+
+        int locked = -1;
+        try {
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                locked = i;
+            }
+            return action.get();
+        } finally {
+            for (int i = indexes.nextSetBit(0); i >= 0 && i <= locked; i = indexes.nextSetBit(i + 1)) {
+                stripes[i].unlock();
+            }
+        }
+    }
+}
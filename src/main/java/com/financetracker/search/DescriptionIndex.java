@@ -0,0 +1,256 @@
+package com.financetracker.search;
+
+import com.financetracker.repository.support.StripedLock;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс описаний операций с ранжированием BM25.
+ * <p>
+ * Для каждого терма хранится список операций, в которых он встречается, вместе с числом
+ * вхождений и длиной описания, поэтому поиск обходит только списки термов запроса и не
+ * обращается к самим операциям. Термы упорядочены, так что поиск по началу слова -
+ * это обход диапазона словаря. Опустевший список терма удаляется из словаря: запись в списки
+ * идет под разделяемой блокировкой, удаление списка - под исключительной.
+ * Переиндексация и удаление одной операции идут под блокировкой ее id, поэтому два
+ * параллельных add одного id не оставляют в списках термы обоих описаний.
+ */
+public class DescriptionIndex {
+    // стандартные параметры BM25: насыщение по числу вхождений и нормировка по длине описания
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // в значении списка упакованы число вхождений терма (старшие биты) и длина описания (младшие 16)
+    private static final int LENGTH_BITS = 16;
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+    private static final int MAX_FREQUENCY = Short.MAX_VALUE;
+
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final LongAdder totalLength = new LongAdder();
+    private final ReadWriteLock postingLock = new ReentrantReadWriteLock();
+    private final StripedLock documentLocks = new StripedLock();
+
+    /**
+     * Индексирует описание операции, заменяя прежнее. Пустое описание снимает операцию с индекса.
+     */
+    public void add(long id, String description) {
+        documentLocks.withLock(id, () -> reindex(id, description));
+    }
+
+    public void remove(long id) {
+        documentLocks.withLock(id, () -> unindex(id));
+    }
+
+    private void reindex(long id, String description) {
+        Document previous = documents.get(id);
+        if (previous != null && Objects.equals(previous.description(), description)) {
+            return;
+        }
+        unindex(id);
+
+        List<String> tokens = DescriptionTokenizer.tokens(description);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        int length = Math.min(tokens.size(), MAX_LENGTH);
+        postingLock.readLock().lock();
+        try {
+            frequencies.forEach((term, frequency) -> postings
+                    .computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                    .put(id, pack(frequency, length)));
+        } finally {
+            postingLock.readLock().unlock();
+        }
+        documents.put(id, new Document(description, frequencies.keySet().toArray(new String[0]), length));
+        totalLength.add(length);
+    }
+
+    private void unindex(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        List<String> emptied = new ArrayList<>();
+        for (String term : document.terms()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    emptied.add(term);
+                }
+            }
+        }
+        totalLength.add(-document.length());
+        if (!emptied.isEmpty()) {
+            removeEmptyPostings(emptied);
+        }
+    }
+
+    /**
+     * Число термов в словаре.
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * До limit самых релевантных операций по убыванию score; при равенстве новые (с большим id) выше.
+     */
+    public List<SearchHit> search(SearchQuery query, int limit) {
+        return search(query, limit, documents.size(), totalLength.sum());
+    }
+
+    /**
+     * Поиск без индекса: один проход по source. В памяти остаются только описания, в которых
+     * встретилось слово запроса, а статистика для ранжирования считается по всем.
+     * Порядок и score совпадают с поиском по индексу над теми же записями.
+     */
+    public static <T> List<T> scan(Stream<T> source, Function<T, Long> idOf, Function<T, String> descriptionOf,
+                                   SearchQuery query, int limit) {
+        DescriptionIndex candidates = new DescriptionIndex();
+        Map<Long, T> candidatesById = new HashMap<>();
+        long[] documentCount = new long[1];
+        long[] totalLength = new long[1];
+        try (source) {
+            source.forEach(element -> {
+                List<String> tokens = DescriptionTokenizer.tokens(descriptionOf.apply(element));
+                if (tokens.isEmpty()) {
+                    return;
+                }
+                documentCount[0]++;
+                totalLength[0] += Math.min(tokens.size(), MAX_LENGTH);
+                if (tokens.stream().anyMatch(query::matches)) {
+                    Long id = idOf.apply(element);
+                    candidates.add(id, descriptionOf.apply(element));
+                    candidatesById.put(id, element);
+                }
+            });
+        }
+
+        List<T> result = new ArrayList<>();
+        for (SearchHit hit : candidates.search(query, limit, documentCount[0], totalLength[0])) {
+            result.add(candidatesById.get(hit.operationId()));
+        }
+        return result;
+    }
+
+    private void removeEmptyPostings(List<String> terms) {
+        postingLock.writeLock().lock();
+        try {
+            // пока ждали блокировку, терм могли снова добавить
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null && posting.isEmpty()) {
+                    postings.remove(term, posting);
+                }
+            }
+        } finally {
+            postingLock.writeLock().unlock();
+        }
+    }
+
+    private List<SearchHit> search(SearchQuery query, int limit, long documentCount, long totalLength) {
+        if (documentCount == 0 || query.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // терм мог попасть и точным словом, и по префиксу: каждый список учитываем один раз
+        Set<Map<Long, Integer>> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String term : query.terms()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null && !posting.isEmpty()) {
+                matched.add(posting);
+            }
+        }
+        for (String prefix : query.prefixes()) {
+            for (Map<Long, Integer> posting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (!posting.isEmpty()) {
+                    matched.add(posting);
+                }
+            }
+        }
+
+        double averageLength = (double) totalLength / documentCount;
+        TopHits top = new TopHits(limit);
+        if (matched.size() == 1) {
+            // один список: score каждой операции окончателен, промежуточная карта не нужна
+            Map<Long, Integer> posting = matched.iterator().next();
+            double idf = idf(documentCount, posting.size());
+            posting.forEach((id, packed) -> top.offer(id, score(idf, packed, averageLength)));
+            return top.toList();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map<Long, Integer> posting : matched) {
+            double idf = idf(documentCount, posting.size());
+            posting.forEach((id, packed) -> scores.merge(id, score(idf, packed, averageLength), Double::sum));
+        }
+        scores.forEach(top::offer);
+        return top.toList();
+    }
+
+    private static double idf(long documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double score(double idf, int packed, double averageLength) {
+        int frequency = packed >>> LENGTH_BITS;
+        int length = packed & MAX_LENGTH;
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static int pack(int frequency, int length) {
+        return (Math.min(frequency, MAX_FREQUENCY) << LENGTH_BITS) | length;
+    }
+
+    private record Document(String description, String[] terms, int length) {
+    }
+
+    /**
+     * Куча из limit лучших результатов; на вершине худший из отобранных.
+     */
+    private static final class TopHits {
+        private static final Comparator<SearchHit> ORDER = Comparator.comparingDouble(SearchHit::score)
+                .thenComparingLong(SearchHit::operationId);
+
+        private final int limit;
+        private final PriorityQueue<SearchHit> heap;
+
+        TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, ORDER);
+        }
+
+        void offer(long id, double score) {
+            if (heap.size() < limit) {
+                heap.add(new SearchHit(id, score));
+            } else if (score > heap.peek().score()
+                    || (score == heap.peek().score() && id > heap.peek().operationId())) {
+                heap.poll();
+                heap.add(new SearchHit(id, score));
+            }
+        }
+
+        List<SearchHit> toList() {
+            List<SearchHit> result = new ArrayList<>(heap);
+            result.sort(ORDER.reversed());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.financetracker.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбивает описание на термы: последовательности букв и цифр в нижнем регистре, "ё" приводится к "е".
+ * Любой другой символ - разделитель.
+ */
+public final class DescriptionTokenizer {
+
+    private DescriptionTokenizer() {
+    }
+
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(normalize(Character.toLowerCase(codePoint)));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static int normalize(int codePoint) {
+        return (codePoint == 'ё') ? 'е' : codePoint;
+    }
+}
@@ -0,0 +1,7 @@
+package com.financetracker.search;
+
+/**
+ * Найденная операция и ее релевантность: чем больше score, тем выше в выдаче.
+ */
+public record SearchHit(long operationId, double score) {
+}
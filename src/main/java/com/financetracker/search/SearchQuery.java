@@ -0,0 +1,50 @@
+package com.financetracker.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Разобранный поисковый запрос. Слова объединяются через "или", а ранжирование поднимает
+ * операции, в которых нашлось больше слов. Слово со звездочкой на конце ("коф*") ищется по началу терма.
+ */
+public record SearchQuery(List<String> terms, List<String> prefixes) {
+
+    public static SearchQuery parse(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        Set<String> prefixes = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : text.trim().split("\\s+")) {
+                List<String> tokens = DescriptionTokenizer.tokens(word);
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+                // "кофе-брейк*": звездочка относится только к последнему терму слова
+                int last = tokens.size() - 1;
+                terms.addAll(tokens.subList(0, last));
+                (word.endsWith("*") ? prefixes : terms).add(tokens.get(last));
+            }
+        }
+        return new SearchQuery(new ArrayList<>(terms), new ArrayList<>(prefixes));
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty() && prefixes.isEmpty();
+    }
+
+    /**
+     * Подходит ли терм описания под одно из слов запроса.
+     */
+    public boolean matches(String token) {
+        if (terms.contains(token)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
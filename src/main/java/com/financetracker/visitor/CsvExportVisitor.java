@@ -0,0 +1,121 @@
+package com.financetracker.visitor;
+
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Экспорт в CSV: каждая секция начинается со строки заголовков, секции разделены пустой строкой.
+ * Суммы пишутся точно, из копеек, а текстовые поля экранируются по RFC 4180.
+ */
+public class CsvExportVisitor extends StreamingExportVisitor {
+
+    private final Writer writer;
+    private boolean firstSection = true;
+
+    public CsvExportVisitor(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    protected void startSection(Section section) throws IOException {
+        if (!firstSection) {
+            writer.write('\n');
+        }
+        firstSection = false;
+        writer.write(switch (section) {
+            case BANK_ACCOUNTS -> "id,name,balance,openingBalance\n";
+            case CATEGORIES -> "id,name,type\n";
+            case OPERATIONS -> "id,type,bankAccountId,amount,date,description,categoryId\n";
+        });
+    }
+
+    @Override
+    protected void writeBankAccount(BankAccount bankAccount) throws IOException {
+        writeValue(bankAccount.getId());
+        writer.write(',');
+        writeText(bankAccount.getName());
+        writer.write(',');
+        writeAmount(bankAccount.getBalanceCents());
+        writer.write(',');
+        writeAmount(bankAccount.getOpeningBalanceCents());
+        writer.write('\n');
+    }
+
+    @Override
+    protected void writeCategory(Category category) throws IOException {
+        writeValue(category.getId());
+        writer.write(',');
+        writeText(category.getName());
+        writer.write(',');
+        writeValue(category.getType());
+        writer.write('\n');
+    }
+
+    @Override
+    protected void writeOperation(Operation operation) throws IOException {
+        writeValue(operation.getId());
+        writer.write(',');
+        writeValue(operation.getType());
+        writer.write(',');
+        writeValue(operation.getBankAccountId());
+        writer.write(',');
+        writeAmount(operation.getAmountCents());
+        writer.write(',');
+        writeValue(operation.getDate());
+        writer.write(',');
+        writeText(operation.getDescription());
+        writer.write(',');
+        writeValue(operation.getCategoryId());
+        writer.write('\n');
+    }
+
+    @Override
+    protected void flushOutput() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        writer.close();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void writeAmount(long cents) throws IOException {
+        writer.write(Money.ofMinor(cents).toString());
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,57 @@
+package com.financetracker.visitor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Поддерживаемые форматы экспорта и создание соответствующего посетителя.
+ */
+public enum ExportFormat {
+    TEXT("txt", true),
+    CSV("csv", true),
+    JSON("json", true),
+    // эмиттер SnakeYAML придерживает события для просмотра вперед, и сброс буфера
+    // не попадает на границы записей, поэтому YAML нельзя собрать из частей
+    YAML("yaml", false);
+
+    private final String fileExtension;
+    private final boolean splittable;
+
+    ExportFormat(String fileExtension, boolean splittable) {
+        this.fileExtension = fileExtension;
+        this.splittable = splittable;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Можно ли писать секцию операций частями и склеивать их, см. {@link PartitionedExport}.
+     */
+    public boolean isSplittable() {
+        return splittable;
+    }
+
+    /**
+     * Посетитель, пишущий в указанный файл через буферизованный канал.
+     */
+    public StreamingExportVisitor open(Path file) throws IOException {
+        return open(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    public StreamingExportVisitor open(Writer writer) throws IOException {
+        return switch (this) {
+            case TEXT -> new FileExportVisitor(writer);
+            case CSV -> new CsvExportVisitor(writer);
+            case JSON -> new JacksonExportVisitor(new JsonFactory(), writer);
+            case YAML -> new JacksonExportVisitor(new YAMLFactory(), writer);
+        };
+    }
+}
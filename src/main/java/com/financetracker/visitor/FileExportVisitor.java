@@ -4,49 +4,54 @@ import com.financetracker.model.BankAccount;
 import com.financetracker.model.Category;
 import com.financetracker.model.Operation;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
-public class FileExportVisitor implements DataExportVisitor {
+/**
+ * Текстовый экспорт в человекочитаемом виде, по строке на сущность.
+ * Части строки дописываются в буферизованный Writer по отдельности, без конкатенации.
+ */
+public class FileExportVisitor extends StreamingExportVisitor {
 
-    private final FileWriter writer;
+    private final Writer writer;
 
     public FileExportVisitor(String filePath) throws IOException {
-        this.writer = new FileWriter(filePath);
+        this(Files.newBufferedWriter(Path.of(filePath), StandardCharsets.UTF_8));
+    }
+
+    public FileExportVisitor(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    protected void writeBankAccount(BankAccount bankAccount) throws IOException {
+        writer.append("BankAccount: ").append(bankAccount.getName())
+                .append(", Balance: ").append(String.valueOf(bankAccount.getBalance())).append('\n');
     }
 
     @Override
-    public void visit(BankAccount bankAccount) {
-        try {
-            writer.write("BankAccount: " + bankAccount.getName() + ", Balance: " + bankAccount.getBalance() + "\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    protected void writeCategory(Category category) throws IOException {
+        writer.append("Category: ").append(category.getName())
+                .append(", Type: ").append(String.valueOf(category.getType())).append('\n');
     }
 
     @Override
-    public void visit(Category category) {
-        try {
-            writer.write("Category: " + category.getName() + ", Type: " + category.getType() + "\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    protected void writeOperation(Operation operation) throws IOException {
+        writer.append("Operation: ").append(operation.getDescription())
+                .append(", Amount: ").append(String.valueOf(operation.getAmount()))
+                .append(", Date: ").append(String.valueOf(operation.getDate())).append('\n');
     }
 
     @Override
-    public void visit(Operation operation) {
-        try {
-            writer.write("Operation: " + operation.getDescription() + ", Amount: " + operation.getAmount() + ", Date: " + operation.getDate() + "\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    protected void flushOutput() throws IOException {
+        writer.flush();
     }
 
-    public void close() {
-        try {
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    @Override
+    protected void closeOutput() throws IOException {
+        writer.close();
     }
-}
\ No newline at end of file
+}
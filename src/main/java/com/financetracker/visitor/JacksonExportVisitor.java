@@ -0,0 +1,113 @@
+package com.financetracker.visitor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Экспорт в JSON или YAML через потоковый JsonGenerator Jackson: поля пишутся токенами прямо в Writer,
+ * дерево документа и промежуточные строки не строятся. Формат определяется фабрикой
+ * (JsonFactory для JSON, YAMLFactory для YAML).
+ * Документ - объект с массивами bankAccounts, categories и operations.
+ */
+public class JacksonExportVisitor extends StreamingExportVisitor {
+
+    private final JsonGenerator generator;
+
+    public JacksonExportVisitor(JsonFactory factory, Writer writer) throws IOException {
+        this.generator = factory.createGenerator(writer);
+    }
+
+    @Override
+    protected void startDocument() throws IOException {
+        generator.writeStartObject();
+    }
+
+    @Override
+    protected void endDocument() throws IOException {
+        generator.writeEndObject();
+    }
+
+    @Override
+    protected void startSection(Section section) throws IOException {
+        generator.writeArrayFieldStart(switch (section) {
+            case BANK_ACCOUNTS -> "bankAccounts";
+            case CATEGORIES -> "categories";
+            case OPERATIONS -> "operations";
+        });
+    }
+
+    @Override
+    protected void endSection(Section section) throws IOException {
+        generator.writeEndArray();
+    }
+
+    @Override
+    protected void writeBankAccount(BankAccount bankAccount) throws IOException {
+        generator.writeStartObject();
+        writeId("id", bankAccount.getId());
+        generator.writeStringField("name", bankAccount.getName());
+        writeAmount("balance", bankAccount.getBalanceCents());
+        writeAmount("openingBalance", bankAccount.getOpeningBalanceCents());
+        generator.writeEndObject();
+    }
+
+    @Override
+    protected void writeCategory(Category category) throws IOException {
+        generator.writeStartObject();
+        writeId("id", category.getId());
+        generator.writeStringField("name", category.getName());
+        generator.writeStringField("type", (category.getType() != null) ? category.getType().name() : null);
+        generator.writeEndObject();
+    }
+
+    @Override
+    protected void writeOperation(Operation operation) throws IOException {
+        generator.writeStartObject();
+        writeId("id", operation.getId());
+        generator.writeStringField("type", (operation.getType() != null) ? operation.getType().name() : null);
+        writeId("bankAccountId", operation.getBankAccountId());
+        writeAmount("amount", operation.getAmountCents());
+        generator.writeStringField("date", (operation.getDate() != null) ? operation.getDate().toString() : null);
+        generator.writeStringField("description", operation.getDescription());
+        writeId("categoryId", operation.getCategoryId());
+        generator.writeEndObject();
+    }
+
+    @Override
+    protected String partSeparator() {
+        // элементы массива JSON разделяются запятой, в блочном списке YAML каждый начинается с "- "
+        return (generator instanceof YAMLGenerator) ? "" : ",";
+    }
+
+    @Override
+    protected void flushOutput() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        // генератор владеет Writer и закрывает его вместе с собой
+        generator.close();
+    }
+
+    private void writeId(String name, Long id) throws IOException {
+        if (id != null) {
+            generator.writeNumberField(name, id);
+        } else {
+            generator.writeNullField(name);
+        }
+    }
+
+    private void writeAmount(String name, long cents) throws IOException {
+        // точное десятичное значение из копеек, без прохода через double
+        generator.writeNumberField(name, Money.ofMinor(cents).toBigDecimal());
+    }
+}
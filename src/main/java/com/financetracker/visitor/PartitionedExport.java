@@ -0,0 +1,295 @@
+package com.financetracker.visitor;
+
+import com.financetracker.model.Operation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Параллельный экспорт в файл.
+ * <p>
+ * Пространство id делится на части-диапазоны по partSize id. Каждую часть отдельный поток
+ * сам читает из хранилища страницами по возрастанию id и сериализует в собственный временный файл;
+ * вызывающий поток только раздает диапазоны. Начало документа со счетами и категориями и его конец
+ * пишутся в файл-рамку. Потом части склеиваются в целевой файл по порядку через
+ * {@link FileChannel#transferTo}, байты не проходят через кучу.
+ * <p>
+ * В работе одновременно не больше 2 * parallelism частей, каждая держит в памяти одну страницу
+ * из PAGE_SIZE операций. Раздача заканчивается, когда часть не нашла ни одного id за началом своего
+ * диапазона. Результат побайтно совпадает с последовательным экспортом тех же записей в порядке id. Форматы, которые нельзя склеить из частей ({@link ExportFormat#isSplittable()}),
+ * пишутся последовательно в вызывающем потоке.
+ */
+public class PartitionedExport {
+    public static final int DEFAULT_PART_SIZE = 50_000;
+    // сколько операций часть читает из хранилища за раз
+    private static final int PAGE_SIZE = 1_000;
+
+    private final Executor workers;
+    private final int parallelism;
+    private final int partSize;
+
+    public PartitionedExport() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), DEFAULT_PART_SIZE);
+    }
+
+    public PartitionedExport(Executor workers, int parallelism, int partSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (partSize <= 0) {
+            throw new IllegalArgumentException("Part size must be positive: " + partSize);
+        }
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.partSize = partSize;
+    }
+
+    /**
+     * Страницы операций по возрастанию id: до limit операций с id больше afterId (null - с начала).
+     */
+    @FunctionalInterface
+    public interface OperationPages {
+        List<Operation> page(Long afterId, int limit);
+    }
+
+    /**
+     * Пишет в file документ формата format: сначала то, что referenceData передаст посетителю
+     * (счета и категории), затем все операции из operations. Файл перезаписывается целиком
+     * только после успешной сериализации всех частей.
+     */
+    public void export(ExportFormat format, Path file, Consumer<DataExportVisitor> referenceData,
+                       OperationPages operations) throws IOException {
+        if (!format.isSplittable()) {
+            exportSequentially(format, file, referenceData, operations);
+            return;
+        }
+        List<Operation> first = operations.page(null, 1);
+        Path directory = file.toAbsolutePath().getParent();
+        List<Segment> parts = new ArrayList<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean exhausted = new AtomicBoolean(first.isEmpty());
+        Frame frame = null;
+        try {
+            // диапазоны (from, from + partSize] начинаются перед первым id, так что дыры в id их не сдвигают
+            long from = first.isEmpty() ? 0 : first.get(0).getId() - 1;
+            while (!failed.get() && !exhausted.get()) {
+                acquire(inFlight);
+                if (failed.get() || exhausted.get()) {
+                    inFlight.release();
+                    break;
+                }
+                long afterId = from;
+                long toId = from + partSize;
+                Segment part = new Segment(Files.createTempFile(directory, ".export-", ".part"));
+                parts.add(part);
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        if (!part.write(format, operations, afterId, toId)) {
+                            exhausted.set(true);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }, workers).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        failed.set(true);
+                    }
+                }));
+                from = toId;
+            }
+
+            await(tasks);
+            frame = new Frame(Files.createTempFile(directory, ".export-", ".frame"));
+            frame.write(format, referenceData, parts.stream().anyMatch(part -> part.start != part.end));
+            stitch(file, frame, parts);
+        } finally {
+            // временные файлы удаляются, только когда ни одна часть уже не пишется
+            for (CompletableFuture<Void> task : tasks) {
+                task.exceptionally(error -> null).join();
+            }
+            for (Segment part : parts) {
+                Files.deleteIfExists(part.file);
+            }
+            if (frame != null) {
+                Files.deleteIfExists(frame.file);
+            }
+        }
+    }
+
+    private void exportSequentially(ExportFormat format, Path file, Consumer<DataExportVisitor> referenceData,
+                                    OperationPages operations) throws IOException {
+        try (StreamingExportVisitor visitor = format.open(file)) {
+            referenceData.accept(visitor);
+            Long afterId = null;
+            List<Operation> page;
+            do {
+                page = operations.page(afterId, partSize);
+                for (Operation operation : page) {
+                    operation.accept(visitor);
+                    afterId = operation.getId();
+                }
+            } while (page.size() == partSize);
+        }
+    }
+
+    private static void stitch(Path file, Frame frame, List<Segment> parts) throws IOException {
+        ByteBuffer separator = ByteBuffer.wrap(frame.partSeparator.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            transfer(frame.file, 0, frame.headEnd, target);
+            boolean first = true;
+            for (Segment part : parts) {
+                if (part.start == part.end) {
+                    continue;
+                }
+                if (!first) {
+                    while (separator.hasRemaining()) {
+                        target.write(separator);
+                    }
+                    separator.rewind();
+                }
+                first = false;
+                transfer(part.file, part.start, part.end, target);
+            }
+            transfer(frame.file, frame.headEnd, frame.end, target);
+        }
+    }
+
+    private static void transfer(Path source, long start, long end, FileChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+
+    private static void acquire(Semaphore inFlight) throws InterruptedIOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        }
+    }
+
+    private static void await(List<CompletableFuture<Void>> tasks) throws IOException {
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    private static StreamingExportVisitor open(ExportFormat format, FileChannel channel) throws IOException {
+        return format.open(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Часть секции операций - операции с id из (afterId, toId]. В файле перед записями лежит
+     * пролог документа, а после них - эпилог, в итоговый файл переносятся только байты [start, end).
+     */
+    private static final class Segment {
+        private final Path file;
+        private long start;
+        private long end;
+
+        private Segment(Path file) {
+            this.file = file;
+        }
+
+        /**
+         * Возвращает false, если дальше этой части операций в хранилище нет.
+         */
+        boolean write(ExportFormat format, OperationPages operations, long afterId, long toId) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                 StreamingExportVisitor visitor = open(format, channel)) {
+                visitor.startOperations();
+                visitor.flush();
+                start = channel.position();
+                boolean more = true;
+                long cursor = afterId;
+                while (true) {
+                    List<Operation> page = operations.page(cursor, PAGE_SIZE);
+                    if (page.isEmpty()) {
+                        more = false;
+                        break;
+                    }
+                    Operation last = page.get(page.size() - 1);
+                    for (Operation operation : page) {
+                        if (operation.getId() > toId) {
+                            break;
+                        }
+                        operation.accept(visitor);
+                    }
+                    if (last.getId() >= toId) {
+                        break;
+                    }
+                    cursor = last.getId();
+                }
+                visitor.flush();
+                end = channel.position();
+                return more;
+            }
+        }
+    }
+
+    /**
+     * Начало документа до первой операции [0, headEnd) и его конец [headEnd, end).
+     */
+    private static final class Frame {
+        private final Path file;
+        private long headEnd;
+        private long end;
+        private String partSeparator;
+
+        private Frame(Path file) {
+            this.file = file;
+        }
+
+        void write(ExportFormat format, Consumer<DataExportVisitor> referenceData, boolean withOperations)
+                throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                StreamingExportVisitor visitor = open(format, channel);
+                partSeparator = visitor.partSeparator();
+                referenceData.accept(visitor);
+                // без операций секция не открывается, как и при последовательном экспорте
+                if (withOperations) {
+                    visitor.startOperations();
+                }
+                visitor.flush();
+                headEnd = channel.position();
+                visitor.close();
+                end = Files.size(file);
+            }
+        }
+    }
+}
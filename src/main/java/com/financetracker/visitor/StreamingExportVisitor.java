@@ -0,0 +1,140 @@
+package com.financetracker.visitor;
+
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.Operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Базовый класс потокового экспорта (паттерн Шаблонный метод).
+ * Сущности пишутся сразу в Writer по мере обхода, без промежуточных коллекций и строк,
+ * поэтому расход памяти не зависит от объема данных.
+ * Сущности одного вида образуют секцию: базовый класс сам открывает и закрывает секции,
+ * наследники реализуют только запись конкретного формата.
+ * Ошибки ввода-вывода пробрасываются как UncheckedIOException, а не глотаются.
+ */
+public abstract class StreamingExportVisitor implements DataExportVisitor, Closeable {
+
+    protected enum Section { BANK_ACCOUNTS, CATEGORIES, OPERATIONS }
+
+    private Section currentSection;
+    private boolean started;
+    private boolean closed;
+
+    @Override
+    public final void visit(BankAccount bankAccount) {
+        enter(Section.BANK_ACCOUNTS);
+        run(() -> writeBankAccount(bankAccount));
+    }
+
+    @Override
+    public final void visit(Category category) {
+        enter(Section.CATEGORIES);
+        run(() -> writeCategory(category));
+    }
+
+    @Override
+    public final void visit(Operation operation) {
+        enter(Section.OPERATIONS);
+        run(() -> writeOperation(operation));
+    }
+
+    @Override
+    public final void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!started) {
+                startDocument();
+            }
+            if (currentSection != null) {
+                endSection(currentSection);
+            }
+            endDocument();
+        } finally {
+            closeOutput();
+        }
+    }
+
+    /**
+     * Открывает секцию операций, даже если операций не будет. Нужно для сборки документа
+     * из частей, см. {@link PartitionedExport}.
+     */
+    final void startOperations() {
+        enter(Section.OPERATIONS);
+    }
+
+    final void flush() throws IOException {
+        flushOutput();
+    }
+
+    private void enter(Section section) {
+        if (section == currentSection) {
+            return;
+        }
+        run(() -> {
+            if (!started) {
+                started = true;
+                startDocument();
+            }
+            if (currentSection != null) {
+                endSection(currentSection);
+            }
+            currentSection = section;
+            startSection(section);
+        });
+    }
+
+    private static void run(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected void startDocument() throws IOException {
+    }
+
+    protected void endDocument() throws IOException {
+    }
+
+    protected void startSection(Section section) throws IOException {
+    }
+
+    protected void endSection(Section section) throws IOException {
+    }
+
+    protected abstract void writeBankAccount(BankAccount bankAccount) throws IOException;
+
+    protected abstract void writeCategory(Category category) throws IOException;
+
+    protected abstract void writeOperation(Operation operation) throws IOException;
+
+    /**
+     * Разделитель записей соседних частей одной секции при склейке; по умолчанию записи ничем не разделены.
+     */
+    protected String partSeparator() {
+        return "";
+    }
+
+    /**
+     * Сбрасывает буфер в вывод, не закрывая его.
+     */
+    protected abstract void flushOutput() throws IOException;
+
+    /**
+     * Сбрасывает буфер и закрывает вывод.
+     */
+    protected abstract void closeOutput() throws IOException;
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,143 @@
+package com.financetracker.analytics;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.*;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationRollupsTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    @DisplayName("Category totals for any period should match a full scan of the operations")
+    void testTotalsByCategoryMatchFullScan() {
+        Random random = new Random(7);
+        List<Operation> operations = randomOperations(random, 5_000);
+        OperationRollups rollups = new OperationRollups();
+        rollups.addAll(operations.subList(0, 2_500));
+        operations.subList(2_500, operations.size()).forEach(rollups::add);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = FIRST_DAY.plusDays(random.nextInt(400));
+            LocalDate to = from.plusDays(random.nextInt(200));
+            OperationType type = random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE;
+
+            assertEquals(scanTotals(operations, type, from, to), asMap(rollups.totalsByCategory(type, from, to)),
+                    type + " " + from + ".." + to);
+        }
+    }
+
+    @Test
+    @DisplayName("Removing an operation should take it out of the daily and monthly buckets")
+    void testRemove() {
+        OperationRollups rollups = new OperationRollups();
+        Operation kept = operation(1L, OperationType.EXPENSE, 1_000, LocalDate.of(2024, 7, 15));
+        Operation removed = operation(2L, OperationType.EXPENSE, 500, LocalDate.of(2024, 8, 20));
+        rollups.add(kept);
+        rollups.add(removed);
+
+        rollups.remove(OperationSnapshot.of(removed));
+
+        List<CategoryTotal> q3 = rollups.totalsByCategory(OperationType.EXPENSE,
+                LocalDate.of(2024, 7, 1), LocalDate.of(2024, 9, 30));
+        assertEquals(List.of(new CategoryTotal(1L, Money.ofMinor(1_000), 1)), q3);
+        assertTrue(rollups.totalsByCategory(OperationType.EXPENSE,
+                LocalDate.of(2024, 8, 1), LocalDate.of(2024, 8, 25)).isEmpty());
+        assertEquals(Money.ZERO, rollups.monthlySummary(YearMonth.of(2024, 8), YearMonth.of(2024, 8)).get(0).expense());
+    }
+
+    @Test
+    @DisplayName("Facade should keep rollups in step with created, updated, imported and deleted operations")
+    void testFacadeMaintainsRollups() {
+        OperationDbRepository operationStore = new OperationDbRepository();
+        operationStore.save(operation(1L, OperationType.INCOME, 10_000, LocalDate.of(2024, 1, 10)));
+        FinanceTrackerFacade facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(operationStore),
+                new FinanceEntityFactory());
+        BankAccount account = facade.createBankAccount("Main", 0.0);
+        Category food = facade.createCategory(CategoryType.EXPENSE, "Food");
+        Category rent = facade.createCategory(CategoryType.EXPENSE, "Rent");
+
+        facade.createExpenseOperation(account.getId(), 100.0, LocalDate.of(2024, 1, 5), "", food.getId());
+        Operation moved = facade.createExpenseOperation(account.getId(), 40.0, LocalDate.of(2024, 1, 6), "", food.getId());
+        Operation deleted = facade.createExpenseOperation(account.getId(), 900.0, LocalDate.of(2024, 2, 1), "", rent.getId());
+        facade.importOperations(List.of(
+                operation(null, OperationType.EXPENSE, 5_000, LocalDate.of(2024, 2, 2), account.getId(), rent.getId())));
+        moved.setCategoryId(rent.getId());
+        moved.setDate(LocalDate.of(2024, 2, 3));
+        facade.updateOperation(moved);
+        facade.deleteOperation(deleted.getId());
+
+        assertEquals(List.of(new CategoryTotal(food.getId(), Money.of(100.0), 1)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        assertEquals(List.of(new CategoryTotal(rent.getId(), Money.of(90.0), 2)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertEquals(List.of(
+                        new MonthlySummary(YearMonth.of(2024, 1), Money.of(100.0), Money.of(100.0)),
+                        new MonthlySummary(YearMonth.of(2024, 2), Money.ZERO, Money.of(90.0)),
+                        new MonthlySummary(YearMonth.of(2024, 3), Money.ZERO, Money.ZERO)),
+                facade.getMonthlySummary(YearMonth.of(2024, 1), YearMonth.of(2024, 3)));
+    }
+
+    private static List<Operation> randomOperations(Random random, int count) {
+        List<Operation> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            operations.add(operation((long) i,
+                    random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE,
+                    random.nextInt(100_000),
+                    FIRST_DAY.plusDays(random.nextInt(500)),
+                    (long) random.nextInt(3),
+                    random.nextInt(10) == 0 ? null : (long) random.nextInt(8)));
+        }
+        return operations;
+    }
+
+    private static Map<Long, Long> scanTotals(List<Operation> operations, OperationType type, LocalDate from, LocalDate to) {
+        Map<Long, Long> totals = new HashMap<>();
+        for (Operation operation : operations) {
+            if (operation.getType() == type && !operation.getDate().isBefore(from) && !operation.getDate().isAfter(to)) {
+                totals.merge(operation.getCategoryId(), operation.getAmountCents(), Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    private static Map<Long, Long> asMap(List<CategoryTotal> totals) {
+        Map<Long, Long> result = new HashMap<>();
+        for (CategoryTotal total : totals) {
+            result.put(total.categoryId(), total.total().getMinorUnits());
+        }
+        return result;
+    }
+
+    private static Operation operation(Long id, OperationType type, long amountCents, LocalDate date) {
+        return operation(id, type, amountCents, date, 1L, 1L);
+    }
+
+    private static Operation operation(Long id, OperationType type, long amountCents, LocalDate date,
+                                       Long bankAccountId, Long categoryId) {
+        return Operation.builder()
+                .id(id)
+                .type(type)
+                .amountCents(amountCents)
+                .date(date)
+                .bankAccountId(bankAccountId)
+                .categoryId(categoryId)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.financetracker.console;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BatchCommandRunnerTest {
+
+    @Test
+    @DisplayName("Script should create entities, batch operations and print reports")
+    void testRunsScript() throws IOException {
+        FinanceTrackerFacadeInterface facade = spy(newFacade());
+        String script = """
+                # счета и категории
+                create account "Основной счет" 1000.00
+                create category EXPENSE "Кафе"
+                create category INCOME "Зарплата"
+
+                create expense 1 100.50 2025-01-10 1 "Кофе ""с собой\"""
+                create expense 1 50 2025-01-11 1
+                create income 1 2000 2025-01-15 2 "Январь"
+                create expense 1 25 2025-02-01 - "Без категории"
+                report categories EXPENSE 2025-01-01 2025-01-31
+                report monthly 2025-01 2025-02
+                recalculate
+                """;
+
+        StringWriter output = new StringWriter();
+        long errors = new BatchCommandRunner(facade, new PrintWriter(output), 3)
+                .run(new BufferedReader(new StringReader(script)));
+
+        assertEquals(0, errors, output.toString());
+        // 3 + 1 операции: пакет сбрасывается по размеру и перед отчетом
+        verify(facade, times(2)).importOperations(anyList());
+        verify(facade, never()).createExpenseOperation(any(), any(Money.class), any(), any(), any());
+        assertEquals(Money.of(1000 - 100.5 - 50 + 2000 - 25).toDouble(), facade.getBankAccountById(1L).getBalance());
+        List<Operation> operations = facade.getAllOperations();
+        assertEquals(4, operations.size());
+        assertTrue(operations.stream().anyMatch(operation -> "Кофе \"с собой\"".equals(operation.getDescription())));
+        assertTrue(output.toString().contains("Кафе\t150.50\t2"), output.toString());
+        assertTrue(output.toString().contains("2025-02\t0.00\t25.00\t-25.00"), output.toString());
+        assertTrue(output.toString().contains("создано операций: 4, ошибок: 0"), output.toString());
+    }
+
+    @Test
+    @DisplayName("Bad lines should be reported with their numbers without dropping valid ones")
+    void testReportsErrorsPerLine() throws IOException {
+        FinanceTrackerFacadeInterface facade = newFacade();
+        String script = """
+                create account Main 0
+                create category EXPENSE Food
+                create expense 1 10 2025-01-01 1 ok
+                create expense 42 10 2025-01-01 1 "unknown account"
+                create income 1 10 2025-01-01 1 "wrong category type"
+                create expense 1 -5 2025-01-01 1 negative
+                create expense 1 10 2025-13-01 1 "bad date"
+                fly away
+                create expense 1 20 2025-01-02 1 "also ok"
+                """;
+
+        StringWriter output = new StringWriter();
+        long errors = new BatchCommandRunner(facade, new PrintWriter(output))
+                .run(new BufferedReader(new StringReader(script)));
+
+        assertEquals(5, errors);
+        for (int line = 4; line <= 8; line++) {
+            assertTrue(output.toString().contains("Строка " + line + ":"), output.toString());
+        }
+        assertEquals(2, facade.getAllOperations().size());
+        assertEquals(-30.0, facade.getBankAccountById(1L).getBalance());
+    }
+
+    @Test
+    @DisplayName("Splitting should honour quotes and reject an unterminated one")
+    void testSplit() {
+        assertEquals(List.of("create", "account", "Мой счет", "10"),
+                BatchCommandRunner.split("  create account  \"Мой счет\" 10 "));
+        assertEquals(List.of("a", "", "b\"c"), BatchCommandRunner.split("a \"\" \"b\"\"c\""));
+        assertThrows(IllegalArgumentException.class, () -> BatchCommandRunner.split("create \"open"));
+    }
+
+    @Test
+    @DisplayName("Batch argument should skip sample data and the menu")
+    void testConsoleBatchArgument(@TempDir Path directory) throws IOException {
+        Path commands = directory.resolve("commands.txt");
+        Files.writeString(commands, "create account Batch 5\n", StandardCharsets.UTF_8);
+        FinanceTrackerFacadeInterface facade = spy(newFacade());
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            new ConsoleApplication(facade).run("--batch=" + commands);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        verify(facade, never()).getAllBankAccounts();
+        assertEquals(1, facade.getAllBankAccounts().size());
+        String printed = output.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("Счет создан с ID: 1"), printed);
+        assertFalse(printed.contains("Выберите опцию"), printed);
+    }
+
+    private static FinanceTrackerFacade newFacade() {
+        return new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+    }
+}
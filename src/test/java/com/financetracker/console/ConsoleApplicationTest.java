@@ -1,9 +1,13 @@
 package com.financetracker.console;
 
+import com.financetracker.analytics.CategoryTotal;
 import com.financetracker.facade.FinanceTrackerFacade;
 import com.financetracker.model.BankAccount;
 import com.financetracker.model.Category;
 import com.financetracker.model.CategoryType;
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +23,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -264,5 +269,50 @@ class ConsoleApplicationTest {
         assertTrue(outputStream.toString().contains("Категория успешно создана с ID: 100"));
     }
 
+    @Test
+    void testDisplayOperations_ResolvesCategoriesOnce() throws Exception {
+        List<Operation> operations = Arrays.asList(
+                Operation.builder().id(1L).type(OperationType.EXPENSE).amount(10.0).categoryId(5L).description("Кофе").build(),
+                Operation.builder().id(2L).type(OperationType.EXPENSE).amount(20.0).categoryId(5L).description("Обед").build(),
+                Operation.builder().id(3L).type(OperationType.INCOME).amount(30.0).categoryId(7L).description("Бонус").build()
+        );
+        when(facadeMock.getCategoriesByIds(anyCollection())).thenReturn(
+                Map.of(5L, Category.builder().id(5L).name("Еда").build()));
+
+        java.lang.reflect.Method method = ConsoleApplication.class.getDeclaredMethod("displayOperations", List.class);
+        method.setAccessible(true);
+        method.invoke(consoleApplication, operations);
+
+        String output = outputStream.toString();
+        verify(facadeMock, times(1)).getCategoriesByIds(anyCollection());
+        verify(facadeMock, never()).getCategoryById(any());
+        assertTrue(output.contains("Кофе"));
+        assertTrue(output.contains("Еда"));
+        assertTrue(output.contains("Неизвестно"));
+    }
+
+    @Test
+    void testShowExpensesByCategory_ResolvesCategoriesOnce() throws Exception {
+        when(facadeMock.getTotalsByCategory(eq(OperationType.EXPENSE), any(), any())).thenReturn(List.of(
+                new CategoryTotal(5L, Money.ofMinor(3_000), 2),
+                new CategoryTotal(7L, Money.ofMinor(1_000), 1),
+                new CategoryTotal(null, Money.ofMinor(500), 1)));
+        when(facadeMock.getCategoriesByIds(anyCollection())).thenReturn(
+                Map.of(5L, Category.builder().id(5L).name("Еда").build(),
+                        7L, Category.builder().id(7L).name("Транспорт").build()));
+        Field scannerField = ConsoleApplication.class.getDeclaredField("scanner");
+        scannerField.setAccessible(true);
+        scannerField.set(consoleApplication, new Scanner(new ByteArrayInputStream("2024-01-01\n2024-01-31\n".getBytes())));
+
+        java.lang.reflect.Method method = ConsoleApplication.class.getDeclaredMethod("showExpensesByCategory");
+        method.setAccessible(true);
+        method.invoke(consoleApplication);
 
-}
\ No newline at end of file
+        String output = outputStream.toString();
+        verify(facadeMock, times(1)).getCategoriesByIds(anyCollection());
+        verify(facadeMock, never()).getCategoryById(any());
+        assertTrue(output.contains("Еда"));
+        assertTrue(output.contains("Транспорт"));
+        assertTrue(output.contains("Без категории"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.financetracker.facade;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.*;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncFinanceTrackerFacadeTest {
+    private AsyncFinanceTrackerFacade asyncFacade;
+
+    @AfterEach
+    void tearDown() {
+        if (asyncFacade != null) {
+            asyncFacade.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Account overview should combine the account, its operations and category totals for the period")
+    void testAccountOverview() throws Exception {
+        FinanceTrackerFacade facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+        asyncFacade = new AsyncFinanceTrackerFacade(facade, Duration.ofSeconds(10));
+
+        BankAccount main = facade.createBankAccount("Main", 0.0);
+        BankAccount other = facade.createBankAccount("Other", 0.0);
+        Category food = facade.createCategory(CategoryType.EXPENSE, "Food");
+        Category salary = facade.createCategory(CategoryType.INCOME, "Salary");
+        Operation lunch = facade.createExpenseOperation(main.getId(), 15.0, LocalDate.of(2024, 3, 5), "", food.getId());
+        Operation pay = facade.createIncomeOperation(main.getId(), 500.0, LocalDate.of(2024, 3, 10), "", salary.getId());
+        facade.createExpenseOperation(main.getId(), 20.0, LocalDate.of(2024, 4, 1), "", food.getId());
+        facade.createExpenseOperation(other.getId(), 30.0, LocalDate.of(2024, 3, 6), "", food.getId());
+
+        AccountOverview overview = asyncFacade.getAccountOverview(main.getId(),
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(main.getId(), overview.account().getId());
+        assertEquals(List.of(lunch.getId(), pay.getId()), overview.operations().stream().map(Operation::getId).toList());
+        assertEquals(List.of(new CategoryTotal(food.getId(), Money.of(15.0), 1)), overview.expensesByCategory());
+        assertEquals(List.of(new CategoryTotal(salary.getId(), Money.of(500.0), 1)), overview.incomeByCategory());
+    }
+
+    @Test
+    @DisplayName("Account overview for a missing account should complete with IllegalArgumentException")
+    void testAccountOverviewMissingAccount() {
+        FinanceTrackerFacadeInterface facade = mock(FinanceTrackerFacadeInterface.class);
+        asyncFacade = new AsyncFinanceTrackerFacade(facade, Duration.ofSeconds(10));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> asyncFacade.getAccountOverview(42L, null, null).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("A call running past the timeout should fail with TimeoutException and interrupt the task")
+    void testTimeoutInterruptsTask() throws Exception {
+        BlockingFacade blocking = new BlockingFacade();
+        asyncFacade = new AsyncFinanceTrackerFacade(blocking.facade, Duration.ofMillis(100));
+
+        CompletableFuture<BankAccount> future = asyncFacade.getBankAccountById(1L);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(blocking.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Cancelling an account overview should interrupt all of its running parts")
+    void testCancelInterruptsParts() throws Exception {
+        BlockingFacade blocking = new BlockingFacade();
+        asyncFacade = new AsyncFinanceTrackerFacade(blocking.facade, Duration.ofSeconds(10));
+
+        CompletableFuture<AccountOverview> overview = asyncFacade.getAccountOverview(1L, null, null);
+        assertTrue(blocking.started.await(5, TimeUnit.SECONDS));
+        overview.cancel(true);
+
+        assertTrue(overview.isCancelled());
+        assertTrue(blocking.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Calls on a platform thread pool should behave like calls on virtual threads")
+    void testPlatformExecutor() throws Exception {
+        FinanceTrackerFacadeInterface facade = mock(FinanceTrackerFacadeInterface.class);
+        BankAccount account = BankAccount.builder().id(1L).name("Main").build();
+        when(facade.getBankAccountById(1L)).thenReturn(account);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            asyncFacade = new AsyncFinanceTrackerFacade(facade, pool, Duration.ofSeconds(10));
+            assertSame(account, asyncFacade.getBankAccountById(1L).get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Фасад, у которого поиск счета блокируется до прерывания потока.
+     */
+    private static final class BlockingFacade {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final FinanceTrackerFacadeInterface facade = mock(FinanceTrackerFacadeInterface.class);
+
+        BlockingFacade() {
+            when(facade.getBankAccountById(anyLong())).thenAnswer(invocation -> {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+        }
+    }
+}
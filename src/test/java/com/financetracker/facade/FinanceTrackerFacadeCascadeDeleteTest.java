@@ -0,0 +1,150 @@
+package com.financetracker.facade;
+
+import com.financetracker.analytics.CategoryTotal;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.*;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FinanceTrackerFacadeCascadeDeleteTest {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    private OperationDbRepository operationStore;
+    private FinanceTrackerFacade facade;
+    private BankAccount main;
+    private BankAccount savings;
+    private Category food;
+    private Category cafe;
+
+    @BeforeEach
+    void setUp() {
+        operationStore = spy(new OperationDbRepository());
+        facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(operationStore),
+                new FinanceEntityFactory());
+        main = facade.createBankAccount("Main", Money.of(1_000.0));
+        savings = facade.createBankAccount("Savings", Money.of(1_000.0));
+        food = facade.createCategory(CategoryType.EXPENSE, "Food");
+        cafe = facade.createCategory(CategoryType.EXPENSE, "Cafe");
+
+        for (int day = 1; day <= 20; day++) {
+            facade.createExpenseOperation(main.getId(), Money.of(10.0), LocalDate.of(2024, 3, day), "", food.getId());
+        }
+        facade.createExpenseOperation(savings.getId(), Money.of(50.0), LocalDate.of(2024, 3, 1), "", food.getId());
+        facade.createExpenseOperation(savings.getId(), Money.of(7.0), LocalDate.of(2024, 3, 2), "", cafe.getId());
+        clearInvocations(operationStore);
+    }
+
+    @Test
+    @DisplayName("Deleting an account should delete its operations in one batch through the account index")
+    void testDeleteBankAccountCascades() {
+        facade.deleteBankAccount(main.getId());
+
+        assertNull(facade.getBankAccountById(main.getId()));
+        assertTrue(facade.getOperationsByBankAccountId(main.getId()).isEmpty());
+        assertEquals(2, facade.getAllOperations().size());
+        assertEquals(Money.of(943.0), facade.getBankAccountById(savings.getId()).getBalanceMoney());
+        assertEquals(List.of(new CategoryTotal(food.getId(), Money.of(50.0), 1),
+                        new CategoryTotal(cafe.getId(), Money.of(7.0), 1)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, FROM, TO));
+
+        verify(operationStore, times(1)).deleteAllById(anyCollection());
+        verify(operationStore, never()).findAll();
+        verify(operationStore, never()).streamAll();
+        verify(operationStore, never()).findByBankAccountId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Counts should come from the indexes and a deleted account should refuse new operations")
+    void testCountsAndDeletedAccount() {
+        assertEquals(20, facade.countOperationsByBankAccountId(main.getId()));
+        assertEquals(21, facade.countOperationsByCategoryId(food.getId()));
+
+        facade.deleteBankAccount(main.getId());
+
+        assertEquals(0, facade.countOperationsByBankAccountId(main.getId()));
+        assertEquals(1, facade.countOperationsByCategoryId(food.getId()));
+        assertThrows(IllegalArgumentException.class, () -> facade.createExpenseOperation(main.getId(),
+                Money.of(1.0), LocalDate.of(2024, 3, 1), "", food.getId()));
+    }
+
+    @Test
+    @DisplayName("Deleting a category should keep its operations without a category and leave balances alone")
+    void testDeleteCategoryKeepsOperations() {
+        facade.deleteCategory(food.getId());
+
+        assertNull(facade.getCategoryById(food.getId()));
+        assertEquals(22, facade.getAllOperations().size());
+        assertEquals(21, facade.getAllOperations().stream().filter(operation -> operation.getCategoryId() == null).count());
+        assertEquals(Money.of(800.0), facade.getBankAccountById(main.getId()).getBalanceMoney());
+        assertEquals(List.of(new CategoryTotal(null, Money.of(250.0), 21),
+                        new CategoryTotal(cafe.getId(), Money.of(7.0), 1)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, FROM, TO));
+        verify(operationStore, never()).findByCategoryId(anyLong());
+    }
+
+    @Test
+    @DisplayName("A deleted category should refuse new and moved operations")
+    void testDeletedCategoryRefusesOperations() {
+        Operation moved = OperationSnapshot.of(facade.getOperationsByCategoryId(cafe.getId()).get(0)).toOperation();
+        facade.deleteCategory(food.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> facade.createExpenseOperation(main.getId(),
+                Money.of(1.0), LocalDate.of(2024, 3, 1), "", food.getId()));
+        moved.setCategoryId(food.getId());
+        assertThrows(IllegalArgumentException.class, () -> facade.updateOperation(moved));
+        assertEquals(0, facade.countOperationsByCategoryId(food.getId()));
+        assertTrue(facade.checkBalanceConsistency().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deleting a category with a replacement should move its operations and totals")
+    void testDeleteCategoryWithReplacement() {
+        facade.deleteCategory(food.getId(), cafe.getId());
+
+        assertEquals(22, facade.getOperationsByCategoryId(cafe.getId()).size());
+        assertEquals(List.of(new CategoryTotal(cafe.getId(), Money.of(257.0), 22)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, FROM, TO));
+    }
+
+    @Test
+    @DisplayName("A replacement category must exist, differ and have the same type")
+    void testDeleteCategoryRejectsBadReplacement() {
+        Category salary = facade.createCategory(CategoryType.INCOME, "Salary");
+
+        assertThrows(IllegalArgumentException.class, () -> facade.deleteCategory(food.getId(), food.getId()));
+        assertThrows(IllegalArgumentException.class, () -> facade.deleteCategory(food.getId(), 999L));
+        assertThrows(IllegalArgumentException.class, () -> facade.deleteCategory(food.getId(), salary.getId()));
+        assertNotNull(facade.getCategoryById(food.getId()));
+        assertEquals(21, facade.getOperationsByCategoryId(food.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Deleting a category with its operations should restore the balances of every affected account")
+    void testDeleteCategoryWithOperations() {
+        facade.deleteCategoryWithOperations(food.getId());
+
+        assertEquals(1, facade.getAllOperations().size());
+        assertEquals(Money.of(1_000.0), facade.getBankAccountById(main.getId()).getBalanceMoney());
+        assertEquals(Money.of(993.0), facade.getBankAccountById(savings.getId()).getBalanceMoney());
+        assertEquals(List.of(new CategoryTotal(cafe.getId(), Money.of(7.0), 1)),
+                facade.getTotalsByCategory(OperationType.EXPENSE, FROM, TO));
+        assertTrue(facade.checkBalanceConsistency().isEmpty());
+    }
+}
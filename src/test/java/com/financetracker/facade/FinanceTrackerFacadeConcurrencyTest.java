@@ -0,0 +1,137 @@
+package com.financetracker.facade;
+
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.*;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinanceTrackerFacadeConcurrencyTest {
+    private static final int THREADS = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private FinanceTrackerFacade facade;
+    private BankAccount main;
+    private BankAccount savings;
+
+    @BeforeEach
+    void setUp() {
+        facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+        main = facade.createBankAccount("Main", Money.of(1_000.0));
+        savings = facade.createBankAccount("Savings", Money.of(1_000.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent updates and a delete of one operation should leave balances consistent")
+    void testConcurrentUpdatesOfOneOperation() throws Exception {
+        Operation operation = facade.createExpenseOperation(main.getId(), Money.of(10.0),
+                LocalDate.of(2024, 3, 1), "", null);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                Operation copy = Operation.builder().id(operation.getId()).type(OperationType.EXPENSE)
+                        .bankAccountId((i % 2 == 0) ? main.getId() : savings.getId())
+                        .amountCents(100L * (thread + 1)).date(operation.getDate()).build();
+                facade.updateOperation(copy);
+            }
+        });
+
+        assertTrue(facade.checkBalanceConsistency().isEmpty());
+        facade.deleteOperation(operation.getId());
+        assertEquals(Money.of(1_000.0), facade.getBankAccountById(main.getId()).getBalanceMoney());
+        assertEquals(Money.of(1_000.0), facade.getBankAccountById(savings.getId()).getBalanceMoney());
+    }
+
+    @Test
+    @DisplayName("Recalculating balances while operations are written should not lose or double any of them")
+    void testRecalculationDuringWrites() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < 100; i++) {
+                if (thread == 0) {
+                    facade.recalculateAllBalances();
+                } else {
+                    Operation operation = facade.createExpenseOperation(main.getId(), Money.of(1.0),
+                            LocalDate.of(2024, 3, 1), "", null);
+                    facade.updateOperation(Operation.builder().id(operation.getId()).type(OperationType.INCOME)
+                            .bankAccountId(savings.getId()).amountCents(300).date(operation.getDate()).build());
+                }
+            }
+        });
+
+        assertTrue(facade.checkBalanceConsistency().isEmpty());
+        assertEquals(Money.of(1_000.0), facade.getBankAccountById(main.getId()).getBalanceMoney());
+        assertEquals(Money.of(1_000.0 + 3 * 100 * 3.0), facade.getBankAccountById(savings.getId()).getBalanceMoney());
+    }
+
+    @Test
+    @DisplayName("Operations created while their account is deleted should be rejected, not orphaned")
+    void testCreateRacingWithAccountDelete() throws Exception {
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accounts.add(facade.createBankAccount("Account " + i, Money.of(10.0)));
+        }
+
+        runConcurrently(thread -> {
+            for (BankAccount account : accounts) {
+                if (thread == 0) {
+                    facade.deleteBankAccount(account.getId());
+                    continue;
+                }
+                try {
+                    facade.createExpenseOperation(account.getId(), Money.of(1.0), LocalDate.of(2024, 3, 1), "", null);
+                } catch (IllegalArgumentException e) {
+                    // счет уже удален
+                }
+            }
+        });
+
+        for (BankAccount account : accounts) {
+            assertEquals(0, facade.countOperationsByBankAccountId(account.getId()));
+        }
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -5,9 +5,12 @@ import com.financetracker.model.*;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
 import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
 import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.visitor.DataExportVisitor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,6 +19,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -229,6 +233,8 @@ class FinanceTrackerFacadeTest {
         when(entityFactory.createIncomeOperation(bankAccountId, amount, date, description, categoryId))
                 .thenReturn(incomeOperation);
         when(operationRepository.save(incomeOperation)).thenReturn(incomeOperation);
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+        when(categoryRepository.findSnapshotById(2L)).thenReturn(Optional.of(new CategorySnapshot(2L, "Зарплата", CategoryType.INCOME)));
 
         Operation result = facade.createIncomeOperation(bankAccountId, amount, date, description, categoryId);
 
@@ -249,6 +255,8 @@ class FinanceTrackerFacadeTest {
         when(entityFactory.createExpenseOperation(bankAccountId, amount, date, description, categoryId))
                 .thenReturn(testOperation);
         when(operationRepository.save(testOperation)).thenReturn(testOperation);
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+        when(categoryRepository.findSnapshotById(1L)).thenReturn(Optional.of(CategorySnapshot.of(testCategory)));
 
         Operation result = facade.createExpenseOperation(bankAccountId, amount, date, description, categoryId);
 
@@ -317,4 +325,174 @@ class FinanceTrackerFacadeTest {
         assertNotNull(incomeResult);
         assertTrue(incomeResult.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreateIncomeOperation_IncreasesAccountBalance() {
+        Operation incomeOperation = Operation.builder()
+                .id(2L)
+                .bankAccountId(1L)
+                .amount(500.0)
+                .type(OperationType.INCOME)
+                .build();
+
+        when(entityFactory.createIncomeOperation(eq(1L), eq(500.0), any(), any(), any())).thenReturn(incomeOperation);
+        when(operationRepository.save(incomeOperation)).thenReturn(incomeOperation);
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+
+        facade.createIncomeOperation(1L, 500.0, LocalDate.now(), "Зарплата", 2L);
+
+        assertEquals(1500.0, savedBalance(1L));
+        assertEquals(1000.0, testAccount.getBalance());
+        verify(bankAccountRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testCreateExpenseOperation_DecreasesAccountBalance() {
+        when(entityFactory.createExpenseOperation(eq(1L), eq(100.0), any(), any(), any())).thenReturn(testOperation);
+        when(operationRepository.save(testOperation)).thenReturn(testOperation);
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+        when(categoryRepository.findSnapshotById(1L)).thenReturn(Optional.of(CategorySnapshot.of(testCategory)));
+
+        facade.createExpenseOperation(1L, 100.0, LocalDate.now(), "Продукты", 1L);
+
+        assertEquals(900.0, savedBalance(1L));
+    }
+
+    @Test
+    void testDeleteOperation_RevertsAccountBalance() {
+        when(operationRepository.findSnapshotById(1L)).thenReturn(Optional.of(OperationSnapshot.of(testOperation)));
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+
+        facade.deleteOperation(1L);
+
+        verify(operationRepository).deleteById(1L);
+        assertEquals(1100.0, savedBalance(1L));
+    }
+
+    @Test
+    void testUpdateOperation_MovesAmountBetweenAccounts() {
+        BankAccount otherAccount = BankAccount.builder().id(2L).balance(0.0).build();
+        Operation moved = Operation.builder()
+                .id(1L)
+                .bankAccountId(2L)
+                .amount(300.0)
+                .type(OperationType.EXPENSE)
+                .build();
+
+        when(operationRepository.findSnapshotById(1L)).thenReturn(Optional.of(OperationSnapshot.of(testOperation)));
+        when(operationRepository.save(moved)).thenReturn(moved);
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+        when(bankAccountRepository.findSnapshotById(2L)).thenReturn(Optional.of(BankAccountSnapshot.of(otherAccount)));
+
+        facade.updateOperation(moved);
+
+        assertEquals(1100.0, savedBalance(1L));
+        assertEquals(-300.0, savedBalance(2L));
+    }
+
+    @Test
+    void testRecalculateAllBalances() {
+        BankAccount account = BankAccount.builder().id(1L).balance(0.0).openingBalance(1000.0).build();
+        Operation income = Operation.builder().id(2L).bankAccountId(1L).amount(250.0)
+                .type(OperationType.INCOME).build();
+
+        when(operationRepository.findAllSnapshots())
+                .thenReturn(List.of(OperationSnapshot.of(testOperation), OperationSnapshot.of(income)));
+        when(bankAccountRepository.findAll()).thenReturn(List.of(account));
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(account)));
+
+        facade.recalculateAllBalances();
+
+        assertEquals(1150.0, savedBalance(1L));
+        verify(bankAccountRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testCheckBalanceConsistency_ReportsDrift() {
+        BankAccount consistent = BankAccount.builder().id(1L).balance(900.0).openingBalance(1000.0).build();
+        BankAccount drifted = BankAccount.builder().id(2L).balance(42.0).openingBalance(0.0).build();
+
+        when(operationRepository.findAllSnapshots()).thenReturn(List.of(OperationSnapshot.of(testOperation)));
+        when(bankAccountRepository.findAll()).thenReturn(List.of(consistent, drifted));
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(consistent)));
+        when(bankAccountRepository.findSnapshotById(2L)).thenReturn(Optional.of(BankAccountSnapshot.of(drifted)));
+
+        List<BalanceDrift> drifts = facade.checkBalanceConsistency();
+
+        assertEquals(1, drifts.size());
+        assertEquals(2L, drifts.get(0).bankAccountId());
+        assertEquals(Money.of(42.0), drifts.get(0).storedBalance());
+        assertEquals(Money.ZERO, drifts.get(0).recalculatedBalance());
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void testImportOperations_AppliesOneBalanceUpdatePerAccount() {
+        Operation first = Operation.builder().bankAccountId(1L).categoryId(1L).amount(100.0)
+                .type(OperationType.EXPENSE).build();
+        Operation second = Operation.builder().bankAccountId(1L).amount(40.0)
+                .type(OperationType.INCOME).build();
+        List<Operation> batch = List.of(first, second);
+
+        when(bankAccountRepository.findSnapshotById(1L)).thenReturn(Optional.of(BankAccountSnapshot.of(testAccount)));
+        when(categoryRepository.findSnapshotById(1L)).thenReturn(Optional.of(CategorySnapshot.of(testCategory)));
+        when(operationRepository.saveAll(batch)).thenReturn(batch);
+
+        List<Operation> imported = facade.importOperations(batch);
+
+        assertEquals(batch, imported);
+        assertEquals(940.0, savedBalance(1L));
+        verify(bankAccountRepository, times(1)).save(any());
+        verify(operationRepository, never()).save(any());
+    }
+
+    @Test
+    void testImportOperations_RejectsUnknownAccountBeforeSaving() {
+        Operation orphan = Operation.builder().bankAccountId(99L).amount(1.0).type(OperationType.EXPENSE).build();
+
+        when(bankAccountRepository.findSnapshotById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> facade.importOperations(List.of(orphan)));
+        verify(operationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testImportOperations_RejectsOperationsWithIdBeforeSaving() {
+        Operation existing = Operation.builder().id(5L).bankAccountId(1L).amount(1.0).type(OperationType.EXPENSE).build();
+        Operation fresh = Operation.builder().bankAccountId(1L).amount(1.0).type(OperationType.EXPENSE).build();
+
+        assertThrows(IllegalArgumentException.class, () -> facade.importOperations(List.of(fresh, existing)));
+        verify(operationRepository, never()).saveAll(any());
+        verify(bankAccountRepository, never()).save(any());
+    }
+
+    @Test
+    void testExportAll_VisitsEntitiesFromRepositoryStreams() {
+        DataExportVisitor visitor = mock(DataExportVisitor.class);
+        when(bankAccountRepository.streamAll()).thenReturn(Stream.of(testAccount));
+        when(categoryRepository.streamAll()).thenReturn(Stream.of(testCategory));
+        when(operationRepository.streamAll()).thenReturn(Stream.of(testOperation));
+
+        facade.exportAll(visitor);
+
+        InOrder inOrder = inOrder(visitor);
+        inOrder.verify(visitor).visit(testAccount);
+        inOrder.verify(visitor).visit(testCategory);
+        inOrder.verify(visitor).visit(testOperation);
+        verify(operationRepository, never()).findAll();
+    }
+
+    // баланс последнего снимка счета, переданного в save: фасад не меняет прочитанный объект, а сохраняет новый
+    private double savedBalance(Long accountId) {
+        ArgumentCaptor<BankAccount> saved = ArgumentCaptor.forClass(BankAccount.class);
+        verify(bankAccountRepository, atLeastOnce()).save(saved.capture());
+        BankAccount last = null;
+        for (BankAccount account : saved.getAllValues()) {
+            if (accountId.equals(account.getId())) {
+                last = account;
+            }
+        }
+        assertNotNull(last, "no balance saved for account " + accountId);
+        return last.getBalance();
+    }
+}
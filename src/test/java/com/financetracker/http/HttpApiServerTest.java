@@ -0,0 +1,201 @@
+package com.financetracker.http;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.facade.FinanceTrackerFacadeInterface;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.CategoryType;
+import com.financetracker.model.Money;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpApiServerTest {
+    // суммы читаются как BigDecimal без потери точности; дерево Jackson отбрасывает хвостовые нули
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private FinanceTrackerFacade facade;
+    private HttpApiServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+        server = new HttpApiServer(facade, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Created account and operation should be readable back and reflected in the balance")
+    void testCreateAndRead() throws Exception {
+        JsonNode account = send("POST", "/api/accounts", "{\"name\": \"Main\", \"balance\": 100.00}", 201);
+        JsonNode category = send("POST", "/api/categories", "{\"type\": \"expense\", \"name\": \"Food\"}", 201);
+        JsonNode operation = send("POST", "/api/operations", "{\"type\": \"EXPENSE\", \"bankAccountId\": "
+                + account.get("id") + ", \"amount\": \"12.34\", \"date\": \"2024-03-01\", \"description\": \"Lunch\","
+                + " \"categoryId\": " + category.get("id") + "}", 201);
+
+        assertEquals("Lunch", send("GET", "/api/operations/" + operation.get("id").asLong(), null, 200)
+                .get("description").asText());
+        assertAmount("87.66", send("GET", "/api/accounts/" + account.get("id"), null, 200).get("balance"));
+        assertEquals(1, send("GET", "/api/categories", null, 200).size());
+    }
+
+    @Test
+    @DisplayName("Date pages should follow the next cursor through all operations exactly once")
+    void testDatePagination() throws Exception {
+        Long accountId = facade.createBankAccount("Main", Money.ZERO).getId();
+        for (int i = 0; i < 25; i++) {
+            facade.createIncomeOperation(accountId, Money.ofMinor(100 + i), LocalDate.of(2024, 1, 1).plusDays(i % 7), "", null);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String path = "/api/operations?limit=10";
+        while (path != null) {
+            JsonNode page = send("GET", path, null, 200);
+            page.get("operations").forEach(operation -> ids.add(operation.get("id").asLong()));
+            JsonNode next = page.get("next");
+            path = next.isNull() ? null : "/api/operations?limit=10&afterDate=" + next.get("afterDate").asText()
+                    + "&afterId=" + next.get("afterId").asLong();
+        }
+
+        assertEquals(25, ids.size());
+        assertEquals(25, ids.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Query pages and reports should apply the filters")
+    void testQueryAndReports() throws Exception {
+        Long main = facade.createBankAccount("Main", Money.ZERO).getId();
+        Long other = facade.createBankAccount("Other", Money.ZERO).getId();
+        Long food = facade.createCategory(CategoryType.EXPENSE, "Food").getId();
+        for (int i = 0; i < 5; i++) {
+            facade.createExpenseOperation(main, Money.ofMinor(1_000), LocalDate.of(2024, 2, 1 + i), "кофе", food);
+        }
+        facade.createExpenseOperation(other, Money.ofMinor(5_000), LocalDate.of(2024, 2, 1), "", food);
+
+        JsonNode first = send("GET", "/api/operations/query?account=" + main + "&type=EXPENSE&limit=3", null, 200);
+        assertEquals(3, first.get("operations").size());
+        JsonNode second = send("GET", "/api/operations/query?account=" + main + "&type=EXPENSE&limit=3&afterId="
+                + first.get("next").get("afterId").asLong(), null, 200);
+        assertEquals(2, second.get("operations").size());
+        assertTrue(second.get("next").isNull());
+
+        JsonNode totals = send("GET", "/api/reports/categories?type=EXPENSE&from=2024-02-01&to=2024-02-29&account="
+                + main, null, 200);
+        assertAmount("50.00", totals.get(0).get("total"));
+        assertEquals(5, send("GET", "/api/operations/search?q=%D0%BA%D0%BE%D1%84%D0%B5", null, 200).size());
+        assertAmount("-100.00", send("GET", "/api/reports/monthly?from=2024-02&to=2024-02", null, 200)
+                .get(0).get("net"));
+    }
+
+    @Test
+    @DisplayName("Bad input, unknown entities and deletes should map to 400, 404 and 204")
+    void testErrors() throws Exception {
+        Long accountId = facade.createBankAccount("Main", Money.ZERO).getId();
+        Long operationId = facade.createIncomeOperation(accountId, Money.ofMinor(100), LocalDate.now(), "", null).getId();
+
+        assertTrue(send("GET", "/api/accounts/999", null, 404).get("error").asText().contains("999"));
+        send("GET", "/api/operations?limit=0", null, 400);
+        send("GET", "/api/reports/monthly?from=2024-13&to=2024-12", null, 400);
+        send("POST", "/api/operations", "{\"type\": \"INCOME\", \"bankAccountId\": 999, \"amount\": 1}", 400);
+        send("POST", "/api/accounts", "not json", 400);
+
+        assertEquals(204, client.send(request("DELETE", "/api/operations/" + operationId, null),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+        send("GET", "/api/operations/" + operationId, null, 404);
+    }
+
+    @Test
+    @DisplayName("Query pages should stay exact when an amount filter rejects index candidates")
+    void testQueryPagesWithAmountFilter() throws Exception {
+        Long main = facade.createBankAccount("Main", Money.ZERO).getId();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            long cents = (i % 3 == 0) ? 5_000 : 100;
+            Long id = facade.createExpenseOperation(main, Money.ofMinor(cents), LocalDate.of(2024, 2, 1), "", null).getId();
+            if (cents == 5_000) {
+                expected.add(id);
+            }
+        }
+
+        List<Long> paged = new ArrayList<>();
+        String afterId = "";
+        JsonNode page;
+        do {
+            page = send("GET", "/api/operations/query?account=" + main + "&min=10&limit=4" + afterId, null, 200);
+            page.get("operations").forEach(operation -> paged.add(operation.get("id").asLong()));
+            afterId = page.get("next").isNull() ? null : "&afterId=" + page.get("next").get("afterId").asLong();
+        } while (afterId != null);
+
+        assertEquals(expected, paged);
+        // 17 подходящих операций: последняя страница неполная и без курсора
+        assertEquals(1, page.get("operations").size());
+    }
+
+    @Test
+    @DisplayName("Unexpected failures should map to 500 without leaking exception details")
+    void testInternalErrorHidesDetails() throws Exception {
+        FinanceTrackerFacadeInterface failing = mock(FinanceTrackerFacadeInterface.class);
+        when(failing.getAllBankAccounts()).thenThrow(new IllegalStateException("connection pool exhausted"));
+        try (HttpApiServer failingServer = new HttpApiServer(failing, 0)) {
+            failingServer.start();
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + failingServer.port() + "/api/accounts")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+            assertEquals("Internal server error", MAPPER.readTree(response.body()).get("error").asText());
+            assertFalse(response.body().contains("connection pool"));
+        }
+    }
+
+    private static void assertAmount(String expected, JsonNode actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.decimalValue()), expected + " != " + actual);
+    }
+
+    private JsonNode send(String method, String path, String body, int expectedStatus) throws Exception {
+        HttpResponse<String> response = client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+        assertEquals(expectedStatus, response.statusCode(), response.body());
+        return MAPPER.readTree(response.body());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path))
+                .method(method, (body != null) ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+}
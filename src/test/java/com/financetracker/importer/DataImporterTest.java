@@ -0,0 +1,151 @@
+package com.financetracker.importer;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.*;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import com.financetracker.visitor.ExportFormat;
+import com.financetracker.visitor.StreamingExportVisitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FinanceTrackerFacade newFacade() {
+        return new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ImportFormat.class)
+    @DisplayName("Importing an export should restore accounts, categories, operations and balances")
+    void testRoundTrip(ImportFormat format) throws IOException {
+        FinanceTrackerFacade source = newFacade();
+        BankAccount card = source.createBankAccount("Карта, \"основная\"", Money.parse("1000.00"));
+        BankAccount cash = source.createBankAccount("Наличные", Money.ZERO);
+        Category food = source.createCategory(CategoryType.EXPENSE, "Продукты");
+        source.createExpenseOperation(card.getId(), Money.parse("0.10"), LocalDate.of(2025, 3, 1),
+                "Кофе\nс собой", food.getId());
+        source.createIncomeOperation(cash.getId(), Money.parse("250.55"), LocalDate.of(2025, 3, 2), null, null);
+
+        Path file = tempDir.resolve("export." + format.name().toLowerCase());
+        try (StreamingExportVisitor visitor = ExportFormat.valueOf(format.name()).open(file)) {
+            source.exportAll(visitor);
+        }
+
+        FinanceTrackerFacade target = newFacade();
+        target.createBankAccount("Уже существующий", Money.ZERO);
+        ImportResult result = new DataImporter(target, 2).importFile(file, format);
+
+        assertEquals(new ImportResult(2, 1, 2), result);
+        BankAccount importedCard = findAccount(target, card.getName());
+        BankAccount importedCash = findAccount(target, "Наличные");
+        assertEquals(Money.parse("999.90"), importedCard.getBalanceMoney());
+        assertEquals(Money.parse("250.55"), importedCash.getBalanceMoney());
+
+        Operation coffee = target.getOperationsByBankAccountId(importedCard.getId()).get(0);
+        assertEquals("Кофе\nс собой", coffee.getDescription());
+        assertEquals("Продукты", target.getCategoryById(coffee.getCategoryId()).getName());
+        assertTrue(target.checkBalanceConsistency().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Operations referencing ids outside the file should be rejected, not attached to existing accounts")
+    void testReferencesOutsideTheFileAreRejected() throws IOException {
+        FinanceTrackerFacade facade = newFacade();
+        BankAccount existing = facade.createBankAccount("Основной", Money.ZERO);
+        Path file = tempDir.resolve("operations.csv");
+        Files.writeString(file, """
+                id,type,bankAccountId,amount,date,description,categoryId
+                7,INCOME,%d,10.00,2025-01-01,Перевод,
+                """.formatted(existing.getId()));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> new DataImporter(facade).importFile(file, ImportFormat.CSV));
+
+        assertTrue(error.getMessage().contains("Bank account " + existing.getId()), error.getMessage());
+        assertEquals(Money.ZERO, facade.getBankAccountById(existing.getId()).getBalanceMoney());
+        assertTrue(facade.getAllOperations().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A malformed record should fail the import with its line number")
+    void testMalformedRecord() throws IOException {
+        Path file = tempDir.resolve("broken.csv");
+        Files.writeString(file, """
+                id,name,type
+                1,Продукты,EXPENSE
+                2,Зарплата,SALARY
+                """);
+
+        IOException error = assertThrows(IOException.class,
+                () -> new DataImporter(newFacade()).importFile(file, ImportFormat.CSV));
+        assertTrue(error.getMessage().contains("line 3"), error.getMessage());
+    }
+
+    @Test
+    @DisplayName("CSV reader should handle records spanning chunk boundaries")
+    void testCsvAcrossChunks() throws IOException {
+        StringBuilder csv = new StringBuilder("id,type,bankAccountId,amount,date,description,categoryId\n");
+        for (int i = 0; i < 20_000; i++) {
+            csv.append(i).append(",EXPENSE,1,").append(i).append(".05,2025-01-01,\"Покупка, №")
+                    .append(i).append("\",\n");
+        }
+        Path file = tempDir.resolve("large.csv");
+        Files.writeString(file, csv);
+
+        List<Operation> operations = new ArrayList<>();
+        new CsvEntityReader().read(file, new ImportHandler() {
+            @Override
+            public void onBankAccount(BankAccount bankAccount) {
+                fail("unexpected account");
+            }
+
+            @Override
+            public void onCategory(Category category) {
+                fail("unexpected category");
+            }
+
+            @Override
+            public void onOperation(Operation operation) {
+                operations.add(operation);
+            }
+        });
+
+        assertEquals(20_000, operations.size());
+        Operation last = operations.get(19_999);
+        assertEquals("Покупка, №19999", last.getDescription());
+        assertEquals(1_999_905L, last.getAmountCents());
+        assertNull(last.getCategoryId());
+    }
+
+    private static BankAccount findAccount(FinanceTrackerFacade facade, String name) {
+        return facade.getAllBankAccounts().stream()
+                .filter(account -> name.equals(account.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.financetracker.metrics;
+
+import com.financetracker.model.Operation;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    @DisplayName("Histogram percentiles should stay within the bucket precision")
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000, histogram.maxNanos());
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 * 0.04);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 * 0.04);
+        assertEquals(50_000_500, histogram.meanNanos(), 1.0);
+    }
+
+    @Test
+    @DisplayName("Every value should fall into a bucket whose upper bound is not below it")
+    void testBucketBounds() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 63, 64, 65, 1_000, 123_456_789, 1L << 40}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "value " + value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value, "value " + value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Enabled metrics should wrap repositories and count calls, errors and cache hits")
+    void testPostProcessorInstrumentsRepositories() {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        MetricsPostProcessor postProcessor = new MetricsPostProcessor(registry,
+                List.of(OperationRepositoryInterface.class));
+        OperationRepositoryProxy target = new OperationRepositoryProxy(new OperationDbRepository());
+
+        OperationRepositoryInterface repository = (OperationRepositoryInterface)
+                postProcessor.postProcessAfterInitialization(target, "operationRepositoryProxy");
+        Operation saved = repository.save(Operation.builder().bankAccountId(1L).build());
+        repository.findById(saved.getId());
+        repository.findById(999L);
+        assertThrows(NullPointerException.class, () -> repository.delete(null));
+
+        assertNotSame(target, repository);
+        MethodStats findById = stats(registry, "operationRepositoryProxy.findById");
+        assertEquals(2, findById.calls());
+        assertEquals(0, findById.errors());
+        assertTrue(findById.maxNanos() > 0);
+        assertEquals(1, stats(registry, "operationRepositoryProxy.delete").errors());
+
+        CacheStats cache = registry.cacheStats().get(0);
+        assertEquals("operationRepositoryProxy", cache.name());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.size());
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Disabled metrics should leave beans unwrapped but still register caches")
+    void testDisabledMetricsDoNotWrap() {
+        MetricsRegistry registry = new MetricsRegistry(false);
+        MetricsPostProcessor postProcessor = new MetricsPostProcessor(registry,
+                List.of(OperationRepositoryInterface.class));
+        OperationRepositoryProxy target = new OperationRepositoryProxy(new OperationDbRepository());
+
+        assertSame(target, postProcessor.postProcessAfterInitialization(target, "operationRepositoryProxy"));
+        assertEquals(Optional.empty(), target.findById(1L));
+        assertTrue(registry.methodStats().isEmpty());
+        assertEquals(1, registry.cacheStats().get(0).misses());
+    }
+
+    @Test
+    @DisplayName("Wrapped bean should keep the other interfaces of its class")
+    void testWrapperKeepsOtherInterfaces() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        MetricsPostProcessor postProcessor = new MetricsPostProcessor(registry,
+                List.of(OperationRepositoryInterface.class));
+        ClosableRepository target = new ClosableRepository();
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(target, "closable");
+        ((Closeable) wrapped).close();
+
+        assertTrue(target.closed);
+        assertTrue(registry.methodStats().isEmpty());
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Post-processor should request the registry on the first processed bean, not when created")
+    void testRegistryIsResolvedLazily() {
+        MetricsRegistry registry = new MetricsRegistry(false);
+        AtomicInteger requests = new AtomicInteger();
+        MetricsPostProcessor postProcessor = new MetricsPostProcessor(() -> {
+            requests.incrementAndGet();
+            return registry;
+        }, List.of(OperationRepositoryInterface.class));
+        assertEquals(0, requests.get());
+
+        assertSame(registry, postProcessor.postProcessAfterInitialization(registry, "metricsRegistry"));
+        assertEquals(0, requests.get());
+
+        postProcessor.postProcessAfterInitialization(new OperationRepositoryProxy(new OperationDbRepository()), "first");
+        postProcessor.postProcessAfterInitialization(new OperationRepositoryProxy(new OperationDbRepository()), "second");
+        assertEquals(1, requests.get());
+        assertEquals(2, registry.cacheStats().size());
+    }
+
+    private static MethodStats stats(MetricsRegistry registry, String name) {
+        return registry.methodStats().stream()
+                .filter(stats -> stats.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static final class ClosableRepository extends OperationDbRepository implements Closeable {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
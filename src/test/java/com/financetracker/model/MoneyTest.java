@@ -0,0 +1,62 @@
+package com.financetracker.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should round double amounts half up to whole cents")
+    void testOfDoubleRoundsHalfUp() {
+        assertEquals(29, Money.of(0.285).getMinorUnits());
+        assertEquals(-29, Money.of(-0.285).getMinorUnits());
+        assertEquals(10000, Money.of(100).getMinorUnits());
+    }
+
+    @Test
+    @DisplayName("Should parse decimal strings exactly")
+    void testParse() {
+        assertEquals(Money.ofMinor(123456), Money.parse("1234.56"));
+        assertEquals(Money.ofMinor(-5), Money.parse(" -0.05 "));
+        assertEquals("1234.56", Money.parse("1234.56").toString());
+        assertEquals(new BigDecimal("0.10"), Money.parse("0.1").toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Should sum many cents without drift unlike double")
+    void testSumIsExact() {
+        Money total = Money.ZERO;
+        double doubleTotal = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            total = total.plus(Money.of(0.1));
+            doubleTotal += 0.1;
+        }
+
+        assertEquals(Money.ofMinor(10_000_000), total);
+        assertNotEquals(100_000.0, doubleTotal);
+    }
+
+    @Test
+    @DisplayName("Should fail loudly on overflow")
+    void testOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    @DisplayName("Should keep double accessors of entities in sync with cents")
+    void testEntityAccessors() {
+        Operation operation = Operation.builder().amount(12.34).build();
+        assertEquals(1234, operation.getAmountCents());
+        assertEquals(12.34, operation.getAmount());
+
+        BankAccount account = BankAccount.builder().balance(Money.parse("99.99")).build();
+        account.setOpeningBalance(10.5);
+        assertEquals(9999, account.getBalanceCents());
+        assertEquals(1050, account.getOpeningBalanceCents());
+    }
+}
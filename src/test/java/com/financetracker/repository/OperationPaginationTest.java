@@ -0,0 +1,134 @@
+package com.financetracker.repository;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationColumnarDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.proxy.CacheWarmUp;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationPaginationTest {
+    private static final Comparator<Operation> BY_DATE_THEN_ID =
+            (a, b) -> OperationCursor.compare(a.getDate(), a.getId(), b.getDate(), b.getId());
+
+    static Stream<Arguments> repositories() {
+        return Stream.of(
+                Arguments.of("map", (Supplier<OperationRepositoryInterface>) OperationDbRepository::new),
+                Arguments.of("columnar", (Supplier<OperationRepositoryInterface>) OperationColumnarDbRepository::new),
+                Arguments.of("proxy", (Supplier<OperationRepositoryInterface>)
+                        () -> new OperationRepositoryProxy(new OperationDbRepository())),
+                Arguments.of("bounded proxy", (Supplier<OperationRepositoryInterface>)
+                        () -> new OperationRepositoryProxy(new OperationDbRepository(), CacheWarmUp.EAGER, 50)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testPagesByIdCoverEveryOperationOnce(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        List<Operation> expected = fill(repository);
+        expected.sort(Comparator.comparing(Operation::getId));
+
+        List<Operation> paged = new ArrayList<>();
+        List<Operation> page = repository.findPageAfterId(null, 64);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 64);
+            paged.addAll(page);
+            page = repository.findPageAfterId(page.get(page.size() - 1).getId(), 64);
+        }
+
+        assertEquals(expected, paged);
+        assertEquals(expected, repository.streamOrderedById().toList());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testPagesByDatePutUndatedFirstAndKeepOrder(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        List<Operation> expected = fill(repository);
+        expected.sort(BY_DATE_THEN_ID);
+
+        List<Operation> paged = new ArrayList<>();
+        List<Operation> page = repository.findPageByDate(null, 100);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            page = repository.findPageByDate(OperationCursor.of(page.get(page.size() - 1)), 100);
+        }
+
+        assertEquals(expected, paged);
+        assertNull(paged.get(0).getDate());
+        assertEquals(expected, repository.streamOrderedByDate().toList());
+        assertThrows(IllegalArgumentException.class, () -> repository.findPageByDate(null, 0));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testPagesFollowRescheduledOperations(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        List<Operation> expected = fill(repository);
+        // перенос даты должен убрать строку со старой позиции в порядке дат
+        for (int i = 0; i < expected.size(); i += 5) {
+            Operation operation = expected.get(i);
+            operation.setDate((operation.getDate() == null) ? LocalDate.of(2023, 6, 1) : null);
+            repository.save(operation);
+        }
+        expected.sort(BY_DATE_THEN_ID);
+
+        assertEquals(expected, repository.streamOrderedByDate().toList());
+        assertEquals(expected.size(), repository.streamOrderedById().count());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testQueryPagesMatchFullQuery(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        fill(repository);
+        OperationQuery query = OperationQuery.builder()
+                .type(OperationType.EXPENSE)
+                .minAmount(Money.ofMinor(5_000))
+                .build();
+
+        List<Operation> paged = new ArrayList<>();
+        List<Operation> page = repository.findPageByQuery(query, null, 64);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 64);
+            paged.addAll(page);
+            page = repository.findPageByQuery(query, page.get(page.size() - 1).getId(), 64);
+        }
+
+        assertFalse(paged.isEmpty());
+        assertEquals(repository.findByQuery(query), paged);
+    }
+
+    private static List<Operation> fill(OperationRepositoryInterface repository) {
+        Random random = new Random(11);
+        List<Operation> saved = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            saved.add(repository.save(Operation.builder()
+                    .type(random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE)
+                    .bankAccountId(1L)
+                    .amountCents(random.nextInt(10_000))
+                    .date(random.nextInt(50) == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(random.nextInt(90)))
+                    .build()));
+        }
+        // удаления оставляют дыры в последовательности id
+        for (int i = 0; i < saved.size(); i += 7) {
+            repository.deleteById(saved.get(i).getId());
+        }
+        saved.removeIf(operation -> repository.findSnapshotById(operation.getId()).isEmpty());
+        return saved;
+    }
+}
@@ -0,0 +1,120 @@
+package com.financetracker.repository;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationColumnarDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.proxy.CacheWarmUp;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationQueryTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    static Stream<Arguments> repositories() {
+        return Stream.of(
+                Arguments.of("map", (Supplier<OperationRepositoryInterface>) OperationDbRepository::new),
+                Arguments.of("columnar", (Supplier<OperationRepositoryInterface>) OperationColumnarDbRepository::new),
+                Arguments.of("proxy", (Supplier<OperationRepositoryInterface>)
+                        () -> new OperationRepositoryProxy(new OperationDbRepository())),
+                Arguments.of("bounded proxy", (Supplier<OperationRepositoryInterface>)
+                        () -> new OperationRepositoryProxy(new OperationDbRepository(), CacheWarmUp.EAGER, 50)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testRandomQueriesMatchFullScan(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        Random random = new Random(5);
+        List<Operation> operations = fill(repository, random);
+
+        for (int i = 0; i < 300; i++) {
+            OperationQuery query = randomQuery(random);
+            List<Long> expected = operations.stream()
+                    .filter(query::matches)
+                    .map(Operation::getId)
+                    .sorted()
+                    .toList();
+
+            assertEquals(expected, repository.findByQuery(query).stream().map(Operation::getId).toList(),
+                    query.toString());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void testEmptyRangesAndMissingKeysReturnNothing(String name, Supplier<OperationRepositoryInterface> factory) {
+        OperationRepositoryInterface repository = factory.get();
+        fill(repository, new Random(6));
+
+        assertTrue(repository.findByQuery(OperationQuery.builder()
+                .from(FIRST_DAY.plusDays(10)).to(FIRST_DAY).build()).isEmpty());
+        assertTrue(repository.findByQuery(OperationQuery.builder()
+                .minAmount(Money.of(50.0)).maxAmount(Money.of(10.0)).build()).isEmpty());
+        assertTrue(repository.findByQuery(OperationQuery.builder()
+                .bankAccountId(404L).type(OperationType.INCOME).build()).isEmpty());
+        assertEquals(repository.findAll().size(), repository.findByQuery(OperationQuery.builder().build()).size());
+    }
+
+    private static OperationQuery randomQuery(Random random) {
+        OperationQuery.OperationQueryBuilder query = OperationQuery.builder();
+        if (random.nextBoolean()) {
+            query.bankAccountId((long) random.nextInt(5));
+        }
+        if (random.nextBoolean()) {
+            query.categoryId((long) random.nextInt(20));
+        }
+        if (random.nextBoolean()) {
+            query.type(random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE);
+        }
+        if (random.nextInt(3) > 0) {
+            LocalDate from = FIRST_DAY.plusDays(random.nextInt(120));
+            query.from(random.nextInt(4) == 0 ? null : from);
+            query.to(random.nextInt(4) == 0 ? null : from.plusDays(random.nextInt(40)));
+        }
+        if (random.nextInt(3) == 0) {
+            query.minAmount(Money.ofMinor(random.nextInt(5_000)));
+        }
+        if (random.nextInt(4) == 0) {
+            query.maxAmount(Money.ofMinor(5_000 + random.nextInt(5_000)));
+        }
+        return query.build();
+    }
+
+    private static List<Operation> fill(OperationRepositoryInterface repository, Random random) {
+        List<Operation> saved = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            saved.add(repository.save(Operation.builder()
+                    .type(random.nextBoolean() ? OperationType.INCOME : OperationType.EXPENSE)
+                    .bankAccountId((long) random.nextInt(5))
+                    .categoryId(random.nextInt(30) == 0 ? null : (long) random.nextInt(20))
+                    .amountCents(random.nextInt(10_000))
+                    .date(random.nextInt(50) == 0 ? null : FIRST_DAY.plusDays(random.nextInt(150)))
+                    .build()));
+        }
+        // перенос на другой счет должен сниматься со старых ключей индекса
+        for (int i = 0; i < saved.size(); i += 11) {
+            Operation moved = saved.get(i);
+            moved.setBankAccountId(4L);
+            moved.setDate(FIRST_DAY.plusDays(i % 150));
+            saved.set(i, repository.save(moved));
+        }
+        for (int i = 5; i < saved.size(); i += 13) {
+            repository.deleteById(saved.get(i).getId());
+        }
+        saved.removeIf(operation -> repository.findSnapshotById(operation.getId()).isEmpty());
+        return saved;
+    }
+}
@@ -0,0 +1,153 @@
+package com.financetracker.repository;
+
+import com.financetracker.facade.FinanceTrackerFacade;
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.BankAccount;
+import com.financetracker.model.Category;
+import com.financetracker.model.CategoryType;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.BankAccountDbRepository;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationColumnarDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.interfaces.OperationRepositoryInterface;
+import com.financetracker.repository.proxy.BankAccountRepositoryProxy;
+import com.financetracker.repository.proxy.CategoryRepositoryProxy;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryConcurrencyStressTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    @Test
+    @DisplayName("Concurrent saves through the proxy should neither lose nor duplicate ids")
+    void testConcurrentSavesThroughProxy() throws Exception {
+        assertNoLostOrDuplicatedIds(OperationDbRepository::new);
+    }
+
+    @Test
+    @DisplayName("Concurrent saves into the columnar store should neither lose nor duplicate ids")
+    void testConcurrentSavesIntoColumnarStore() throws Exception {
+        assertNoLostOrDuplicatedIds(OperationColumnarDbRepository::new);
+    }
+
+    @Test
+    @DisplayName("Racing updates and deletes of the same ids should leave cache and store in agreement")
+    void testCacheAndStoreAgreeAfterRacingWrites() throws Exception {
+        OperationDbRepository dbRepository = new OperationDbRepository();
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository);
+        int idCount = 64;
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long id = random.nextInt(idCount) + 1;
+                if (random.nextInt(4) == 0) {
+                    proxy.deleteById(id);
+                } else if (random.nextBoolean()) {
+                    proxy.findById(id);
+                } else {
+                    proxy.save(Operation.builder().id(id).bankAccountId((long) thread).build());
+                }
+            }
+        });
+
+        for (long id = 1; id <= idCount; id++) {
+            Optional<Operation> stored = dbRepository.findById(id);
+            Optional<Operation> cached = proxy.findById(id);
+            assertEquals(stored, cached, "cache diverged from store for id " + id);
+        }
+        for (long accountId = 0; accountId < THREADS; accountId++) {
+            for (Operation operation : proxy.findByBankAccountId(accountId)) {
+                assertEquals(accountId, operation.getBankAccountId());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent expenses on one account should not lose balance updates")
+    void testConcurrentBalanceUpdates() throws Exception {
+        FinanceTrackerFacade facade = new FinanceTrackerFacade(
+                new BankAccountRepositoryProxy(new BankAccountDbRepository()),
+                new CategoryRepositoryProxy(new CategoryDbRepository()),
+                new OperationRepositoryProxy(new OperationDbRepository()),
+                new FinanceEntityFactory());
+        BankAccount account = facade.createBankAccount("Shared", 0.0);
+        Category coffee = facade.createCategory(CategoryType.EXPENSE, "Coffee");
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 500; i++) {
+                facade.createExpenseOperation(account.getId(), 0.01, LocalDate.now(), "coffee", coffee.getId());
+            }
+        });
+
+        assertEquals(-THREADS * 500L, facade.getBankAccountById(account.getId()).getBalanceCents());
+        assertTrue(facade.checkBalanceConsistency().isEmpty());
+    }
+
+    private void assertNoLostOrDuplicatedIds(Supplier<OperationRepositoryInterface> storeFactory) throws Exception {
+        OperationRepositoryInterface dbRepository = storeFactory.get();
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository);
+        Set<Long> issuedIds = ConcurrentHashMap.newKeySet();
+        Queue<Long> duplicates = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Operation saved = proxy.save(Operation.builder()
+                        .type(OperationType.EXPENSE)
+                        .bankAccountId((long) thread)
+                        .amountCents(i)
+                        .build());
+                if (!issuedIds.add(saved.getId())) {
+                    duplicates.add(saved.getId());
+                }
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertTrue(duplicates.isEmpty(), "duplicated ids: " + duplicates);
+        assertEquals(expected, issuedIds.size());
+        assertEquals(expected, dbRepository.findAll().size());
+        assertEquals(expected, proxy.findAll().size());
+        for (long thread = 0; thread < THREADS; thread++) {
+            assertEquals(OPERATIONS_PER_THREAD, proxy.findByBankAccountId(thread).size());
+        }
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
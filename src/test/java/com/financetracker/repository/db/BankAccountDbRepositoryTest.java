@@ -58,10 +58,12 @@ class BankAccountDbRepositoryTest {
         assertEquals("Updated Name", updatedAccount.getName());
         assertEquals(2000.0, updatedAccount.getBalance());
 
+        // хранилище держит снимок: изменение возвращенного объекта его не затрагивает
         updatedAccount.setName("Modified Again");
         Optional<BankAccount> retrievedAccount = repository.findById(id);
         assertTrue(retrievedAccount.isPresent());
-        assertEquals("Modified Again", retrievedAccount.get().getName());
+        assertEquals("Updated Name", retrievedAccount.get().getName());
+        assertSame(repository.findSnapshotById(id).orElseThrow(), repository.findSnapshotById(id).orElseThrow());
     }
 
     @Test
@@ -0,0 +1,218 @@
+package com.financetracker.repository.db;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationColumnarDbRepositoryTest {
+
+    private OperationColumnarDbRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OperationColumnarDbRepository();
+    }
+
+    @Test
+    @DisplayName("Should round-trip every column of an operation")
+    void testSaveAndFindById() {
+        Operation operation = Operation.builder()
+                .type(OperationType.EXPENSE)
+                .bankAccountId(1L)
+                .amount(123.45)
+                .date(LocalDate.of(2025, 3, 1))
+                .description("Продукты")
+                .categoryId(7L)
+                .build();
+
+        Operation saved = repository.save(operation);
+        Optional<Operation> retrieved = repository.findById(saved.getId());
+
+        assertTrue(retrieved.isPresent());
+        assertEquals(saved, retrieved.get());
+        assertEquals(12345, retrieved.get().getAmountCents());
+        assertNotSame(saved, retrieved.get());
+    }
+
+    @Test
+    @DisplayName("Should keep null fields as null")
+    void testNullColumns() {
+        Operation saved = repository.save(Operation.builder().build());
+
+        Operation retrieved = repository.findById(saved.getId()).orElseThrow();
+
+        assertNull(retrieved.getType());
+        assertNull(retrieved.getBankAccountId());
+        assertNull(retrieved.getCategoryId());
+        assertNull(retrieved.getDate());
+        assertNull(retrieved.getDescription());
+    }
+
+    @Test
+    @DisplayName("Should update an existing row in place")
+    void testUpdate() {
+        Operation saved = repository.save(Operation.builder().bankAccountId(1L).description("old").build());
+
+        saved.setBankAccountId(2L);
+        saved.setDescription("new");
+        repository.save(saved);
+
+        assertEquals(1, repository.findAll().size());
+        assertTrue(repository.findByBankAccountId(1L).isEmpty());
+        assertEquals("new", repository.findByBankAccountId(2L).get(0).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should filter by account, category, type and date range")
+    void testFinders() {
+        repository.save(Operation.builder().bankAccountId(1L).categoryId(1L).type(OperationType.EXPENSE)
+                .date(LocalDate.of(2023, 1, 1)).build());
+        repository.save(Operation.builder().bankAccountId(2L).categoryId(1L).type(OperationType.INCOME)
+                .date(LocalDate.of(2023, 2, 1)).build());
+        repository.save(Operation.builder().bankAccountId(1L).categoryId(2L).type(OperationType.EXPENSE)
+                .date(LocalDate.of(2023, 3, 1)).build());
+
+        assertEquals(2, repository.findByBankAccountId(1L).size());
+        assertEquals(2, repository.findByCategoryId(1L).size());
+        assertEquals(2, repository.findByType(OperationType.EXPENSE).size());
+        assertEquals(2, repository.findByDateRange(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 3, 1)).size());
+        assertEquals(3, repository.findByDateRange(LocalDate.MIN, LocalDate.MAX).size());
+    }
+
+    @Test
+    @DisplayName("Should keep remaining rows reachable after deleting from the middle")
+    void testDeleteFromTheMiddle() {
+        Operation first = repository.save(Operation.builder().description("first").build());
+        Operation second = repository.save(Operation.builder().description("second").build());
+        Operation third = repository.save(Operation.builder().description("third").build());
+
+        repository.deleteById(first.getId());
+        repository.delete(second);
+
+        assertTrue(repository.findById(first.getId()).isEmpty());
+        assertTrue(repository.findById(second.getId()).isEmpty());
+        assertEquals("third", repository.findById(third.getId()).orElseThrow().getDescription());
+        assertEquals(List.of(third), repository.findAll());
+    }
+
+    @Test
+    @DisplayName("Should delete a batch of rows and keep the rest reachable")
+    void testDeleteAllById() {
+        List<Operation> saved = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            saved.add(repository.save(Operation.builder().bankAccountId((long) (i % 2)).description("#" + i).build()));
+        }
+
+        repository.deleteAllById(repository.findByBankAccountId(0L).stream().map(Operation::getId).toList());
+
+        assertTrue(repository.findByBankAccountId(0L).isEmpty());
+        assertEquals(5, repository.findAll().size());
+        for (Operation operation : repository.findByBankAccountId(1L)) {
+            assertEquals(saved.get((int) (operation.getId() - 1)).getDescription(),
+                    repository.findById(operation.getId()).orElseThrow().getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("Equal descriptions should share one instance across overwrites and deletes")
+    void testSharedDescriptions() {
+        Operation first = repository.save(Operation.builder().description(new String("Rent")).build());
+        Operation second = repository.save(Operation.builder().description(new String("Rent")).build());
+        Operation third = repository.save(Operation.builder().description("Salary").build());
+
+        assertSame(repository.findById(first.getId()).orElseThrow().getDescription(),
+                repository.findById(second.getId()).orElseThrow().getDescription());
+
+        first.setDescription("Groceries");
+        repository.save(first);
+        repository.deleteById(third.getId());
+
+        assertEquals("Groceries", repository.findById(first.getId()).orElseThrow().getDescription());
+        assertEquals("Rent", repository.findById(second.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    @DisplayName("Should grow columns beyond the initial capacity")
+    void testGrowth() {
+        for (int i = 0; i < 5_000; i++) {
+            repository.save(Operation.builder().bankAccountId((long) (i % 10)).amountCents(i).build());
+        }
+
+        assertEquals(5_000, repository.findAll().size());
+        assertEquals(500, repository.findByBankAccountId(3L).size());
+    }
+
+    @Test
+    @DisplayName("Should assign a contiguous id block to a batch and keep explicit ids")
+    void testSaveAll() {
+        repository.save(Operation.builder().id(10L).description("existing").build());
+
+        List<Operation> saved = repository.saveAll(List.of(
+                Operation.builder().description("a").build(),
+                Operation.builder().id(10L).description("updated").build(),
+                Operation.builder().description("b").build()));
+
+        assertEquals(List.of(11L, 10L, 12L), saved.stream().map(Operation::getId).toList());
+        assertEquals(3, repository.findAll().size());
+        assertEquals("updated", repository.findById(10L).orElseThrow().getDescription());
+        assertEquals(13L, repository.save(Operation.builder().build()).getId());
+    }
+
+    @Test
+    @DisplayName("Should stream every row across chunk boundaries")
+    void testStreamAll() {
+        for (int i = 0; i < 1_300; i++) {
+            repository.save(Operation.builder().amountCents(i).build());
+        }
+
+        assertEquals(repository.findAll(), repository.streamAll().toList());
+    }
+
+    @Test
+    @DisplayName("Rows saved with out-of-order ids should stay in id order for lookups and pages")
+    void testRowsStayOrderedById() {
+        for (long id : new long[]{50, 10, 30, 20, 40}) {
+            repository.save(Operation.builder().id(id).date(LocalDate.of(2024, 1, (int) (60 - id) / 10)).build());
+        }
+        repository.saveAll(List.of(Operation.builder().id(25L).build(), Operation.builder().id(5L).build()));
+        repository.deleteAllById(List.of(20L, 50L, 404L));
+
+        assertEquals(List.of(5L, 10L, 25L, 30L, 40L), repository.findAll().stream().map(Operation::getId).toList());
+        assertEquals(List.of(30L, 40L), repository.findPageAfterId(25L, 10).stream().map(Operation::getId).toList());
+        assertEquals(30L, repository.findById(30L).orElseThrow().getId());
+        assertTrue(repository.findById(20L).isEmpty());
+        // без даты первыми, затем по дате: 40 -> 2 января, 30 -> 3 января, 10 -> 5 января
+        assertEquals(List.of(5L, 25L, 40L, 30L, 10L),
+                repository.streamOrderedByDate().map(Operation::getId).toList());
+
+        repository.save(Operation.builder().id(10L).date(LocalDate.of(2023, 12, 31)).build());
+        assertEquals(List.of(5L, 25L, 10L, 40L, 30L),
+                repository.streamOrderedByDate().map(Operation::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Values the columns cannot hold should be rejected before any row is written")
+    void testRejectsUnrepresentableValues() {
+        repository.save(Operation.builder().date(LocalDate.of(2024, 1, 1)).build());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.save(Operation.builder().id(7L).date(LocalDate.MAX).build()));
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(List.of(
+                Operation.builder().date(LocalDate.of(2024, 1, 2)).build(),
+                Operation.builder().bankAccountId(Long.MIN_VALUE).build())));
+
+        assertEquals(1, repository.findAll().size());
+        assertTrue(repository.findById(7L).isEmpty());
+        assertEquals(1, repository.streamOrderedByDate().count());
+        assertEquals(2L, repository.save(Operation.builder().build()).getId());
+    }
+}
@@ -1,6 +1,7 @@
 package com.financetracker.repository.db;
 
 import com.financetracker.model.Operation;
+import com.financetracker.model.OperationSnapshot;
 import com.financetracker.model.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -132,4 +133,31 @@ class OperationDbRepositoryTest {
         Optional<Operation> retrieved = repository.findById(operation.getId());
         assertTrue(retrieved.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllSnapshots_shouldShareStoredSnapshotsWithoutCopying() {
+        repository.save(Operation.builder().type(OperationType.EXPENSE).amount(10).build());
+        repository.save(Operation.builder().type(OperationType.INCOME).amount(20).build());
+
+        List<OperationSnapshot> first = repository.findAllSnapshots();
+        List<OperationSnapshot> second = repository.findAllSnapshots();
+
+        assertEquals(2, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+    }
+
+    @Test
+    void findSnapshotById_shouldNotSeeLaterChangesToSavedEntity() {
+        Operation operation = Operation.builder().description("Original").build();
+        Operation savedOperation = repository.save(operation);
+
+        operation.setDescription("Changed");
+        savedOperation.setDescription("Changed too");
+
+        OperationSnapshot snapshot = repository.findSnapshotById(savedOperation.getId()).orElseThrow();
+        assertEquals("Original", snapshot.description());
+        assertEquals(snapshot.toOperation(), repository.findById(savedOperation.getId()).orElseThrow());
+    }
+}
@@ -0,0 +1,181 @@
+package com.financetracker.repository.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> replayed = new ArrayList<>();
+
+    private AppendOnlyLog open(long segmentBytes) throws IOException {
+        replayed.clear();
+        return AppendOnlyLog.open(directory, segmentBytes, (type, payload) ->
+                replayed.add(type + ":" + StandardCharsets.UTF_8.decode(payload)));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<String> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay synced records after reopening")
+    void testReplayAfterReopen() throws IOException {
+        try (AppendOnlyLog log = open(1024)) {
+            log.append(AppendOnlyLog.PUT, bytes("first"));
+            log.sync(log.append(AppendOnlyLog.DELETE, bytes("second")));
+        }
+
+        open(1024).close();
+
+        assertEquals(List.of("1:first", "2:second"), replayed);
+    }
+
+    @Test
+    @DisplayName("Should roll into a new segment once the current one is full")
+    void testSegmentRolling() throws IOException {
+        try (AppendOnlyLog log = open(64)) {
+            for (int i = 0; i < 10; i++) {
+                log.sync(log.append(AppendOnlyLog.PUT, bytes("record-" + i)));
+            }
+        }
+
+        assertTrue(files(".log").size() > 1);
+        open(64).close();
+        assertEquals(10, replayed.size());
+        assertEquals("1:record-9", replayed.get(9));
+    }
+
+    @Test
+    @DisplayName("Should cut off a torn record at the end of the last segment")
+    void testTornTailIsTruncated() throws IOException {
+        try (AppendOnlyLog log = open(1024)) {
+            log.sync(log.append(AppendOnlyLog.PUT, bytes("complete")));
+        }
+        Path segment = directory.resolve(files(".log").get(0));
+        long validSize = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (AppendOnlyLog log = open(1024)) {
+            assertEquals(validSize, Files.size(segment));
+            log.sync(log.append(AppendOnlyLog.PUT, bytes("after")));
+        }
+
+        open(1024).close();
+        assertEquals(List.of("1:complete", "1:after"), replayed);
+    }
+
+    @Test
+    @DisplayName("Should refuse to open when a sealed segment is corrupted")
+    void testCorruptedSealedSegment() throws IOException {
+        try (AppendOnlyLog log = open(32)) {
+            for (int i = 0; i < 4; i++) {
+                log.sync(log.append(AppendOnlyLog.PUT, bytes("value-" + i)));
+            }
+        }
+        Path first = directory.resolve(files(".log").get(0));
+        byte[] content = Files.readAllBytes(first);
+        content[content.length - 1] ^= 0x7f;
+        Files.write(first, content);
+
+        assertThrows(IOException.class, () -> open(32));
+    }
+
+    @Test
+    @DisplayName("A snapshot should replace the segments it covers")
+    void testSnapshotCompactsSegments() throws IOException {
+        try (AppendOnlyLog log = open(64)) {
+            for (int i = 0; i < 6; i++) {
+                log.sync(log.append(AppendOnlyLog.PUT, bytes("old-" + i)));
+            }
+            long sealed = log.seal();
+            log.writeSnapshot(sealed, sink -> sink.put(AppendOnlyLog.PUT, bytes("compacted")));
+            log.sync(log.append(AppendOnlyLog.PUT, bytes("new")));
+        }
+
+        assertEquals(1, files(".snap").size());
+        assertEquals(1, files(".log").size());
+        open(64).close();
+        assertEquals(List.of("1:compacted", "1:new"), replayed);
+    }
+
+    @Test
+    @DisplayName("Concurrent writers should all be durable and share fsyncs")
+    void testConcurrentGroupCommit() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (AppendOnlyLog log = open(4096)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.sync(log.append(AppendOnlyLog.PUT, bytes(thread + "-" + i)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        open(4096).close();
+        assertEquals(threads * perThread, new HashSet<>(replayed).size());
+    }
+
+    @Test
+    @DisplayName("An interrupted writer should fail alone and leave the log usable")
+    void testInterruptedWriterDoesNotBreakLog() throws IOException {
+        try (AppendOnlyLog log = open(1024)) {
+            long first = log.append(AppendOnlyLog.PUT, bytes("first"));
+
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(IOException.class, () -> log.append(AppendOnlyLog.PUT, bytes("lost")));
+                // fsync на прерванном потоке закрывает канал и не должен считаться выполненным
+                assertThrows(IOException.class, () -> log.sync(first));
+            } finally {
+                Thread.interrupted();
+            }
+
+            log.sync(log.append(AppendOnlyLog.PUT, bytes("second")));
+        }
+
+        open(1024).close();
+
+        assertEquals(List.of("1:first", "1:second"), replayed);
+    }
+
+    @Test
+    @DisplayName("Writes after close should fail instead of being lost")
+    void testAppendAfterClose() throws IOException {
+        AppendOnlyLog log = open(1024);
+        log.close();
+
+        assertThrows(IOException.class, () -> log.append(AppendOnlyLog.PUT, ByteBuffer.allocate(1).array()));
+    }
+}
@@ -0,0 +1,184 @@
+package com.financetracker.repository.log;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationCursor;
+import com.financetracker.model.OperationSnapshot;
+import com.financetracker.model.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationLogRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private OperationLogRepository open() {
+        return open(LogStore.DEFAULT_SEGMENT_BYTES, LogStore.DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    private OperationLogRepository open(long segmentBytes, long checkpointBytes) {
+        return new OperationLogRepository(new LogStore<>(directory, SnapshotCodecs.OPERATION,
+                segmentBytes, checkpointBytes));
+    }
+
+    private long count(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Pages should be served after a restart from the replayed log")
+    void testPagesAfterRestart() throws IOException {
+        List<Operation> saved = new ArrayList<>();
+        try (OperationLogRepository repository = open()) {
+            for (int i = 0; i < 30; i++) {
+                saved.add(repository.save(Operation.builder().amountCents(i)
+                        .date((i % 4 == 0) ? null : LocalDate.of(2025, 1, 30 - i)).build()));
+            }
+            repository.deleteById(saved.remove(3).getId());
+        }
+
+        try (OperationLogRepository repository = open()) {
+            assertEquals(saved.subList(10, 20), repository.findPageAfterId(saved.get(9).getId(), 10));
+            assertEquals(saved.stream().sorted((a, b) -> OperationCursor.compare(a.getDate(), a.getId(),
+                    b.getDate(), b.getId())).toList(), repository.streamOrderedByDate().toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Saved, updated and deleted operations should survive a restart")
+    void testSurvivesRestart() throws IOException {
+        Operation kept;
+        Operation removed;
+        try (OperationLogRepository repository = open()) {
+            kept = repository.save(Operation.builder().type(OperationType.EXPENSE).bankAccountId(1L)
+                    .amount(12.34).date(LocalDate.of(2025, 3, 1)).description("Кофе").build());
+            removed = repository.save(Operation.builder().description("временная").build());
+            kept.setDescription("Кофе с собой");
+            repository.save(kept);
+            repository.deleteById(removed.getId());
+        }
+
+        try (OperationLogRepository repository = open()) {
+            assertEquals(List.of(kept), repository.findAll());
+            assertTrue(repository.findById(removed.getId()).isEmpty());
+            assertEquals(OperationSnapshot.of(kept), repository.findSnapshotById(kept.getId()).orElseThrow());
+            assertTrue(repository.save(Operation.builder().build()).getId() > removed.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("A batch should be written with ids reserved in one block")
+    void testSaveAll() throws IOException {
+        List<Operation> batch = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            batch.add(Operation.builder().bankAccountId((long) (i % 3)).amountCents(i).build());
+        }
+        try (OperationLogRepository repository = open()) {
+            List<Operation> saved = repository.saveAll(batch);
+            assertEquals(1L, saved.get(0).getId());
+            assertEquals(1_000L, saved.get(999).getId());
+        }
+
+        try (OperationLogRepository repository = open()) {
+            assertEquals(1_000, repository.findAll().size());
+            assertEquals(334, repository.findByBankAccountId(0L).size());
+        }
+    }
+
+    @Test
+    @DisplayName("A batch delete should survive a restart")
+    void testDeleteAllById() throws IOException {
+        List<Operation> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(Operation.builder().bankAccountId((long) (i % 4)).amountCents(i).build());
+        }
+        try (OperationLogRepository repository = open()) {
+            repository.saveAll(batch);
+            repository.deleteAllById(repository.findByBankAccountId(0L).stream().map(Operation::getId).toList());
+            assertEquals(75, repository.findAll().size());
+        }
+
+        try (OperationLogRepository repository = open()) {
+            assertTrue(repository.findByBankAccountId(0L).isEmpty());
+            assertEquals(75, repository.findAll().size());
+        }
+    }
+
+    @Test
+    @DisplayName("A write that fails to reach the log should not become visible")
+    void testFailedWriteIsNotPublished() throws IOException {
+        List<OperationSnapshot> published = new ArrayList<>();
+        try (LogStore<OperationSnapshot> store = new LogStore<>(directory, SnapshotCodecs.OPERATION)) {
+            store.onChange((previous, current) -> published.add(current));
+            OperationSnapshot snapshot = OperationSnapshot.of(Operation.builder().id(1L).amountCents(5).build());
+
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(UncheckedIOException.class, () -> store.put(snapshot));
+            } finally {
+                Thread.interrupted();
+            }
+
+            assertNull(store.get(1L));
+            assertTrue(published.isEmpty());
+
+            store.put(snapshot);
+            assertEquals(snapshot, store.get(1L));
+            assertEquals(List.of(snapshot), published);
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoint should compact the log without losing data")
+    void testCheckpointCompactsLog() throws IOException {
+        try (OperationLogRepository repository = open(256, Long.MAX_VALUE)) {
+            for (int i = 0; i < 50; i++) {
+                repository.save(Operation.builder().id(1L).amountCents(i).build());
+            }
+            assertTrue(count(".log") > 1);
+
+            repository.checkpoint();
+
+            assertEquals(1, count(".snap"));
+            assertEquals(1, count(".log"));
+        }
+
+        try (OperationLogRepository repository = open(256, Long.MAX_VALUE)) {
+            assertEquals(49L, repository.findById(1L).orElseThrow().getAmountCents());
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoints should run in the background once the log grows past the threshold")
+    void testBackgroundCheckpoint() throws Exception {
+        try (OperationLogRepository repository = open(512, 2_048)) {
+            for (int i = 0; i < 500; i++) {
+                repository.save(Operation.builder().id((long) (i % 10)).amountCents(i).build());
+            }
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (count(".snap") == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, count(".snap"));
+        }
+
+        try (OperationLogRepository repository = open(512, 2_048)) {
+            assertEquals(10, repository.findAll().size());
+            assertEquals(499L, repository.findById(9L).orElseThrow().getAmountCents());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.financetracker.repository.proxy;
+
+import com.financetracker.metrics.CacheStats;
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationDbRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWarmUpTest {
+
+    @Test
+    @DisplayName("Parallel warm-up should cache and index every stored operation")
+    void testEagerParallelWarmUp() {
+        OperationDbRepository dbRepository = new OperationDbRepository();
+        dbRepository.saveAll(operations(50_000));
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.EAGER_PARALLEL);
+
+        assertNotNull(proxy.getWarmUpDuration());
+        assertEquals(50_000, proxy.findAll().size());
+        for (long accountId = 0; accountId < 10; accountId++) {
+            assertEquals(5_000, proxy.findByBankAccountId(accountId).size());
+        }
+        assertEquals(25_000, proxy.findByType(OperationType.INCOME).size());
+    }
+
+    @Test
+    @DisplayName("Parallel warm-up should read the store by id ranges, not as one full list")
+    void testEagerParallelWarmUpReadsPages() {
+        AtomicInteger fullLoads = new AtomicInteger();
+        OperationDbRepository dbRepository = new OperationDbRepository() {
+            @Override
+            public List<Operation> findAll() {
+                fullLoads.incrementAndGet();
+                return super.findAll();
+            }
+        };
+        dbRepository.saveAll(operations(40_000));
+        // дыры в id на границах диапазонов не должны терять соседние записи
+        for (long id = 16_000; id <= 17_000; id++) {
+            dbRepository.deleteById(id);
+        }
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.EAGER_PARALLEL);
+
+        assertEquals(0, fullLoads.get());
+        assertEquals(38_999, proxy.getCacheMetrics().snapshot("operations").size());
+        assertEquals(dbRepository.streamOrderedById().map(Operation::getId).toList(),
+                proxy.streamOrderedById().map(Operation::getId).toList());
+    }
+
+    @Test
+    @DisplayName("A bounded cache should answer finders from the store and keep no per-operation index")
+    void testBoundedCacheQueriesTheStore() {
+        OperationDbRepository dbRepository = new OperationDbRepository();
+        dbRepository.saveAll(operations(1_000));
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.EAGER, 100);
+        Operation added = proxy.save(Operation.builder().bankAccountId(3L).type(OperationType.EXPENSE).build());
+        for (long id = 1; id <= 300; id++) {
+            proxy.findById(id);
+        }
+
+        assertEquals(101, proxy.findByBankAccountId(3L).size());
+        assertEquals(added, proxy.findPageAfterId(added.getId() - 1, 10).get(0));
+        assertEquals(500, proxy.findByType(OperationType.INCOME).size());
+
+        CacheStats stats = proxy.getCacheMetrics().snapshot("operations");
+        assertEquals(3, stats.storeQueries());
+        assertTrue(stats.size() <= 100);
+        assertNull(proxy.getWarmUpDuration());
+    }
+
+    @Test
+    @DisplayName("Lazy warm-up should load the cache once, on the first query")
+    void testLazyWarmUp() {
+        AtomicInteger loads = new AtomicInteger();
+        OperationDbRepository dbRepository = new OperationDbRepository() {
+            @Override
+            public List<Operation> findAll() {
+                loads.incrementAndGet();
+                return super.findAll();
+            }
+        };
+        dbRepository.saveAll(operations(100));
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.LAZY);
+        assertEquals(0, loads.get());
+        assertNull(proxy.getWarmUpDuration());
+
+        assertEquals(10, proxy.findByBankAccountId(3L).size());
+        assertEquals(100, proxy.findAll().size());
+        assertEquals(1, loads.get());
+        assertNotNull(proxy.getWarmUpDuration());
+    }
+
+    @Test
+    @DisplayName("Background warm-up should serve queries from the store and keep writes made while loading")
+    void testBackgroundWarmUpKeepsConcurrentWrites() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        AtomicBoolean firstLoad = new AtomicBoolean(true);
+        OperationDbRepository dbRepository = new OperationDbRepository() {
+            @Override
+            public List<Operation> findAll() {
+                List<Operation> snapshot = super.findAll();
+                if (firstLoad.compareAndSet(true, false)) {
+                    // загрузчик держит устаревшую выборку, пока тест пишет через прокси
+                    loaderStarted.countDown();
+                    awaitQuietly(releaseLoader);
+                }
+                return snapshot;
+            }
+        };
+        List<Operation> saved = dbRepository.saveAll(operations(10));
+        Long deletedId = saved.get(0).getId();
+        Long updatedId = saved.get(1).getId();
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.BACKGROUND);
+        assertTrue(loaderStarted.await(10, TimeUnit.SECONDS));
+
+        proxy.deleteById(deletedId);
+        proxy.save(Operation.builder().id(updatedId).bankAccountId(42L)
+                .type(OperationType.EXPENSE).date(LocalDate.of(2024, 1, 1)).build());
+        assertEquals(9, proxy.findAll().size());
+        assertEquals(1, proxy.findByBankAccountId(42L).size());
+
+        releaseLoader.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (proxy.getWarmUpDuration() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertNotNull(proxy.getWarmUpDuration());
+        assertEquals(9, proxy.findAll().size());
+        assertTrue(proxy.findById(deletedId).isEmpty());
+        assertEquals(42L, proxy.findById(updatedId).orElseThrow().getBankAccountId());
+        assertEquals(List.of(updatedId), proxy.findByBankAccountId(42L).stream().map(Operation::getId).toList());
+    }
+
+    private static List<Operation> operations(int count) {
+        List<Operation> operations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            operations.add(Operation.builder()
+                    .type(i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE)
+                    .bankAccountId((long) (i % 10))
+                    .categoryId((long) (i % 5))
+                    .amountCents(i)
+                    .date(LocalDate.of(2024, 1, 1).plusDays(i % 365))
+                    .build());
+        }
+        return operations;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.financetracker.repository.proxy;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationQuery;
+import com.financetracker.model.OperationType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationQueryPlanTest {
+
+    @Test
+    @DisplayName("Planner should drive by the most selective index and probe much wider ones")
+    void testPlanOrdersIndexesBySelectivity() {
+        OperationIndex index = indexOf(10_000);
+
+        OperationIndex.QueryPlan plan = index.plan(OperationQuery.builder()
+                .type(OperationType.EXPENSE)
+                .bankAccountId(3L)
+                .categoryId(7L)
+                .from(LocalDate.of(2024, 1, 1)).to(LocalDate.of(2024, 1, 10))
+                .build());
+
+        // категория: 100 id, счет: 1000, даты: 10 дней по 100, тип: 5000 - все шире 8 * 100
+        assertEquals(List.of("category"), names(plan.bitmaps()));
+        assertEquals(List.of("bankAccount", "date", "type"), names(plan.probes()));
+
+        OperationIndex.QueryPlan wide = index.plan(OperationQuery.builder()
+                .type(OperationType.EXPENSE)
+                .bankAccountId(3L)
+                .build());
+        assertEquals(List.of("bankAccount", "type"), names(wide.bitmaps()));
+        assertTrue(wide.probes().isEmpty());
+        assertNull(index.plan(OperationQuery.builder().build()));
+    }
+
+    @Test
+    @DisplayName("Index candidates should be the intersection of all indexed conditions in id order")
+    void testIdsMatchingIntersectsConditions() {
+        OperationIndex index = indexOf(10_000);
+        OperationQuery query = OperationQuery.builder()
+                .type(OperationType.INCOME)
+                .bankAccountId(2L)
+                .from(LocalDate.of(2024, 2, 1))
+                .build();
+
+        List<Long> expected = new ArrayList<>();
+        for (long id = 0; id < 10_000; id++) {
+            if (query.matches(operation(id))) {
+                expected.add(id);
+            }
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, index.idsMatching(query));
+        assertTrue(index.idsMatching(OperationQuery.builder().categoryId(404L).type(OperationType.INCOME).build())
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Paged index candidates should continue after the cursor and stop at the limit")
+    void testIdsMatchingPages() {
+        OperationIndex index = indexOf(10_000);
+        OperationQuery query = OperationQuery.builder()
+                .type(OperationType.EXPENSE)
+                .from(LocalDate.of(2024, 1, 5))
+                .build();
+        List<Long> all = index.idsMatching(query);
+
+        List<Long> paged = new ArrayList<>();
+        List<Long> page = index.idsMatching(query, null, 700);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 700);
+            paged.addAll(page);
+            page = index.idsMatching(query, page.get(page.size() - 1), 700);
+        }
+
+        assertTrue(all.size() > 2 * 700);
+        assertEquals(all, paged);
+        assertNull(index.idsMatching(OperationQuery.builder().build(), null, 10));
+
+        // одно пересечение на запрос, страницы - по курсору
+        OperationIndex.Candidates candidates = index.candidates(query);
+        List<Long> fromCandidates = new ArrayList<>();
+        for (List<Long> next = candidates.idsAfter(null, 700); !next.isEmpty();
+             next = candidates.idsAfter(next.get(next.size() - 1), 700)) {
+            fromCandidates.addAll(next);
+        }
+        assertEquals(all, fromCandidates);
+        assertNull(index.candidates(OperationQuery.builder().build()));
+    }
+
+    @Test
+    @DisplayName("Removing every operation should drop emptied key sets, date buckets and bitmap blocks")
+    void testRemovalCompactsIndex() {
+        OperationIndex index = indexOf(10_000);
+        Operation described = operation(10_000);
+        described.setDescription("кофе");
+        index.add(described);
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 5_000; id++) {
+            ids.add(id);
+        }
+        index.removeAll(ids);
+        for (long id = 5_000; id <= 10_000; id++) {
+            index.remove(id);
+        }
+
+        assertTrue(index.isEmpty());
+        assertTrue(index.idsAfter(null, 10).isEmpty());
+    }
+
+    private static OperationIndex indexOf(int count) {
+        OperationIndex index = new OperationIndex();
+        List<Operation> operations = new ArrayList<>(count);
+        for (long id = 0; id < count; id++) {
+            operations.add(operation(id));
+        }
+        index.addAll(operations);
+        return index;
+    }
+
+    private static Operation operation(long id) {
+        return Operation.builder()
+                .id(id)
+                .type(id % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE)
+                .bankAccountId(id % 10)
+                .categoryId(id % 100)
+                .date(LocalDate.of(2024, 1, 1).plusDays(id % 100))
+                .build();
+    }
+
+    private static List<String> names(List<OperationIndex.IndexAccess> accesses) {
+        return accesses.stream().map(OperationIndex.IndexAccess::name).toList();
+    }
+}
@@ -3,6 +3,7 @@ package com.financetracker.repository.proxy;
 import com.financetracker.model.BankAccount;
 import com.financetracker.model.Category;
 import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
 import com.financetracker.repository.interfaces.BankAccountRepositoryInterface;
 import com.financetracker.repository.interfaces.CategoryRepositoryInterface;
 import com.financetracker.repository.interfaces.OperationRepositoryInterface;
@@ -12,7 +13,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -195,6 +200,22 @@ class CategoryRepositoryProxyTest {
         assertEquals(2, categories.size());
         assertTrue(categories.contains(category1));
     }
+
+    @Test
+    void findAllByIds_shouldReadOnlyMissesFromDbInOneCall() {
+        Category cached = Category.builder().id(1L).name("Cached").build();
+        Category stored = Category.builder().id(2L).name("Stored").build();
+        when(dbRepository.save(cached)).thenReturn(cached);
+        proxy.save(cached);
+        when(dbRepository.findAllByIds(List.of(2L))).thenReturn(Map.of(2L, stored));
+
+        Map<Long, Category> categories = proxy.findAllByIds(Arrays.asList(1L, 2L, 1L, null));
+
+        assertEquals(Map.of(1L, cached, 2L, stored), categories);
+        verify(dbRepository, times(1)).findAllByIds(List.of(2L));
+        verify(dbRepository, never()).findById(anyLong());
+        assertTrue(proxy.findAll().contains(stored));
+    }
 }
 
 class OperationRepositoryProxyTest {
@@ -272,4 +293,126 @@ class OperationRepositoryProxyTest {
         assertTrue(operations.contains(operation1));
         assertTrue(operations.contains(operation2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByBankAccountId_shouldReturnOnlyIndexedMatches() {
+        Operation operation1 = Operation.builder().id(1L).bankAccountId(10L).categoryId(1L).build();
+        Operation operation2 = Operation.builder().id(2L).bankAccountId(20L).categoryId(1L).build();
+        when(dbRepository.save(operation1)).thenReturn(operation1);
+        when(dbRepository.save(operation2)).thenReturn(operation2);
+        proxy.save(operation1);
+        proxy.save(operation2);
+
+        List<Operation> operations = proxy.findByBankAccountId(10L);
+
+        assertEquals(List.of(operation1), operations);
+        assertEquals(2, proxy.findByCategoryId(1L).size());
+        assertTrue(proxy.findByBankAccountId(30L).isEmpty());
+    }
+
+    @Test
+    void save_shouldReindexOperationMovedToAnotherAccountAndCategory() {
+        Operation original = Operation.builder().id(1L).bankAccountId(10L).categoryId(1L)
+                .type(OperationType.EXPENSE).build();
+        Operation moved = Operation.builder().id(1L).bankAccountId(20L).categoryId(2L)
+                .type(OperationType.INCOME).build();
+        when(dbRepository.save(original)).thenReturn(original);
+        when(dbRepository.save(moved)).thenReturn(moved);
+        proxy.save(original);
+
+        proxy.save(moved);
+
+        assertTrue(proxy.findByBankAccountId(10L).isEmpty());
+        assertTrue(proxy.findByCategoryId(1L).isEmpty());
+        assertTrue(proxy.findByType(OperationType.EXPENSE).isEmpty());
+        assertEquals(List.of(moved), proxy.findByBankAccountId(20L));
+        assertEquals(List.of(moved), proxy.findByCategoryId(2L));
+        assertEquals(List.of(moved), proxy.findByType(OperationType.INCOME));
+    }
+
+    @Test
+    void save_shouldReindexOperationMutatedInPlace() {
+        Operation operation = Operation.builder().id(1L).bankAccountId(10L).build();
+        when(dbRepository.save(operation)).thenReturn(operation);
+        proxy.save(operation);
+
+        operation.setBankAccountId(20L);
+        proxy.save(operation);
+
+        assertTrue(proxy.findByBankAccountId(10L).isEmpty());
+        assertEquals(List.of(operation), proxy.findByBankAccountId(20L));
+    }
+
+    @Test
+    void findByDateRange_shouldReturnOperationsOrderedByDate() {
+        Operation march = Operation.builder().id(1L).date(LocalDate.of(2025, 3, 1)).build();
+        Operation january = Operation.builder().id(2L).date(LocalDate.of(2025, 1, 1)).build();
+        Operation february = Operation.builder().id(3L).date(LocalDate.of(2025, 2, 1)).build();
+        for (Operation operation : List.of(march, january, february)) {
+            when(dbRepository.save(operation)).thenReturn(operation);
+            proxy.save(operation);
+        }
+
+        List<Operation> operations = proxy.findByDateRange(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 3, 1));
+
+        assertEquals(List.of(february, march), operations);
+    }
+
+    @Test
+    void deleteById_shouldRemoveOperationFromIndexes() {
+        Operation operation = Operation.builder().id(1L).bankAccountId(10L).categoryId(1L)
+                .type(OperationType.EXPENSE).date(LocalDate.of(2025, 1, 1)).build();
+        when(dbRepository.save(operation)).thenReturn(operation);
+        proxy.save(operation);
+
+        proxy.deleteById(1L);
+
+        assertTrue(proxy.findByBankAccountId(10L).isEmpty());
+        assertTrue(proxy.findByCategoryId(1L).isEmpty());
+        assertTrue(proxy.findByType(OperationType.EXPENSE).isEmpty());
+        assertTrue(proxy.findByDateRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1)).isEmpty());
+    }
+
+    @Test
+    void saveAll_shouldCacheAndIndexWholeBatch() {
+        Operation moved = Operation.builder().id(1L).bankAccountId(10L).type(OperationType.EXPENSE).build();
+        when(dbRepository.save(moved)).thenReturn(moved);
+        proxy.save(moved);
+
+        Operation movedAgain = Operation.builder().id(1L).bankAccountId(20L).type(OperationType.EXPENSE).build();
+        Operation fresh = Operation.builder().id(2L).bankAccountId(20L).type(OperationType.INCOME).build();
+        List<Operation> batch = List.of(movedAgain, fresh);
+        when(dbRepository.saveAll(batch)).thenReturn(batch);
+
+        List<Operation> saved = proxy.saveAll(batch);
+
+        verify(dbRepository, times(1)).saveAll(batch);
+        assertEquals(batch, saved);
+        assertTrue(proxy.findByBankAccountId(10L).isEmpty());
+        assertEquals(2, proxy.findByBankAccountId(20L).size());
+        assertEquals(List.of(fresh), proxy.findByType(OperationType.INCOME));
+    }
+
+    @Test
+    void deleteAllById_shouldDeleteBatchInOneCallAndUnindex() {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        List<Operation> batch = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            batch.add(Operation.builder().id(id).bankAccountId(id <= 3 ? 10L : 20L).categoryId(1L)
+                    .type(OperationType.EXPENSE).date(day).description("кофе " + id).build());
+        }
+        when(dbRepository.saveAll(batch)).thenReturn(batch);
+        proxy.saveAll(batch);
+
+        proxy.deleteAllById(List.of(1L, 2L, 3L, 99L));
+
+        verify(dbRepository, times(1)).deleteAllById(List.of(1L, 2L, 3L, 99L));
+        verify(dbRepository, never()).deleteById(anyLong());
+        assertTrue(proxy.findByBankAccountId(10L).isEmpty());
+        assertEquals(2, proxy.findByBankAccountId(20L).size());
+        assertEquals(2, proxy.findByCategoryId(1L).size());
+        assertEquals(2, proxy.findByDateRange(day, day).size());
+        assertEquals(2, proxy.searchByDescription("кофе", 10).size());
+        assertEquals(List.of(4L, 5L), proxy.findAll().stream().map(Operation::getId).sorted().toList());
+    }
+}
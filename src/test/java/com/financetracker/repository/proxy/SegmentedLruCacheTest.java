@@ -0,0 +1,106 @@
+package com.financetracker.repository.proxy;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationDbRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLruCacheTest {
+
+    @Test
+    @DisplayName("Cache should never hold more entries than its capacity")
+    void testCapacityIsBounded() {
+        SegmentedLruCache<String> cache = new SegmentedLruCache<>(1_000);
+
+        for (long id = 1; id <= 100_000; id++) {
+            cache.put(id, "v" + id);
+        }
+
+        assertTrue(cache.size() <= 1_000, "size " + cache.size());
+        assertEquals("v100000", cache.get(100_000L));
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("A one-off scan should not evict entries that were read repeatedly")
+    void testScanDoesNotFlushHotEntries() {
+        SegmentedLruCache<String> cache = new SegmentedLruCache<>(64);
+        for (long id = 1; id <= 32; id++) {
+            cache.put(id, "hot" + id);
+            cache.get(id);
+        }
+
+        for (long id = 1_000; id < 11_000; id++) {
+            cache.put(id, "cold" + id);
+        }
+
+        for (long id = 1; id <= 32; id++) {
+            assertEquals("hot" + id, cache.get(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Updates and removals should be visible in either segment")
+    void testUpdateAndRemove() {
+        SegmentedLruCache<String> cache = new SegmentedLruCache<>(10);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(2L);
+
+        cache.put(1L, "a2");
+        cache.put(2L, "b2");
+        assertEquals("a2", cache.get(1L));
+        assertEquals("b2", cache.get(2L));
+
+        cache.remove(1L);
+        cache.remove(2L);
+        assertFalse(cache.containsKey(1L));
+        assertFalse(cache.containsKey(2L));
+        assertEquals(0, cache.size());
+        assertFalse(cache.isComplete());
+    }
+
+    @Test
+    @DisplayName("Proxy with a bounded cache should answer finders from the store")
+    void testBoundedProxyFindersStayCorrect() {
+        OperationDbRepository dbRepository = new OperationDbRepository();
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            operations.add(Operation.builder()
+                    .type(i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE)
+                    .bankAccountId((long) (i % 10))
+                    .categoryId((long) (i % 5))
+                    .date(LocalDate.of(2024, 12, 31).minusDays(i % 30))
+                    .build());
+        }
+        dbRepository.saveAll(operations);
+
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(dbRepository, CacheWarmUp.EAGER, 100);
+        for (long id = 1; id <= 1_000; id++) {
+            assertTrue(proxy.findById(id).isPresent());
+        }
+        proxy.deleteById(1L);
+        proxy.save(Operation.builder().id(2L).bankAccountId(42L).type(OperationType.EXPENSE)
+                .date(LocalDate.of(2024, 6, 1)).build());
+
+        assertEquals(4_999, proxy.findAll().size());
+        assertEquals(List.of(2L), proxy.findByBankAccountId(42L).stream().map(Operation::getId).toList());
+        assertEquals(2_499, proxy.findByType(OperationType.INCOME).size());
+        List<Operation> lastWeek = proxy.findByDateRange(LocalDate.of(2024, 12, 25), LocalDate.of(2024, 12, 31));
+        // 167 операций на день, минус удаленная и перенесенная на июнь
+        assertEquals(7 * 167 - 2, lastWeek.size());
+        for (int i = 1; i < lastWeek.size(); i++) {
+            assertFalse(lastWeek.get(i).getDate().isBefore(lastWeek.get(i - 1).getDate()));
+        }
+        // ограниченный кеш не прогревается, выборки идут в хранилище
+        assertNull(proxy.getWarmUpDuration());
+        assertTrue(proxy.getCacheMetrics().snapshot("operations").size() <= 100);
+    }
+}
@@ -0,0 +1,89 @@
+package com.financetracker.repository.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdBitmapTest {
+
+    @Test
+    @DisplayName("Should page through ids in ascending order including negatives and extremes")
+    void testIdsAfterMatchSortedSet() {
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(100_000) - 1_000;
+            bitmap.add(id);
+            expected.add(id);
+        }
+        for (long id : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0}) {
+            bitmap.add(id);
+            expected.add(id);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            long id = random.nextInt(100_000) - 1_000;
+            bitmap.remove(id);
+            expected.remove(id);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        List<Long> page = bitmap.idsFrom(Long.MIN_VALUE, 777);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            page = bitmap.idsAfter(page.get(page.size() - 1), 777);
+        }
+
+        assertEquals(new ArrayList<>(expected), paged);
+        assertTrue(bitmap.contains(Long.MAX_VALUE));
+        assertFalse(bitmap.contains(200_000L));
+        assertTrue(bitmap.idsAfter(Long.MAX_VALUE, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Intersection should keep only ids present in both bitmaps")
+    void testRetainAll() {
+        IdBitmap bitmap = new IdBitmap();
+        IdBitmap other = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (long id = 0; id < 20_000; id++) {
+            if (id % 3 == 0) {
+                bitmap.add(id);
+            }
+            if (id % 5 == 0 && id < 15_000) {
+                other.add(id);
+            }
+            if (id % 15 == 0 && id < 15_000) {
+                expected.add(id);
+            }
+        }
+
+        bitmap.retainAll(other);
+
+        assertEquals(new ArrayList<>(expected), bitmap.idsFrom(Long.MIN_VALUE, Integer.MAX_VALUE));
+        assertFalse(bitmap.contains(19_998L));
+    }
+
+    @Test
+    @DisplayName("Removing the last id of a block should drop the block")
+    void testEmptyBlocksAreDropped() {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id = 0; id < 10_000; id++) {
+            bitmap.add(id);
+        }
+        assertEquals(3, bitmap.blockCount());
+
+        for (long id = 0; id < 4_096; id++) {
+            bitmap.remove(id);
+        }
+
+        assertEquals(2, bitmap.blockCount());
+        assertEquals(List.of(4_096L, 4_097L), bitmap.idsFrom(Long.MIN_VALUE, 2));
+    }
+}
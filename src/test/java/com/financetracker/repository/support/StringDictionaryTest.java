@@ -0,0 +1,104 @@
+package com.financetracker.repository.support;
+
+import com.financetracker.factory.FinanceEntityFactory;
+import com.financetracker.model.Category;
+import com.financetracker.model.CategoryType;
+import com.financetracker.model.Operation;
+import com.financetracker.repository.db.CategoryDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    @DisplayName("Equal strings should share one code and one instance")
+    void testSharedCodeAndInstance() {
+        StringDictionary dictionary = new StringDictionary();
+
+        int first = dictionary.acquire(new String("Rent"));
+        int second = dictionary.acquire(new String("Rent"));
+        String shared = dictionary.share(new String("Rent"));
+
+        assertEquals(first, second);
+        assertSame(dictionary.valueOf(first), shared);
+        assertSame(shared, dictionary.intern(new String("Rent")));
+        assertNotEquals(first, dictionary.acquire("Salary"));
+        assertEquals(2, dictionary.size());
+        assertEquals(StringDictionary.NONE, dictionary.acquire(null));
+    }
+
+    @Test
+    @DisplayName("A string should leave the dictionary with its last reference and its code should be reused")
+    void testReferenceCounting() {
+        StringDictionary dictionary = new StringDictionary();
+        int code = dictionary.acquire("Rent");
+        dictionary.acquire("Rent");
+
+        dictionary.release(code);
+        assertEquals("Rent", dictionary.valueOf(code));
+        dictionary.release("Rent");
+
+        assertEquals(0, dictionary.size());
+        String unknown = new String("Rent");
+        assertSame(unknown, dictionary.intern(unknown));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.release(code));
+        assertEquals(code, dictionary.acquire("Salary"));
+    }
+
+    @Test
+    @DisplayName("Concurrent acquire and release should keep reference counts exact")
+    void testConcurrentAcquireRelease() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.acquire("keep-0");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        String value = "keep-" + (i % 50);
+                        dictionary.release(dictionary.acquire(value));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, dictionary.size());
+        assertEquals("keep-0", dictionary.intern("keep-0"));
+    }
+
+    @Test
+    @DisplayName("One injected dictionary should share descriptions and category names across the factory and stores")
+    void testSharedAcrossFactoryAndStores() {
+        StringDictionary dictionary = new StringDictionary();
+        FinanceEntityFactory factory = new FinanceEntityFactory(dictionary);
+        OperationDbRepository operations = new OperationDbRepository(dictionary);
+        CategoryDbRepository categories = new CategoryDbRepository(dictionary);
+
+        Category saved = categories.save(factory.createCategory(CategoryType.EXPENSE, new String("Кофе")));
+        Operation stored = operations.save(factory.createExpenseOperation(1L, 1.0, null, new String("Кофе"), saved.getId()));
+        Category created = factory.createCategory(CategoryType.EXPENSE, new String("Кофе"));
+
+        assertSame(saved.getName(), stored.getDescription());
+        assertSame(saved.getName(), created.getName());
+        assertEquals(1, dictionary.size());
+
+        categories.deleteById(saved.getId());
+        operations.deleteById(stored.getId());
+        assertEquals(0, dictionary.size());
+    }
+}
@@ -0,0 +1,146 @@
+package com.financetracker.search;
+
+import com.financetracker.model.Operation;
+import com.financetracker.model.OperationType;
+import com.financetracker.repository.db.OperationColumnarDbRepository;
+import com.financetracker.repository.db.OperationDbRepository;
+import com.financetracker.repository.proxy.OperationRepositoryProxy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescriptionIndexTest {
+    private static final String[] WORDS = {"кофе", "кофейня", "обед", "такси", "аренда", "зарплата",
+            "coffee", "lunch", "taxi", "продукты", "Ёлка", "подарок"};
+
+    @Test
+    @DisplayName("Tokenizer should lowercase, split on punctuation and fold yo into ye")
+    void testTokenizer() {
+        assertEquals(List.of("кофе", "с", "собой", "2", "шт", "елка"),
+                DescriptionTokenizer.tokens("Кофе с собой, 2 шт. (ЁЛКА)"));
+        assertTrue(DescriptionTokenizer.tokens(null).isEmpty());
+
+        SearchQuery query = SearchQuery.parse("  Кофе-брейк коф*  ");
+        assertEquals(List.of("кофе", "брейк"), query.terms());
+        assertEquals(List.of("коф"), query.prefixes());
+        assertTrue(SearchQuery.parse(" ,. ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Descriptions with more query terms and rarer terms should rank higher")
+    void testRanking() {
+        DescriptionIndex index = new DescriptionIndex();
+        index.add(1, "кофе");
+        index.add(2, "кофе и круассан");
+        index.add(3, "обед в кафе");
+        index.add(4, "круассан");
+        index.add(5, "кофе кофе кофе");
+
+        List<Long> ids = ids(index.search(SearchQuery.parse("кофе круассан"), 10));
+
+        assertEquals(2L, ids.get(0));
+        assertEquals(List.of(1L, 2L, 4L, 5L), ids.stream().sorted().toList());
+        assertEquals(List.of(5L, 1L), ids(index.search(SearchQuery.parse("кофе"), 2)));
+        assertTrue(index.search(SearchQuery.parse("такси"), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Prefix queries should match every term that starts with the prefix")
+    void testPrefixSearch() {
+        DescriptionIndex index = new DescriptionIndex();
+        index.add(1, "кофе");
+        index.add(2, "кофейня у дома");
+        index.add(3, "какао");
+
+        assertEquals(List.of(1L, 2L), ids(index.search(SearchQuery.parse("коф*"), 10)).stream().sorted().toList());
+        assertEquals(List.of(1L, 2L), ids(index.search(SearchQuery.parse("кофе коф*"), 10)).stream().sorted().toList());
+        assertTrue(index.search(SearchQuery.parse("кофи*"), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Updating or removing a description should drop its old terms and empty postings")
+    void testUpdateAndRemove() {
+        DescriptionIndex index = new DescriptionIndex();
+        index.add(1, "такси до аэропорта");
+        index.add(2, "такси домой");
+
+        index.add(1, "обед");
+        index.remove(2);
+        index.add(3, null);
+
+        assertTrue(index.search(SearchQuery.parse("такси"), 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search(SearchQuery.parse("обед"), 10)));
+        assertEquals(1, index.size());
+        assertEquals(1, index.termCount());
+    }
+
+    @Test
+    @DisplayName("Concurrent updates of one description should leave only the terms of one of them")
+    void testConcurrentUpdatesOfOneDocument() throws InterruptedException {
+        DescriptionIndex index = new DescriptionIndex();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String word = WORDS[t];
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    index.add(1, word);
+                    index.add(1, word + " " + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, index.size());
+        assertEquals(2, index.termCount());
+    }
+
+    @Test
+    @DisplayName("Proxy index, map scan and default scan should return the same ranking")
+    void testRepositoriesAgreeWithIndex() {
+        OperationDbRepository store = new OperationDbRepository();
+        OperationColumnarDbRepository columnar = new OperationColumnarDbRepository();
+        Random random = new Random(9);
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int words = 1 + random.nextInt(4); words > 0; words--) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            operations.add(Operation.builder()
+                    .type(OperationType.EXPENSE)
+                    .bankAccountId(1L)
+                    .description(random.nextInt(20) == 0 ? null : description.toString())
+                    .build());
+        }
+        store.saveAll(operations);
+        columnar.saveAll(store.findAll());
+        OperationRepositoryProxy proxy = new OperationRepositoryProxy(store);
+        proxy.save(Operation.builder().bankAccountId(1L).description("Капучино, coffee").build());
+        columnar.save(proxy.findById(5_001L).orElseThrow());
+        proxy.deleteById(1L);
+        columnar.deleteById(1L);
+
+        for (String query : List.of("кофе", "coffee", "коф*", "такси обед", "елка подарок*", "нет-такого")) {
+            List<Long> expected = operationIds(store.searchByDescription(query, 25));
+            assertEquals(expected, operationIds(proxy.searchByDescription(query, 25)), query);
+            assertEquals(expected, operationIds(columnar.searchByDescription(query, 25)), query);
+        }
+        assertEquals(5_001L, proxy.searchByDescription("капучино", 1).get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> proxy.searchByDescription("кофе", 0));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::operationId).toList();
+    }
+
+    private static List<Long> operationIds(List<Operation> operations) {
+        return operations.stream().map(Operation::getId).toList();
+    }
+}
@@ -0,0 +1,138 @@
+package com.financetracker.visitor;
+
+import com.financetracker.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedExportTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(3);
+    private final List<Operation> operations = new ArrayList<>();
+    private final Consumer<DataExportVisitor> referenceData = visitor -> {
+        BankAccount.builder().id(1L).name("Основной, \"личный\"").balance(100.0).openingBalance(100.0).build()
+                .accept(visitor);
+        Category.builder().id(2L).name("Продукты").type(CategoryType.EXPENSE).build().accept(visitor);
+    };
+
+    @TempDir
+    Path directory;
+
+    PartitionedExportTest() {
+        for (long id = 1; id <= 50; id++) {
+            operations.add(Operation.builder().id(id).type(OperationType.EXPENSE).bankAccountId(1L)
+                    .amountCents(id * 101).date((id % 9 == 0) ? null : LocalDate.of(2024, 1, 1).plusDays(id))
+                    .description((id % 5 == 0) ? "Кафе, \"у дома\"" : "Покупка " + id).categoryId(2L).build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Stitched parts should match a sequential export byte for byte in every format")
+    void testMatchesSequentialExport() throws IOException {
+        for (ExportFormat format : ExportFormat.values()) {
+            Path file = directory.resolve("export." + format.getFileExtension());
+
+            new PartitionedExport(workers, 3, 7).export(format, file, referenceData, this::page);
+
+            assertEquals(sequential(format), Files.readString(file, StandardCharsets.UTF_8), format.name());
+        }
+        assertTemporaryFilesRemoved();
+    }
+
+    @Test
+    @DisplayName("An export without operations should still produce a complete document")
+    void testNoOperations() throws IOException {
+        operations.clear();
+        for (ExportFormat format : ExportFormat.values()) {
+            Path file = directory.resolve("empty." + format.getFileExtension());
+
+            new PartitionedExport(workers, 3, 7).export(format, file, referenceData, this::page);
+
+            assertEquals(sequential(format), Files.readString(file, StandardCharsets.UTF_8), format.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Each part should read its own id range on a worker thread, across gaps in ids")
+    void testPartsReadTheirRangesConcurrently() throws IOException {
+        // дыра в id шире нескольких частей
+        operations.stream().filter(operation -> operation.getId() > 25)
+                .forEach(operation -> operation.setId(operation.getId() + 100));
+        Set<String> readers = ConcurrentHashMap.newKeySet();
+        Path file = directory.resolve("ranges.csv");
+
+        new PartitionedExport(workers, 3, 7).export(ExportFormat.CSV, file, referenceData, (afterId, limit) -> {
+            readers.add(Thread.currentThread().getName());
+            return page(afterId, limit);
+        });
+
+        assertEquals(sequential(ExportFormat.CSV), Files.readString(file, StandardCharsets.UTF_8));
+        readers.remove(Thread.currentThread().getName());
+        assertFalse(readers.isEmpty());
+        assertTemporaryFilesRemoved();
+    }
+
+    @Test
+    @DisplayName("A failed export should leave no temporary files and no target file")
+    void testFailureCleansUp() {
+        Path file = directory.resolve("failed.csv");
+
+        assertThrows(IllegalStateException.class, () -> new PartitionedExport(workers, 3, 7)
+                .export(ExportFormat.CSV, file, referenceData, (afterId, limit) -> {
+                    if (afterId != null && afterId > 20) {
+                        throw new IllegalStateException("store failure");
+                    }
+                    return page(afterId, limit);
+                }));
+
+        assertFalse(Files.exists(file));
+        assertTemporaryFilesRemoved();
+    }
+
+    private List<Operation> page(Long afterId, int limit) {
+        return operations.stream()
+                .filter(operation -> afterId == null || operation.getId() > afterId)
+                .limit(limit)
+                .toList();
+    }
+
+    private String sequential(ExportFormat format) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (StreamingExportVisitor visitor = format.open(writer)) {
+            referenceData.accept(visitor);
+            operations.forEach(operation -> operation.accept(visitor));
+        }
+        return writer.toString();
+    }
+
+    private void assertTemporaryFilesRemoved() {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().startsWith(".export-")));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.financetracker.visitor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.financetracker.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingExportVisitorTest {
+
+    private final BankAccount account = BankAccount.builder().id(1L).name("Основной, \"личный\"")
+            .balance(1234.56).openingBalance(1000.0).build();
+    private final Category category = Category.builder().id(2L).name("Продукты").type(CategoryType.EXPENSE).build();
+    private final Operation operation = Operation.builder().id(3L).type(OperationType.EXPENSE).bankAccountId(1L)
+            .amount(0.1).date(LocalDate.of(2025, 3, 1)).description("Кофе").categoryId(2L).build();
+
+    private String export(ExportFormat format) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (StreamingExportVisitor visitor = format.open(writer)) {
+            account.accept(visitor);
+            category.accept(visitor);
+            operation.accept(visitor);
+        }
+        return writer.toString();
+    }
+
+    @Test
+    @DisplayName("Text export should keep the legacy line format")
+    void testTextExport() throws IOException {
+        assertEquals("""
+                BankAccount: Основной, "личный", Balance: 1234.56
+                Category: Продукты, Type: EXPENSE
+                Operation: Кофе, Amount: 0.1, Date: 2025-03-01
+                """, export(ExportFormat.TEXT));
+    }
+
+    @Test
+    @DisplayName("CSV export should write a header per section and escape text fields")
+    void testCsvExport() throws IOException {
+        assertEquals("""
+                id,name,balance,openingBalance
+                1,"Основной, ""личный\""\",1234.56,1000.00
+
+                id,name,type
+                2,Продукты,EXPENSE
+
+                id,type,bankAccountId,amount,date,description,categoryId
+                3,EXPENSE,1,0.10,2025-03-01,Кофе,2
+                """, export(ExportFormat.CSV));
+    }
+
+    @Test
+    @DisplayName("JSON export should produce a document with exact amounts")
+    void testJsonExport() throws IOException {
+        String json = export(ExportFormat.JSON);
+        JsonNode root = new ObjectMapper().readTree(json);
+
+        assertEquals("Основной, \"личный\"", root.get("bankAccounts").get(0).get("name").asText());
+        assertTrue(json.contains("\"balance\":1234.56,\"openingBalance\":1000.00"));
+        assertEquals("EXPENSE", root.get("categories").get(0).get("type").asText());
+        assertTrue(json.contains("\"amount\":0.10,"));
+        assertEquals("2025-03-01", root.get("operations").get(0).get("date").asText());
+    }
+
+    @Test
+    @DisplayName("YAML export should be readable back with the same structure")
+    void testYamlExport() throws IOException {
+        JsonNode root = new ObjectMapper(new YAMLFactory()).readTree(export(ExportFormat.YAML));
+
+        assertEquals(1, root.get("bankAccounts").size());
+        assertEquals("Продукты", root.get("categories").get(0).get("name").asText());
+        assertEquals(1L, root.get("operations").get(0).get("bankAccountId").asLong());
+    }
+
+    @Test
+    @DisplayName("An export without entities should still be a valid document")
+    void testEmptyJsonExport() throws IOException {
+        StringWriter writer = new StringWriter();
+        ExportFormat.JSON.open(writer).close();
+
+        assertEquals("{}", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Write failures should propagate instead of being swallowed")
+    void testWriteFailurePropagates() throws IOException {
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        StreamingExportVisitor visitor = ExportFormat.CSV.open(failing);
+        assertThrows(UncheckedIOException.class, () -> category.accept(visitor));
+    }
+}